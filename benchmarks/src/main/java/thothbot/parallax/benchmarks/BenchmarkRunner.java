@@ -0,0 +1,263 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and prints the regression report.
+ * <p>
+ * All JMH command line options are supported. The results are saved in 
+ * CSV format to target/benchmarks, unless -rff option is given. 
+ * If the baseline property is set to the results of the previous run, 
+ * each score is compared with the baseline one:
+ * <pre>
+ * java -Dbaseline=target/benchmarks/before.csv -jar target/benchmarks.jar
+ * </pre>
+ * Properties:
+ * <ul>
+ * <li>baseline - CSV results to compare with</li>
+ * <li>threshold - the change in percents which is reported as regression, 10 by default</li>
+ * <li>failOnRegression - exit with error code if there are regressions</li>
+ * </ul>
+ * 
+ * @author thothbot
+ *
+ */
+public class BenchmarkRunner
+{
+	private static class Score
+	{
+		String mode;
+		double score;
+		String unit;
+
+		Score(String mode, double score, String unit)
+		{
+			this.mode = mode;
+			this.score = score;
+			this.unit = unit;
+		}
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions commandLine = new CommandLineOptions( args );
+
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent( commandLine );
+
+		String resultFile;
+		if ( commandLine.getResult().hasValue() )
+		{
+			resultFile = commandLine.getResult().get();
+		}
+		else
+		{
+			new File( "target/benchmarks" ).mkdirs();
+			resultFile = "target/benchmarks/" 
+					+ new SimpleDateFormat( "yyyyMMdd-HHmmss" ).format( new Date() ) + ".csv";
+
+			builder.resultFormat( ResultFormatType.CSV ).result( resultFile );
+		}
+
+		Options options = builder.build();
+		Collection<RunResult> results = new Runner( options ).run();
+
+		String baseline = System.getProperty( "baseline" );
+		if ( baseline == null )
+			return;
+
+		double threshold = Double.parseDouble( System.getProperty( "threshold", "10" ) );
+
+		StringWriter report = new StringWriter();
+		int regressions = report( results, readScores( baseline ), threshold, new PrintWriter( report ) );
+
+		System.out.println();
+		System.out.print( report );
+
+		FileWriter writer = new FileWriter( resultFile + ".report.txt" );
+		try
+		{
+			writer.write( report.toString() );
+		}
+		finally
+		{
+			writer.close();
+		}
+
+		if ( regressions > 0 && Boolean.getBoolean( "failOnRegression" ) )
+			System.exit( 1 );
+	}
+
+	/**
+	 * Prints the comparison table and returns the number of regressions.
+	 */
+	private static int report(Collection<RunResult> results, Map<String, Score> baseline, double threshold, PrintWriter out)
+	{
+		out.printf( Locale.ROOT, "%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Score", "Change" );
+
+		int regressions = 0;
+		for ( RunResult result : results )
+		{
+			List<String> params = new ArrayList<String>();
+			for ( String key : result.getParams().getParamsKeys() )
+				params.add( key + "=" + result.getParams().getParam( key ) );
+
+			String name = result.getParams().getBenchmark();
+			String key = getKey( name, result.getParams().getMode().shortLabel(), params );
+
+			Score current = new Score( result.getParams().getMode().shortLabel(),
+					result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreUnit() );
+			Score previous = baseline.get( key );
+
+			String label = name.substring( name.lastIndexOf( '.', name.lastIndexOf( '.' ) - 1 ) + 1 )
+					+ ( params.isEmpty() ? "" : " " + params );
+
+			if ( previous == null || !previous.unit.equals( current.unit ) )
+			{
+				out.printf( Locale.ROOT, "%-70s %14s %14.3f %9s%n", label, "-", current.score, "new" );
+				continue;
+			}
+
+			// Throughput is better when higher, the other modes when lower
+			double change = ( current.score - previous.score ) / previous.score * 100.0;
+			boolean isRegression = current.mode.equals( "thrpt" ) ? change < -threshold : change > threshold;
+
+			if ( isRegression )
+				regressions++;
+
+			out.printf( Locale.ROOT, "%-70s %14.3f %14.3f %+8.1f%%%s%n", label, previous.score, current.score, change,
+					isRegression ? "  REGRESSION" : "" );
+		}
+
+		out.printf( Locale.ROOT, "%nRegressions over %.1f%%: %d%n", threshold, regressions );
+		out.flush();
+
+		return regressions;
+	}
+
+	/**
+	 * Reads scores from the JMH results in CSV format.
+	 */
+	private static Map<String, Score> readScores(String file) throws IOException
+	{
+		Map<String, Score> scores = new HashMap<String, Score>();
+
+		BufferedReader reader = new BufferedReader( new FileReader( file ) );
+		try
+		{
+			List<String> header = parseCsvLine( reader.readLine() );
+
+			int benchmarkColumn = header.indexOf( "Benchmark" );
+			int modeColumn = header.indexOf( "Mode" );
+			int scoreColumn = header.indexOf( "Score" );
+			int unitColumn = header.indexOf( "Unit" );
+
+			String line;
+			while ( (line = reader.readLine()) != null )
+			{
+				if ( line.trim().isEmpty() )
+					continue;
+
+				List<String> values = parseCsvLine( line );
+
+				List<String> params = new ArrayList<String>();
+				for ( int i = 0; i < header.size(); i++ )
+					if ( header.get( i ).startsWith( "Param: " ) && !values.get( i ).isEmpty() )
+						params.add( header.get( i ).substring( 7 ) + "=" + values.get( i ) );
+
+				String mode = values.get( modeColumn );
+				scores.put( getKey( values.get( benchmarkColumn ), mode, params ), 
+						new Score( mode, Double.parseDouble( values.get( scoreColumn ) ), values.get( unitColumn ) ) );
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		return scores;
+	}
+
+	private static String getKey(String benchmark, String mode, List<String> params)
+	{
+		Collections.sort( params );
+		return benchmark + " " + mode + " " + params;
+	}
+
+	private static List<String> parseCsvLine(String line)
+	{
+		List<String> values = new ArrayList<String>();
+		StringBuilder value = new StringBuilder();
+		boolean isQuoted = false;
+
+		for ( int i = 0; i < line.length(); i++ )
+		{
+			char c = line.charAt( i );
+
+			if ( c == '"' )
+			{
+				if ( isQuoted && i + 1 < line.length() && line.charAt( i + 1 ) == '"' )
+				{
+					value.append( c );
+					i++;
+				}
+				else
+				{
+					isQuoted = !isQuoted;
+				}
+			}
+			else if ( c == ',' && !isQuoted )
+			{
+				values.add( value.toString() );
+				value.setLength( 0 );
+			}
+			else
+			{
+				value.append( c );
+			}
+		}
+		values.add( value.toString() );
+
+		return values;
+	}
+}
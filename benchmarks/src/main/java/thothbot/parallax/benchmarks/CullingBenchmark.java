@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import thothbot.parallax.core.shared.core.Raycaster;
+import thothbot.parallax.core.shared.math.Frustum;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.math.Vector3;
+import thothbot.parallax.core.shared.objects.Mesh;
+
+/**
+ * Benchmarks of the frustum culling and picking, which go through all 
+ * objects of the scene.
+ * 
+ * @author thothbot
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CullingBenchmark
+{
+	@Param({Scenes.SMALL, Scenes.MEDIUM, Scenes.LARGE})
+	public int objects;
+
+	private List<Mesh> meshes;
+	private Frustum frustum;
+	private Raycaster raycaster;
+
+	@Setup
+	public void setup()
+	{
+		this.meshes = Scenes.createMeshes( this.objects );
+
+		this.frustum = new Frustum();
+		this.frustum.setFromMatrix( new Matrix4().makePerspective( 45, 1.5, 1, 150 ) );
+
+		this.raycaster = new Raycaster( new Vector3(), new Vector3( 0.1, 0.05, -1 ).normalize() );
+	}
+
+	@Benchmark
+	public int frustumIsIntersectsObject()
+	{
+		int visible = 0;
+		for ( int i = 0, l = this.meshes.size(); i < l; i++ )
+			if ( this.frustum.isIntersectsObject( this.meshes.get( i ) ) )
+				visible++;
+
+		return visible;
+	}
+
+	@Benchmark
+	public int raycasterIntersectObjects()
+	{
+		return this.raycaster.intersectObjects( this.meshes ).size();
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import thothbot.parallax.core.shared.core.ExtrudeGeometry;
+import thothbot.parallax.core.shared.core.Geometry;
+import thothbot.parallax.core.shared.curves.Path;
+import thothbot.parallax.core.shared.curves.Shape;
+import thothbot.parallax.core.shared.math.Vector2;
+import thothbot.parallax.core.shared.utils.ShapeUtils;
+
+/**
+ * Benchmarks of the geometry building: normals, tangents, vertices merging, 
+ * shape triangulation and extrusion.
+ * 
+ * @author thothbot
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark
+{
+	@Param({Scenes.LOW, Scenes.MIDDLE, Scenes.HIGH})
+	public int segments;
+
+	private Geometry sphere;
+
+	private List<Vector2> contour;
+	private List<List<Vector2>> holes;
+	private ExtrudeGeometry.ExtrudeGeometryParameters extrudeParameters;
+
+	/**
+	 * {@link Geometry#mergeVertices()} changes the geometry, so it gets 
+	 * the new one for each call.
+	 */
+	@State(Scope.Thread)
+	public static class MergeState
+	{
+		public Geometry geometry;
+
+		@Setup(Level.Invocation)
+		public void setup(GeometryBenchmark benchmark)
+		{
+			this.geometry = Scenes.createSphere( benchmark.segments );
+		}
+	}
+
+	@Setup
+	public void setup()
+	{
+		this.sphere = Scenes.createSphere( this.segments );
+		this.sphere.computeCentroids();
+		this.sphere.computeFaceNormals();
+
+		// The star with 4 * segments points and the round hole
+		this.contour = Scenes.createContour( this.segments * 4, 100, 0.6 );
+		List<Vector2> hole = Scenes.createContour( this.segments, 20, 1.0 );
+		this.holes = new ArrayList<List<Vector2>>();
+		this.holes.add( hole );
+
+		this.extrudeParameters = new ExtrudeGeometry.ExtrudeGeometryParameters();
+		this.extrudeParameters.amount = 20;
+		this.extrudeParameters.bevelEnabled = true;
+		this.extrudeParameters.bevelSegments = 2;
+		this.extrudeParameters.steps = 2;
+	}
+
+	@Benchmark
+	public Geometry computeVertexNormals()
+	{
+		this.sphere.computeVertexNormals();
+		return this.sphere;
+	}
+
+	@Benchmark
+	public Geometry computeTangents()
+	{
+		this.sphere.computeTangents();
+		return this.sphere;
+	}
+
+	@Benchmark
+	public int mergeVertices(MergeState state)
+	{
+		return state.geometry.mergeVertices();
+	}
+
+	@Benchmark
+	public List<List<Integer>> triangulateShape()
+	{
+		return ShapeUtils.triangulateShape( this.contour, this.holes );
+	}
+
+	@Benchmark
+	public Geometry extrudeGeometry()
+	{
+		Shape shape = new Shape( this.contour );
+		shape.getHoles().add( new Path( this.holes.get( 0 ) ) );
+
+		return new ExtrudeGeometry( Arrays.asList( shape ), this.extrudeParameters );
+	}
+}
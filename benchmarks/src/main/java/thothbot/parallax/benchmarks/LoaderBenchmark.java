@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import thothbot.parallax.core.shared.core.Geometry;
+import thothbot.parallax.loader.shared.JsonLoader;
+import thothbot.parallax.loader.shared.json.JsoObjectFactory;
+
+import com.google.web.bindery.autobean.vm.AutoBeanFactorySource;
+
+/**
+ * Benchmark of the JSON model parsing: decoding and building of the geometry.
+ * 
+ * @author thothbot
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoaderBenchmark
+{
+	@Param({Scenes.LOW, Scenes.MIDDLE, Scenes.HIGH})
+	public int segments;
+
+	private JsoObjectFactory factory;
+	private String json;
+
+	@Setup
+	public void setup()
+	{
+		this.factory = AutoBeanFactorySource.create( JsoObjectFactory.class );
+		this.json = Scenes.createJsonModel( Scenes.createSphere( this.segments ) );
+	}
+
+	@Benchmark
+	public Geometry jsonLoaderParse()
+	{
+		JsonLoader loader = new JsonLoader( this.factory );
+		loader.parse( this.json );
+		return loader.getGeometry();
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.math.Quaternion;
+import thothbot.parallax.core.shared.math.Vector3;
+
+/**
+ * Benchmarks of the matrix and quaternion operations, which are done 
+ * for every object in every frame.
+ * 
+ * @author thothbot
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathBenchmark
+{
+	private Matrix4 a;
+	private Matrix4 b;
+	private Matrix4 result;
+
+	private Vector3 position;
+	private Vector3 scale;
+
+	private Quaternion qa;
+	private Quaternion qb;
+	private Quaternion qm;
+
+	@Setup
+	public void setup()
+	{
+		this.position = new Vector3( 10, -5, 3 );
+		this.scale = new Vector3( 1, 2, 0.5 );
+
+		this.qa = new Quaternion().setFromAxisAngle( new Vector3( 0, 1, 0 ), 0.7 );
+		this.qb = new Quaternion().setFromAxisAngle( new Vector3( 1, 0, 0 ), -1.2 );
+		this.qm = new Quaternion();
+
+		this.a = new Matrix4();
+		this.a.compose( this.position, this.qa, this.scale );
+
+		this.b = new Matrix4().makePerspective( 45, 1.5, 1, 1000 );
+		this.result = new Matrix4();
+	}
+
+	@Benchmark
+	public Matrix4 matrix4Multiply()
+	{
+		return this.result.multiply( this.a, this.b );
+	}
+
+	@Benchmark
+	public Matrix4 matrix4GetInverse()
+	{
+		return this.result.getInverse( this.a );
+	}
+
+	@Benchmark
+	public Matrix4 matrix4Compose()
+	{
+		this.result.compose( this.position, this.qa, this.scale );
+		return this.result;
+	}
+
+	@Benchmark
+	public Quaternion quaternionSlerp()
+	{
+		return Quaternion.slerp( this.qa, this.qb, this.qm, 0.3 );
+	}
+}
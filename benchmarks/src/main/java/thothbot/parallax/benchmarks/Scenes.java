@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import thothbot.parallax.core.shared.core.Face3;
+import thothbot.parallax.core.shared.core.Face4;
+import thothbot.parallax.core.shared.core.Geometry;
+import thothbot.parallax.core.shared.geometries.SphereGeometry;
+import thothbot.parallax.core.shared.math.Vector2;
+import thothbot.parallax.core.shared.math.Vector3;
+import thothbot.parallax.core.shared.objects.Mesh;
+
+/**
+ * The standard test data for the benchmarks. The scene sizes and the 
+ * geometry details are the same in all suites, so the results can be 
+ * compared between them.
+ * 
+ * @author thothbot
+ *
+ */
+public final class Scenes
+{
+	/**
+	 * Standard numbers of objects in the scene.
+	 */
+	public static final String SMALL = "100";
+	public static final String MEDIUM = "1000";
+	public static final String LARGE = "10000";
+
+	/**
+	 * Standard numbers of the sphere segments: 512, 2048 and 8192 faces.
+	 */
+	public static final String LOW = "16";
+	public static final String MIDDLE = "32";
+	public static final String HIGH = "64";
+
+	// The same data on each run
+	private static final long SEED = 42;
+
+	private Scenes()
+	{
+	}
+
+	public static Geometry createSphere(int segments)
+	{
+		return new SphereGeometry( 1, segments, segments / 2 );
+	}
+
+	/**
+	 * Creates meshes of the shared geometry randomly placed in front of 
+	 * the camera which is at the origin and looks at -Z axis.
+	 */
+	public static List<Mesh> createMeshes(int count)
+	{
+		Random random = new Random( SEED );
+		Geometry geometry = createSphere( 8 );
+
+		List<Mesh> meshes = new ArrayList<Mesh>();
+		for ( int i = 0; i < count; i++ )
+		{
+			Mesh mesh = new Mesh( geometry );
+			mesh.setPosition( new Vector3( 
+					random.nextDouble() * 200 - 100, 
+					random.nextDouble() * 200 - 100,
+					- random.nextDouble() * 200 ) );
+			mesh.setScale( new Vector3( 1, 1, 1 ).multiply( 1 + random.nextDouble() * 4 ) );
+			mesh.updateMatrixWorld( true );
+
+			meshes.add( mesh );
+		}
+
+		return meshes;
+	}
+
+	/**
+	 * Creates contour with the given number of points. Each second point 
+	 * is moved to the center by the ratio, so the contour is star-like.
+	 */
+	public static List<Vector2> createContour(int points, double radius, double ratio)
+	{
+		List<Vector2> contour = new ArrayList<Vector2>();
+		for ( int i = 0; i < points; i++ )
+		{
+			double angle = 2 * Math.PI * i / points;
+			double r = ( i % 2 == 0 ) ? radius : radius * ratio;
+			contour.add( new Vector2( Math.cos( angle ) * r, Math.sin( angle ) * r ) );
+		}
+
+		return contour;
+	}
+
+	/**
+	 * Creates the model in the JSON format of {@link thothbot.parallax.loader.shared.JsonLoader}.
+	 */
+	public static String createJsonModel(Geometry geometry)
+	{
+		StringBuilder json = new StringBuilder();
+
+		json.append( "{\"metadata\":{\"formatVersion\":3},\"scale\":1.0,\"materials\":[],\"vertices\":[" );
+		for ( int i = 0, il = geometry.getVertices().size(); i < il; i++ )
+		{
+			Vector3 vertex = geometry.getVertices().get( i );
+			if ( i > 0 )
+				json.append( ',' );
+			json.append( vertex.getX() ).append( ',' )
+				.append( vertex.getY() ).append( ',' )
+				.append( vertex.getZ() );
+		}
+
+		json.append( "],\"normals\":[],\"colors\":[],\"uvs\":[[]],\"faces\":[" );
+		for ( int i = 0, il = geometry.getFaces().size(); i < il; i++ )
+		{
+			Face3 face = geometry.getFaces().get( i );
+			if ( i > 0 )
+				json.append( ',' );
+
+			if ( face instanceof Face4 )
+				json.append( "1," ).append( face.getA() ).append( ',' )
+					.append( face.getB() ).append( ',' )
+					.append( face.getC() ).append( ',' )
+					.append( ((Face4) face).getD() );
+			else
+				json.append( "0," ).append( face.getA() ).append( ',' )
+					.append( face.getB() ).append( ',' )
+					.append( face.getC() );
+		}
+		json.append( "]}" );
+
+		return json.toString();
+	}
+}
@@ -19,7 +19,9 @@
 package thothbot.parallax.core.client;
 
 import thothbot.parallax.core.client.context.Canvas3d;
+import thothbot.parallax.core.client.controls.Controls;
 import thothbot.parallax.core.client.renderers.WebGLRenderer;
+import thothbot.parallax.core.shared.core.ChangeTracker;
 import thothbot.parallax.core.shared.scenes.Scene;
 
 import com.google.gwt.core.client.Duration;
@@ -27,6 +29,16 @@ import com.google.gwt.core.client.Duration;
 /**
  * The class to set up {@link Scene} for the {@link WebGLRenderer} 
  * in the {@link Canvas3d} context.
+ * <p>
+ * By default {@link #onUpdate(double)} is called every animation frame. 
+ * In the render on demand mode it is called only when something was changed, 
+ * see {@link Scene#getVersion()} and {@link ChangeTracker}, while the controls 
+ * set by {@link #setControls(Controls)} are moving, or when {@link #requestRender()} was called. 
+ * Transforms changed directly through the vectors, for example <code>getPosition().setX()</code>, 
+ * are not seen by the setters, so {@link #requestRender()} should be called after them, 
+ * or {@link #setDetectDirectChanges(boolean)} enabled at the cost of a scene walk per idle frame. 
+ * Animations which change the scene by themselves should switch 
+ * to {@link #setContinuousRendering(boolean)} while they are running.
  * 
  * @author thothbot
  *
@@ -50,6 +62,15 @@ public abstract class AnimatedScene extends Animation
 	private RenderingPanel renderingPanel;
 	private Scene scene;
 	private AnimationUpdateHandler animationUpdateHandler;
+	private Controls controls;
+
+	private boolean isRenderOnDemand = false;
+	private boolean isContinuousRendering = false;
+	private boolean isRenderRequested = true;
+	private boolean isDetectDirectChanges = false;
+	// ChangeTracker and Scene versions of the last rendered frame
+	private int renderedVersion = -1;
+	private int renderedSceneVersion = -1;
 
 	/**
 	 * Gets the main {@link Scene} object.
@@ -90,14 +111,106 @@ public abstract class AnimatedScene extends Animation
 		this.animationUpdateHandler = animationUpdateHandler;		
 	}
 
+	public boolean isRenderOnDemand() 
+	{
+		return this.isRenderOnDemand;
+	}
+
+	/**
+	 * Enables the render on demand mode, where frames are rendered 
+	 * only when the scene was changed. Default is false.
+	 */
+	public void setRenderOnDemand(boolean isRenderOnDemand) 
+	{
+		this.isRenderOnDemand = isRenderOnDemand;
+		requestRender();
+	}
+
+	public boolean isContinuousRendering() 
+	{
+		return this.isContinuousRendering;
+	}
+
+	/**
+	 * Forces rendering of every frame in the render on demand mode, 
+	 * for example while an animation is running.
+	 */
+	public void setContinuousRendering(boolean isContinuousRendering) 
+	{
+		this.isContinuousRendering = isContinuousRendering;
+	}
+
+	public boolean isDetectDirectChanges() 
+	{
+		return this.isDetectDirectChanges;
+	}
+
+	/**
+	 * Finds the transforms changed directly through the vectors in the render 
+	 * on demand mode, by updating the matrices of the whole scene on every 
+	 * skipped frame. Default is false, so such changes need {@link #requestRender()}.
+	 */
+	public void setDetectDirectChanges(boolean isDetectDirectChanges) 
+	{
+		this.isDetectDirectChanges = isDetectDirectChanges;
+	}
+
+	public Controls getControls() 
+	{
+		return this.controls;
+	}
+
+	/**
+	 * Sets the controls which keep rendering in the render on demand mode 
+	 * while they are moving without the user input, see {@link Controls#isMoving()}.
+	 */
+	public void setControls(Controls controls) 
+	{
+		this.controls = controls;
+	}
+
+	/**
+	 * Requests rendering of the next frame in the render on demand mode.
+	 */
+	public void requestRender() 
+	{
+		this.isRenderRequested = true;
+	}
+
 	protected abstract void onUpdate(double duration);
 	
 	@Override
 	protected void onRefresh(double duration)
 	{
+		if ( this.isRenderOnDemand && !this.isContinuousRendering && !this.isRenderRequested
+				&& !isChanged() ) 
+		{
+			getRenderer().getInfo().getRender().framesSkipped++;
+			return;
+		}
+
+		this.isRenderRequested = false;
+
 		getRenderer().getInfo().getTimer().render = new Duration();
 		onUpdate(duration);
+
+		// Changes made while updating are already rendered
+		this.renderedVersion = ChangeTracker.getVersion();
+		this.renderedSceneVersion = this.scene.getVersion();
 		
 		animationUpdateHandler.onUpdate();
 	}
+
+	private boolean isChanged()
+	{
+		if ( this.renderedVersion != ChangeTracker.getVersion() 
+				|| ( this.controls != null && this.controls.isMoving() ) )
+			return true;
+
+		// Finds the transforms changed directly through the vectors
+		if ( this.isDetectDirectChanges )
+			this.scene.updateMatrixWorld(false);
+
+		return this.renderedSceneVersion != this.scene.getVersion();
+	}
 }
@@ -331,6 +331,9 @@ public class RenderingPanel extends LayoutPanel implements IsWidget, HasWidgets,
 
 		getCanvas().setSize(width, height);
 		getRenderer().setSize(width, height);
+
+		if(getAnimatedScene() != null)
+			getAnimatedScene().requestRender();
 	}
 	
 	private void updateBackground()
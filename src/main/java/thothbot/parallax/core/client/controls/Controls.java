@@ -18,10 +18,30 @@
 
 package thothbot.parallax.core.client.controls;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import thothbot.parallax.core.client.context.Canvas3d;
 import thothbot.parallax.core.shared.cameras.Camera;
+import thothbot.parallax.core.shared.core.ChangeTracker;
 import thothbot.parallax.core.shared.objects.Object3D;
 
+import com.google.gwt.event.dom.client.DomEvent;
+import com.google.gwt.event.dom.client.KeyDownEvent;
+import com.google.gwt.event.dom.client.KeyDownHandler;
+import com.google.gwt.event.dom.client.KeyUpEvent;
+import com.google.gwt.event.dom.client.KeyUpHandler;
+import com.google.gwt.event.dom.client.MouseDownEvent;
+import com.google.gwt.event.dom.client.MouseDownHandler;
+import com.google.gwt.event.dom.client.MouseMoveEvent;
+import com.google.gwt.event.dom.client.MouseMoveHandler;
+import com.google.gwt.event.dom.client.MouseUpEvent;
+import com.google.gwt.event.dom.client.MouseUpHandler;
+import com.google.gwt.event.dom.client.MouseWheelEvent;
+import com.google.gwt.event.dom.client.MouseWheelHandler;
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.ui.RootPanel;
 import com.google.gwt.user.client.ui.Widget;
 
 /**
@@ -32,8 +52,55 @@ import com.google.gwt.user.client.ui.Widget;
  */
 public abstract class Controls
 {
+	/**
+	 * Marks the scene changed on the user input, so the controls are 
+	 * updated in the render on demand mode.
+	 */
+	private static class InputHandler implements MouseDownHandler, MouseMoveHandler, 
+		MouseUpHandler, MouseWheelHandler, KeyDownHandler, KeyUpHandler
+	{
+		@Override
+		public void onMouseDown(MouseDownEvent event) 
+		{
+			ChangeTracker.markChanged();
+		}
+
+		@Override
+		public void onMouseMove(MouseMoveEvent event) 
+		{
+			ChangeTracker.markChanged();
+		}
+
+		@Override
+		public void onMouseUp(MouseUpEvent event) 
+		{
+			ChangeTracker.markChanged();
+		}
+
+		@Override
+		public void onMouseWheel(MouseWheelEvent event) 
+		{
+			ChangeTracker.markChanged();
+		}
+
+		@Override
+		public void onKeyDown(KeyDownEvent event) 
+		{
+			ChangeTracker.markChanged();
+		}
+
+		@Override
+		public void onKeyUp(KeyUpEvent event) 
+		{
+			ChangeTracker.markChanged();
+		}
+	}
+
 	private Object3D object;
 	private Widget widget;
+
+	// Registrations of the input handlers, which are removed in dispose()
+	private List<HandlerRegistration> handlerRegistrations = new ArrayList<HandlerRegistration>();
 	
 	/**
 	 * The constructor will create a {@link Controls} instance.
@@ -47,8 +114,62 @@ public abstract class Controls
 	{
 		this.object = object;
 		this.widget = widget;
+
+		if ( widget != null )
+		{
+			InputHandler handler = new InputHandler();
+			addWidgetHandler(handler, MouseDownEvent.getType());
+			addWidgetHandler(handler, MouseMoveEvent.getType());
+			addWidgetHandler(handler, MouseUpEvent.getType());
+			addWidgetHandler(handler, MouseWheelEvent.getType());
+			addRootHandler(handler, KeyDownEvent.getType());
+			addRootHandler(handler, KeyUpEvent.getType());
+		}
+	}
+
+	/**
+	 * Adds the handler of the widget events. The handler will be removed 
+	 * in {@link #dispose()}.
+	 */
+	protected <H extends EventHandler> void addWidgetHandler(H handler, DomEvent.Type<H> type)
+	{
+		this.handlerRegistrations.add( this.widget.addDomHandler(handler, type) );
+	}
+
+	/**
+	 * Adds the handler of the document events, for example the keyboard 
+	 * ones. The handler will be removed in {@link #dispose()}.
+	 */
+	protected <H extends EventHandler> void addRootHandler(H handler, DomEvent.Type<H> type)
+	{
+		this.handlerRegistrations.add( RootPanel.get().addDomHandler(handler, type) );
+	}
+
+	/**
+	 * Removes all the input handlers of the controls. The controls 
+	 * should not be used after that.
+	 */
+	public void dispose()
+	{
+		for ( HandlerRegistration registration : this.handlerRegistrations )
+			registration.removeHandler();
+
+		this.handlerRegistrations.clear();
 	}
 	
+	/**
+	 * Checks if the controlled object is still moving without the user input, 
+	 * for example while a key is held or while the movement is damped. 
+	 * The render on demand mode of the {@link thothbot.parallax.core.client.AnimatedScene} 
+	 * keeps rendering while it is true.
+	 * 
+	 * @return false by default
+	 */
+	public boolean isMoving()
+	{
+		return false;
+	}
+
 	/**
 	 * Gets controlled instance.
 	 * 
@@ -123,13 +123,13 @@ public class FirstPersonControls extends Controls
 		
 		this.target = new Vector3();
 		
-		getWidget().addDomHandler(this, ContextMenuEvent.getType());
+		addWidgetHandler(this, ContextMenuEvent.getType());
 
-		getWidget().addDomHandler(this, MouseMoveEvent.getType());
-		getWidget().addDomHandler(this, MouseDownEvent.getType());
-		getWidget().addDomHandler(this, MouseUpEvent.getType());
-		RootPanel.get().addDomHandler(this, KeyDownEvent.getType());
-		RootPanel.get().addDomHandler(this, KeyUpEvent.getType());		
+		addWidgetHandler(this, MouseMoveEvent.getType());
+		addWidgetHandler(this, MouseDownEvent.getType());
+		addWidgetHandler(this, MouseUpEvent.getType());
+		addRootHandler(this, KeyDownEvent.getType());
+		addRootHandler(this, KeyUpEvent.getType());		
 	}
 	
 	/**
@@ -152,6 +152,17 @@ public class FirstPersonControls extends Controls
 		this.lookSpeed = lookSpeed;
 	}
 		
+	@Override
+	public boolean isMoving()
+	{
+		if ( this.freeze )
+			return false;
+
+		return this.moveForward || this.moveBackward || this.moveLeft || this.moveRight 
+				|| this.moveUp || this.moveDown || this.autoForward
+				|| ( this.activeLook && ( this.mouseX != 0 || ( this.lookVertical && this.mouseY != 0 ) ) );
+	}
+
 	/**
 	 * The method must be called in the {@link AnimatedScene}} onUpdate method.
 	 * 
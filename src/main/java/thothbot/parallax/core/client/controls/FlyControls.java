@@ -101,13 +101,13 @@ public final class FlyControls extends Controls implements
 		this.moveVector = new Vector3( 0, 0, 0 );
 		this.rotationVector = new Vector3( 0, 0, 0 );
 		
-		getWidget().addDomHandler(this, ContextMenuEvent.getType());
+		addWidgetHandler(this, ContextMenuEvent.getType());
 
-		getWidget().addDomHandler(this, MouseMoveEvent.getType());
-		getWidget().addDomHandler(this, MouseDownEvent.getType());
-		getWidget().addDomHandler(this, MouseUpEvent.getType());
-		RootPanel.get().addDomHandler(this, KeyDownEvent.getType());
-		RootPanel.get().addDomHandler(this, KeyUpEvent.getType());		
+		addWidgetHandler(this, MouseMoveEvent.getType());
+		addWidgetHandler(this, MouseDownEvent.getType());
+		addWidgetHandler(this, MouseUpEvent.getType());
+		addRootHandler(this, KeyDownEvent.getType());
+		addRootHandler(this, KeyUpEvent.getType());		
 	}
 	
 	public void setMovementSpeed(double speed) {
@@ -126,6 +126,13 @@ public final class FlyControls extends Controls implements
 		this.isAutoForward = isAutoForward;
 	}
 
+	@Override
+	public boolean isMoving()
+	{
+		return this.moveVector.getX() != 0 || this.moveVector.getY() != 0 || this.moveVector.getZ() != 0
+				|| this.rotationVector.getX() != 0 || this.rotationVector.getY() != 0 || this.rotationVector.getZ() != 0;
+	}
+
 	public void update( double delta ) 
 	{
 		double moveMult = delta * this.movementSpeed;
@@ -53,6 +53,8 @@ public final class TrackballControls extends Controls implements MouseMoveHandle
 KeyDownHandler, KeyUpHandler, ContextMenuHandler
 {
 	
+	private static final double EPS = 0.000001;
+
 	private enum STATE {
 		 NONE,
 		 ROTATE, 
@@ -85,6 +87,8 @@ KeyDownHandler, KeyUpHandler, ContextMenuHandler
 	private Vector3 target;
 
 	private Vector3 lastPosition;
+	// The position was changed by the last update, for example while damping
+	private boolean isMoving = false;
 
 	private boolean isKeyPressed = false;
 	private STATE state = STATE.NONE;
@@ -119,13 +123,13 @@ KeyDownHandler, KeyUpHandler, ContextMenuHandler
 		this.panStart     = new Vector2();
 		this.panEnd       = new Vector2();
 		
-		getWidget().addDomHandler(this, ContextMenuEvent.getType());
+		addWidgetHandler(this, ContextMenuEvent.getType());
 
-		getWidget().addDomHandler(this, MouseMoveEvent.getType());
-		getWidget().addDomHandler(this, MouseDownEvent.getType());
-		getWidget().addDomHandler(this, MouseUpEvent.getType());
-		RootPanel.get().addDomHandler(this, KeyDownEvent.getType());
-		RootPanel.get().addDomHandler(this, KeyUpEvent.getType());	
+		addWidgetHandler(this, MouseMoveEvent.getType());
+		addWidgetHandler(this, MouseDownEvent.getType());
+		addWidgetHandler(this, MouseUpEvent.getType());
+		addRootHandler(this, KeyDownEvent.getType());
+		addRootHandler(this, KeyUpEvent.getType());	
 	}
 	
 	public boolean isEnabled() {
@@ -262,12 +266,20 @@ KeyDownHandler, KeyUpHandler, ContextMenuHandler
 
 		getObject().lookAt( this.target );
 
+		this.isMoving = lastPosition.distanceToSquared( getObject().getPosition() ) > EPS;
+
 		if ( lastPosition.distanceTo( getObject().getPosition() ) > 0 ) 
 		{	
 			lastPosition.copy( getObject().getPosition() );
 		}
 	}
 
+	@Override
+	public boolean isMoving()
+	{
+		return this.isMoving;
+	}
+
 	@Override
 	public void onContextMenu(ContextMenuEvent event) 
 	{
@@ -20,12 +20,16 @@ package thothbot.parallax.core.client.debugger;
 
 import thothbot.parallax.core.client.RenderingPanel;
 import thothbot.parallax.core.client.renderers.WebGlRendererInfo;
+import thothbot.parallax.core.client.renderers.WebGlRendererInfo.STAT;
 
 import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.Label;
 
 /**
  * Debugger widget which is shown in the {@link RenderingPanel} widget.
+ * <p>
+ * The graph shows FPS and frame time by default, more graphs can be added 
+ * by {@link #addGraph(STAT)}. Graphs are switched by click.
  * 
  * @author thothbot
  *
@@ -39,6 +43,7 @@ public class Debugger extends FlowPanel
 	
 	private Label string1;
 	private Label string2;
+	private Label string3;
 	
 	public Debugger(WebGlRendererInfo info)
 	{
@@ -55,9 +60,19 @@ public class Debugger extends FlowPanel
 		
 		this.string1 = new Label();
 		this.string2 = new Label();
+		this.string3 = new Label();
 		
 		this.renderingInfo.add(this.string1);
 		this.renderingInfo.add(this.string2);
+		this.renderingInfo.add(this.string3);
+	}
+
+	/**
+	 * Adds the graph of the statistical value from {@link WebGlRendererInfo}.
+	 */
+	public void addGraph(STAT stat)
+	{
+		this.graph.addGraph(new VisualGraphStat(this.info, stat));
 	}
 	
 	/**
@@ -75,9 +90,18 @@ public class Debugger extends FlowPanel
 
 		this.string2.setText(
 				"C:" + this.info.getRender().calls
+				+ ", S:" + this.info.getRender().framesSkipped
 				+ ", G:" + this.info.getMemory().geometries
 				+", P:" + this.info.getMemory().programs
 				+", T:" + this.info.getMemory().textures
 		);
+
+		this.string3.setText(
+				"O:" + this.info.getRender().objectsDrawn
+				+ "/" + (this.info.getRender().objectsDrawn + this.info.getRender().objectsCulled)
+				+ ", PS:" + this.info.getRender().programSwitches
+				+ ", TB:" + this.info.getRender().textureBinds
+				+ ", U:" + this.info.getRender().uniforms
+		);
 	}
 }
@@ -18,6 +18,9 @@
 
 package thothbot.parallax.core.client.debugger;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import thothbot.parallax.core.resources.CoreResources;
 
 import com.google.gwt.core.client.Duration;
@@ -30,7 +33,8 @@ import com.google.gwt.user.client.ui.FocusWidget;
 public class VisualGraph extends FocusWidget implements MouseDownHandler
 {
 	private final DivElement container;
-	private VisualGraphAbstract visualGraphFps, visualGraphMs;
+	private List<VisualGraphAbstract> graphs;
+	private int current;
 	
 	public VisualGraph()
 	{
@@ -43,33 +47,38 @@ public class VisualGraph extends FocusWidget implements MouseDownHandler
 		CoreResources.INSTANCE.debuggerCss().ensureInjected();
 		addMouseDownHandler(this);
 		
-		visualGraphFps = new VisualGraphFps();
-		container.appendChild(visualGraphFps.getContainer());
-		visualGraphMs = new VisualGraphMs();
-		visualGraphMs.hide();
-		container.appendChild(visualGraphMs.getContainer());
+		graphs = new ArrayList<VisualGraphAbstract>();
+		addGraph(new VisualGraphFps());
+		addGraph(new VisualGraphMs());
+	}
+
+	/**
+	 * Adds the graph, which is shown after the previous ones 
+	 * when the graph is clicked.
+	 */
+	public void addGraph(VisualGraphAbstract visualGraph)
+	{
+		if(graphs.size() > 0)
+			visualGraph.hide();
+
+		graphs.add(visualGraph);
+		container.appendChild(visualGraph.getContainer());
 	}
 
 	@Override
 	public void onMouseDown(MouseDownEvent event) 
 	{
 		event.preventDefault(); 
-		if(visualGraphFps.isVisible()) 
-		{
-			visualGraphFps.hide();
-			visualGraphMs.show();
-		}
-		else
-		{
-			visualGraphMs.hide();
-			visualGraphFps.show();
-		}
+
+		graphs.get(current).hide();
+		current = (current + 1) % graphs.size();
+		graphs.get(current).show();
 	}
 
 	public void update() 
 	{
 		double time = Duration.currentTimeMillis();
-		visualGraphFps.update(time);
-		visualGraphMs.update(time);
+		for(int i = 0; i < graphs.size(); i++)
+			graphs.get(i).update(time);
 	}
 }
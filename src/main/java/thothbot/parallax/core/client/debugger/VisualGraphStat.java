@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.debugger;
+
+import thothbot.parallax.core.client.renderers.WebGlRendererInfo;
+import thothbot.parallax.core.client.renderers.WebGlRendererInfo.STAT;
+import thothbot.parallax.core.client.renderers.WebGlRendererInfo.WebGLRenderStatWindow;
+
+/**
+ * The graph of any {@link STAT} value, scaled by the maximum
+ * value in the rolling window of {@link WebGlRendererInfo}.
+ * 
+ * @author thothbot
+ *
+ */
+public final class VisualGraphStat extends VisualGraphAbstract
+{
+	private WebGlRendererInfo info;
+	private STAT stat;
+
+	public VisualGraphStat(WebGlRendererInfo info, STAT stat)
+	{
+		super();
+		this.info = info;
+		this.stat = stat;
+	}
+
+	public STAT getStat() {
+		return this.stat;
+	}
+
+	@Override
+	protected String getType() { return "stat"; }
+
+	@Override
+	protected void update(double time) 
+	{
+		WebGLRenderStatWindow window = info.getWindow( stat );
+
+		double value = window.getLast();
+		double max = window.getMax();
+
+		text.setInnerText( stat.getTitle() + ": " + format( value ) );
+		textMin.setInnerText( format( window.getMin() ) );
+		textMax.setInnerText( format( max ) );
+
+		updateGraph( graph, max > 0 ? 30 - Math.max( 0, value / max ) * 30 : 30 );
+	}
+
+	private String format(double value)
+	{
+		if ( value == Math.floor( value ) )
+			return (long)value + "";
+
+		return ( Math.round( value * 10 ) / 10.0 ) + "";
+	}
+}
@@ -0,0 +1,1742 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import thothbot.parallax.core.client.gl2.arrays.ArrayBuffer;
+import thothbot.parallax.core.client.gl2.arrays.ArrayBufferView;
+import thothbot.parallax.core.client.gl2.arrays.Float32Array;
+import thothbot.parallax.core.client.gl2.arrays.Int32Array;
+import thothbot.parallax.core.client.gl2.arrays.TypeArray;
+import thothbot.parallax.core.client.gl2.enums.BeginMode;
+import thothbot.parallax.core.client.gl2.enums.BlendEquationMode;
+import thothbot.parallax.core.client.gl2.enums.BlendingFactorDest;
+import thothbot.parallax.core.client.gl2.enums.BlendingFactorSrc;
+import thothbot.parallax.core.client.gl2.enums.BufferParameterName;
+import thothbot.parallax.core.client.gl2.enums.BufferTarget;
+import thothbot.parallax.core.client.gl2.enums.BufferUsage;
+import thothbot.parallax.core.client.gl2.enums.CullFaceMode;
+import thothbot.parallax.core.client.gl2.enums.DataType;
+import thothbot.parallax.core.client.gl2.enums.DepthFunction;
+import thothbot.parallax.core.client.gl2.enums.DrawElementsType;
+import thothbot.parallax.core.client.gl2.enums.EnableCap;
+import thothbot.parallax.core.client.gl2.enums.ErrorCode;
+import thothbot.parallax.core.client.gl2.enums.FramebufferErrorCode;
+import thothbot.parallax.core.client.gl2.enums.FramebufferParameterName;
+import thothbot.parallax.core.client.gl2.enums.FramebufferSlot;
+import thothbot.parallax.core.client.gl2.enums.FrontFaceDirection;
+import thothbot.parallax.core.client.gl2.enums.PixelFormat;
+import thothbot.parallax.core.client.gl2.enums.PixelStoreParameter;
+import thothbot.parallax.core.client.gl2.enums.PixelType;
+import thothbot.parallax.core.client.gl2.enums.ProgramParameter;
+import thothbot.parallax.core.client.gl2.enums.RenderbufferInternalFormat;
+import thothbot.parallax.core.client.gl2.enums.RenderbufferParameterName;
+import thothbot.parallax.core.client.gl2.enums.StencilFunction;
+import thothbot.parallax.core.client.gl2.enums.StencilOp;
+import thothbot.parallax.core.client.gl2.enums.TextureParameterName;
+import thothbot.parallax.core.client.gl2.enums.TextureTarget;
+import thothbot.parallax.core.client.gl2.enums.TextureUnit;
+
+import com.google.gwt.canvas.dom.client.ImageData;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.dom.client.CanvasElement;
+import com.google.gwt.dom.client.ImageElement;
+import com.google.gwt.dom.client.VideoElement;
+
+/**
+ * The headless implementation of {@link WebGLContext}.
+ * <p>
+ * It does not render anything, but records the calls made by the renderer:
+ * how many times each method was called, bound objects and enabled
+ * capabilities, draw calls, uniform uploads by name, and how many bytes 
+ * were uploaded to buffers and textures. The state changes which do not change the tracked state are
+ * counted as redundant.
+ * <p>
+ * Object handles are empty {@link JavaScriptObject}s, so the context is
+ * usable in the browser and in the GWT test environment without any WebGL
+ * support. Shaders are always compiled and programs are always linked
+ * successfully.
+ *
+ * <pre>
+ * {@code
+ * RecordingWebGLContext gl = new RecordingWebGLContext();
+ * WebGLRenderer renderer = new WebGLRenderer(gl, 640, 480);
+ * renderer.render(scene, camera);
+ * int drawCalls = gl.getDrawCalls();
+ * }
+ * </pre>
+ *
+ * @author thothbot
+ *
+ */
+public class RecordingWebGLContext implements WebGLContext
+{
+	private int calls;
+	private Map<String, Integer> callCounts;
+
+	private int stateChanges;
+	private int redundantStateChanges;
+
+	private int drawCalls;
+	private int drawnVertices;
+	private int drawnIndices;
+	private int uniformUploads;
+	private Map<String, Integer> uniformUploadCounts;
+
+	private int uploadedBytes;
+	private int uploadedTextureBytes;
+
+	private int bufferCount;
+	private int textureCount;
+	private int programCount;
+	private int shaderCount;
+	private int framebufferCount;
+	private int renderbufferCount;
+
+	private WebGLProgram currentProgram;
+	private WebGLFramebuffer boundFramebuffer;
+	private WebGLRenderbuffer boundRenderbuffer;
+	private Map<BufferTarget, WebGLBuffer> boundBuffers;
+	private int activeTexture;
+	private Map<Integer, WebGLTexture> boundTextures;
+	private Set<EnableCap> enabledCaps;
+	private Set<Integer> enabledAttributes;
+	private int[] viewport;
+
+	private Map<WebGLShader, String> shaderSources;
+	private Map<WebGLProgram, Map<String, Integer>> attribLocations;
+	private Map<WebGLUniformLocation, String> uniformNames;
+	private Map<Integer, Integer> parameters;
+
+	private boolean isInstancedArrays;
+
+	public RecordingWebGLContext()
+	{
+		this.callCounts = new HashMap<String, Integer>();
+		this.uniformUploadCounts = new HashMap<String, Integer>();
+
+		this.boundBuffers = new HashMap<BufferTarget, WebGLBuffer>();
+		this.boundTextures = new HashMap<Integer, WebGLTexture>();
+		this.enabledCaps = new HashSet<EnableCap>();
+		this.enabledAttributes = new HashSet<Integer>();
+		this.viewport = new int[4];
+
+		this.shaderSources = new HashMap<WebGLShader, String>();
+		this.attribLocations = new HashMap<WebGLProgram, Map<String, Integer>>();
+		this.uniformNames = new HashMap<WebGLUniformLocation, String>();
+
+		this.parameters = new HashMap<Integer, Integer>();
+		this.parameters.put(WebGLConstants.MAX_TEXTURE_IMAGE_UNITS, 16);
+		this.parameters.put(WebGLConstants.MAX_VERTEX_TEXTURE_IMAGE_UNITS, 4);
+		this.parameters.put(WebGLConstants.MAX_TEXTURE_SIZE, 4096);
+		this.parameters.put(WebGLConstants.MAX_CUBE_MAP_TEXTURE_SIZE, 4096);
+	}
+
+	/**
+	 * Sets the value returned by {@link #getParameteri(int)}, for example
+	 * {@link WebGLConstants#MAX_VERTEX_TEXTURE_IMAGE_UNITS}.
+	 */
+	public void setParameter(int pname, int value)
+	{
+		this.parameters.put(pname, value);
+	}
+
+	/**
+	 * Sets whether ANGLE_instanced_arrays extension is returned by 
+	 * {@link #getExtension(String)}. The extension is not supported by default.
+	 */
+	public void setInstancedArrays(boolean isInstancedArrays)
+	{
+		this.isInstancedArrays = isInstancedArrays;
+	}
+
+	/**
+	 * Resets the call and upload counters, for example at the beginning
+	 * of the frame. The tracked state and the live object counts are kept.
+	 */
+	public void reset()
+	{
+		this.calls = 0;
+		this.callCounts.clear();
+
+		this.stateChanges = 0;
+		this.redundantStateChanges = 0;
+
+		this.drawCalls = 0;
+		this.drawnVertices = 0;
+		this.drawnIndices = 0;
+		this.uniformUploads = 0;
+		this.uniformUploadCounts.clear();
+
+		this.uploadedBytes = 0;
+		this.uploadedTextureBytes = 0;
+	}
+
+	/**
+	 * Gets how many context methods were called.
+	 */
+	public int getCalls()
+	{
+		return this.calls;
+	}
+
+	/**
+	 * Gets how many times the context method with the given name was called.
+	 */
+	public int getCalls(String method)
+	{
+		Integer count = this.callCounts.get(method);
+		return count != null ? count : 0;
+	}
+
+	/**
+	 * Gets the call counters by method name.
+	 */
+	public Map<String, Integer> getCallCounts()
+	{
+		return this.callCounts;
+	}
+
+	/**
+	 * Gets how many state setting calls were made, including redundant ones.
+	 */
+	public int getStateChanges()
+	{
+		return this.stateChanges;
+	}
+
+	/**
+	 * Gets how many binding and enabling calls did not change the state.
+	 */
+	public int getRedundantStateChanges()
+	{
+		return this.redundantStateChanges;
+	}
+
+	public int getDrawCalls()
+	{
+		return this.drawCalls;
+	}
+
+	/**
+	 * Gets the sum of the vertex counts passed to {@link #drawArrays(BeginMode, int, int)}.
+	 */
+	public int getDrawnVertices()
+	{
+		return this.drawnVertices;
+	}
+
+	/**
+	 * Gets the sum of the index counts passed to {@link #drawElements(BeginMode, int, DrawElementsType, int)}.
+	 */
+	public int getDrawnIndices()
+	{
+		return this.drawnIndices;
+	}
+
+	public int getUniformUploads()
+	{
+		return this.uniformUploads;
+	}
+
+	/**
+	 * Gets how many times the uniform with the given name was uploaded.
+	 */
+	public int getUniformUploads(String name)
+	{
+		Integer count = this.uniformUploadCounts.get(name);
+		return count != null ? count : 0;
+	}
+
+	/**
+	 * Gets how many bytes were uploaded to the buffers.
+	 */
+	public int getUploadedBytes()
+	{
+		return this.uploadedBytes;
+	}
+
+	/**
+	 * Gets how many bytes were uploaded to the textures. Images are
+	 * counted as four bytes per pixel.
+	 */
+	public int getUploadedTextureBytes()
+	{
+		return this.uploadedTextureBytes;
+	}
+
+	public int getBufferCount()
+	{
+		return this.bufferCount;
+	}
+
+	public int getTextureCount()
+	{
+		return this.textureCount;
+	}
+
+	public int getProgramCount()
+	{
+		return this.programCount;
+	}
+
+	public int getShaderCount()
+	{
+		return this.shaderCount;
+	}
+
+	public int getFramebufferCount()
+	{
+		return this.framebufferCount;
+	}
+
+	public int getRenderbufferCount()
+	{
+		return this.renderbufferCount;
+	}
+
+	public WebGLProgram getCurrentProgram()
+	{
+		return this.currentProgram;
+	}
+
+	public WebGLFramebuffer getBoundFramebuffer()
+	{
+		return this.boundFramebuffer;
+	}
+
+	public WebGLRenderbuffer getBoundRenderbuffer()
+	{
+		return this.boundRenderbuffer;
+	}
+
+	public WebGLBuffer getBoundBuffer(BufferTarget target)
+	{
+		return this.boundBuffers.get(target);
+	}
+
+	/**
+	 * Gets the texture bound to the texture unit, where 0 is
+	 * {@link TextureUnit#TEXTURE0}.
+	 */
+	public WebGLTexture getBoundTexture(int unit)
+	{
+		return this.boundTextures.get(unit);
+	}
+
+	public boolean isEnabled(EnableCap cap)
+	{
+		return this.enabledCaps.contains(cap);
+	}
+
+	public boolean isVertexAttribArrayEnabled(int index)
+	{
+		return this.enabledAttributes.contains(index);
+	}
+
+	/**
+	 * Gets the current viewport as x, y, width and height.
+	 */
+	public int[] getViewport()
+	{
+		return this.viewport;
+	}
+
+	private void record(String method)
+	{
+		this.calls++;
+		Integer count = this.callCounts.get(method);
+		this.callCounts.put(method, count != null ? count + 1 : 1);
+	}
+
+	private void uploadUniform(WebGLUniformLocation location)
+	{
+		this.uniformUploads++;
+		String name = this.uniformNames.get(location);
+		if(name != null)
+		{
+			Integer count = this.uniformUploadCounts.get(name);
+			this.uniformUploadCounts.put(name, count != null ? count + 1 : 1);
+		}
+	}
+
+	private void changeState(boolean changed)
+	{
+		this.stateChanges++;
+		if(!changed)
+			this.redundantStateChanges++;
+	}
+
+	@Override
+	public void activeTexture(TextureUnit texture)
+	{
+		record("activeTexture");
+		int unit = texture.getValue() - WebGLConstants.TEXTURE0;
+		changeState(this.activeTexture != unit);
+		this.activeTexture = unit;
+	}
+
+	@Override
+	public void activeTexture(TextureUnit texture, int slot)
+	{
+		record("activeTexture");
+		int unit = texture.getValue() - WebGLConstants.TEXTURE0 + slot;
+		changeState(this.activeTexture != unit);
+		this.activeTexture = unit;
+	}
+
+	@Override
+	public void attachShader(WebGLProgram program, WebGLShader shader)
+	{
+		record("attachShader");
+	}
+
+	@Override
+	public void bindAttribLocation(WebGLProgram program, int index, String name)
+	{
+		record("bindAttribLocation");
+	}
+
+	@Override
+	public void bindBuffer(BufferTarget target, WebGLBuffer buffer)
+	{
+		record("bindBuffer");
+		changeState(this.boundBuffers.get(target) != buffer);
+		this.boundBuffers.put(target, buffer);
+	}
+
+	@Override
+	public void bindFramebuffer(WebGLFramebuffer buffer)
+	{
+		record("bindFramebuffer");
+		changeState(this.boundFramebuffer != buffer);
+		this.boundFramebuffer = buffer;
+	}
+
+	@Override
+	public void bindRenderbuffer(WebGLRenderbuffer buffer)
+	{
+		record("bindRenderbuffer");
+		changeState(this.boundRenderbuffer != buffer);
+		this.boundRenderbuffer = buffer;
+	}
+
+	@Override
+	public void bindTexture(TextureTarget target, WebGLTexture texture)
+	{
+		record("bindTexture");
+		changeState(this.boundTextures.get(this.activeTexture) != texture);
+		this.boundTextures.put(this.activeTexture, texture);
+	}
+
+	@Override
+	public void blendColor(double red, double green, double blue, double alpha)
+	{
+		record("blendColor");
+		changeState(true);
+	}
+
+	@Override
+	public void blendEquation(BlendEquationMode mode)
+	{
+		record("blendEquation");
+		changeState(true);
+	}
+
+	@Override
+	public void blendEquationSeparate(BlendEquationMode modeRGB, BlendEquationMode modeAlpha)
+	{
+		record("blendEquationSeparate");
+		changeState(true);
+	}
+
+	@Override
+	public void blendFunc(BlendingFactorSrc sfactor, BlendingFactorDest dfactor)
+	{
+		record("blendFunc");
+		changeState(true);
+	}
+
+	@Override
+	public void blendFuncSeparate(BlendingFactorSrc srcRGB, BlendingFactorDest dstRGB, BlendingFactorSrc srcAlpha, BlendingFactorDest dstAlpha)
+	{
+		record("blendFuncSeparate");
+		changeState(true);
+	}
+
+	@Override
+	public void bufferData(BufferTarget target, ArrayBuffer data, BufferUsage usage)
+	{
+		record("bufferData");
+		this.uploadedBytes += data.getByteLength();
+	}
+
+	@Override
+	public void bufferData(BufferTarget target, int size, BufferUsage usage)
+	{
+		record("bufferData");
+		this.uploadedBytes += size;
+	}
+
+	@Override
+	public void bufferData(BufferTarget target, TypeArray data, BufferUsage usage)
+	{
+		record("bufferData");
+		this.uploadedBytes += data.getByteLength();
+	}
+
+	@Override
+	public void bufferSubData(BufferTarget target, int offset, ArrayBuffer data)
+	{
+		record("bufferSubData");
+		this.uploadedBytes += data.getByteLength();
+	}
+
+	@Override
+	public void bufferSubData(BufferTarget target, int offset, TypeArray data)
+	{
+		record("bufferSubData");
+		this.uploadedBytes += data.getByteLength();
+	}
+
+	@Override
+	public FramebufferErrorCode checkFramebufferStatus()
+	{
+		record("checkFramebufferStatus");
+		return FramebufferErrorCode.FRAMEBUFFER_COMPLETE;
+	}
+
+	@Override
+	public void clear(int mask)
+	{
+		record("clear");
+	}
+
+	@Override
+	public void clearColor(double red, double green, double blue, double alpha)
+	{
+		record("clearColor");
+		changeState(true);
+	}
+
+	@Override
+	public void clearDepth(double depth)
+	{
+		record("clearDepth");
+		changeState(true);
+	}
+
+	@Override
+	public void clearStencil(int s)
+	{
+		record("clearStencil");
+		changeState(true);
+	}
+
+	@Override
+	public void colorMask(boolean red, boolean green, boolean blue, boolean alpha)
+	{
+		record("colorMask");
+		changeState(true);
+	}
+
+	@Override
+	public void compileShader(WebGLShader shader)
+	{
+		record("compileShader");
+	}
+
+	@Override
+	public void copyTexImage2D(TextureTarget target, int level, PixelFormat internalformat, int x, int y, int width, int height, int border)
+	{
+		record("copyTexImage2D");
+	}
+
+	@Override
+	public void copyTexSubImage2D(TextureTarget target, int level, int xoffset, int yoffset, int x, int y, int width, int height)
+	{
+		record("copyTexSubImage2D");
+	}
+
+	@Override
+	public WebGLBuffer createBuffer()
+	{
+		record("createBuffer");
+		this.bufferCount++;
+		return JavaScriptObject.createObject().cast();
+	}
+
+	@Override
+	public WebGLFramebuffer createFramebuffer()
+	{
+		record("createFramebuffer");
+		this.framebufferCount++;
+		return JavaScriptObject.createObject().cast();
+	}
+
+	@Override
+	public WebGLProgram createProgram()
+	{
+		record("createProgram");
+		this.programCount++;
+		return JavaScriptObject.createObject().cast();
+	}
+
+	@Override
+	public WebGLRenderbuffer createRenderbuffer()
+	{
+		record("createRenderbuffer");
+		this.renderbufferCount++;
+		return JavaScriptObject.createObject().cast();
+	}
+
+	@Override
+	public WebGLShader createShader(int shaderType)
+	{
+		record("createShader");
+		this.shaderCount++;
+		return JavaScriptObject.createObject().cast();
+	}
+
+	@Override
+	public WebGLTexture createTexture()
+	{
+		record("createTexture");
+		this.textureCount++;
+		return JavaScriptObject.createObject().cast();
+	}
+
+	@Override
+	public void cullFace(CullFaceMode mode)
+	{
+		record("cullFace");
+		changeState(true);
+	}
+
+	@Override
+	public void deleteBuffer(WebGLBuffer buffer)
+	{
+		record("deleteBuffer");
+		this.bufferCount--;
+	}
+
+	@Override
+	public void deleteFramebuffer(WebGLFramebuffer buffer)
+	{
+		record("deleteFramebuffer");
+		this.framebufferCount--;
+	}
+
+	@Override
+	public void deleteProgram(WebGLProgram program)
+	{
+		record("deleteProgram");
+		this.programCount--;
+		this.attribLocations.remove(program);
+	}
+
+	@Override
+	public void deleteRenderbuffer(WebGLRenderbuffer buffer)
+	{
+		record("deleteRenderbuffer");
+		this.renderbufferCount--;
+	}
+
+	@Override
+	public void deleteShader(WebGLShader shader)
+	{
+		record("deleteShader");
+		this.shaderCount--;
+		this.shaderSources.remove(shader);
+	}
+
+	@Override
+	public void deleteTexture(WebGLTexture texture)
+	{
+		record("deleteTexture");
+		this.textureCount--;
+	}
+
+	@Override
+	public void depthFunc(DepthFunction func)
+	{
+		record("depthFunc");
+		changeState(true);
+	}
+
+	@Override
+	public void depthMask(boolean flag)
+	{
+		record("depthMask");
+		changeState(true);
+	}
+
+	@Override
+	public void depthRange(double nearVal, double farVal)
+	{
+		record("depthRange");
+		changeState(true);
+	}
+
+	@Override
+	public void detachShader(WebGLProgram program, WebGLShader shader)
+	{
+		record("detachShader");
+	}
+
+	@Override
+	public void disable(EnableCap cap)
+	{
+		record("disable");
+		changeState(this.enabledCaps.remove(cap));
+	}
+
+	@Override
+	public void disableVertexAttribArray(int index)
+	{
+		record("disableVertexAttribArray");
+		changeState(this.enabledAttributes.remove(index));
+	}
+
+	@Override
+	public void drawArrays(BeginMode mode, int first, int count)
+	{
+		record("drawArrays");
+		this.drawCalls++;
+		this.drawnVertices += count;
+	}
+
+	@Override
+	public void drawElements(BeginMode mode, int count, DrawElementsType type, int offset)
+	{
+		record("drawElements");
+		this.drawCalls++;
+		this.drawnIndices += count;
+	}
+
+	@Override
+	public void enable(EnableCap cap)
+	{
+		record("enable");
+		changeState(this.enabledCaps.add(cap));
+	}
+
+	@Override
+	public void enableVertexAttribArray(int index)
+	{
+		record("enableVertexAttribArray");
+		changeState(this.enabledAttributes.add(index));
+	}
+
+	@Override
+	public void finish()
+	{
+		record("finish");
+	}
+
+	@Override
+	public void flush()
+	{
+		record("flush");
+	}
+
+	@Override
+	public void framebufferRenderbuffer(FramebufferSlot attachment, WebGLRenderbuffer renderbuffer)
+	{
+		record("framebufferRenderbuffer");
+	}
+
+	@Override
+	public void framebufferTexture2D(FramebufferSlot attachment, TextureTarget textarget, WebGLTexture texture, int level)
+	{
+		record("framebufferTexture2D");
+	}
+
+	@Override
+	public void framebufferTexture2D(FramebufferSlot attachment, TextureTarget textarget, int slot, WebGLTexture texture, int level)
+	{
+		record("framebufferTexture2D");
+	}
+
+	@Override
+	public void frontFace(FrontFaceDirection mode)
+	{
+		record("frontFace");
+		changeState(true);
+	}
+
+	@Override
+	public void generateMipmap(TextureTarget target)
+	{
+		record("generateMipmap");
+	}
+
+	@Override
+	public WebGLActiveInfo getActiveAttrib(WebGLProgram program, int index)
+	{
+		record("getActiveAttrib");
+		return null;
+	}
+
+	@Override
+	public WebGLActiveInfo getActiveUniform(WebGLProgram program, int index)
+	{
+		record("getActiveUniform");
+		return null;
+	}
+
+	@Override
+	public WebGLShader[] getAttachedShaders(WebGLProgram program)
+	{
+		record("getAttachedShaders");
+		return new WebGLShader[0];
+	}
+
+	@Override
+	public int getAttribLocation(WebGLProgram program, String name)
+	{
+		record("getAttribLocation");
+		Map<String, Integer> locations = this.attribLocations.get(program);
+		if(locations == null)
+		{
+			locations = new HashMap<String, Integer>();
+			this.attribLocations.put(program, locations);
+		}
+
+		Integer location = locations.get(name);
+		if(location == null)
+		{
+			location = locations.size();
+			locations.put(name, location);
+		}
+
+		return location;
+	}
+
+	@Override
+	public int getBufferParameteri(BufferTarget target, BufferParameterName pname)
+	{
+		record("getBufferParameteri");
+		return 0;
+	}
+
+	@Override
+	public ErrorCode getError()
+	{
+		record("getError");
+		return ErrorCode.NO_ERROR;
+	}
+
+	@Override
+	public WebGLExtension getExtension(String name)
+	{
+		record("getExtension");
+		if(this.isInstancedArrays && name.equals("ANGLE_instanced_arrays"))
+			return createInstancedArrays();
+
+		return null;
+	}
+
+	private native WebGLExtension createInstancedArrays() /*-{
+		var gl = this;
+		return {
+			drawArraysInstancedANGLE: function(mode, first, count, primcount) {
+				gl.@thothbot.parallax.core.client.gl2.RecordingWebGLContext::drawArraysInstanced(II)(count, primcount);
+			},
+			drawElementsInstancedANGLE: function(mode, count, type, offset, primcount) {
+				gl.@thothbot.parallax.core.client.gl2.RecordingWebGLContext::drawElementsInstanced(II)(count, primcount);
+			},
+			vertexAttribDivisorANGLE: function(index, divisor) {
+				gl.@thothbot.parallax.core.client.gl2.RecordingWebGLContext::record(Ljava/lang/String;)("vertexAttribDivisorANGLE");
+			}
+		};
+	}-*/;
+
+	private void drawArraysInstanced(int count, int primcount)
+	{
+		record("drawArraysInstancedANGLE");
+		this.drawCalls++;
+		this.drawnVertices += count * primcount;
+	}
+
+	private void drawElementsInstanced(int count, int primcount)
+	{
+		record("drawElementsInstancedANGLE");
+		this.drawCalls++;
+		this.drawnIndices += count * primcount;
+	}
+
+	@Override
+	public JavaScriptObject getFramebufferAttachmentParameter(FramebufferSlot attachment, FramebufferParameterName pname)
+	{
+		record("getFramebufferAttachmentParameter");
+		return null;
+	}
+
+	@Override
+	public int getFramebufferAttachmentParameteri(FramebufferSlot attachment, FramebufferParameterName pname)
+	{
+		record("getFramebufferAttachmentParameteri");
+		return 0;
+	}
+
+	@Override
+	public <T extends JavaScriptObject> T getParameter(int pname)
+	{
+		record("getParameter");
+		return null;
+	}
+
+	@Override
+	public boolean getParameterb(int pname)
+	{
+		record("getParameterb");
+		return false;
+	}
+
+	@Override
+	public double getParameterf(int pname)
+	{
+		record("getParameterf");
+		return 0;
+	}
+
+	@Override
+	public int getParameteri(int pname)
+	{
+		record("getParameteri");
+		Integer value = this.parameters.get(pname);
+		return value != null ? value : 0;
+	}
+
+	@Override
+	public String getProgramInfoLog(WebGLProgram program)
+	{
+		record("getProgramInfoLog");
+		return "";
+	}
+
+	@Override
+	public boolean getProgramParameterb(WebGLProgram program, ProgramParameter pname)
+	{
+		record("getProgramParameterb");
+		return true;
+	}
+
+	@Override
+	public int getProgramParameteri(WebGLProgram program, ProgramParameter pname)
+	{
+		record("getProgramParameteri");
+		return 0;
+	}
+
+	@Override
+	public int getRenderbufferParameteri(RenderbufferParameterName pname)
+	{
+		record("getRenderbufferParameteri");
+		return 0;
+	}
+
+	@Override
+	public String getShaderInfoLog(WebGLShader shader)
+	{
+		record("getShaderInfoLog");
+		return "";
+	}
+
+	@Override
+	public boolean getShaderParameterb(WebGLShader shader, int pname)
+	{
+		record("getShaderParameterb");
+		return true;
+	}
+
+	@Override
+	public int getShaderParameteri(WebGLShader shader, int pname)
+	{
+		record("getShaderParameteri");
+		return 0;
+	}
+
+	@Override
+	public String getShaderSource(WebGLShader shader)
+	{
+		record("getShaderSource");
+		return this.shaderSources.get(shader);
+	}
+
+	@Override
+	public String[] getSupportedExtensions()
+	{
+		record("getSupportedExtensions");
+		return new String[0];
+	}
+
+	@Override
+	public JsArrayString getSupportedExtensionsAsJsArray()
+	{
+		record("getSupportedExtensionsAsJsArray");
+		return JavaScriptObject.createArray().cast();
+	}
+
+	@Override
+	public int getTexParameteri(int target, int pname)
+	{
+		record("getTexParameteri");
+		return 0;
+	}
+
+	@Override
+	public <T extends thothbot.parallax.core.client.gl2.arrays.TypeArray> T getUniform(WebGLProgram program, WebGLUniformLocation location)
+	{
+		record("getUniform");
+		return null;
+	}
+
+	@Override
+	public boolean getUniformb(WebGLProgram program, WebGLUniformLocation location)
+	{
+		record("getUniformb");
+		return false;
+	}
+
+	@Override
+	public double getUniformf(WebGLProgram program, WebGLUniformLocation location)
+	{
+		record("getUniformf");
+		return 0;
+	}
+
+	@Override
+	public int getUniformi(WebGLProgram program, WebGLUniformLocation location)
+	{
+		record("getUniformi");
+		return 0;
+	}
+
+	@Override
+	public WebGLUniformLocation getUniformLocation(WebGLProgram program, String name)
+	{
+		record("getUniformLocation");
+		WebGLUniformLocation location = JavaScriptObject.createObject().cast();
+		this.uniformNames.put(location, name);
+		return location;
+	}
+
+	@Override
+	public <T extends JavaScriptObject> T getVertexAttrib(int index, int pname)
+	{
+		record("getVertexAttrib");
+		return null;
+	}
+
+	@Override
+	public boolean getVertexAttribb(int index, int pname)
+	{
+		record("getVertexAttribb");
+		return false;
+	}
+
+	@Override
+	public int getVertexAttribi(int index, int pname)
+	{
+		record("getVertexAttribi");
+		return 0;
+	}
+
+	@Override
+	public int getVertexAttribOffset(int index, String pname)
+	{
+		record("getVertexAttribOffset");
+		return 0;
+	}
+
+	@Override
+	public boolean isBuffer(WebGLBuffer buffer)
+	{
+		record("isBuffer");
+		return false;
+	}
+
+	@Override
+	public boolean isFramebuffer(JavaScriptObject buffer)
+	{
+		record("isFramebuffer");
+		return false;
+	}
+
+	@Override
+	public boolean isProgram(WebGLProgram program)
+	{
+		record("isProgram");
+		return false;
+	}
+
+	@Override
+	public boolean isRenderbuffer(WebGLRenderbuffer buffer)
+	{
+		record("isRenderbuffer");
+		return false;
+	}
+
+	@Override
+	public boolean isShader(JavaScriptObject shader)
+	{
+		record("isShader");
+		return false;
+	}
+
+	@Override
+	public boolean isTexture(WebGLTexture texture)
+	{
+		record("isTexture");
+		return false;
+	}
+
+	@Override
+	public void lineWidth(double width)
+	{
+		record("lineWidth");
+		changeState(true);
+	}
+
+	@Override
+	public void linkProgram(WebGLProgram program)
+	{
+		record("linkProgram");
+	}
+
+	@Override
+	public void pixelStorei(PixelStoreParameter pname, int param)
+	{
+		record("pixelStorei");
+		changeState(true);
+	}
+
+	@Override
+	public void polygonOffset(double factor, double units)
+	{
+		record("polygonOffset");
+		changeState(true);
+	}
+
+	@Override
+	public void readPixels(int x, int y, int width, int height, PixelFormat format, PixelType type, ArrayBufferView pixels)
+	{
+		record("readPixels");
+	}
+
+	@Override
+	public void renderbufferStorage(RenderbufferInternalFormat internalformat, int width, int height)
+	{
+		record("renderbufferStorage");
+	}
+
+	@Override
+	public void sampleCoverage(double value, boolean invert)
+	{
+		record("sampleCoverage");
+		changeState(true);
+	}
+
+	@Override
+	public void scissor(int x, int y, int width, int height)
+	{
+		record("scissor");
+		changeState(true);
+	}
+
+	@Override
+	public void shaderSource(WebGLShader shader, String source)
+	{
+		record("shaderSource");
+		this.shaderSources.put(shader, source);
+	}
+
+	@Override
+	public void stencilFunc(StencilFunction func, int ref, int mask)
+	{
+		record("stencilFunc");
+		changeState(true);
+	}
+
+	@Override
+	public void stencilFuncSeparate(CullFaceMode face, StencilFunction func, int ref, int mask)
+	{
+		record("stencilFuncSeparate");
+		changeState(true);
+	}
+
+	@Override
+	public void stencilFuncSeparate(int face, int func, int ref, int mask)
+	{
+		record("stencilFuncSeparate");
+		changeState(true);
+	}
+
+	@Override
+	public void stencilMask(int mask)
+	{
+		record("stencilMask");
+		changeState(true);
+	}
+
+	@Override
+	public void stencilMaskSeparate(CullFaceMode face, int mask)
+	{
+		record("stencilMaskSeparate");
+		changeState(true);
+	}
+
+	@Override
+	public void stencilOp(StencilOp fail, StencilOp zfail, StencilOp zpass)
+	{
+		record("stencilOp");
+		changeState(true);
+	}
+
+	@Override
+	public void stencilOpSeparate(CullFaceMode face, StencilOp fail, StencilOp zfail, StencilOp zpass)
+	{
+		record("stencilOpSeparate");
+		changeState(true);
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int level, int width, int height, int border, PixelFormat format, PixelType type, ArrayBufferView pixels)
+	{
+		record("texImage2D");
+		if(pixels != null)
+			this.uploadedTextureBytes += pixels.getByteLength();
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int slot, int level, int width, int height, int border, PixelFormat format, PixelType type, ArrayBufferView pixels)
+	{
+		record("texImage2D");
+		if(pixels != null)
+			this.uploadedTextureBytes += pixels.getByteLength();
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int level, PixelFormat format, PixelType type, CanvasElement pixels)
+	{
+		record("texImage2D");
+		this.uploadedTextureBytes += pixels.getWidth() * pixels.getHeight() * 4;
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int slot, int level, PixelFormat format, PixelType type, CanvasElement pixels)
+	{
+		record("texImage2D");
+		this.uploadedTextureBytes += pixels.getWidth() * pixels.getHeight() * 4;
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int level, PixelFormat format, PixelType type, ImageData pixels)
+	{
+		record("texImage2D");
+		this.uploadedTextureBytes += pixels.getWidth() * pixels.getHeight() * 4;
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int level, PixelFormat format, PixelType type, ImageElement pixels)
+	{
+		record("texImage2D");
+		this.uploadedTextureBytes += pixels.getWidth() * pixels.getHeight() * 4;
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int slot, int level, PixelFormat format, PixelType type, ImageElement pixels)
+	{
+		record("texImage2D");
+		this.uploadedTextureBytes += pixels.getWidth() * pixels.getHeight() * 4;
+	}
+
+	@Override
+	public void texImage2D(TextureTarget target, int level, PixelFormat format, PixelType type, VideoElement pixels)
+	{
+		record("texImage2D");
+		this.uploadedTextureBytes += pixels.getVideoWidth() * pixels.getVideoHeight() * 4;
+	}
+
+	@Override
+	public void compressedTexImage2D(TextureTarget target, int level, int format, int width, int height, int border, ArrayBufferView pixels)
+	{
+		record("compressedTexImage2D");
+		this.uploadedTextureBytes += pixels.getByteLength();
+	}
+
+	@Override
+	public void texParameterf(TextureTarget target, TextureParameterName pname, double param)
+	{
+		record("texParameterf");
+	}
+
+	@Override
+	public void texParameteri(TextureTarget target, TextureParameterName pname, int param)
+	{
+		record("texParameteri");
+	}
+
+	@Override
+	public void texSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, TypeArray data)
+	{
+		record("texSubImage2D");
+		this.uploadedTextureBytes += data.getByteLength();
+	}
+
+	@Override
+	public void texSubImage2D(int target, int level, int xoffset, int yoffset, JavaScriptObject data)
+	{
+		record("texSubImage2D");
+	}
+
+	@Override
+	public void texSubImage2D(int target, int level, int xoffset, int yoffset, JavaScriptObject data, boolean flipY)
+	{
+		record("texSubImage2D");
+	}
+
+	@Override
+	public void texSubImage2D(int target, int level, int xoffset, int yoffset, JavaScriptObject data, boolean flipY, boolean asPremultipliedAlpha)
+	{
+		record("texSubImage2D");
+	}
+
+	@Override
+	public void uniform1f(WebGLUniformLocation location, double v0)
+	{
+		record("uniform1f");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1fv(WebGLUniformLocation location, double[] values)
+	{
+		record("uniform1fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1fv(WebGLUniformLocation location, JsArrayNumber values)
+	{
+		record("uniform1fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1fv(WebGLUniformLocation location, Float32Array v)
+	{
+		record("uniform1fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1i(WebGLUniformLocation location, int v0)
+	{
+		record("uniform1i");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1iv(WebGLUniformLocation location, int[] values)
+	{
+		record("uniform1iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1iv(WebGLUniformLocation location, Int32Array v)
+	{
+		record("uniform1iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform1iv(WebGLUniformLocation location, JsArrayInteger values)
+	{
+		record("uniform1iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2f(WebGLUniformLocation location, double v0, double v1)
+	{
+		record("uniform2f");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2fv(WebGLUniformLocation location, double[] values)
+	{
+		record("uniform2fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2fv(WebGLUniformLocation location, Float32Array v)
+	{
+		record("uniform2fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2fv(WebGLUniformLocation location, JsArrayNumber values)
+	{
+		record("uniform2fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2i(WebGLUniformLocation location, int v0, int v1)
+	{
+		record("uniform2i");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2iv(WebGLUniformLocation location, int[] values)
+	{
+		record("uniform2iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2iv(WebGLUniformLocation location, Int32Array v)
+	{
+		record("uniform2iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform2iv(WebGLUniformLocation location, JsArrayInteger values)
+	{
+		record("uniform2iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3f(WebGLUniformLocation location, double v0, double v1, double v2)
+	{
+		record("uniform3f");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3fv(WebGLUniformLocation location, double[] values)
+	{
+		record("uniform3fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3fv(WebGLUniformLocation location, Float32Array v)
+	{
+		record("uniform3fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3fv(WebGLUniformLocation location, JsArrayNumber values)
+	{
+		record("uniform3fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3i(WebGLUniformLocation location, int v0, int v1, int v2)
+	{
+		record("uniform3i");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3iv(WebGLUniformLocation location, int[] values)
+	{
+		record("uniform3iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3iv(WebGLUniformLocation location, JsArrayInteger values)
+	{
+		record("uniform3iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform3iv(WebGLUniformLocation location, Int32Array v)
+	{
+		record("uniform3iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4f(WebGLUniformLocation location, double v0, double v1, double v2, double v3)
+	{
+		record("uniform4f");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4fv(WebGLUniformLocation location, double[] values)
+	{
+		record("uniform4fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4fv(WebGLUniformLocation location, Float32Array v)
+	{
+		record("uniform4fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4fv(WebGLUniformLocation location, JsArrayNumber values)
+	{
+		record("uniform4fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4i(WebGLUniformLocation location, int v0, int v1, int v2, int v3)
+	{
+		record("uniform4i");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4iv(WebGLUniformLocation location, int[] values)
+	{
+		record("uniform4iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4iv(WebGLUniformLocation location, Int32Array v)
+	{
+		record("uniform4iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniform4iv(WebGLUniformLocation location, JsArrayInteger values)
+	{
+		record("uniform4iv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix2fv(WebGLUniformLocation location, boolean transpose, double[] value)
+	{
+		record("uniformMatrix2fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix2fv(WebGLUniformLocation location, boolean transpose, Float32Array value)
+	{
+		record("uniformMatrix2fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix2fv(WebGLUniformLocation location, boolean transpose, JsArrayNumber value)
+	{
+		record("uniformMatrix2fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix3fv(WebGLUniformLocation location, boolean transpose, double[] value)
+	{
+		record("uniformMatrix3fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix3fv(WebGLUniformLocation location, boolean transpose, Float32Array value)
+	{
+		record("uniformMatrix3fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix3fv(WebGLUniformLocation location, boolean transpose, JsArrayNumber value)
+	{
+		record("uniformMatrix3fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix4fv(WebGLUniformLocation location, boolean transpose, double[] value)
+	{
+		record("uniformMatrix4fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix4fv(WebGLUniformLocation location, boolean transpose, Float32Array value)
+	{
+		record("uniformMatrix4fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void uniformMatrix4fv(WebGLUniformLocation location, boolean transpose, JsArrayNumber value)
+	{
+		record("uniformMatrix4fv");
+		uploadUniform(location);
+	}
+
+	@Override
+	public void useProgram(WebGLProgram program)
+	{
+		record("useProgram");
+		changeState(this.currentProgram != program);
+		this.currentProgram = program;
+	}
+
+	@Override
+	public void validateProgram(WebGLProgram program)
+	{
+		record("validateProgram");
+	}
+
+	@Override
+	public void vertexAttrib1f(int index, double x)
+	{
+		record("vertexAttrib1f");
+	}
+
+	@Override
+	public void vertexAttrib1fv(int index, double[] values)
+	{
+		record("vertexAttrib1fv");
+	}
+
+	@Override
+	public void vertexAttrib1fv(int index, Float32Array values)
+	{
+		record("vertexAttrib1fv");
+	}
+
+	@Override
+	public void vertexAttrib1fv(int index, JsArrayNumber values)
+	{
+		record("vertexAttrib1fv");
+	}
+
+	@Override
+	public void vertexAttrib2f(int index, double x, double y)
+	{
+		record("vertexAttrib2f");
+	}
+
+	@Override
+	public void vertexAttrib2fv(int index, double[] values)
+	{
+		record("vertexAttrib2fv");
+	}
+
+	@Override
+	public void vertexAttrib2fv(int index, Float32Array values)
+	{
+		record("vertexAttrib2fv");
+	}
+
+	@Override
+	public void vertexAttrib2fv(int index, JsArrayNumber values)
+	{
+		record("vertexAttrib2fv");
+	}
+
+	@Override
+	public void vertexAttrib3f(int index, double x, double y, double z)
+	{
+		record("vertexAttrib3f");
+	}
+
+	@Override
+	public void vertexAttrib3fv(int index, double[] values)
+	{
+		record("vertexAttrib3fv");
+	}
+
+	@Override
+	public void vertexAttrib3fv(int index, Float32Array values)
+	{
+		record("vertexAttrib3fv");
+	}
+
+	@Override
+	public void vertexAttrib3fv(int index, JsArrayNumber values)
+	{
+		record("vertexAttrib3fv");
+	}
+
+	@Override
+	public void vertexAttrib4f(int index, double x, double y, double z, double w)
+	{
+		record("vertexAttrib4f");
+	}
+
+	@Override
+	public void vertexAttrib4fv(int index, double[] values)
+	{
+		record("vertexAttrib4fv");
+	}
+
+	@Override
+	public void vertexAttrib4fv(int index, Float32Array values)
+	{
+		record("vertexAttrib4fv");
+	}
+
+	@Override
+	public void vertexAttrib4fv(int index, JsArrayNumber values)
+	{
+		record("vertexAttrib4fv");
+	}
+
+	@Override
+	public void vertexAttribPointer(int indx, int size, DataType type, boolean normalized, int stride, int offset)
+	{
+		record("vertexAttribPointer");
+	}
+
+	@Override
+	public void viewport(int x, int y, int width, int height)
+	{
+		record("viewport");
+		this.viewport[0] = x;
+		this.viewport[1] = y;
+		this.viewport[2] = width;
+		this.viewport[3] = height;
+	}
+}
@@ -66,9 +66,10 @@ import com.google.gwt.dom.client.ImageElement;
 import com.google.gwt.dom.client.VideoElement;
 
 /**
- * 
+ * The browser implementation of {@link WebGLContext}, which wraps
+ * the native WebGL rendering context.
  */
-public final class WebGLRenderingContext extends JavaScriptObject implements Context 
+public final class WebGLRenderingContext extends JavaScriptObject implements Context, WebGLContext 
 {
 
   /**
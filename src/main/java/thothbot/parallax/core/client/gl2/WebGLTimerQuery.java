@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * The timer query object, provided by EXT_disjoint_timer_query extension.
+ * It measures how long the graphic card was executing the commands 
+ * issued between the begin and the end of the query.
+ * 
+ * @author thothbot
+ *
+ */
+public final class WebGLTimerQuery extends JavaScriptObject 
+{
+	protected WebGLTimerQuery() 
+	{
+	}
+}
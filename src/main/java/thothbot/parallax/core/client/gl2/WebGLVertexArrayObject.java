@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * The vertex array object, provided by OES_vertex_array_object extension. 
+ * It stores the bound element array buffer and the state of all vertex 
+ * attributes, so they can be restored by one bind.
+ * 
+ * @author thothbot
+ *
+ */
+public final class WebGLVertexArrayObject extends JavaScriptObject 
+{
+	protected WebGLVertexArrayObject() 
+	{
+	}
+}
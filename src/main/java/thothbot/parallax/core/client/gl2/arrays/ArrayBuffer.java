@@ -13,18 +13,26 @@
  */
 package thothbot.parallax.core.client.gl2.arrays;
 
-import com.google.gwt.core.client.JavaScriptObject;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * The ArrayBuffer type describes a buffer used to store data for the 
  * TypedArray interface and its subclasses
+ * <p>
+ * This is the JVM implementation which keeps the data in a {@link ByteBuffer} 
+ * using the platform byte order. The browser uses the super-sourced one 
+ * which wraps the native ArrayBuffer.
  * 
  * @author hao1300@gmail.com
+ * @author thothbot
  */
-public final class ArrayBuffer extends JavaScriptObject {
+public final class ArrayBuffer {
 
-	protected ArrayBuffer() {
-		
+	private final ByteBuffer data;
+
+	private ArrayBuffer(int length) {
+		this.data = ByteBuffer.allocate(length).order(ByteOrder.nativeOrder());
 	}
 	
 	/**
@@ -34,14 +42,24 @@ public final class ArrayBuffer extends JavaScriptObject {
 	 * @param length number of bytes
 	 * @return the new ArrayBuffer
 	 */
-	public static native ArrayBuffer create(int length) /*-{
-		return new $wnd.ArrayBuffer(length);		
-	}-*/;
+	public static ArrayBuffer create(int length) {
+		return new ArrayBuffer(length);
+	}
 	
 	/**
 	 * The length of the ArrayBuffer in bytes, as fixed at construction time.
 	 */
-	public native int getByteLength() /*-{
-		return this.byteLength;
-	}-*/;
+	public int getByteLength() {
+		return this.data.capacity();
+	}
+
+	/**
+	 * Gets the part of the buffer which is shared by the views.
+	 */
+	ByteBuffer getData(int byteOffset, int byteLength) {
+		ByteBuffer data = this.data.duplicate();
+		data.position(byteOffset);
+		data.limit(byteOffset + byteLength);
+		return data.slice().order(ByteOrder.nativeOrder());
+	}
 }
@@ -13,40 +13,60 @@
  */
 package thothbot.parallax.core.client.gl2.arrays;
 
-import com.google.gwt.core.client.JavaScriptObject;
-
 /**
  * The ArrayBufferView type holds information shared among all of the types of 
  * views of {@link ArrayBuffer}s.
  * 
  * @author hao1300@gmail.com
+ * @author thothbot
  */
-public abstract class ArrayBufferView extends JavaScriptObject {
+public abstract class ArrayBufferView {
+
+	private ArrayBuffer buffer;
+	private int byteOffset;
+	private int byteLength;
+
+	protected ArrayBufferView(ArrayBuffer buffer, int byteOffset, int byteLength) {
+		if (byteOffset < 0 || byteLength < 0 
+				|| byteOffset + byteLength > buffer.getByteLength()) {
+			throw new IndexOutOfBoundsException("View is out of the buffer range: " 
+					+ byteOffset + ", " + byteLength);
+		}
 
-	protected ArrayBufferView() {
-		
+		this.buffer = buffer;
+		this.byteOffset = byteOffset;
+		this.byteLength = byteLength;
+	}
+
+	/**
+	 * Moves the view to the new buffer, used by the growable arrays.
+	 */
+	void reset(ArrayBuffer buffer, int byteOffset, int byteLength) {
+		this.buffer = buffer;
+		this.byteOffset = byteOffset;
+		this.byteLength = byteLength;
 	}
 	
 	/**
 	 * @return The {@link ArrayBuffer} that this ArrayBufferView references.
 	 */
-	public final native ArrayBuffer getBuffer() /*-{
+	public final ArrayBuffer getBuffer() {
 		return this.buffer;
-	}-*/;
+	}
 	
 	/**
 	 * @return The offset of this ArrayBufferView from the start of its 
 	 * 				 {@link ArrayBuffer}, in bytes, as fixed at construction time.
 	 */
-	public final native int getByteOffset() /*-{
+	public final int getByteOffset() {
 		return this.byteOffset;
-	}-*/;
+	}
 	
 	/**
 	 * @return The length of the ArrayBufferView in bytes, as fixed at 
 	 * 				 construction time.
 	 */
-	public final native int getByteLength() /*-{
+	public final int getByteLength() {
 		return this.byteLength;
-	}-*/;  
-}
\ No newline at end of file
+	}  
+}
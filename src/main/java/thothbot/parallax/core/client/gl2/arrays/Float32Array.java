@@ -13,21 +13,43 @@
  */
 package thothbot.parallax.core.client.gl2.arrays;
 
-import com.google.gwt.core.client.GWT;
+import java.nio.FloatBuffer;
+
 import com.google.gwt.core.client.JsArrayNumber;
 
 /**
  * The typed array that holds float (32-bit IEEE floating point) as its element.
+ * <p>
+ * This is the JVM implementation which keeps the elements in a 
+ * {@link FloatBuffer} view of the {@link ArrayBuffer}. The browser uses the 
+ * super-sourced one which wraps the native typed array.
  * 
  * @author hao1300@gmail.com
+ * @author thothbot
  */
 public final class Float32Array extends TypeArray {
 	public static final int BYTES_PER_ELEMENT = 4;
 	
-	protected Float32Array() {
-		
+	private FloatBuffer data;
+	private boolean isGrowable;
+	
+	private Float32Array(ArrayBuffer buffer, int byteOffset, int length) {
+		super(buffer, byteOffset, length, BYTES_PER_ELEMENT);
+		this.data = buffer.getData(byteOffset, length * BYTES_PER_ELEMENT).asFloatBuffer();
 	}
 	
+	/**
+	 * Creates an empty array which grows when an element is set past its end. 
+	 * In the browser this is the plain JavaScript array inherited from 
+	 * JavaScriptObject, which is used for the uniform arrays filled element 
+	 * by element, like the light positions.
+	 */
+	public static Float32Array createArray() {
+		Float32Array array = create(0);
+		array.isGrowable = true;
+		return array;
+	}
+
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold length elements 
 	 * of this typed array, then creates a typed array view referring to the full 
@@ -35,9 +57,9 @@ public final class Float32Array extends TypeArray {
 	 * 
 	 * @param length
 	 */
-	public static native Float32Array create(int length) /*-{
-		return new $wnd.Float32Array(length);
-	}-*/;
+	public static Float32Array create(int length) {
+		return new Float32Array(ArrayBuffer.create(length * BYTES_PER_ELEMENT), 0, length);
+	}
 	
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold array.length 
@@ -48,9 +70,13 @@ public final class Float32Array extends TypeArray {
 	 * 
 	 * @param array
 	 */
-	public static native Float32Array create(TypeArray array) /*-{
-		return new $wnd.Float32Array(array);
-	}-*/;
+	public static Float32Array create(TypeArray array) {
+		Float32Array result = create(array.getLength());
+		for (int i = 0, il = array.getLength(); i < il; i++) {
+			result.setDouble(i, array.getDouble(i));
+		}
+		return result;
+	}
 	
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold array.length 
@@ -62,16 +88,13 @@ public final class Float32Array extends TypeArray {
 	 * @param array
 	 */
 	public static Float32Array create(double... array) {
-		if (GWT.isScript()) {
-			return createCompiled(array);
+		Float32Array result = create(array.length);
+		for (int i = 0; i < array.length; i++) {
+			result.set(i, array[i]);
 		}
-		return create(JsArrayUtil.toJsArrayNumber(array));
+		return result;
 	}
 	
-	private static native Float32Array createCompiled(double[] array) /*-{
-		return new $wnd.Float32Array(array);
-	}-*/;
-	
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold array.length 
 	 * elements of this typed array, then creates a typed array view referring 
@@ -81,9 +104,11 @@ public final class Float32Array extends TypeArray {
 	 * 
 	 * @param array
 	 */
-	public static native Float32Array create(JsArrayNumber array) /*-{
-		return new $wnd.Float32Array(array);
-	}-*/;
+	public static Float32Array create(JsArrayNumber array) {
+		Float32Array result = create(array.length());
+		result.set(array);
+		return result;
+	}
 	
 	/**
 	 * Create a new Float32Array object using the passed {@link ArrayBuffer} for 
@@ -91,9 +116,9 @@ public final class Float32Array extends TypeArray {
 	 * 
 	 * @param buffer
 	 */
-	public static native Float32Array create(ArrayBuffer buffer) /*-{
-		return new $wnd.Float32Array(buffer);
-	}-*/;
+	public static Float32Array create(ArrayBuffer buffer) {
+		return create(buffer, 0);
+	}
 	
 	/**
 	 * Create a new Float32Array object using the passed {@link ArrayBuffer} for 
@@ -114,9 +139,13 @@ public final class Float32Array extends TypeArray {
 	 * @param byteOffset indicates the offset in bytes from the start of the 
 	 * 				{@link ArrayBuffer} 
 	 */
-	public static native Float32Array create(ArrayBuffer buffer, int byteOffset) /*-{
-		return new $wnd.Float32Array(buffer, byteOffset);
-	}-*/;
+	public static Float32Array create(ArrayBuffer buffer, int byteOffset) {
+		int byteLength = buffer.getByteLength() - byteOffset;
+		if (byteLength % BYTES_PER_ELEMENT != 0) {
+			throw new IndexOutOfBoundsException("Buffer length is not a multiple of " + BYTES_PER_ELEMENT);
+		}
+		return create(buffer, byteOffset, byteLength / BYTES_PER_ELEMENT);
+	}
 	
 	/**
 	 * Create a new Float32Array object using the passed {@link ArrayBuffer} for 
@@ -134,19 +163,19 @@ public final class Float32Array extends TypeArray {
 	 * @param length the count of elements from the offset that this 
 	 * 				Float32Array will reference
 	 */
-	public static native Float32Array create(ArrayBuffer buffer, int byteOffset,
-			int length) /*-{
-		return new $wnd.Float32Array(buffer, byteOffset, length);
-	}-*/;
+	public static Float32Array create(ArrayBuffer buffer, int byteOffset,
+			int length) {
+		return new Float32Array(buffer, byteOffset, length);
+	}
   
 	/**
 	 * Returns the element at the given numeric index.
 	 * 
 	 * @param index
 	 */
-  public native double get(int index) /*-{
-  	return this[index];
-  }-*/;
+  public double get(int index) {
+  	return data.get(index);
+  }
   
   /**
    * Sets the element at the given numeric index to the given value.
@@ -154,16 +183,33 @@ public final class Float32Array extends TypeArray {
    * @param index
    * @param value
    */
-  public native void set(int index, double value) /*-{
-  	 this[index] = value;
-  }-*/;
+  public void set(int index, double value) {
+  	if (index >= getLength() && this.isGrowable) {
+  		grow(index + 1);
+  	}
+  	data.put(index, (float) value);
+  }
+
+  private void grow(int length) {
+  	if (length > data.capacity()) {
+  		ArrayBuffer buffer = ArrayBuffer.create(Math.max(length, data.capacity() * 2) * BYTES_PER_ELEMENT);
+  		FloatBuffer data = buffer.getData(0, buffer.getByteLength()).asFloatBuffer();
+  		for (int i = 0, il = getLength(); i < il; i++) {
+  			data.put(i, this.data.get(i));
+  		}
+  		this.data = data;
+  		reset(buffer, length, BYTES_PER_ELEMENT);
+  	} else {
+  		reset(getBuffer(), length, BYTES_PER_ELEMENT);
+  	}
+  }
   
   /**
    * Set multiple values, reading input values from the array. 
    */
-  public native void set(JsArrayNumber array) /*-{
-  	this.set(array);
-  }-*/;
+  public void set(JsArrayNumber array) {
+  	set(array, 0);
+  }
   
   /**
    * /**
@@ -173,9 +219,11 @@ public final class Float32Array extends TypeArray {
    * @param offset indicates the index in the current array where values are 
    * 				written.
    */
-  public native void set(JsArrayNumber array, int offset) /*-{
-  	this.set(array, offset);
-  }-*/;
+  public void set(JsArrayNumber array, int offset) {
+  	for (int i = 0, il = array.length(); i < il; i++) {
+  		set(offset + i, array.get(i));
+  	}
+  }
   
   /**
    * Returns a new Float32Array view of the {@link ArrayBuffer} store for this 
@@ -194,9 +242,9 @@ public final class Float32Array extends TypeArray {
    * 
    * @param begin
    */
-  public native Float32Array slice(int begin) /*-{
-		return this.slice(begin);
-	}-*/;
+  public Float32Array slice(int begin) {
+  	return slice(begin, getLength());
+  }
   
   /**
    * Returns a new Float32Array view of the {@link ArrayBuffer} store for this 
@@ -216,7 +264,37 @@ public final class Float32Array extends TypeArray {
    * @param begin
    * @param end
    */
-  public native Float32Array slice(int begin, int end) /*-{
-  	return this.slice(begin, end);
-  }-*/;
+  public Float32Array slice(int begin, int end) {
+  	begin = clampIndex(begin, getLength());
+  	end = clampIndex(end, getLength());
+  	Float32Array result = create(Math.max(end - begin, 0));
+  	for (int i = 0, il = result.getLength(); i < il; i++) {
+  		result.set(i, get(begin + i));
+  	}
+  	return result;
+  }
+
+  /**
+   * Returns a new Float32Array view of the same {@link ArrayBuffer}, 
+   * referencing the elements at begin, inclusive, up to end, exclusive.
+   * The data is not copied.
+   * 
+   * @param begin
+   * @param end
+   */
+  public Float32Array subarray(int begin, int end) {
+  	begin = clampIndex(begin, getLength());
+  	end = clampIndex(end, getLength());
+  	return new Float32Array(getBuffer(), getByteOffset() + begin * BYTES_PER_ELEMENT, Math.max(end - begin, 0));
+  }
+
+  @Override
+  double getDouble(int index) {
+  	return get(index);
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+  	set(index, value);
+  }
 }
@@ -13,19 +13,28 @@
  */
 package thothbot.parallax.core.client.gl2.arrays;
 
-import com.google.gwt.core.client.GWT;
+import java.nio.ByteBuffer;
+
 import com.google.gwt.core.client.JsArrayInteger;
 
 /**
  * The typed array that holds signed char (8-bit 2's complement signed integer) as its element.
+ * <p>
+ * This is the JVM implementation which keeps the elements in a 
+ * {@link ByteBuffer} view of the {@link ArrayBuffer}. The browser uses the 
+ * super-sourced one which wraps the native typed array.
  * 
  * @author hao1300@gmail.com
+ * @author thothbot
  */
 public final class Int8Array extends TypeArray {
 	public static final int BYTES_PER_ELEMENT = 1;
 	
-	protected Int8Array() {
-		
+	private final ByteBuffer data;
+	
+	private Int8Array(ArrayBuffer buffer, int byteOffset, int length) {
+		super(buffer, byteOffset, length, BYTES_PER_ELEMENT);
+		this.data = buffer.getData(byteOffset, length * BYTES_PER_ELEMENT);
 	}
 	
 	/**
@@ -35,9 +44,9 @@ public final class Int8Array extends TypeArray {
 	 * 
 	 * @param length
 	 */
-	public static native Int8Array create(int length) /*-{
-		return new $wnd.Int8Array(length);
-	}-*/;
+	public static Int8Array create(int length) {
+		return new Int8Array(ArrayBuffer.create(length * BYTES_PER_ELEMENT), 0, length);
+	}
 	
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold array.length 
@@ -48,9 +57,13 @@ public final class Int8Array extends TypeArray {
 	 * 
 	 * @param array
 	 */
-	public static native Int8Array create(TypeArray array) /*-{
-		return new $wnd.Int8Array(array);
-	}-*/;
+	public static Int8Array create(TypeArray array) {
+		Int8Array result = create(array.getLength());
+		for (int i = 0, il = array.getLength(); i < il; i++) {
+			result.setDouble(i, array.getDouble(i));
+		}
+		return result;
+	}
 	
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold array.length 
@@ -62,16 +75,13 @@ public final class Int8Array extends TypeArray {
 	 * @param array
 	 */
 	public static Int8Array create(int... array) {
-		if (GWT.isScript()) {
-			return createCompiled(array);
+		Int8Array result = create(array.length);
+		for (int i = 0; i < array.length; i++) {
+			result.set(i, array[i]);
 		}
-		return create(JsArrayUtil.toJsArrayInteger(array));
+		return result;
 	}
 	
-	private static native Int8Array createCompiled(int[] array) /*-{
-		return new $wnd.Int8Array(array);
-	}-*/;
-	
 	/**
 	 * Create a new {@link ArrayBuffer} with enough bytes to hold array.length 
 	 * elements of this typed array, then creates a typed array view referring 
@@ -81,9 +91,11 @@ public final class Int8Array extends TypeArray {
 	 * 
 	 * @param array
 	 */
-	public static native Int8Array create(JsArrayInteger array) /*-{
-		return new $wnd.Int8Array(array);
-	}-*/;
+	public static Int8Array create(JsArrayInteger array) {
+		Int8Array result = create(array.length());
+		result.set(array);
+		return result;
+	}
 	
 	/**
 	 * Create a new Int8Array object using the passed {@link ArrayBuffer} for 
@@ -91,9 +103,9 @@ public final class Int8Array extends TypeArray {
 	 * 
 	 * @param buffer
 	 */
-	public static native Int8Array create(ArrayBuffer buffer) /*-{
-		return new $wnd.Int8Array(buffer);
-	}-*/;
+	public static Int8Array create(ArrayBuffer buffer) {
+		return create(buffer, 0);
+	}
 	
 	/**
 	 * Create a new Int8Array object using the passed {@link ArrayBuffer} for 
@@ -114,9 +126,13 @@ public final class Int8Array extends TypeArray {
 	 * @param byteOffset indicates the offset in bytes from the start of the 
 	 * 				{@link ArrayBuffer} 
 	 */
-	public static native Int8Array create(ArrayBuffer buffer, int byteOffset) /*-{
-		return new $wnd.Int8Array(buffer, byteOffset);
-	}-*/;
+	public static Int8Array create(ArrayBuffer buffer, int byteOffset) {
+		int byteLength = buffer.getByteLength() - byteOffset;
+		if (byteLength % BYTES_PER_ELEMENT != 0) {
+			throw new IndexOutOfBoundsException("Buffer length is not a multiple of " + BYTES_PER_ELEMENT);
+		}
+		return create(buffer, byteOffset, byteLength / BYTES_PER_ELEMENT);
+	}
 	
 	/**
 	 * Create a new Int8Array object using the passed {@link ArrayBuffer} for 
@@ -134,19 +150,19 @@ public final class Int8Array extends TypeArray {
 	 * @param length the count of elements from the offset that this 
 	 * 				Int8Array will reference
 	 */
-	public static native Int8Array create(ArrayBuffer buffer, int byteOffset,
-			int length) /*-{
-		return new $wnd.Int8Array(buffer, byteOffset, length);
-	}-*/;
+	public static Int8Array create(ArrayBuffer buffer, int byteOffset,
+			int length) {
+		return new Int8Array(buffer, byteOffset, length);
+	}
   
 	/**
 	 * Returns the element at the given numeric index.
 	 * 
 	 * @param index
 	 */
-  public native int get(int index) /*-{
-  	return this[index];
-  }-*/;
+  public int get(int index) {
+  	return data.get(index);
+  }
   
   /**
    * Sets the element at the given numeric index to the given value.
@@ -154,16 +170,16 @@ public final class Int8Array extends TypeArray {
    * @param index
    * @param value
    */
-  public native void set(int index, int value) /*-{
-  	 this[index] = value;
-  }-*/;
+  public void set(int index, int value) {
+  	data.put(index, (byte) value);
+  }
   
   /**
    * Set multiple values, reading input values from the array. 
    */
-  public native void set(JsArrayInteger array) /*-{
-  	this.set(array);
-  }-*/;
+  public void set(JsArrayInteger array) {
+  	set(array, 0);
+  }
   
   /**
    * /**
@@ -173,9 +189,11 @@ public final class Int8Array extends TypeArray {
    * @param offset indicates the index in the current array where values are 
    * 				written.
    */
-  public native void set(JsArrayInteger array, int offset) /*-{
-  	this.set(array, offset);
-  }-*/;
+  public void set(JsArrayInteger array, int offset) {
+  	for (int i = 0, il = array.length(); i < il; i++) {
+  		set(offset + i, array.get(i));
+  	}
+  }
   
   /**
    * Returns a new Int8Array view of the {@link ArrayBuffer} store for this 
@@ -194,9 +212,9 @@ public final class Int8Array extends TypeArray {
    * 
    * @param begin
    */
-  public native Int8Array slice(int begin) /*-{
-		return this.slice(begin);
-	}-*/;
+  public Int8Array slice(int begin) {
+  	return slice(begin, getLength());
+  }
   
   /**
    * Returns a new Int8Array view of the {@link ArrayBuffer} store for this 
@@ -216,7 +234,23 @@ public final class Int8Array extends TypeArray {
    * @param begin
    * @param end
    */
-  public native Int8Array slice(int begin, int end) /*-{
-  	return this.slice(begin, end);
-  }-*/;
+  public Int8Array slice(int begin, int end) {
+  	begin = clampIndex(begin, getLength());
+  	end = clampIndex(end, getLength());
+  	Int8Array result = create(Math.max(end - begin, 0));
+  	for (int i = 0, il = result.getLength(); i < il; i++) {
+  		result.set(i, get(begin + i));
+  	}
+  	return result;
+  }
+
+  @Override
+  double getDouble(int index) {
+  	return get(index);
+  }
+
+  @Override
+  void setDouble(int index, double value) {
+  	set(index, (int) (long) value);
+  }
 }
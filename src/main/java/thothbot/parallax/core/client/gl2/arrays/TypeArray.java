@@ -16,13 +16,35 @@ package thothbot.parallax.core.client.gl2.arrays;
 /**
  * The typed array view types represent a view of an {@link ArrayBuffer} that 
  * allows for indexing and manipulation.
+ * <p>
+ * This is the JVM implementation, so the shared math and geometry code can 
+ * be used outside of the browser. The browser uses the super-sourced one 
+ * which wraps the native typed arrays.
  * 
  * @author hao1300@gmail.com
+ * @author thothbot
  */
 public abstract class TypeArray extends ArrayBufferView {
+
+	private int length;
 	
-	protected TypeArray() {
-		
+	protected TypeArray(ArrayBuffer buffer, int byteOffset, int length, int bytesPerElement) {
+		super(buffer, byteOffset, length * bytesPerElement);
+
+		if (byteOffset % bytesPerElement != 0) {
+			throw new IndexOutOfBoundsException("Offset is not a multiple of " 
+					+ bytesPerElement + ": " + byteOffset);
+		}
+
+		this.length = length;
+	}
+
+	/**
+	 * Moves the array to the new buffer, used by the growable arrays.
+	 */
+	void reset(ArrayBuffer buffer, int length, int bytesPerElement) {
+		super.reset(buffer, 0, length * bytesPerElement);
+		this.length = length;
 	}
 	
 	/**
@@ -36,9 +58,9 @@ public abstract class TypeArray extends ArrayBufferView {
    * 
    * @param array
    */
-  public final native void set(Int8Array array) /*-{
-		this.set(array);
-	}-*/;
+  public final void set(Int8Array array) {
+		set(array, 0);
+	}
   
   /**
    * Set multiple values, reading input values from the array. 
@@ -53,14 +75,54 @@ public abstract class TypeArray extends ArrayBufferView {
    * @param offset indicates the index in the current array where values are 
    * 				written.
    */
-  public final native void set(Int8Array array, int offset) /*-{
-  	this.set(array, offset);
-  }-*/;
+  public final void set(Int8Array array, int offset) {
+  	int[] values = new int[array.getLength()];
+  	for (int i = 0; i < values.length; i++) {
+  		values[i] = array.get(i);
+  	}
+  	for (int i = 0; i < values.length; i++) {
+  		setDouble(offset + i, values[i]);
+  	}
+  }
   
+  /**
+   * Sets the element at the given index, whatever the actual element type 
+   * of this array is. Useful for index arrays which can be either 
+   * {@link Uint16Array} or {@link Uint32Array}.
+   * 
+   * @param index the element index
+   * @param value the new value
+   */
+  public final void setElement(int index, int value) {
+  	setDouble(index, value);
+  }
+
   /**
    * Gets the length of this array in elements.
    */
-  public final native int getLength() /*-{
+  public final int getLength() {
   	return this.length;
- 	}-*/;
+ 	}
+
+  /**
+   * Gets the element at the given index converted to double.
+   */
+  abstract double getDouble(int index);
+
+  /**
+   * Sets the element at the given index, the value is converted to the 
+   * element type of this array.
+   */
+  abstract void setDouble(int index, double value);
+
+  /**
+   * Resolves negative index from the end of the array and clamps it to the 
+   * valid range, as slice and subarray do.
+   */
+  static int clampIndex(int index, int length) {
+  	if (index < 0) {
+  		index += length;
+  	}
+  	return Math.max(0, Math.min(index, length));
+  }
 }
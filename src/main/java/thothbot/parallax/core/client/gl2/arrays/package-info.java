@@ -1,4 +1,10 @@
 /**
  * Here are different typed arrays.
+ * <p>
+ * The classes in this package are the JVM implementation backed by 
+ * java.nio buffers, so the shared math and geometry code can be used 
+ * and tested outside of the browser. The GWT compiler uses the 
+ * super-sourced versions from thothbot/parallax/core/super instead, 
+ * which wrap the native JavaScript typed arrays. Both have the same API.
  */
 package thothbot.parallax.core.client.gl2.arrays;
\ No newline at end of file
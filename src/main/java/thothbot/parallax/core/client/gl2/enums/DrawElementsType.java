@@ -23,7 +23,9 @@ import thothbot.parallax.core.client.gl2.WebGLConstants;
 public enum DrawElementsType implements GLEnum
 {
 	UNSIGNED_BYTE(WebGLConstants.UNSIGNED_BYTE),
-	UNSIGNED_SHORT(WebGLConstants.UNSIGNED_SHORT);
+	UNSIGNED_SHORT(WebGLConstants.UNSIGNED_SHORT),
+	// Needs OES_element_index_uint extension
+	UNSIGNED_INT(WebGLConstants.UNSIGNED_INT);
 
 	private final int value;
 
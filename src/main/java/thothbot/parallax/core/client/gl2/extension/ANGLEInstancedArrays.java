@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2.extension;
+
+import thothbot.parallax.core.client.gl2.WebGLExtension;
+
+/**
+ * ANGLE_instanced_arrays extension: draws many instances of the same 
+ * geometry in one call, using per-instance vertex attributes.
+ */
+public class ANGLEInstancedArrays extends WebGLExtension 
+{
+	public static final int VERTEX_ATTRIB_ARRAY_DIVISOR_ANGLE = 0x88FE;
+
+	protected ANGLEInstancedArrays(){
+
+	}
+
+	public final native void drawArraysInstancedANGLE(int mode, int first, int count, int primcount) /*-{
+		this.drawArraysInstancedANGLE(mode, first, count, primcount);
+	}-*/;
+
+	public final native void drawElementsInstancedANGLE(int mode, int count, int type, int offset, int primcount) /*-{
+		this.drawElementsInstancedANGLE(mode, count, type, offset, primcount);
+	}-*/;
+
+	public final native void vertexAttribDivisorANGLE(int index, int divisor) /*-{
+		this.vertexAttribDivisorANGLE(index, divisor);
+	}-*/;
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2.extension;
+
+import thothbot.parallax.core.client.gl2.WebGLExtension;
+import thothbot.parallax.core.client.gl2.WebGLTimerQuery;
+
+/**
+ * EXT_disjoint_timer_query extension: allows to measure the time spent 
+ * by the graphic card using the {@link WebGLTimerQuery}.
+ * <p>
+ * Query results are available asynchronously, usually a few frames later.
+ * Results are not reliable if {@link #GPU_DISJOINT_EXT} parameter is true.
+ * 
+ * @author thothbot
+ *
+ */
+public class ExtDisjointTimerQuery extends WebGLExtension 
+{
+	public static final int QUERY_COUNTER_BITS_EXT     = 0x8864;
+	public static final int CURRENT_QUERY_EXT          = 0x8865;
+	public static final int QUERY_RESULT_EXT           = 0x8866;
+	public static final int QUERY_RESULT_AVAILABLE_EXT = 0x8867;
+	public static final int TIME_ELAPSED_EXT           = 0x88BF;
+	public static final int TIMESTAMP_EXT              = 0x8E28;
+	public static final int GPU_DISJOINT_EXT           = 0x8FBB;
+
+	protected ExtDisjointTimerQuery(){
+
+	}
+
+	public final native WebGLTimerQuery createQueryEXT() /*-{
+		return this.createQueryEXT();
+	}-*/;
+
+	public final native void deleteQueryEXT(WebGLTimerQuery query) /*-{
+		this.deleteQueryEXT(query);
+	}-*/;
+
+	public final native boolean isQueryEXT(WebGLTimerQuery query) /*-{
+		return this.isQueryEXT(query);
+	}-*/;
+
+	/**
+	 * Starts the query, the target should be {@link #TIME_ELAPSED_EXT}.
+	 * Queries of the same target can not be nested.
+	 */
+	public final native void beginQueryEXT(int target, WebGLTimerQuery query) /*-{
+		this.beginQueryEXT(target, query);
+	}-*/;
+
+	public final native void endQueryEXT(int target) /*-{
+		this.endQueryEXT(target);
+	}-*/;
+
+	/**
+	 * Gets boolean parameter of the query, for example {@link #QUERY_RESULT_AVAILABLE_EXT}.
+	 */
+	public final native boolean getQueryObjectEXTb(WebGLTimerQuery query, int pname) /*-{
+		return !!this.getQueryObjectEXT(query, pname);
+	}-*/;
+
+	/**
+	 * Gets numeric parameter of the query, for example {@link #QUERY_RESULT_EXT}
+	 * in nanoseconds.
+	 */
+	public final native double getQueryObjectEXTf(WebGLTimerQuery query, int pname) /*-{
+		return this.getQueryObjectEXT(query, pname);
+	}-*/;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2.extension;
+
+import thothbot.parallax.core.client.gl2.WebGLExtension;
+
+/**
+ * OES_element_index_uint extension. Allows to use 
+ * {@link thothbot.parallax.core.client.gl2.enums.DrawElementsType#UNSIGNED_INT}
+ * indices in drawElements calls.
+ * 
+ * @author thothbot
+ *
+ */
+public class OESElementIndexUint extends WebGLExtension 
+{
+	protected OESElementIndexUint(){
+		
+	}
+}
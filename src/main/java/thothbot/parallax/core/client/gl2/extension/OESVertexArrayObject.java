@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2.extension;
+
+import thothbot.parallax.core.client.gl2.WebGLExtension;
+import thothbot.parallax.core.client.gl2.WebGLVertexArrayObject;
+
+/**
+ * OES_vertex_array_object extension: allows to store the vertex 
+ * attributes setup in the {@link WebGLVertexArrayObject}.
+ * 
+ * @author thothbot
+ *
+ */
+public class OESVertexArrayObject extends WebGLExtension 
+{
+	public static final int VERTEX_ARRAY_BINDING_OES = 0x85B5;
+
+	protected OESVertexArrayObject(){
+
+	}
+
+	public final native WebGLVertexArrayObject createVertexArrayOES() /*-{
+		return this.createVertexArrayOES();
+	}-*/;
+
+	public final native void deleteVertexArrayOES(WebGLVertexArrayObject arrayObject) /*-{
+		this.deleteVertexArrayOES(arrayObject);
+	}-*/;
+
+	public final native boolean isVertexArrayOES(WebGLVertexArrayObject arrayObject) /*-{
+		return this.isVertexArrayOES(arrayObject);
+	}-*/;
+
+	/**
+	 * Binds the vertex array object, or the default one if null is given.
+	 */
+	public final native void bindVertexArrayOES(WebGLVertexArrayObject arrayObject) /*-{
+		this.bindVertexArrayOES(arrayObject);
+	}-*/;
+}
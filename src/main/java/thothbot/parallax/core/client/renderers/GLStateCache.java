@@ -0,0 +1,741 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.renderers;
+
+import thothbot.parallax.core.client.gl2.WebGLBuffer;
+import thothbot.parallax.core.client.gl2.WebGLContext;
+import thothbot.parallax.core.client.gl2.WebGLProgram;
+import thothbot.parallax.core.client.gl2.WebGLTexture;
+import thothbot.parallax.core.client.gl2.WebGLVertexArrayObject;
+import thothbot.parallax.core.client.gl2.arrays.TypeArray;
+import thothbot.parallax.core.client.gl2.enums.BlendEquationMode;
+import thothbot.parallax.core.client.gl2.enums.BlendingFactorDest;
+import thothbot.parallax.core.client.gl2.enums.BlendingFactorSrc;
+import thothbot.parallax.core.client.gl2.enums.BufferTarget;
+import thothbot.parallax.core.client.gl2.enums.BufferUsage;
+import thothbot.parallax.core.client.gl2.enums.CullFaceMode;
+import thothbot.parallax.core.client.gl2.enums.DataType;
+import thothbot.parallax.core.client.gl2.enums.DepthFunction;
+import thothbot.parallax.core.client.gl2.enums.EnableCap;
+import thothbot.parallax.core.client.gl2.enums.FrontFaceDirection;
+import thothbot.parallax.core.client.gl2.enums.StencilFunction;
+import thothbot.parallax.core.client.gl2.enums.StencilOp;
+import thothbot.parallax.core.client.gl2.enums.TextureTarget;
+import thothbot.parallax.core.client.gl2.enums.TextureUnit;
+import thothbot.parallax.core.client.gl2.extension.OESVertexArrayObject;
+
+/**
+ * The layer in front of {@link WebGLContext} which shadows the 
+ * GL state and forwards only the calls which really change it.
+ * <p>
+ * All state changes of the renderer, {@link ShadowMap} and the plugins
+ * should go through this class, otherwise the shadowed state will be out 
+ * of sync. If the context was changed directly, call {@link #reset()}.
+ * 
+ * @author thothbot
+ *
+ */
+public class GLStateCache
+{
+	private static final int MAX_TEXTURE_UNITS = 32;
+	private static final int MAX_ATTRIBUTES = 32;
+
+	private WebGLContext gl;
+
+	private int issuedCalls;
+	private int filteredCalls;
+	private int textureBinds;
+	private int uploadedBytes;
+
+	// Bound objects
+	private WebGLProgram currentProgram;
+	private WebGLBuffer currentArrayBuffer;
+	private WebGLBuffer currentElementArrayBuffer;
+	private WebGLVertexArrayObject currentVertexArray;
+	private int currentTextureUnit;
+	private WebGLTexture[] currentTextures2D;
+	private WebGLTexture[] currentTexturesCube;
+
+	// Vertex attributes
+	private Boolean[] attributesEnabled;
+	private WebGLBuffer[] attributesBuffer;
+	private int[] attributesSize;
+	private DataType[] attributesType;
+	private boolean[] attributesNormalized;
+	private int[] attributesStride;
+	private int[] attributesOffset;
+
+	// Capabilities, indexed by ordinal
+	private Boolean[] capabilities;
+
+	private CullFaceMode currentCullFace;
+	private FrontFaceDirection currentFrontFace;
+	private double currentLineWidth;
+
+	private BlendEquationMode currentBlendEquation;
+	private BlendEquationMode currentBlendEquationAlpha;
+	private BlendingFactorSrc currentBlendSrc;
+	private BlendingFactorDest currentBlendDst;
+	private BlendingFactorSrc currentBlendSrcAlpha;
+	private BlendingFactorDest currentBlendDstAlpha;
+
+	private DepthFunction currentDepthFunc;
+	private Boolean currentDepthMask;
+	private int currentColorMask;
+
+	private StencilFunction currentStencilFunc;
+	private int currentStencilRef;
+	private int currentStencilFuncMask;
+	private StencilOp currentStencilFail;
+	private StencilOp currentStencilZFail;
+	private StencilOp currentStencilZPass;
+	private Integer currentStencilMask;
+
+	private double currentPolygonOffsetFactor;
+	private double currentPolygonOffsetUnits;
+
+	private int[] currentViewport;
+	private int[] currentScissor;
+
+	public GLStateCache(WebGLContext gl)
+	{
+		this.gl = gl;
+
+		this.currentTextures2D   = new WebGLTexture[MAX_TEXTURE_UNITS];
+		this.currentTexturesCube = new WebGLTexture[MAX_TEXTURE_UNITS];
+
+		this.attributesEnabled    = new Boolean[MAX_ATTRIBUTES];
+		this.attributesBuffer     = new WebGLBuffer[MAX_ATTRIBUTES];
+		this.attributesSize       = new int[MAX_ATTRIBUTES];
+		this.attributesType       = new DataType[MAX_ATTRIBUTES];
+		this.attributesNormalized = new boolean[MAX_ATTRIBUTES];
+		this.attributesStride     = new int[MAX_ATTRIBUTES];
+		this.attributesOffset     = new int[MAX_ATTRIBUTES];
+
+		this.capabilities = new Boolean[EnableCap.values().length];
+
+		this.currentViewport = new int[4];
+		this.currentScissor  = new int[4];
+
+		reset();
+	}
+
+	/**
+	 * Gets the wrapped context.
+	 */
+	public WebGLContext getGL() 
+	{
+		return this.gl;
+	}
+
+	/**
+	 * Forgets all shadowed state, so next calls will be forwarded to the context.
+	 * Should be called when the context was changed bypassing this class.
+	 */
+	public void reset()
+	{
+		this.currentProgram = null;
+		this.currentArrayBuffer = null;
+		this.currentElementArrayBuffer = null;
+		this.currentTextureUnit = -1;
+
+		resetTextures();
+
+		for ( int i = 0; i < MAX_ATTRIBUTES; i++ )
+		{
+			this.attributesEnabled[i] = null;
+			this.attributesBuffer[i] = null;
+		}
+
+		for ( int i = 0; i < this.capabilities.length; i++ )
+			this.capabilities[i] = null;
+
+		this.currentCullFace = null;
+		this.currentFrontFace = null;
+		this.currentLineWidth = Double.NaN;
+
+		this.currentBlendEquation = null;
+		this.currentBlendEquationAlpha = null;
+		this.currentBlendSrc = null;
+		this.currentBlendDst = null;
+		this.currentBlendSrcAlpha = null;
+		this.currentBlendDstAlpha = null;
+
+		this.currentDepthFunc = null;
+		this.currentDepthMask = null;
+		this.currentColorMask = -1;
+
+		this.currentStencilFunc = null;
+		this.currentStencilFail = null;
+		this.currentStencilMask = null;
+
+		this.currentPolygonOffsetFactor = Double.NaN;
+		this.currentPolygonOffsetUnits = Double.NaN;
+
+		this.currentViewport[2] = -1;
+		this.currentScissor[2] = -1;
+	}
+
+	/**
+	 * Forgets the bound textures. Should be called when textures were 
+	 * bound bypassing this class.
+	 */
+	public void resetTextures()
+	{
+		for ( int i = 0; i < MAX_TEXTURE_UNITS; i++ )
+		{
+			this.currentTextures2D[i] = null;
+			this.currentTexturesCube[i] = null;
+		}
+	}
+
+	/**
+	 * Gets how many calls were forwarded to the context since last {@link #resetCounters()}.
+	 */
+	public int getIssuedCalls() 
+	{
+		return this.issuedCalls;
+	}
+
+	/**
+	 * Gets how many redundant calls were filtered since last {@link #resetCounters()}.
+	 */
+	public int getFilteredCalls() 
+	{
+		return this.filteredCalls;
+	}
+
+	/**
+	 * Gets how many textures were bound since last {@link #resetCounters()}.
+	 */
+	public int getTextureBinds() 
+	{
+		return this.textureBinds;
+	}
+
+	/**
+	 * Gets how many bytes were uploaded to the buffers by {@link #bufferData(BufferTarget, TypeArray, BufferUsage)}
+	 * and {@link #bufferSubData(BufferTarget, int, TypeArray)} since last {@link #resetCounters()}.
+	 */
+	public int getUploadedBytes() 
+	{
+		return this.uploadedBytes;
+	}
+
+	public void resetCounters()
+	{
+		this.issuedCalls = 0;
+		this.filteredCalls = 0;
+		this.textureBinds = 0;
+		this.uploadedBytes = 0;
+	}
+
+	public void useProgram(WebGLProgram program)
+	{
+		if ( this.currentProgram == program && program != null )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentProgram = program;
+		this.issuedCalls++;
+		this.gl.useProgram( program );
+	}
+
+	public void bindBuffer(BufferTarget target, WebGLBuffer buffer)
+	{
+		if ( target == BufferTarget.ARRAY_BUFFER )
+		{
+			if ( this.currentArrayBuffer == buffer && buffer != null )
+			{
+				this.filteredCalls++;
+				return;
+			}
+
+			this.currentArrayBuffer = buffer;
+		}
+		else
+		{
+			if ( this.currentElementArrayBuffer == buffer && buffer != null )
+			{
+				this.filteredCalls++;
+				return;
+			}
+
+			this.currentElementArrayBuffer = buffer;
+		}
+
+		this.issuedCalls++;
+		this.gl.bindBuffer( target, buffer );
+	}
+
+	/**
+	 * Binds the vertex array object, or the default one if null is given.
+	 * The element array buffer and the attributes are part of the vertex
+	 * array object, so their shadowed state is forgotten on change.
+	 */
+	public void bindVertexArray(OESVertexArrayObject extension, WebGLVertexArrayObject arrayObject)
+	{
+		if ( this.currentVertexArray == arrayObject )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentVertexArray = arrayObject;
+
+		this.currentElementArrayBuffer = null;
+
+		for ( int i = 0; i < MAX_ATTRIBUTES; i++ )
+		{
+			this.attributesEnabled[i] = null;
+			this.attributesBuffer[i] = null;
+		}
+
+		this.issuedCalls++;
+		extension.bindVertexArrayOES( arrayObject );
+	}
+
+	/**
+	 * Deletes the vertex array object. If it is bound, the default one 
+	 * becomes bound.
+	 */
+	public void deleteVertexArray(OESVertexArrayObject extension, WebGLVertexArrayObject arrayObject)
+	{
+		if ( this.currentVertexArray == arrayObject )
+			bindVertexArray( extension, null );
+
+		this.issuedCalls++;
+		extension.deleteVertexArrayOES( arrayObject );
+	}
+
+	/**
+	 * Uploads the data to the buffer bound to the target. Data uploads 
+	 * are never filtered, they are only counted.
+	 */
+	public void bufferData(BufferTarget target, TypeArray data, BufferUsage usage)
+	{
+		this.uploadedBytes += data.getByteLength();
+		this.gl.bufferData( target, data, usage );
+	}
+
+	public void bufferSubData(BufferTarget target, int offset, TypeArray data)
+	{
+		this.uploadedBytes += data.getByteLength();
+		this.gl.bufferSubData( target, offset, data );
+	}
+
+	public void enableVertexAttribArray(int index)
+	{
+		if ( index >= 0 && index < MAX_ATTRIBUTES )
+		{
+			if ( this.attributesEnabled[index] == Boolean.TRUE )
+			{
+				this.filteredCalls++;
+				return;
+			}
+
+			this.attributesEnabled[index] = Boolean.TRUE;
+		}
+
+		this.issuedCalls++;
+		this.gl.enableVertexAttribArray( index );
+	}
+
+	public void disableVertexAttribArray(int index)
+	{
+		if ( index >= 0 && index < MAX_ATTRIBUTES )
+		{
+			if ( this.attributesEnabled[index] == Boolean.FALSE )
+			{
+				this.filteredCalls++;
+				return;
+			}
+
+			this.attributesEnabled[index] = Boolean.FALSE;
+		}
+
+		this.issuedCalls++;
+		this.gl.disableVertexAttribArray( index );
+	}
+
+	/**
+	 * Sets the attribute pointer to the currently bound ARRAY_BUFFER. The call
+	 * is filtered if the attribute already points to the same buffer with the
+	 * same layout.
+	 */
+	public void vertexAttribPointer(int index, int size, DataType type, boolean normalized, int stride, int offset)
+	{
+		if ( index >= 0 && index < MAX_ATTRIBUTES && this.currentArrayBuffer != null )
+		{
+			if ( this.attributesBuffer[index] == this.currentArrayBuffer
+					&& this.attributesSize[index] == size
+					&& this.attributesType[index] == type
+					&& this.attributesNormalized[index] == normalized
+					&& this.attributesStride[index] == stride
+					&& this.attributesOffset[index] == offset )
+			{
+				this.filteredCalls++;
+				return;
+			}
+
+			this.attributesBuffer[index] = this.currentArrayBuffer;
+			this.attributesSize[index] = size;
+			this.attributesType[index] = type;
+			this.attributesNormalized[index] = normalized;
+			this.attributesStride[index] = stride;
+			this.attributesOffset[index] = offset;
+		}
+		else if ( index >= 0 && index < MAX_ATTRIBUTES )
+		{
+			this.attributesBuffer[index] = null;
+		}
+
+		this.issuedCalls++;
+		this.gl.vertexAttribPointer( index, size, type, normalized, stride, offset );
+	}
+
+	public void activeTexture(TextureUnit texture)
+	{
+		activeTexture( texture, 0 );
+	}
+
+	public void activeTexture(TextureUnit texture, int slot)
+	{
+		int unit = texture.getValue() - TextureUnit.TEXTURE0.getValue() + slot;
+
+		if ( this.currentTextureUnit == unit )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentTextureUnit = unit;
+		this.issuedCalls++;
+		this.gl.activeTexture( texture, slot );
+	}
+
+	public void bindTexture(TextureTarget target, WebGLTexture texture)
+	{
+		int unit = this.currentTextureUnit;
+
+		if ( unit >= 0 && unit < MAX_TEXTURE_UNITS )
+		{
+			WebGLTexture[] textures = ( target == TextureTarget.TEXTURE_2D ) 
+					? this.currentTextures2D : this.currentTexturesCube;
+
+			if ( textures[unit] == texture && texture != null )
+			{
+				this.filteredCalls++;
+				return;
+			}
+
+			textures[unit] = texture;
+		}
+
+		this.issuedCalls++;
+		this.textureBinds++;
+		this.gl.bindTexture( target, texture );
+	}
+
+	/**
+	 * Should be called after the texture was deleted, because the context 
+	 * unbinds deleted textures.
+	 */
+	public void deleteTexture(WebGLTexture texture)
+	{
+		for ( int i = 0; i < MAX_TEXTURE_UNITS; i++ )
+		{
+			if ( this.currentTextures2D[i] == texture )
+				this.currentTextures2D[i] = null;
+
+			if ( this.currentTexturesCube[i] == texture )
+				this.currentTexturesCube[i] = null;
+		}
+	}
+
+	public void enable(EnableCap cap)
+	{
+		if ( this.capabilities[cap.ordinal()] == Boolean.TRUE )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.capabilities[cap.ordinal()] = Boolean.TRUE;
+		this.issuedCalls++;
+		this.gl.enable( cap );
+	}
+
+	public void disable(EnableCap cap)
+	{
+		if ( this.capabilities[cap.ordinal()] == Boolean.FALSE )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.capabilities[cap.ordinal()] = Boolean.FALSE;
+		this.issuedCalls++;
+		this.gl.disable( cap );
+	}
+
+	public void cullFace(CullFaceMode mode)
+	{
+		if ( this.currentCullFace == mode )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentCullFace = mode;
+		this.issuedCalls++;
+		this.gl.cullFace( mode );
+	}
+
+	public void frontFace(FrontFaceDirection mode)
+	{
+		if ( this.currentFrontFace == mode )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentFrontFace = mode;
+		this.issuedCalls++;
+		this.gl.frontFace( mode );
+	}
+
+	public void lineWidth(double width)
+	{
+		if ( this.currentLineWidth == width )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentLineWidth = width;
+		this.issuedCalls++;
+		this.gl.lineWidth( width );
+	}
+
+	public void blendEquation(BlendEquationMode mode)
+	{
+		if ( this.currentBlendEquation == mode && this.currentBlendEquationAlpha == mode )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentBlendEquation = mode;
+		this.currentBlendEquationAlpha = mode;
+		this.issuedCalls++;
+		this.gl.blendEquation( mode );
+	}
+
+	public void blendEquationSeparate(BlendEquationMode modeRGB, BlendEquationMode modeAlpha)
+	{
+		if ( this.currentBlendEquation == modeRGB && this.currentBlendEquationAlpha == modeAlpha )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentBlendEquation = modeRGB;
+		this.currentBlendEquationAlpha = modeAlpha;
+		this.issuedCalls++;
+		this.gl.blendEquationSeparate( modeRGB, modeAlpha );
+	}
+
+	public void blendFunc(BlendingFactorSrc sfactor, BlendingFactorDest dfactor)
+	{
+		if ( this.currentBlendSrc == sfactor && this.currentBlendDst == dfactor
+				&& this.currentBlendSrcAlpha == sfactor && this.currentBlendDstAlpha == dfactor )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentBlendSrc = sfactor;
+		this.currentBlendDst = dfactor;
+		this.currentBlendSrcAlpha = sfactor;
+		this.currentBlendDstAlpha = dfactor;
+		this.issuedCalls++;
+		this.gl.blendFunc( sfactor, dfactor );
+	}
+
+	public void blendFuncSeparate(BlendingFactorSrc srcRGB, BlendingFactorDest dstRGB, 
+			BlendingFactorSrc srcAlpha, BlendingFactorDest dstAlpha)
+	{
+		if ( this.currentBlendSrc == srcRGB && this.currentBlendDst == dstRGB
+				&& this.currentBlendSrcAlpha == srcAlpha && this.currentBlendDstAlpha == dstAlpha )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentBlendSrc = srcRGB;
+		this.currentBlendDst = dstRGB;
+		this.currentBlendSrcAlpha = srcAlpha;
+		this.currentBlendDstAlpha = dstAlpha;
+		this.issuedCalls++;
+		this.gl.blendFuncSeparate( srcRGB, dstRGB, srcAlpha, dstAlpha );
+	}
+
+	public void depthFunc(DepthFunction func)
+	{
+		if ( this.currentDepthFunc == func )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentDepthFunc = func;
+		this.issuedCalls++;
+		this.gl.depthFunc( func );
+	}
+
+	public void depthMask(boolean flag)
+	{
+		if ( this.currentDepthMask != null && this.currentDepthMask == flag )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentDepthMask = flag;
+		this.issuedCalls++;
+		this.gl.depthMask( flag );
+	}
+
+	public void colorMask(boolean red, boolean green, boolean blue, boolean alpha)
+	{
+		int mask = ( red ? 1 : 0 ) | ( green ? 2 : 0 ) | ( blue ? 4 : 0 ) | ( alpha ? 8 : 0 );
+
+		if ( this.currentColorMask == mask )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentColorMask = mask;
+		this.issuedCalls++;
+		this.gl.colorMask( red, green, blue, alpha );
+	}
+
+	public void stencilFunc(StencilFunction func, int ref, int mask)
+	{
+		if ( this.currentStencilFunc == func && this.currentStencilRef == ref 
+				&& this.currentStencilFuncMask == mask )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentStencilFunc = func;
+		this.currentStencilRef = ref;
+		this.currentStencilFuncMask = mask;
+		this.issuedCalls++;
+		this.gl.stencilFunc( func, ref, mask );
+	}
+
+	public void stencilOp(StencilOp fail, StencilOp zfail, StencilOp zpass)
+	{
+		if ( this.currentStencilFail == fail && this.currentStencilZFail == zfail 
+				&& this.currentStencilZPass == zpass )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentStencilFail = fail;
+		this.currentStencilZFail = zfail;
+		this.currentStencilZPass = zpass;
+		this.issuedCalls++;
+		this.gl.stencilOp( fail, zfail, zpass );
+	}
+
+	public void stencilMask(int mask)
+	{
+		if ( this.currentStencilMask != null && this.currentStencilMask == mask )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentStencilMask = mask;
+		this.issuedCalls++;
+		this.gl.stencilMask( mask );
+	}
+
+	public void polygonOffset(double factor, double units)
+	{
+		if ( this.currentPolygonOffsetFactor == factor && this.currentPolygonOffsetUnits == units )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.currentPolygonOffsetFactor = factor;
+		this.currentPolygonOffsetUnits = units;
+		this.issuedCalls++;
+		this.gl.polygonOffset( factor, units );
+	}
+
+	public void viewport(int x, int y, int width, int height)
+	{
+		if ( isEqual( this.currentViewport, x, y, width, height ) )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.issuedCalls++;
+		this.gl.viewport( x, y, width, height );
+	}
+
+	public void scissor(int x, int y, int width, int height)
+	{
+		if ( isEqual( this.currentScissor, x, y, width, height ) )
+		{
+			this.filteredCalls++;
+			return;
+		}
+
+		this.issuedCalls++;
+		this.gl.scissor( x, y, width, height );
+	}
+
+	/*
+	 * Compares the rectangle and stores the new one.
+	 */
+	private boolean isEqual(int[] rect, int x, int y, int width, int height)
+	{
+		if ( rect[0] == x && rect[1] == y && rect[2] == width && rect[3] == height )
+			return true;
+
+		rect[0] = x;
+		rect[1] = y;
+		rect[2] = width;
+		rect[3] = height;
+
+		return false;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.renderers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import thothbot.parallax.core.client.gl2.WebGLContext;
+import thothbot.parallax.core.client.gl2.WebGLTimerQuery;
+import thothbot.parallax.core.client.gl2.extension.ExtDisjointTimerQuery;
+
+/**
+ * Measures the time spent by the graphic card on the frames, using 
+ * EXT_disjoint_timer_query extension.
+ * <p>
+ * Query results come with a latency of a few frames, so {@link #poll()} 
+ * returns the time of the latest finished frame. Only a few queries are
+ * kept in flight, frames are not measured while all of them are pending.
+ * 
+ * @author thothbot
+ *
+ */
+public class GPUTimer
+{
+	private static final int MAX_PENDING_QUERIES = 4;
+
+	private WebGLContext gl;
+	private ExtDisjointTimerQuery extension;
+
+	private WebGLTimerQuery currentQuery;
+	private List<WebGLTimerQuery> pendingQueries;
+	private List<WebGLTimerQuery> freeQueries;
+
+	private double time = -1;
+
+	public GPUTimer(WebGLContext gl, ExtDisjointTimerQuery extension)
+	{
+		this.gl = gl;
+		this.extension = extension;
+
+		this.pendingQueries = new ArrayList<WebGLTimerQuery>();
+		this.freeQueries = new ArrayList<WebGLTimerQuery>();
+	}
+
+	/**
+	 * Starts measuring of the frame. Does nothing if the measuring is 
+	 * already started or there are too many pending queries.
+	 */
+	public void begin()
+	{
+		if ( this.currentQuery != null || this.pendingQueries.size() >= MAX_PENDING_QUERIES )
+			return;
+
+		int free = this.freeQueries.size();
+		this.currentQuery = free > 0 ? this.freeQueries.remove( free - 1 ) : this.extension.createQueryEXT();
+
+		this.extension.beginQueryEXT( ExtDisjointTimerQuery.TIME_ELAPSED_EXT, this.currentQuery );
+	}
+
+	/**
+	 * Finishes measuring of the frame started by {@link #begin()}.
+	 */
+	public void end()
+	{
+		if ( this.currentQuery == null )
+			return;
+
+		this.extension.endQueryEXT( ExtDisjointTimerQuery.TIME_ELAPSED_EXT );
+		this.pendingQueries.add( this.currentQuery );
+		this.currentQuery = null;
+	}
+
+	/**
+	 * Collects the results of the finished queries.
+	 * 
+	 * @return the time of the latest measured frame in milliseconds, 
+	 * or -1 if nothing was measured yet.
+	 */
+	public double poll()
+	{
+		// The results are not reliable after disjoint operation, 
+		// for example power saving mode change
+		boolean isDisjoint = this.gl.getParameterb( ExtDisjointTimerQuery.GPU_DISJOINT_EXT );
+
+		while ( this.pendingQueries.size() > 0 )
+		{
+			WebGLTimerQuery query = this.pendingQueries.get( 0 );
+
+			if ( ! this.extension.getQueryObjectEXTb( query, ExtDisjointTimerQuery.QUERY_RESULT_AVAILABLE_EXT ) )
+				break;
+
+			if ( ! isDisjoint )
+				this.time = this.extension.getQueryObjectEXTf( query, ExtDisjointTimerQuery.QUERY_RESULT_EXT ) / 1000000.0;
+
+			this.pendingQueries.remove( 0 );
+			this.freeQueries.add( query );
+		}
+
+		return this.time;
+	}
+
+	/**
+	 * Deletes all queries.
+	 */
+	public void dispose()
+	{
+		end();
+
+		for ( WebGLTimerQuery query : this.pendingQueries )
+			this.extension.deleteQueryEXT( query );
+
+		for ( WebGLTimerQuery query : this.freeQueries )
+			this.extension.deleteQueryEXT( query );
+
+		this.pendingQueries.clear();
+		this.freeQueries.clear();
+		this.time = -1;
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.renderers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import thothbot.parallax.core.client.gl2.WebGLContext;
+import thothbot.parallax.core.client.shaders.ProgramParameters;
+import thothbot.parallax.core.client.shaders.Shader;
+import thothbot.parallax.core.shared.Log;
+
+/**
+ * Cache of the compiled shader programs, used by {@link WebGLRenderer}.
+ * <p>
+ * Programs are looked up by a structural key: the shader class, its
+ * not prefixed source code and the {@link ProgramParameters}. Each material which
+ * uses a program holds a reference to it. Programs which are not used
+ * anymore are kept for later reuse, but only up to the
+ * {@link #getMaxUnusedPrograms()} limit - the least recently used ones
+ * are deleted from the graphic card first.
+ *
+ * @author thothbot
+ *
+ */
+public class ProgramCache
+{
+	/**
+	 * The structural program key. It is hashed by the shader class and
+	 * the parameters, the sources are compared only on hash collision.
+	 */
+	public static class Key
+	{
+		private Class<?> shaderClass;
+		private String vertexSource;
+		private String fragmentSource;
+		private ProgramParameters parameters;
+		private int flags;
+		private int hash;
+
+		public Key(Shader shader, ProgramParameters parameters)
+		{
+			this.shaderClass = shader.getShaderClass();
+			this.vertexSource = shader.getVertexSource();
+			this.fragmentSource = shader.getFragmentSource();
+			this.parameters = parameters;
+			this.flags = parameters.getFlags();
+
+			int hash = shaderClass.hashCode();
+			hash = hash * 31 + parameters.hashCode(this.flags);
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if ( this == obj )
+				return true;
+
+			if ( !(obj instanceof Key) )
+				return false;
+
+			Key o = (Key) obj;
+
+			return this.hash == o.hash
+					&& this.flags == o.flags
+					&& this.shaderClass == o.shaderClass
+					&& this.parameters.equalsValues(o.parameters)
+					&& this.vertexSource.equals(o.vertexSource)
+					&& this.fragmentSource.equals(o.fragmentSource);
+		}
+	}
+
+	/**
+	 * Listener which is called when a shader is not used by any 
+	 * material anymore, so the objects bound to it can be freed.
+	 */
+	public static interface ReleaseListener
+	{
+		void onRelease(Shader shader);
+	}
+
+	private static class Entry
+	{
+		Key key;
+		Shader shader;
+		int usedTimes;
+
+		Entry(Key key, Shader shader)
+		{
+			this.key = key;
+			this.shader = shader;
+		}
+	}
+
+	// Access ordered: the least recently used programs are first
+	private LinkedHashMap<Key, Entry> programs;
+	private Map<Shader, Entry> shaders;
+
+	private int unusedPrograms = 0;
+	private int maxUnusedPrograms = 32;
+
+	private ReleaseListener releaseListener;
+
+	public ProgramCache()
+	{
+		this.programs = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+		this.shaders = new HashMap<Shader, Entry>();
+	}
+
+	/**
+	 * Gets how many programs are in the cache, including unused ones.
+	 */
+	public int size()
+	{
+		return this.programs.size();
+	}
+
+	/**
+	 * Gets how many unused programs can be kept in the cache before
+	 * they are deleted.
+	 */
+	public int getMaxUnusedPrograms()
+	{
+		return this.maxUnusedPrograms;
+	}
+
+	public void setMaxUnusedPrograms(int maxUnusedPrograms)
+	{
+		this.maxUnusedPrograms = maxUnusedPrograms;
+	}
+
+	public void setReleaseListener(ReleaseListener releaseListener)
+	{
+		this.releaseListener = releaseListener;
+	}
+
+	/**
+	 * Gets cached shader for the key and increases its reference counter.
+	 *
+	 * @return the shader or null if there is no such program in the cache.
+	 */
+	public Shader acquire(Key key)
+	{
+		Entry entry = this.programs.get(key);
+
+		if ( entry == null )
+			return null;
+
+		if ( entry.usedTimes++ == 0 )
+			this.unusedPrograms--;
+
+		return entry.shader;
+	}
+
+	/**
+	 * Gets how many materials use the shader.
+	 *
+	 * @return the reference counter or 0 if the shader is not in the cache.
+	 */
+	public int getUsedTimes(Shader shader)
+	{
+		Entry entry = this.shaders.get(shader);
+
+		return ( entry != null ) ? entry.usedTimes : 0;
+	}
+
+	/**
+	 * Puts built shader to the cache. The shader is considered
+	 * as acquired once. If the shader is already in the cache, because
+	 * it was rebuilt in place by the only material which used it, it is 
+	 * moved to the new key and keeps its reference counter.
+	 */
+	public void put(Key key, Shader shader)
+	{
+		Entry entry = this.shaders.get(shader);
+
+		if ( entry != null )
+		{
+			this.programs.remove(entry.key);
+			entry.key = key;
+		}
+		else
+		{
+			entry = new Entry(key, shader);
+			entry.usedTimes = 1;
+
+			this.shaders.put(shader, entry);
+		}
+
+		this.programs.put(key, entry);
+	}
+
+	/**
+	 * Decreases reference counter of the shader. If the shader is
+	 * not used anymore, it stays in the cache until it is evicted by
+	 * more recently used programs.
+	 */
+	public void release(WebGLContext gl, Shader shader)
+	{
+		Entry entry = this.shaders.get(shader);
+
+		if ( entry == null || entry.usedTimes == 0 )
+			return;
+
+		if ( --entry.usedTimes == 0 )
+		{
+			if ( this.releaseListener != null )
+				this.releaseListener.onRelease(shader);
+
+			this.unusedPrograms++;
+			evict(gl);
+		}
+	}
+
+	private void evict(WebGLContext gl)
+	{
+		Iterator<Entry> iterator = this.programs.values().iterator();
+
+		while ( this.unusedPrograms > this.maxUnusedPrograms && iterator.hasNext() )
+		{
+			Entry entry = iterator.next();
+
+			if ( entry.usedTimes > 0 )
+				continue;
+
+			Log.debug("ProgramCache: deleting program of " + entry.shader.getClass().getName());
+
+			gl.deleteProgram( entry.shader.getProgram() );
+
+			iterator.remove();
+			this.shaders.remove(entry.shader);
+			this.unusedPrograms--;
+		}
+	}
+}
@@ -20,7 +20,7 @@ package thothbot.parallax.core.client.renderers;
 
 import java.util.List;
 
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.enums.CullFaceMode;
 import thothbot.parallax.core.client.gl2.enums.EnableCap;
 import thothbot.parallax.core.client.gl2.enums.FrontFaceDirection;
@@ -151,23 +151,24 @@ public final class ShadowMap extends Plugin
 	{
 		if ( ! ( isEnabled() && isAutoUpdate() ) ) return;
 
-		WebGLRenderingContext gl = getRenderer().getGL();
+		WebGLContext gl = getRenderer().getGL();
+		GLStateCache glState = getRenderer().getGLState();
 		
 		// set GL state for depth map
 
 		gl.clearColor( 1, 1, 1, 1 );
-		gl.disable( EnableCap.BLEND );
+		glState.disable( EnableCap.BLEND );
 
-		gl.enable( EnableCap.CULL_FACE );
-		gl.frontFace( FrontFaceDirection.CCW );
+		glState.enable( EnableCap.CULL_FACE );
+		glState.frontFace( FrontFaceDirection.CCW );
 
 		if ( isCullFrontFaces() ) 
 		{
-			gl.cullFace( CullFaceMode.FRONT );
+			glState.cullFace( CullFaceMode.FRONT );
 		} 
 		else 
 		{
-			gl.cullFace( CullFaceMode.BACK );
+			glState.cullFace( CullFaceMode.BACK );
 		}
 
 		getRenderer().setDepthTest( true );
@@ -329,6 +330,9 @@ public final class ShadowMap extends Plugin
 					if ( ! ( object instanceof Mesh ) || ! ( object.isFrustumCulled() ) || this.frustum.isIntersectsObject( object ) ) 
 					{
 						object._modelViewMatrix.multiply( shadowCamera.getMatrixWorldInverse(), object.getMatrixWorld() );
+						// the matrices cached for the scene camera are overwritten
+						object._modelViewCamera = null;
+						object._isNormalMatrixNeedsUpdate = true;
 						webglObject.render = true;
 					}
 				}
@@ -385,11 +389,11 @@ public final class ShadowMap extends Plugin
 		double clearAlpha = getRenderer().getClearAlpha();
 
 		gl.clearColor( clearColor.getR(), clearColor.getG(), clearColor.getB(), clearAlpha );
-		gl.enable( EnableCap.BLEND );
+		glState.enable( EnableCap.BLEND );
 
 		if ( isCullFrontFaces() ) 
 		{
-			gl.cullFace( CullFaceMode.BACK );
+			glState.cullFace( CullFaceMode.BACK );
 		}
 	}
 
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.renderers;
+
+import java.util.List;
+
+import thothbot.parallax.core.client.textures.RenderTargetTexture;
+import thothbot.parallax.core.shared.cameras.Camera;
+import thothbot.parallax.core.shared.scenes.Scene;
+
+/**
+ * The view of the scene rendered by {@link WebGLRenderer#renderViews(Scene, List)}:
+ * the camera and the area of the canvas or the render target to draw into.
+ * <p>
+ * The aspect ratio of the camera should be set by the caller to match 
+ * the viewport.
+ * 
+ * @author thothbot
+ *
+ */
+public class ViewSpec
+{
+	private Camera camera;
+
+	private int x;
+	private int y;
+	private int width;
+	private int height;
+
+	private boolean isScissorTest = true;
+	private boolean isForceClear;
+
+	private RenderTargetTexture renderTarget;
+
+	/**
+	 * Creates the view which renders by the camera into 
+	 * the area from (x, y) to (x + width, y + height).
+	 */
+	public ViewSpec(Camera camera, int x, int y, int width, int height)
+	{
+		this.camera = camera;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	public Camera getCamera() {
+		return camera;
+	}
+
+	public void setCamera(Camera camera) {
+		this.camera = camera;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Sets the area from (x, y) to (x + width, y + height).
+	 */
+	public void setViewport(int x, int y, int width, int height) 
+	{
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	public boolean isScissorTest() {
+		return isScissorTest;
+	}
+
+	/**
+	 * If true (default), drawing and clearing are limited to the 
+	 * view area, so views do not overwrite each other.
+	 */
+	public void setScissorTest(boolean isScissorTest) {
+		this.isScissorTest = isScissorTest;
+	}
+
+	public boolean isForceClear() {
+		return isForceClear;
+	}
+
+	/**
+	 * If true, the view area is cleared even if {@link WebGLRenderer#isAutoClear()} 
+	 * is false.
+	 */
+	public void setForceClear(boolean isForceClear) {
+		this.isForceClear = isForceClear;
+	}
+
+	public RenderTargetTexture getRenderTarget() {
+		return renderTarget;
+	}
+
+	/**
+	 * Sets the render target of the view, null (default) for the canvas.
+	 */
+	public void setRenderTarget(RenderTargetTexture renderTarget) {
+		this.renderTarget = renderTarget;
+	}
+}
@@ -19,7 +19,6 @@
 package thothbot.parallax.core.client.renderers;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,11 +26,13 @@ import java.util.Map;
 import thothbot.parallax.core.client.context.Canvas3d;
 import thothbot.parallax.core.client.events.HasEventBus;
 import thothbot.parallax.core.client.events.ViewportResizeEvent;
+import thothbot.parallax.core.client.gl2.WebGLBuffer;
 import thothbot.parallax.core.client.gl2.WebGLConstants;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.WebGLFramebuffer;
 import thothbot.parallax.core.client.gl2.WebGLProgram;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
 import thothbot.parallax.core.client.gl2.WebGLUniformLocation;
+import thothbot.parallax.core.client.gl2.WebGLVertexArrayObject;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.arrays.Int16Array;
 import thothbot.parallax.core.client.gl2.enums.BeginMode;
@@ -39,6 +40,7 @@ import thothbot.parallax.core.client.gl2.enums.BlendEquationMode;
 import thothbot.parallax.core.client.gl2.enums.BlendingFactorDest;
 import thothbot.parallax.core.client.gl2.enums.BlendingFactorSrc;
 import thothbot.parallax.core.client.gl2.enums.BufferTarget;
+import thothbot.parallax.core.client.gl2.enums.BufferUsage;
 import thothbot.parallax.core.client.gl2.enums.ClearBufferMask;
 import thothbot.parallax.core.client.gl2.enums.CullFaceMode;
 import thothbot.parallax.core.client.gl2.enums.DataType;
@@ -50,7 +52,11 @@ import thothbot.parallax.core.client.gl2.enums.PixelStoreParameter;
 import thothbot.parallax.core.client.gl2.enums.TextureMinFilter;
 import thothbot.parallax.core.client.gl2.enums.TextureTarget;
 import thothbot.parallax.core.client.gl2.enums.TextureUnit;
+import thothbot.parallax.core.client.gl2.extension.ExtDisjointTimerQuery;
 import thothbot.parallax.core.client.gl2.extension.ExtTextureFilterAnisotropic;
+import thothbot.parallax.core.client.gl2.extension.ANGLEInstancedArrays;
+import thothbot.parallax.core.client.gl2.extension.OESElementIndexUint;
+import thothbot.parallax.core.client.gl2.extension.OESVertexArrayObject;
 import thothbot.parallax.core.client.gl2.extension.OESStandardDerivatives;
 import thothbot.parallax.core.client.gl2.extension.OESTextureFloat;
 import thothbot.parallax.core.client.gl2.extension.WebGLCompressedTextureS3tc;
@@ -69,6 +75,7 @@ import thothbot.parallax.core.shared.Log;
 import thothbot.parallax.core.shared.cameras.Camera;
 import thothbot.parallax.core.shared.core.FastMap;
 import thothbot.parallax.core.shared.core.GeometryBuffer;
+import thothbot.parallax.core.shared.core.VertexFormat;
 import thothbot.parallax.core.shared.lights.DirectionalLight;
 import thothbot.parallax.core.shared.lights.HemisphereLight;
 import thothbot.parallax.core.shared.lights.Light;
@@ -87,11 +94,13 @@ import thothbot.parallax.core.shared.materials.ShaderMaterial;
 import thothbot.parallax.core.shared.math.Color;
 import thothbot.parallax.core.shared.math.Frustum;
 import thothbot.parallax.core.shared.math.Mathematics;
+import thothbot.parallax.core.shared.math.Matrix3;
 import thothbot.parallax.core.shared.math.Matrix4;
 import thothbot.parallax.core.shared.math.Vector2;
 import thothbot.parallax.core.shared.math.Vector3;
 import thothbot.parallax.core.shared.math.Vector4;
 import thothbot.parallax.core.shared.objects.GeometryObject;
+import thothbot.parallax.core.shared.objects.InstancedMesh;
 import thothbot.parallax.core.shared.objects.Mesh;
 import thothbot.parallax.core.shared.objects.Object3D;
 import thothbot.parallax.core.shared.objects.ParticleSystem;
@@ -100,8 +109,10 @@ import thothbot.parallax.core.shared.objects.SkinnedMesh;
 import thothbot.parallax.core.shared.scenes.FogAbstract;
 import thothbot.parallax.core.shared.scenes.FogExp2;
 import thothbot.parallax.core.shared.scenes.Scene;
+import thothbot.parallax.core.shared.trace.Trace;
 
 import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.CanvasElement;
 import com.google.gwt.dom.client.Document;
@@ -114,7 +125,8 @@ import com.google.gwt.dom.client.ImageElement;
 public class WebGLRenderer implements HasEventBus
 {
 	// The HTML5 Canvas's 'webgl' context obtained from the canvas where the renderer will draw.
-	private WebGLRenderingContext gl;
+	private WebGLContext gl;
+	private GLStateCache glState;
 
 	private WebGlRendererInfo info;
 				
@@ -200,11 +212,25 @@ public class WebGLRenderer implements HasEventBus
 	private Matrix4 cache_projScreenMatrix;
 	private Vector4 cache_vector3;
 
+	// instanced meshes cache
+	private Matrix4 cache_instanceMatrix;
+	private Matrix4 cache_instanceModelViewMatrix;
+	private Matrix3 cache_instanceNormalMatrix;
+
+	// per-frame render lists
+	private List<RendererObject> opaqueObjects;
+	private List<RendererObject> transparentObjects;
+
 	// light arrays cache
 	private boolean isLightsNeedUpdate = true;
 	private RendererLights cache_lights;
 	
-	private Map<String, Shader> cache_programs;
+	private ProgramCache cache_programs;
+
+	// Bits of the vertex array object key below the shader's id, see getVertexArrayKey()
+	private static final int VERTEX_ARRAY_SHADER_SHIFT = 13;
+	// Geometry buffers which have vertex array objects for the shader, by the shader's id
+	private Map<Integer, List<GeometryBuffer>> cache_vertexArrayBuffers;
 
 	// GPU capabilities
 	private int GPUmaxTextures;
@@ -220,17 +246,29 @@ public class WebGLRenderer implements HasEventBus
 	private OESStandardDerivatives GLExtensionStandardDerivatives;
 	private ExtTextureFilterAnisotropic GLExtensionTextureFilterAnisotropic;
 	private WebGLCompressedTextureS3tc GLExtensionCompressedTextureS3TC;
+	private ANGLEInstancedArrays GLExtensionInstancedArrays;
+	private OESVertexArrayObject GLExtensionVertexArrayObject;
+	private OESElementIndexUint GLExtensionElementIndexUint;
+	private ExtDisjointTimerQuery GLExtensionDisjointTimerQuery;
+
+	private GPUTimer gpuTimer;
+	private double cache_renderStart;
+	// Depth of the nested render() and renderViews() calls
+	private int renderDepth;
+	// Stamp of the last render which filled the opaque and transparent lists
+	private int cache_renderListStamp = 1;
 	
 	/**
 	 * The constructor will create renderer for the {@link Canvas3d} widget.
 	 * 
-	 * @param gl     the {@link WebGLRenderingContext}
+	 * @param gl     the {@link WebGLContext}
 	 * @param width  the viewport width
 	 * @param height the viewport height
 	 */
-	public WebGLRenderer(WebGLRenderingContext gl, int width, int height)
+	public WebGLRenderer(WebGLContext gl, int width, int height)
 	{
 		this.gl = gl;
+		this.glState = new GLStateCache(gl);
 
 		this.setInfo(new WebGlRendererInfo());
 		
@@ -239,8 +277,22 @@ public class WebGLRenderer implements HasEventBus
 		this.cache_projScreenMatrix = new Matrix4();
 		this.cache_vector3          = new Vector4();
 		this.cache_lights           = new RendererLights();
-		this.cache_programs         = GWT.isScript() ? 
-				new FastMap<Shader>() : new HashMap<String, Shader>();
+		this.cache_instanceMatrix          = new Matrix4();
+		this.cache_instanceModelViewMatrix = new Matrix4();
+		this.cache_instanceNormalMatrix    = new Matrix3();
+		this.opaqueObjects          = new ArrayList<RendererObject>();
+		this.transparentObjects     = new ArrayList<RendererObject>();
+		this.cache_programs         = new ProgramCache();
+		this.cache_vertexArrayBuffers = new HashMap<Integer, List<GeometryBuffer>>();
+
+		// Vertex array objects keep the attribute locations of the program
+		this.cache_programs.setReleaseListener(new ProgramCache.ReleaseListener() {
+			
+			@Override
+			public void onRelease(Shader shader) {
+				deleteVertexArrays( shader );
+			}
+		});
 			
 		this.GPUmaxTextures       = gl.getParameteri(WebGLConstants.MAX_TEXTURE_IMAGE_UNITS);
 		this.GPUmaxVertexTextures = gl.getParameteri(WebGLConstants.MAX_VERTEX_TEXTURE_IMAGE_UNITS);
@@ -277,6 +329,22 @@ public class WebGLRenderer implements HasEventBus
 		if(this.GLExtensionCompressedTextureS3TC == null)
 			Log.warn( "WebGLRenderer: S3TC compressed textures not supported." );
 
+		this.GLExtensionInstancedArrays = (ANGLEInstancedArrays) gl.getExtension( "ANGLE_instanced_arrays" );
+		if(this.GLExtensionInstancedArrays == null)
+			Log.warn( "WebGLRenderer: Instanced arrays not supported." );
+
+		this.GLExtensionVertexArrayObject = (OESVertexArrayObject) gl.getExtension( "OES_vertex_array_object" );
+		if(this.GLExtensionVertexArrayObject == null)
+			Log.warn( "WebGLRenderer: Vertex array objects not supported." );
+
+		this.GLExtensionElementIndexUint = (OESElementIndexUint) gl.getExtension( "OES_element_index_uint" );
+		if(this.GLExtensionElementIndexUint == null)
+			Log.warn( "WebGLRenderer: 32-bit element indices not supported." );
+
+		this.GLExtensionDisjointTimerQuery = (ExtDisjointTimerQuery) gl.getExtension( "EXT_disjoint_timer_query" );
+		if(this.GLExtensionDisjointTimerQuery == null)
+			Log.warn( "WebGLRenderer: GPU timer queries not supported." );
+
 
 		setSize(width, height);
 		setDefaultGLState();
@@ -486,27 +554,110 @@ public class WebGLRenderer implements HasEventBus
 	 * @return the underlying context implementation for drawing onto the
 	 *         {@link Canvas3d}.
 	 */
-	public WebGLRenderingContext getGL()
+	public WebGLContext getGL()
 	{
 		return this.gl;
 	}
 
+	/**
+	 * Gets the GL state layer in front of the context. All state changes,
+	 * including the ones made by plugins, should go through it.
+	 */
+	public GLStateCache getGLState()
+	{
+		return this.glState;
+	}
+
+	/**
+	 * Gets ANGLE_instanced_arrays extension or null if it is 
+	 * not supported.
+	 */
+	public ANGLEInstancedArrays getInstancedArraysExtension()
+	{
+		return this.GLExtensionInstancedArrays;
+	}
+
+	/**
+	 * Gets OES_vertex_array_object extension or null if it is 
+	 * not supported.
+	 */
+	public OESVertexArrayObject getVertexArrayObjectExtension()
+	{
+		return this.GLExtensionVertexArrayObject;
+	}
+
+	/**
+	 * Gets OES_element_index_uint extension or null if it is 
+	 * not supported.
+	 */
+	public OESElementIndexUint getElementIndexUintExtension()
+	{
+		return this.GLExtensionElementIndexUint;
+	}
+
+	/**
+	 * Gets EXT_disjoint_timer_query extension or null if it is 
+	 * not supported.
+	 */
+	public ExtDisjointTimerQuery getDisjointTimerQueryExtension()
+	{
+		return this.GLExtensionDisjointTimerQuery;
+	}
+
+	/**
+	 * Gets {@link #setGPUTimingEnabled(boolean)} flag.
+	 */
+	public boolean isGPUTimingEnabled()
+	{
+		return this.gpuTimer != null;
+	}
+
+	/**
+	 * Defines whether the time spent by the graphic card on the frames 
+	 * should be measured, see {@link WebGlRendererInfo.WebGLRenderTimer#gpu}. 
+	 * Works only if EXT_disjoint_timer_query extension is supported.
+	 * Default is false.
+	 */
+	public void setGPUTimingEnabled(boolean isGPUTimingEnabled)
+	{
+		if ( isGPUTimingEnabled && this.gpuTimer == null && this.GLExtensionDisjointTimerQuery != null )
+		{
+			this.gpuTimer = new GPUTimer( getGL(), this.GLExtensionDisjointTimerQuery );
+		}
+		else if ( !isGPUTimingEnabled && this.gpuTimer != null )
+		{
+			this.gpuTimer.dispose();
+			this.gpuTimer = null;
+			this.getInfo().getTimer().gpu = -1;
+		}
+	}
+
+	/**
+	 * Gets the maximum number of vertices which can be addressed by 
+	 * one indexed draw call: unlimited with 32-bit indices, 
+	 * otherwise 65535.
+	 */
+	public int getMaxIndexedVertices()
+	{
+		return this.GLExtensionElementIndexUint != null ? Integer.MAX_VALUE : 65535;
+	}
+
 	private void setDefaultGLState () 
 	{
 		getGL().clearColor( 0.0, 0.0, 0.0, 1.0 );
 		getGL().clearDepth( 1 );
 		getGL().clearStencil( 0 );
 
-		getGL().enable( EnableCap.DEPTH_TEST );
-		getGL().depthFunc( DepthFunction.LEQUAL );
+		getGLState().enable( EnableCap.DEPTH_TEST );
+		getGLState().depthFunc( DepthFunction.LEQUAL );
 
-		getGL().frontFace( FrontFaceDirection.CCW );
-		getGL().cullFace( CullFaceMode.BACK );
-		getGL().enable( EnableCap.CULL_FACE );
+		getGLState().frontFace( FrontFaceDirection.CCW );
+		getGLState().cullFace( CullFaceMode.BACK );
+		getGLState().enable( EnableCap.CULL_FACE );
 
-		getGL().enable( EnableCap.BLEND );
-		getGL().blendEquation( BlendEquationMode.FUNC_ADD );
-		getGL().blendFunc( BlendingFactorSrc.SRC_ALPHA, BlendingFactorDest.ONE_MINUS_SRC_ALPHA );
+		getGLState().enable( EnableCap.BLEND );
+		getGLState().blendEquation( BlendEquationMode.FUNC_ADD );
+		getGLState().blendFunc( BlendingFactorSrc.SRC_ALPHA, BlendingFactorDest.ONE_MINUS_SRC_ALPHA );
 	}
 
 	/**
@@ -542,7 +693,7 @@ public class WebGLRenderer implements HasEventBus
 		this.viewportWidth = width;
 		this.viewportHeight = height;
 
-		getGL().viewport(x, y, this.viewportWidth, this.viewportHeight);
+		getGLState().viewport(x, y, this.viewportWidth, this.viewportHeight);
 	}
 	
 	public int getAbsoluteWidth() {
@@ -562,7 +713,7 @@ public class WebGLRenderer implements HasEventBus
 	 */
 	public void setScissor(int x, int y, int width, int height)
 	{
-		getGL().scissor(x, y, width, height);
+		getGLState().scissor(x, y, width, height);
 	}
 
 	/**
@@ -573,9 +724,9 @@ public class WebGLRenderer implements HasEventBus
 	public void enableScissorTest(boolean enable)
 	{
 		if (enable)
-			getGL().enable(EnableCap.SCISSOR_TEST);
+			getGLState().enable(EnableCap.SCISSOR_TEST);
 		else
-			getGL().disable(EnableCap.SCISSOR_TEST);
+			getGLState().disable(EnableCap.SCISSOR_TEST);
 	}
 	
 	/**
@@ -692,19 +843,18 @@ public class WebGLRenderer implements HasEventBus
 	private void setupMorphTargets ( Material material, GeometryBuffer geometrybuffer, Mesh object ) 
 	{
 		// set base
-		Map<String, Integer> attributes = material.getShader().getAttributesLocations();
-		Map<String, Uniform> uniforms = material.getShader().getUniforms();
+		Shader shader = material.getShader();
 
 		if ( object.getMorphTargetBase() != - 1 ) 
 		{
-			getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphTargetsBuffers.get( object.getMorphTargetBase() ) );
-			getGL().vertexAttribPointer( attributes.get("position"), 3, DataType.FLOAT, false, 0, 0 );
+			getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphTargetsBuffers.get( object.getMorphTargetBase() ) );
+			getGLState().vertexAttribPointer( shader.getPositionLocation(), 3, DataType.FLOAT, false, 0, 0 );
 
 		} 
-		else if ( attributes.get("position") >= 0 ) 
+		else if ( shader.getPositionLocation() >= 0 ) 
 		{
-			getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglVertexBuffer );
-			getGL().vertexAttribPointer( attributes.get("position"), 3, DataType.FLOAT, false, 0, 0 );
+			getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglVertexBuffer );
+			getGLState().vertexAttribPointer( shader.getPositionLocation(), 3, DataType.FLOAT, false, 0, 0 );
 		}
 
 		if ( object.getMorphTargetForcedOrder().size() > 0 ) 
@@ -719,13 +869,13 @@ public class WebGLRenderer implements HasEventBus
 					&& m < ((HasSkinning)material).getNumSupportedMorphTargets() 
 					&& m < order.size() 
 			) {
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphTargetsBuffers.get( order.get( m ) ) );
-				getGL().vertexAttribPointer( attributes.get("morphTarget" + m ), 3, DataType.FLOAT, false, 0, 0 );
+				getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphTargetsBuffers.get( order.get( m ) ) );
+				getGLState().vertexAttribPointer( shader.getMorphTargetLocation( m ), 3, DataType.FLOAT, false, 0, 0 );
 
 				if ( material instanceof HasSkinning && ((HasSkinning)material).isMorphNormals()) 
 				{
-					getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphNormalsBuffers.get( order.get( m ) ) );
-					getGL().vertexAttribPointer( attributes.get("morphNormal" + m ), 3, DataType.FLOAT, false, 0, 0 );
+					getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphNormalsBuffers.get( order.get( m ) ) );
+					getGLState().vertexAttribPointer( shader.getMorphNormalLocation( m ), 3, DataType.FLOAT, false, 0, 0 );
 				}
 
 				object.__webglMorphTargetInfluences.set( m , influences.get( order.get( m ) ));
@@ -758,13 +908,13 @@ public class WebGLRenderer implements HasEventBus
 					}
 				}
 
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphTargetsBuffers.get( candidate ) );
-				getGL().vertexAttribPointer( attributes.get( "morphTarget" + m ), 3, DataType.FLOAT, false, 0, 0 );
+				getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphTargetsBuffers.get( candidate ) );
+				getGLState().vertexAttribPointer( shader.getMorphTargetLocation( m ), 3, DataType.FLOAT, false, 0, 0 );
 
 				if ( material instanceof HasSkinning && ((HasSkinning)material).isMorphNormals() ) 
 				{
-					getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphNormalsBuffers.get( candidate ) );
-					getGL().vertexAttribPointer( attributes.get( "morphNormal" + m ), 3, DataType.FLOAT, false, 0, 0 );
+					getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometrybuffer.__webglMorphNormalsBuffers.get( candidate ) );
+					getGLState().vertexAttribPointer( shader.getMorphNormalLocation( m ), 3, DataType.FLOAT, false, 0, 0 );
 				}
 
 				object.__webglMorphTargetInfluences.set( m, candidateInfluence);
@@ -776,7 +926,7 @@ public class WebGLRenderer implements HasEventBus
 		}
 
 		// load updated influences uniform
-		if( uniforms.get("morphTargetInfluences").getLocation() != null ) 
+		if( shader.getMorphTargetInfluencesLocation() != null ) 
 		{
 			Float32Array vals = object.__webglMorphTargetInfluences;
 			double[] val2 = new double[vals.getLength()];
@@ -785,7 +935,7 @@ public class WebGLRenderer implements HasEventBus
 			    Double f = vals.get(i);
 			    val2[i] = (f != null ? f : Double.NaN); // Or whatever default you want.
 			}
-			getGL().uniform1fv( uniforms.get("morphTargetInfluences").getLocation(), val2 );
+			getGL().uniform1fv( shader.getMorphTargetInfluencesLocation(), val2 );
 		}
 	}
 
@@ -808,18 +958,124 @@ public class WebGLRenderer implements HasEventBus
 	 */
 	public void render( Scene scene, Camera camera, RenderTargetTexture renderTarget, boolean forceClear ) 
 	{
-		Log.debug("Called render()");
+		Trace.begin("WebGLRenderer.render");
 
-		// reset caching for this frame
-		this.cache_currentMaterialId = -1;
+		startRender();
+
+		try
+		{
+			WebGlRendererInfo.WebGLRenderTimer timer = this.getInfo().getTimer();
+			double time = Duration.currentTimeMillis();
+
+			updateScene( scene );
+			updateCamera( camera );
+
+			double now = Duration.currentTimeMillis();
+			timer.update += now - time;
+			time = now;
+
+			updateObjects( scene );
+
+			now = Duration.currentTimeMillis();
+			timer.upload += now - time;
+			time = now;
+
+			// custom render plugins (pre pass)
+			renderPlugins( this.renderPluginsPre, camera );
+
+			timer.plugins += Duration.currentTimeMillis() - time;
+
+			renderView( scene, camera, renderTarget, forceClear, null );
+		}
+		finally
+		{
+			finishRender();
+		}
+
+		Trace.end("WebGLRenderer.render");
+	}
+
+	/**
+	 * Renders the scene into several views, for example into the viewports 
+	 * of a multi-view layout. The scene graph, the buffers of the objects, 
+	 * the lights and the pre-pass plugins (shadow maps) are updated once, 
+	 * then the objects are culled and drawn for each view. Cascaded shadows 
+	 * follow the camera of the first view.
+	 * <p>
+	 * The viewport is reset to the full size and the scissor test is 
+	 * disabled after rendering.
+	 * 
+	 * @param scene the {@link Scene} object.
+	 * @param views the views to render, in the drawing order.
+	 */
+	public void renderViews( Scene scene, List<ViewSpec> views )
+	{
+		if ( views.size() == 0 ) return;
+
+		Trace.begin("WebGLRenderer.renderViews");
+
+		startRender();
+
+		try
+		{
+			WebGlRendererInfo.WebGLRenderTimer timer = this.getInfo().getTimer();
+			double time = Duration.currentTimeMillis();
+
+			updateScene( scene );
+
+			for ( int i = 0, il = views.size(); i < il; i++ )
+				updateCamera( views.get( i ).getCamera() );
+
+			double now = Duration.currentTimeMillis();
+			timer.update += now - time;
+			time = now;
+
+			updateObjects( scene );
+
+			now = Duration.currentTimeMillis();
+			timer.upload += now - time;
+			time = now;
+
+			// custom render plugins (pre pass)
+			renderPlugins( this.renderPluginsPre, views.get( 0 ).getCamera() );
+
+			timer.plugins += Duration.currentTimeMillis() - time;
+
+			int width = this.viewportWidth;
+			int height = this.viewportHeight;
+
+			for ( int i = 0, il = views.size(); i < il; i++ )
+			{
+				ViewSpec view = views.get( i );
+				renderView( scene, view.getCamera(), view.getRenderTarget(), view.isForceClear(), view );
+			}
+
+			enableScissorTest( false );
+			setRenderTarget( null );
+			setViewport( 0, 0, width, height );
+		}
+		finally
+		{
+			finishRender();
+		}
+
+		Trace.end("WebGLRenderer.renderViews");
+	}
+
+	private void updateScene( Scene scene )
+	{
+		// lights are set up once per frame, they do not depend on the camera
 		this.isLightsNeedUpdate = true;
 
 		if ( this.isAutoUpdateScene() ) 
 		{
 			scene.updateMatrixWorld(false);
 		}
+	}
 
-		// update camera matrices and frustum
+	private void updateCamera( Camera camera )
+	{
+		// update camera matrices
 		if ( camera.getParent() == null ) 
 		{
 			camera.updateMatrixWorld(false);
@@ -828,37 +1084,120 @@ public class WebGLRenderer implements HasEventBus
 		camera.getMatrixWorldInverse().getInverse( camera.getMatrixWorld() );
 		camera.getMatrixWorldInverse().flattenToArray( camera._viewMatrixArray );
 		camera.getProjectionMatrix().flattenToArray( camera._projectionMatrixArray );
+	}
 
-		this.cache_projScreenMatrix.multiply( camera.getProjectionMatrix(), camera.getMatrixWorldInverse() );
-		this.frustum.setFromMatrix( cache_projScreenMatrix );
-
+	private void updateObjects( Scene scene )
+	{
 		// update WebGL objects
 		if ( this.isAutoUpdateObjects() ) 
 		{
+			// Element buffers are uploaded, which should not 
+			// change the bound vertex array object
+			unbindVertexArray();
 			scene.initWebGLObjects(this);
 		}
+	}
+
+	/*
+	 * Only the outermost call resets and updates the statistics: plugins, 
+	 * like the postprocessing, call render() from inside render().
+	 */
+	private void startRender()
+	{
+		if ( this.renderDepth++ > 0 )
+			return;
 
-		// custom render plugins (pre pass)
-		renderPlugins( this.renderPluginsPre, camera );
+		this.getInfo().reset();
+		this.glState.resetCounters();
 
-		this.getInfo().getRender().calls = 0;
-		this.getInfo().getRender().vertices = 0;
-		this.getInfo().getRender().faces = 0;
-		this.getInfo().getRender().points = 0;
+		if ( this.gpuTimer != null )
+			this.gpuTimer.begin();
+
+		this.cache_renderStart = Duration.currentTimeMillis();
+	}
+
+	private void finishRender()
+	{
+		// Leave the default vertex array object bound for the code outside
+		unbindVertexArray();
+
+		if ( --this.renderDepth > 0 )
+			return;
+
+		WebGlRendererInfo info = this.getInfo();
+
+		info.getRender().glCalls = this.glState.getIssuedCalls();
+		info.getRender().glCallsFiltered = this.glState.getFilteredCalls();
+		info.getRender().textureBinds = this.glState.getTextureBinds();
+		info.getRender().uploadedBytes = this.glState.getUploadedBytes();
+
+		if ( this.gpuTimer != null )
+		{
+			this.gpuTimer.end();
+			info.getTimer().gpu = this.gpuTimer.poll();
+		}
+
+		info.getTimer().total = Duration.currentTimeMillis() - this.cache_renderStart;
+		info.update();
+	}
+
+	/*
+	 * Culls and draws the objects for the camera. The view is null 
+	 * when the whole viewport is used.
+	 */
+	private void renderView( Scene scene, Camera camera, RenderTargetTexture renderTarget, boolean forceClear, ViewSpec view )
+	{
+		// camera dependent uniforms are loaded with the material ones
+		this.cache_currentMaterialId = -1;
+
+		if ( view != null )
+			setViewport( view.getX(), view.getY(), view.getWidth(), view.getHeight() );
 
 		setRenderTarget( renderTarget );
 
+		if ( view != null )
+		{
+			// setRenderTarget() resets the viewport when the framebuffer is changed
+			getGLState().viewport( view.getX(), view.getY(), view.getWidth(), view.getHeight() );
+
+			if ( view.isScissorTest() )
+				setScissor( view.getX(), view.getY(), view.getWidth(), view.getHeight() );
+
+			enableScissorTest( view.isScissorTest() );
+		}
+
 		if ( this.isAutoClear() || forceClear )
 		{
 			clear( this.isAutoClearColor(), this.isAutoClearDepth(), this.isAutoClearStencil() );
 		}
 
+		this.cache_projScreenMatrix.multiply( camera.getProjectionMatrix(), camera.getMatrixWorldInverse() );
+		this.frustum.setFromMatrix( cache_projScreenMatrix );
+
+		WebGlRendererInfo info = this.getInfo();
+		double time = Duration.currentTimeMillis();
+
 		// set matrices for regular objects (frustum culled)
 		List<RendererObject> renderList = scene.__webglObjects;
-		Log.debug("render(): Render list size is: " + renderList.size());
+		Trace.count("WebGLRenderer.renderList", renderList.size());
 
-		for(RendererObject webglObject: renderList) 
+		// Only visible objects get to the opaque and transparent lists. 
+		// The lists keep the order of the previous render: visible objects 
+		// which are not in them yet are appended, and the others are removed.
+		// Not sorted lists are filled again in the scene order.
+		int lastStamp = this.cache_renderListStamp;
+		int stamp = ++this.cache_renderListStamp;
+
+		if ( ! this.isSortObjects() )
 		{
+			this.opaqueObjects.clear();
+			this.transparentObjects.clear();
+			lastStamp = -1;
+		}
+
+		for ( int i = 0, il = renderList.size(); i < il; i++ ) 
+		{
+			RendererObject webglObject = renderList.get( i );
 			GeometryObject object = webglObject.object;
 			webglObject.render = false;
 
@@ -887,17 +1226,57 @@ public class WebGLRenderer implements HasEventBus
 							webglObject.z = cache_vector3.getZ();
 						}
 					}
+
+					if ( webglObject.opaque != null )
+					{
+						webglObject.updateSortKey();
+
+						if ( webglObject.opaqueStamp != lastStamp )
+							this.opaqueObjects.add( webglObject );
+
+						webglObject.opaqueStamp = stamp;
+					}
+
+					if ( webglObject.transparent != null )
+					{
+						if ( webglObject.transparentStamp != lastStamp )
+							this.transparentObjects.add( webglObject );
+
+						webglObject.transparentStamp = stamp;
+					}
+
+					info.getRender().objectsDrawn++;
+				}
+				else
+				{
+					info.getRender().objectsCulled++;
 				}
 			}
 		}
 
+		RendererObject.retain( this.opaqueObjects, stamp, false );
+		RendererObject.retain( this.transparentObjects, stamp, true );
+
+		double now = Duration.currentTimeMillis();
+		info.getTimer().culling += now - time;
+		time = now;
+
 		if ( this.isSortObjects() )
-			Collections.sort(renderList);
+		{
+			// opaque: grouped by program, material and buffer, then front-to-back
+			RendererObject.sort( this.opaqueObjects, RendererObject.STATE_ORDER );
+			// transparent: back-to-front
+			RendererObject.sort( this.transparentObjects, RendererObject.DEPTH_ORDER );
+		}
+
+		now = Duration.currentTimeMillis();
+		info.getTimer().sort += now - time;
+		time = now;
 
 		if ( scene.overrideMaterial != null ) 
 		{
-			Log.error("render(): override material");
-			
+			Trace.count("WebGLRenderer.overrideMaterial");
+
 			Material material = scene.overrideMaterial;
 
 			//TODO: FIX
@@ -910,26 +1289,32 @@ public class WebGLRenderer implements HasEventBus
 		} 
 		else 
 		{
-			Log.debug("render(): NON override material");
 			// opaque pass (front-to-back order)
 			setBlending( Material.BLENDING.NORMAL);
 
-			// scene - camera - isMaterialTransparent - useBlending - reverse 
-			renderObjects(scene, camera, false, false, true);
+			// scene - camera - renderList - isMaterialTransparent - useBlending 
+			renderObjects(scene, camera, this.opaqueObjects, false, false);
 
 			// transparent pass (back-to-front order)
-			renderObjects(scene, camera, true, true, false );
+			renderObjects(scene, camera, this.transparentObjects, true, true );
 		}
 
+		now = Duration.currentTimeMillis();
+		info.getTimer().draw += now - time;
+		time = now;
+
 		// custom render plugins (post pass)
 		renderPlugins( this.renderPluginsPost, camera );
 
+		info.getTimer().plugins += Duration.currentTimeMillis() - time;
+
 		// Generate mipmap if we're using any kind of mipmap filtering
 		if ( renderTarget != null && renderTarget.isGenerateMipmaps() 
 				&& renderTarget.getMinFilter() != TextureMinFilter.NEAREST 
 				&& renderTarget.getMinFilter() != TextureMinFilter.LINEAR)
 		{
 			renderTarget.updateRenderTargetMipmap(getGL());
+			this.glState.resetTextures();
 		}
 
 		// Ensure depth buffer writing is enabled so it can be cleared on next render
@@ -952,9 +1337,10 @@ public class WebGLRenderer implements HasEventBus
 				return;
 
 			plugin.setRendering(true);
-			Log.debug("Called renderPlugins(): " + plugin.getClass().getName());
+			Trace.begin("WebGLRenderer.renderPlugin");
 
 			// reset state for plugin (to start from clean slate)
+			// GL calls are still filtered by GLStateCache, so the reset is cheap
 			this.cache_currentProgram = null;
 			this.cache_currentCamera = null;
 
@@ -968,8 +1354,12 @@ public class WebGLRenderer implements HasEventBus
 
 			this.isLightsNeedUpdate = true;
 
+			unbindVertexArray();
+
 			plugin.render( camera, _currentWidth, _currentHeight );
 
+			unbindVertexArray();
+
 			// reset state after plugin (anything could have changed)
 
 			this.cache_currentProgram = null;
@@ -986,40 +1376,22 @@ public class WebGLRenderer implements HasEventBus
 			this.isLightsNeedUpdate = true;
 			
 			plugin.setRendering(false);
+			Trace.end("WebGLRenderer.renderPlugin");
 		}
 	}
 
-	private void renderObjects ( Scene scene, Camera camera, boolean isMaterialTransparent, boolean useBlending, boolean reverse ) 
+	private void renderObjects ( Scene scene, Camera camera, List<RendererObject> renderList, boolean isMaterialTransparent, boolean useBlending ) 
 	{
-		renderObjects ( scene, camera, isMaterialTransparent, useBlending, reverse, null);
+		renderObjects ( scene, camera, renderList, isMaterialTransparent, useBlending, null);
 	}
 
-	private void renderObjects ( Scene scene, Camera camera, boolean isMaterialTransparent, boolean useBlending, boolean reverse, Material overrideMaterial ) 
+	private void renderObjects ( Scene scene, Camera camera, List<RendererObject> renderList, boolean isMaterialTransparent, boolean useBlending, Material overrideMaterial ) 
 	{
-		List<RendererObject> renderList = scene.__webglObjects;
-		Log.debug("Called renderObjects() render list contains = " + renderList.size());
-		
-		int start = 0;
-		int end = 0;
-		int delta = 0;
-			
-		if ( reverse ) 
-		{
-			start = renderList.size() - 1;
-			end = -1;
-			delta = -1;
-
-		} 
-		else 
-		{
-			start = 0;
-			end = renderList.size();
-			delta = 1;
-		}
+		Trace.begin("WebGLRenderer.renderObjects");
 
 		Material material = null;
 
-		for ( int i = start; i != end; i += delta ) 
+		for ( int i = 0, il = renderList.size(); i < il; i++ ) 
 		{
 			RendererObject webglObject = renderList.get( i );
 
@@ -1055,6 +1427,8 @@ public class WebGLRenderer implements HasEventBus
 					renderBuffer( scene, camera, material, buffer, (GeometryObject) object );
 			}
 		}
+
+		Trace.end("WebGLRenderer.renderObjects");
 	}
 
 	
@@ -1069,7 +1443,7 @@ public class WebGLRenderer implements HasEventBus
 
 		setProgram( scene, camera, material, object );
 
-		Map<String, Integer> attributes = material.getShader().getAttributesLocations();
+		Shader shader = material.getShader();
 
 		boolean updateBuffers = false;
 		int wireframeBit = material instanceof HasWireframe && ((HasWireframe)material).isWireframe() ? 1 : 0;
@@ -1090,13 +1464,23 @@ public class WebGLRenderer implements HasEventBus
 			updateBuffers = true;
 		}
 
+		// Instances and morph targets change their attributes every frame
+		if ( this.GLExtensionVertexArrayObject != null && !( object instanceof InstancedMesh )
+				&& !( material instanceof HasSkinning && ((HasSkinning)material).isMorphTargets() ) )
+		{
+			updateBuffers = bindVertexArray( geometryBuffer, shader, getVertexArrayKey( shader, 0, wireframeBit ) );
+		}
+		else
+		{
+			unbindVertexArray();
+		}
+
 		// vertices
-		if ( !(material instanceof HasSkinning && ((HasSkinning)material).isMorphTargets()) && attributes.get("position") >= 0 ) 
+		if ( !(material instanceof HasSkinning && ((HasSkinning)material).isMorphTargets()) && shader.getPositionLocation() >= 0 ) 
 		{
 			if ( updateBuffers ) 
 			{
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglVertexBuffer );
-				getGL().vertexAttribPointer( attributes.get("position"), 3, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "position", geometryBuffer.__webglVertexBuffer, shader.getPositionLocation(), 3, 0 );
 			}
 
 		} 
@@ -1114,83 +1498,341 @@ public class WebGLRenderer implements HasEventBus
 
 			if ( geometryBuffer.__webglCustomAttributesList != null ) 
 			{
+				Map<String, Integer> attributes = shader.getAttributesLocations();
+
 				for ( int i = 0; i < geometryBuffer.__webglCustomAttributesList.size(); i ++ ) 
 				{
 					Attribute attribute = geometryBuffer.__webglCustomAttributesList.get( i );
 
 					if( attributes.get( attribute.belongsToAttribute ) >= 0 ) 
 					{
-						getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, attribute.buffer );
-						getGL().vertexAttribPointer( attributes.get( attribute.belongsToAttribute ), attribute.size, DataType.FLOAT, false, 0, 0 );
+						getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, attribute.buffer );
+						getGLState().vertexAttribPointer( attributes.get( attribute.belongsToAttribute ), attribute.size, DataType.FLOAT, false, 0, 0 );
 					}
 				}
 			}
 
 			// colors
-			if ( attributes.get("color") >= 0 ) 
+			if ( shader.getColorLocation() >= 0 ) 
 			{
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglColorBuffer );
-				getGL().vertexAttribPointer( attributes.get("color"), 3, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "color", geometryBuffer.__webglColorBuffer, shader.getColorLocation(), 3, 0 );
 			}
 
 			// normals
-			if ( attributes.get("normal") >= 0 ) 
+			if ( shader.getNormalLocation() >= 0 ) 
 			{
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglNormalBuffer );
-				getGL().vertexAttribPointer( attributes.get("normal"), 3, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "normal", geometryBuffer.__webglNormalBuffer, shader.getNormalLocation(), 3, 0 );
 			}
 
 			// tangents
-			if ( attributes.get("tangent") >= 0 ) 
+			if ( shader.getTangentLocation() >= 0 ) 
 			{
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglTangentBuffer );
-				getGL().vertexAttribPointer( attributes.get("tangent"), 4, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "tangent", geometryBuffer.__webglTangentBuffer, shader.getTangentLocation(), 4, 0 );
 			}
 
 			// uvs
-			if ( attributes.get("uv") >= 0 ) 
+			if ( shader.getUvLocation() >= 0 ) 
 			{
 				if ( geometryBuffer.__webglUVBuffer != null) 
 				{
-					getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglUVBuffer );
-					getGL().vertexAttribPointer( attributes.get("uv"), 2, DataType.FLOAT, false, 0, 0 );
+					setAttributePointer( geometryBuffer, "uv", geometryBuffer.__webglUVBuffer, shader.getUvLocation(), 2, 0 );
 
-					getGL().enableVertexAttribArray( attributes.get("uv") );
+					getGLState().enableVertexAttribArray( shader.getUvLocation() );
 
 				} else {
-					getGL().disableVertexAttribArray( attributes.get("uv") );
+					getGLState().disableVertexAttribArray( shader.getUvLocation() );
 				}
 			}
 
-			if ( attributes.get("uv2") >= 0 ) 
+			if ( shader.getUv2Location() >= 0 ) 
 			{
 				if ( geometryBuffer.__webglUV2Buffer != null) 
 				{
-					getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglUV2Buffer );
-					getGL().vertexAttribPointer( attributes.get("uv2"), 2, DataType.FLOAT, false, 0, 0 );
+					setAttributePointer( geometryBuffer, "uv2", geometryBuffer.__webglUV2Buffer, shader.getUv2Location(), 2, 0 );
 
-					getGL().enableVertexAttribArray( attributes.get("uv2") );
+					getGLState().enableVertexAttribArray( shader.getUv2Location() );
 
 				} else {
-					getGL().disableVertexAttribArray( attributes.get("uv2") );
+					getGLState().disableVertexAttribArray( shader.getUv2Location() );
 				}
 			}
 
 			if ( material instanceof HasSkinning && ((HasSkinning)material).isSkinning() &&
-				 attributes.get("skinIndex") >= 0 && attributes.get("skinWeight") >= 0 ) 
+				 shader.getSkinIndexLocation() >= 0 && shader.getSkinWeightLocation() >= 0 ) 
 			{
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglSkinIndicesBuffer );
-				getGL().vertexAttribPointer( attributes.get("skinIndex"), 4, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "skinIndex", geometryBuffer.__webglSkinIndicesBuffer, shader.getSkinIndexLocation(), 4, 0 );
 
-				getGL().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglSkinWeightsBuffer );
-				getGL().vertexAttribPointer( attributes.get("skinWeight"), 4, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "skinWeight", geometryBuffer.__webglSkinWeightsBuffer, shader.getSkinWeightLocation(), 4, 0 );
 			}
 		}
 
-		Log.debug(" -> renderBuffer() ID " + object.getId() + " = " + object.getClass().getName());
+		Trace.count("WebGLRenderer.renderBuffer");
 
 		// Render object's buffers
-		object.renderBuffer(this, geometryBuffer, updateBuffers);
+		if ( object instanceof InstancedMesh )
+			renderInstances( camera, shader, geometryBuffer, (InstancedMesh) object, updateBuffers );
+		else
+			object.renderBuffer(this, geometryBuffer, updateBuffers);
+	}
+
+	/*
+	 * Key of the vertex array object in the geometry buffer: the shader's id 
+	 * in the high bits, then the chunk of the buffer and the wireframe flag.
+	 */
+	private static int getVertexArrayKey( Shader shader, int chunk, int wireframeBit )
+	{
+		return ( shader.getId() << VERTEX_ARRAY_SHADER_SHIFT ) | ( chunk << 1 ) | wireframeBit;
+	}
+
+	/*
+	 * Binds the vertex array object of the geometry buffer for the shader, 
+	 * creating it on the first use. Returns true if the vertex array object 
+	 * is new, so its attributes should be set up.
+	 */
+	private boolean bindVertexArray( GeometryBuffer geometryBuffer, Shader shader, int key )
+	{
+		if ( geometryBuffer.isVertexArraysNeedUpdate() )
+		{
+			deleteVertexArrays( geometryBuffer );
+			geometryBuffer.setVertexArraysNeedUpdate( false );
+		}
+
+		WebGLVertexArrayObject vertexArray = geometryBuffer.getVertexArray( key );
+		boolean isNew = ( vertexArray == null );
+
+		if ( isNew )
+		{
+			vertexArray = this.GLExtensionVertexArrayObject.createVertexArrayOES();
+			geometryBuffer.addVertexArray( key, vertexArray );
+
+			List<GeometryBuffer> buffers = this.cache_vertexArrayBuffers.get( shader.getId() );
+			if ( buffers == null )
+			{
+				buffers = new ArrayList<GeometryBuffer>();
+				this.cache_vertexArrayBuffers.put( shader.getId(), buffers );
+			}
+
+			if ( !buffers.contains( geometryBuffer ) )
+				buffers.add( geometryBuffer );
+		}
+
+		getGLState().bindVertexArray( this.GLExtensionVertexArrayObject, vertexArray );
+
+		// Pointers of the default vertex array object should be set up again
+		this.cache_currentGeometryGroupHash = -1;
+
+		// Attributes are enabled per vertex array object
+		if ( isNew )
+			for ( Integer location : shader.getAttributesLocations().values() )
+				if ( location != null && location >= 0 )
+					getGLState().enableVertexAttribArray( location );
+
+		return isNew;
+	}
+
+	/*
+	 * Binds the default vertex array object, which is used by the
+	 * objects without their own vertex array objects and the plugins.
+	 */
+	private void unbindVertexArray()
+	{
+		if ( this.GLExtensionVertexArrayObject != null )
+			getGLState().bindVertexArray( this.GLExtensionVertexArrayObject, null );
+	}
+
+	/**
+	 * Deletes vertex array objects of the geometry buffer.
+	 */
+	public void deleteVertexArrays( GeometryBuffer geometryBuffer )
+	{
+		if ( this.GLExtensionVertexArrayObject == null )
+			return;
+
+		for ( int i = 0, il = geometryBuffer.getVertexArraysCount(); i < il; i++ )
+		{
+			int shaderId = geometryBuffer.getVertexArrayKey( i ) >>> VERTEX_ARRAY_SHADER_SHIFT;
+
+			List<GeometryBuffer> buffers = this.cache_vertexArrayBuffers.get( shaderId );
+			if ( buffers != null )
+			{
+				buffers.remove( geometryBuffer );
+				if ( buffers.isEmpty() )
+					this.cache_vertexArrayBuffers.remove( shaderId );
+			}
+
+			getGLState().deleteVertexArray( this.GLExtensionVertexArrayObject, geometryBuffer.getVertexArrayAt( i ) );
+		}
+
+		geometryBuffer.clearVertexArrays();
+	}
+
+	/*
+	 * Deletes vertex array objects of all geometry buffers for the shader, 
+	 * when its program is not used anymore or is rebuilt.
+	 */
+	private void deleteVertexArrays( Shader shader )
+	{
+		List<GeometryBuffer> buffers = this.cache_vertexArrayBuffers.remove( shader.getId() );
+
+		if ( buffers == null )
+			return;
+
+		for ( GeometryBuffer geometryBuffer : buffers )
+		{
+			for ( int i = geometryBuffer.getVertexArraysCount() - 1; i >= 0; i-- )
+			{
+				if ( geometryBuffer.getVertexArrayKey( i ) >>> VERTEX_ARRAY_SHADER_SHIFT != shader.getId() )
+					continue;
+
+				getGLState().deleteVertexArray( this.GLExtensionVertexArrayObject, geometryBuffer.getVertexArrayAt( i ) );
+				geometryBuffer.removeVertexArrayAt( i );
+			}
+		}
+	}
+
+	/*
+	 * Binds the buffer of the attribute and sets its pointer. When the geometry 
+	 * buffer is interleaved the attribute is taken from the interleaved buffer, 
+	 * at its offset in the vertex format.
+	 */
+	private void setAttributePointer( GeometryBuffer geometryBuffer, String name, WebGLBuffer buffer, int location, int itemSize, int startIndex )
+	{
+		// The location could be disabled after an instanced draw
+		getGLState().enableVertexAttribArray( location );
+
+		VertexFormat format = geometryBuffer.getWebGlVertexFormat();
+		VertexFormat.Element element = ( format != null ) ? format.getElement( name ) : null;
+
+		// 4 bytes per Float32
+		if ( element != null )
+		{
+			getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglInterleavedBuffer );
+			getGLState().vertexAttribPointer( location, element.getItemSize(), DataType.FLOAT, false, 
+					format.getStride() * 4, ( startIndex * format.getStride() + element.getOffset() ) * 4 );
+		}
+		else
+		{
+			getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, buffer );
+			getGLState().vertexAttribPointer( location, itemSize, DataType.FLOAT, false, 0, startIndex * itemSize * 4 );
+		}
+	}
+
+	/**
+	 * Renders all instances of the {@link InstancedMesh}: by one instanced 
+	 * draw call if ANGLE_instanced_arrays is supported, or one by one 
+	 * with per-instance matrices uniforms otherwise.
+	 */
+	private void renderInstances( Camera camera, Shader shader, GeometryBuffer geometryBuffer, InstancedMesh object, boolean updateBuffers )
+	{
+		WebGLContext gl = getGL();
+		boolean isMatricesChanged = object.updateInstanceMatrices();
+
+		if ( this.GLExtensionInstancedArrays != null )
+		{
+			ANGLEInstancedArrays extension = this.GLExtensionInstancedArrays;
+
+			if ( object.__webglInstanceMatrixBuffer == null )
+			{
+				object.__webglInstanceMatrixBuffer = gl.createBuffer();
+				isMatricesChanged = true;
+			}
+
+			getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, object.__webglInstanceMatrixBuffer );
+
+			if ( isMatricesChanged )
+				getGLState().bufferData( BufferTarget.ARRAY_BUFFER, object.__webglInstanceMatrixArray, BufferUsage.DYNAMIC_DRAW );
+
+			// mat4 attribute takes four vec4 slots, one per column
+			for ( int c = 0; c < 4; c++ )
+			{
+				int location = shader.getInstanceMatrixLocation( c );
+				if ( location < 0 ) continue;
+
+				getGLState().enableVertexAttribArray( location );
+				getGLState().vertexAttribPointer( location, 4, DataType.FLOAT, false, 16 * 4, c * 4 * 4 );
+				extension.vertexAttribDivisorANGLE( location, 1 );
+			}
+
+			int colorLocation = shader.getInstanceColorLocation();
+			if ( colorLocation >= 0 && object.isInstanceColors() )
+			{
+				if ( object.__webglInstanceColorBuffer == null )
+				{
+					object.__webglInstanceColorBuffer = gl.createBuffer();
+					object.setColorsNeedUpdate( true );
+				}
+
+				getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, object.__webglInstanceColorBuffer );
+
+				if ( object.isColorsNeedUpdate() )
+				{
+					getGLState().bufferData( BufferTarget.ARRAY_BUFFER, object.getInstanceColors(), BufferUsage.DYNAMIC_DRAW );
+					object.setColorsNeedUpdate( false );
+				}
+
+				getGLState().enableVertexAttribArray( colorLocation );
+				getGLState().vertexAttribPointer( colorLocation, 3, DataType.FLOAT, false, 0, 0 );
+				extension.vertexAttribDivisorANGLE( colorLocation, 1 );
+			}
+
+			object.renderBuffer( this, geometryBuffer, updateBuffers );
+
+			// Divisors and arrays of the default vertex array object are global 
+			// state: restore them, so the next draw which uses the same locations 
+			// does not read the instances data
+			for ( int c = 0; c < 4; c++ )
+			{
+				int location = shader.getInstanceMatrixLocation( c );
+				if ( location < 0 ) continue;
+
+				extension.vertexAttribDivisorANGLE( location, 0 );
+				getGLState().disableVertexAttribArray( location );
+			}
+
+			if ( colorLocation >= 0 && object.isInstanceColors() )
+			{
+				extension.vertexAttribDivisorANGLE( colorLocation, 0 );
+				getGLState().disableVertexAttribArray( colorLocation );
+			}
+
+			// The next draw sets up and enables its attributes again
+			this.cache_currentGeometryGroupHash = -1;
+		}
+		else
+		{
+			// The program was built with per-vertex colors, instance color 
+			// is passed as constant attribute value
+			int colorLocation = object.isInstanceColors() ? shader.getColorLocation() : -1;
+			if ( colorLocation >= 0 )
+				getGLState().disableVertexAttribArray( colorLocation );
+
+			Float32Array colors = object.getInstanceColors();
+
+			for ( int i = 0, il = object.getCount(); i < il; i++ )
+			{
+				Matrix4 matrix = object.getMatrixWorldAt( i, this.cache_instanceMatrix );
+				this.cache_instanceModelViewMatrix.multiply( camera.getMatrixWorldInverse(), matrix );
+
+				gl.uniformMatrix4fv( shader.getModelViewMatrixLocation(), false, this.cache_instanceModelViewMatrix.getArray() );
+
+				if ( shader.getNormalMatrixLocation() != null )
+				{
+					this.cache_instanceNormalMatrix.getNormalMatrix( this.cache_instanceModelViewMatrix );
+					gl.uniformMatrix3fv( shader.getNormalMatrixLocation(), false, this.cache_instanceNormalMatrix.getArray() );
+				}
+
+				if ( shader.getModelMatrixLocation() != null )
+					gl.uniformMatrix4fv( shader.getModelMatrixLocation(), false, matrix.getArray() );
+
+				if ( colorLocation >= 0 )
+					gl.vertexAttrib3f( colorLocation, colors.get( i * 3 ), colors.get( i * 3 + 1 ), colors.get( i * 3 + 2 ) );
+
+				object.renderBuffer( this, geometryBuffer, updateBuffers && i == 0 );
+			}
+
+			if ( colorLocation >= 0 )
+				getGLState().enableVertexAttribArray( colorLocation );
+		}
 	}
 
 	public void renderBufferDirect( Scene scene, Camera camera, Material material, GeometryBuffer geometryBuffer, GeometryObject object ) 
@@ -1200,7 +1842,7 @@ public class WebGLRenderer implements HasEventBus
 
 		setProgram( scene, camera, material, object );
 
-		Map<String, Integer> attributes = material.getShader().getAttributesLocations();
+		Shader shader = material.getShader();
 		
 		boolean updateBuffers = false;
 		int wireframeBit = material instanceof HasWireframe && ((HasWireframe)material).isWireframe() ? 1 : 0;
@@ -1213,8 +1855,13 @@ public class WebGLRenderer implements HasEventBus
 			updateBuffers = true;
 		}
 
-		WebGLRenderingContext gl = getGL();
-				
+		WebGLContext gl = getGL();
+
+		boolean useVertexArray = ( this.GLExtensionVertexArrayObject != null && object instanceof Mesh );
+
+		if ( ! useVertexArray )
+			unbindVertexArray();
+
 		// render mesh
 
 		if ( object instanceof Mesh ) 
@@ -1223,7 +1870,8 @@ public class WebGLRenderer implements HasEventBus
 
 			// if there is more than 1 chunk
 			// must set attribute pointers to use new offsets for each chunk
-			// even if geometry and materials didn't change
+			// even if geometry and materials didn't change.
+			// Vertex array objects keep the pointers of each chunk
 
 			if ( offsets.size() > 1 ) 
 				updateBuffers = true;
@@ -1232,6 +1880,9 @@ public class WebGLRenderer implements HasEventBus
 			{
 				int startIndex = offsets.get( i ).index;
 
+				if ( useVertexArray )
+					updateBuffers = bindVertexArray( geometryBuffer, shader, getVertexArrayKey( shader, i, 0 ) );
+
 				if ( updateBuffers ) 
 				{
 					// vertices
@@ -1239,39 +1890,36 @@ public class WebGLRenderer implements HasEventBus
 					Float32Array position = geometryBuffer.getWebGlVertexArray();
 					int positionSize = position.getLength();
 
-					gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglVertexBuffer );
-					gl.vertexAttribPointer( attributes.get("position"), 3, DataType.FLOAT, false, 0, startIndex * 3 * 4 ); // 4 bytes per Float32
+					setAttributePointer( geometryBuffer, "position", geometryBuffer.__webglVertexBuffer, shader.getPositionLocation(), 3, startIndex );
 
 					// normals
 
 					Float32Array normal = geometryBuffer.getWebGlNormalArray();
 
-					if ( attributes.get("normal") >= 0 && normal != null ) 
+					if ( shader.getNormalLocation() >= 0 && normal != null ) 
 					{
 						int normalSize = normal.getLength();
 
-						gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglNormalBuffer );
-						gl.vertexAttribPointer( attributes.get("normal"), 3, DataType.FLOAT, false, 0, startIndex * 3 * 4 );
+						setAttributePointer( geometryBuffer, "normal", geometryBuffer.__webglNormalBuffer, shader.getNormalLocation(), 3, startIndex );
 					}
 
 					// uvs
 
 					Float32Array uv = geometryBuffer.getWebGlUvArray();
 
-					if ( attributes.get("uv") >= 0 && uv != null ) 
+					if ( shader.getUvLocation() >= 0 && uv != null ) 
 					{
 						if ( geometryBuffer.__webglUVBuffer != null ) 
 						{
 							int uvSize = uv.getLength();
 
-							gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglUVBuffer );
-							gl.vertexAttribPointer( attributes.get("uv"), 3, DataType.FLOAT, false, 0, startIndex * 3 * 4 );
+							setAttributePointer( geometryBuffer, "uv", geometryBuffer.__webglUVBuffer, shader.getUvLocation(), 3, startIndex );
 
-							gl.enableVertexAttribArray( attributes.get("uv") );
+							getGLState().enableVertexAttribArray( shader.getUvLocation() );
 						} 
 						else 
 						{
-							gl.disableVertexAttribArray( attributes.get("uv") );
+							getGLState().disableVertexAttribArray( shader.getUvLocation() );
 						}
 
 					}
@@ -1280,31 +1928,29 @@ public class WebGLRenderer implements HasEventBus
 
 					Float32Array color = geometryBuffer.getWebGlColorArray();
 
-					if ( attributes.get("color") >= 0 && color != null ) 
+					if ( shader.getColorLocation() >= 0 && color != null ) 
 					{
 						int colorSize = color.getLength();
 
-						gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglColorBuffer );
-						gl.vertexAttribPointer( attributes.get("color"), 3, DataType.FLOAT, false, 0, startIndex * 3 * 4 );
+						setAttributePointer( geometryBuffer, "color", geometryBuffer.__webglColorBuffer, shader.getColorLocation(), 3, startIndex );
 					}
 
 					// tangents
 
 					Float32Array tangent = geometryBuffer.getWebGlTangentArray();
 
-					if ( attributes.get("tangent") >= 0 && tangent != null )
+					if ( shader.getTangentLocation() >= 0 && tangent != null )
 					{
 						int tangentSize = tangent.getLength();
 
-						gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglTangentBuffer );
-						gl.vertexAttribPointer( attributes.get("tangent"), 3, DataType.FLOAT, false, 0, startIndex * 3 * 4 );
+						setAttributePointer( geometryBuffer, "tangent", geometryBuffer.__webglTangentBuffer, shader.getTangentLocation(), 3, startIndex );
 					}
 
 					// indices
 
 					Int16Array index = geometryBuffer.getWebGlIndexArray();
 
-					gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryBuffer.__webglIndexBuffer );
+					getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryBuffer.__webglIndexBuffer );
 				}
 
 				// render indexed triangles
@@ -1326,19 +1972,17 @@ public class WebGLRenderer implements HasEventBus
 				Float32Array position = geometryBuffer.getWebGlVertexArray();
 				int positionSize = position.getLength();
 
-				gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglVertexBuffer );
-				gl.vertexAttribPointer( attributes.get("position"), 3, DataType.FLOAT, false, 0, 0 );
+				setAttributePointer( geometryBuffer, "position", geometryBuffer.__webglVertexBuffer, shader.getPositionLocation(), 3, 0 );
 
 				// colors
 
 				Float32Array color = geometryBuffer.getWebGlColorArray();
 
-				if ( attributes.get("color") >= 0 && color != null ) 
+				if ( shader.getColorLocation() >= 0 && color != null ) 
 				{
 					int colorSize = color.getLength();
 
-					gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryBuffer.__webglColorBuffer );
-					gl.vertexAttribPointer( attributes.get("color"), 3, DataType.FLOAT, false, 0, 0 );
+					setAttributePointer( geometryBuffer, "color", geometryBuffer.__webglColorBuffer, shader.getColorLocation(), 3, 0 );
 				}
 
 				// render particles
@@ -1402,50 +2046,91 @@ public class WebGLRenderer implements HasEventBus
 		}
 
 		material.updateProgramParameters(parameters);
+
+		if ( object instanceof InstancedMesh )
+		{
+			boolean isInstanceColors = ((InstancedMesh)object).isInstanceColors();
+
+			parameters.instancing = ( this.GLExtensionInstancedArrays != null );
+			parameters.instancingColor = parameters.instancing && isInstanceColors;
+
+			// Instance colors are mixed like vertex colors
+			if ( isInstanceColors )
+				parameters.vertexColors = true;
+		}
 		Log.debug("initMaterial() called new Program");
 
-		String cashKey = material.getShader().getFragmentSource() 
-				+ material.getShader().getVertexSource()
-				+ parameters.toString();
+		// Material is re-initialized: release the program it used before
+		Shader currentShader = material.getShader();
+		Shader oldShader = ( currentShader.getProgram() != null ) ? currentShader : null;
+		WebGLProgram oldProgram = ( oldShader != null ) ? oldShader.getProgram() : null;
+
+		// Built shaders keep their sources without prefixes, so the key 
+		// is the same as for a new shader of the material
+		ProgramCache.Key programKey = new ProgramCache.Key(currentShader, parameters);
+		Shader shader = this.cache_programs.acquire(programKey);
 
-		if(this.cache_programs.containsKey(cashKey))
+		if(shader != null)
 		{
-			material.setShader( this.cache_programs.get(cashKey) );
+			material.setShader( shader );
 		}
 		else
 		{
-			Shader shader = material.buildShader(getGL(), parameters);
+			// The cached program may be shared, so a new shader is built
+			Shader source = ( oldShader != null ) ? material.getAssociatedShader() : currentShader;
+
+			// A built shader is rebuilt in place only if this material alone uses it, 
+			// otherwise the other materials would render with the new program
+			if ( source.getProgram() != null 
+					&& ( source != oldShader || this.cache_programs.getUsedTimes(source) > 1 ) )
+				source = source.copy();
 
-			this.cache_programs.put(cashKey, shader);
+			shader = material.buildShader(getGL(), source, parameters);
+
+			this.cache_programs.put(programKey, shader);
+		}
 
-			this.getInfo().getMemory().programs = cache_programs.size();
+		// The material's own shader was rebuilt in place: the cache moved 
+		// it to the new key, only its previous program should be deleted
+		if(oldShader == shader && oldProgram != shader.getProgram())
+		{
+			deleteVertexArrays(shader);
+			getGL().deleteProgram(oldProgram);
 		}
+
+		else if(oldShader != null)
+			this.cache_programs.release(getGL(), oldShader);
+
+		this.getInfo().getMemory().programs = cache_programs.size();
 		
 		Map<String, Integer> attributes = material.getShader().getAttributesLocations();
 
+		// The attributes are enabled in the default vertex array object
+		unbindVertexArray();
+
 		if ( attributes.get("position") >= 0 ) 
-			getGL().enableVertexAttribArray( attributes.get("position") );
+			getGLState().enableVertexAttribArray( attributes.get("position") );
 
 		if ( attributes.get("color") >= 0 ) 
-			getGL().enableVertexAttribArray( attributes.get("color") );
+			getGLState().enableVertexAttribArray( attributes.get("color") );
 
 		if ( attributes.get("normal") >= 0 ) 
-			getGL().enableVertexAttribArray( attributes.get("normal") );
+			getGLState().enableVertexAttribArray( attributes.get("normal") );
 
 		if ( attributes.get("tangent") >= 0 ) 
-			getGL().enableVertexAttribArray( attributes.get("tangent") );
+			getGLState().enableVertexAttribArray( attributes.get("tangent") );
 
 		if ( material instanceof HasSkinning && ((HasSkinning)material).isSkinning() &&
 			 attributes.get("skinIndex") >= 0 && attributes.get("skinWeight") >= 0 
 		) {
-			getGL().enableVertexAttribArray( attributes.get("skinIndex") );
-			getGL().enableVertexAttribArray( attributes.get("skinWeight") );
+			getGLState().enableVertexAttribArray( attributes.get("skinIndex") );
+			getGLState().enableVertexAttribArray( attributes.get("skinWeight") );
 		}
 
 		if ( attributes != null )
 			for ( Integer a : attributes.values() )
 				if( a != null && a >= 0 ) 
-					getGL().enableVertexAttribArray( a );
+					getGLState().enableVertexAttribArray( a );
 
 		if(material instanceof HasSkinning)
 		{
@@ -1458,7 +2143,7 @@ public class WebGLRenderer implements HasEventBus
 
 					if ( attributes.get( id ) >= 0 ) 
 					{
-						getGL().enableVertexAttribArray( attributes.get( id ) );
+						getGLState().enableVertexAttribArray( attributes.get( id ) );
 						numSupportedMorphTargets ++;
 					}
 				}
@@ -1475,7 +2160,7 @@ public class WebGLRenderer implements HasEventBus
 
 					if ( attributes.get( id ) >= 0 ) 
 					{
-						getGL().enableVertexAttribArray( attributes.get( id ) );
+						getGLState().enableVertexAttribArray( attributes.get( id ) );
 						numSupportedMorphNormals ++;
 					}
 				}
@@ -1512,23 +2197,23 @@ public class WebGLRenderer implements HasEventBus
 
 		if ( program != cache_currentProgram )
 		{
-			getGL().useProgram( program );
+			getGLState().useProgram( program );
 			this.cache_currentProgram = program;
+			this.getInfo().getRender().programSwitches++;
 
 			refreshMaterial = true;
-			Log.error("program != cache_currentProgram");
 		}
 
 		if ( material.getId() != this.cache_currentMaterialId ) 
 		{
 			this.cache_currentMaterialId = material.getId();
 			refreshMaterial = true;
-			Log.error("material.getId() != this.cache_currentMaterialId");
+			this.getInfo().getRender().materialSwitches++;
 		}
 
 		if ( refreshMaterial || camera != this.cache_currentCamera ) 
 		{
-			getGL().uniformMatrix4fv( m_uniforms.get("projectionMatrix").getLocation(), false, camera._projectionMatrixArray );
+			getGL().uniformMatrix4fv( shader.getProjectionMatrixLocation(), false, camera._projectionMatrixArray );
 
 			if ( camera != this.cache_currentCamera ) 
 				this.cache_currentCamera = camera;
@@ -1541,19 +2226,19 @@ public class WebGLRenderer implements HasEventBus
 		{
 			if ( object instanceof SkinnedMesh && ((SkinnedMesh)object).useVertexTexture && this.isGPUsupportsBoneTextures) 
 			{
-				if ( m_uniforms.get("boneTexture").getLocation() != null ) 
+				if ( shader.getBoneTextureLocation() != null ) 
 				{
 					int textureUnit = getTextureUnit();
 
-					getGL().uniform1i( m_uniforms.get("boneTexture").getLocation(), textureUnit );
+					getGL().uniform1i( shader.getBoneTextureLocation(), textureUnit );
 					setTexture( ((SkinnedMesh)object).boneTexture, textureUnit );
 				}
 			} 
 			else 
 			{
-				if ( m_uniforms.get("boneGlobalMatrices").getLocation() != null ) 
+				if ( shader.getBoneGlobalMatricesLocation() != null ) 
 				{
-					getGL().uniformMatrix4fv( m_uniforms.get("boneGlobalMatrices").getLocation(), false, ((SkinnedMesh)object).boneMatrices );
+					getGL().uniformMatrix4fv( shader.getBoneGlobalMatricesLocation(), false, ((SkinnedMesh)object).boneMatrices );
 				}
 			}
 		}
@@ -1596,28 +2281,23 @@ public class WebGLRenderer implements HasEventBus
 				 material instanceof HasEnvMap 
 			) {
 
-				if ( m_uniforms.get("cameraPosition").getLocation() != null ) 
+				if ( shader.getCameraPositionLocation() != null ) 
 				{
 					Vector3 position = camera.getMatrixWorld().getPosition();
-					getGL().uniform3f( m_uniforms.get("cameraPosition").getLocation(), position.getX(), position.getY(), position.getZ() );
+					getGL().uniform3f( shader.getCameraPositionLocation(), position.getX(), position.getY(), position.getZ() );
 				}
 			}
 
-			if ( material.getClass() == MeshPhongMaterial.class ||
-				 material.getClass() == MeshLambertMaterial.class ||
-				 material.getClass() == ShaderMaterial.class ||
-				 material instanceof HasSkinning && ((HasSkinning)material).isSkinning() 
-			) {
-
-				if ( m_uniforms.get("viewMatrix").getLocation() != null ) 
-					getGL().uniformMatrix4fv( m_uniforms.get("viewMatrix").getLocation(), false, camera._viewMatrixArray );
-			}
+			// Lights, skinning and instancing use the view matrix, 
+			// the instanced programs compose modelViewMatrix from it
+			if ( shader.getViewMatrixLocation() != null ) 
+				getGL().uniformMatrix4fv( shader.getViewMatrixLocation(), false, camera._viewMatrixArray );
 		}
 
-		loadUniformsMatrices( m_uniforms, object );
+		loadUniformsMatrices( shader, object );
 
-		if ( m_uniforms.get("modelMatrix").getLocation() != null )
-			getGL().uniformMatrix4fv( m_uniforms.get("modelMatrix").getLocation(), false, object.getMatrixWorld().getArray() );
+		if ( shader.getModelMatrixLocation() != null )
+			getGL().uniformMatrix4fv( shader.getModelMatrixLocation(), false, object.getMatrixWorld().getArray() );
 
 		return program;
 	}
@@ -1657,13 +2337,23 @@ public class WebGLRenderer implements HasEventBus
 
 	// Uniforms (load to GPU)
 
-	private void loadUniformsMatrices ( Map<String, Uniform> uniforms, GeometryObject object ) 
+	private void loadUniformsMatrices ( Shader shader, GeometryObject object ) 
 	{
-		GeometryObject objectImpl = (GeometryObject) object;
-		getGL().uniformMatrix4fv( uniforms.get("modelViewMatrix").getLocation(), false, objectImpl._modelViewMatrix.getArray() );
+		getGL().uniformMatrix4fv( shader.getModelViewMatrixLocation(), false, object._modelViewMatrix.getArray() );
+		this.getInfo().getRender().uniforms++;
 
-		if ( uniforms.containsKey("normalMatrix") )
-			getGL().uniformMatrix3fv( uniforms.get("normalMatrix").getLocation(), false, objectImpl._normalMatrix.getArray() );
+		if ( shader.getNormalMatrixLocation() != null )
+		{
+			// inverse transpose of the upper-left 3x3 block
+			if ( object._isNormalMatrixNeedsUpdate )
+			{
+				object._normalMatrix.getNormalMatrix( object._modelViewMatrix );
+				object._isNormalMatrixNeedsUpdate = false;
+			}
+
+			getGL().uniformMatrix3fv( shader.getNormalMatrixLocation(), false, object._normalMatrix.getArray() );
+			this.getInfo().getRender().uniforms++;
+		}
 	}
 
 	@SuppressWarnings("unchecked")
@@ -1684,9 +2374,12 @@ public class WebGLRenderer implements HasEventBus
 			// Up textures also for undefined values
 			if ( type != Uniform.TYPE.T && value == null ) continue;
 
-			Log.debug("loadUniformsGeneric() " + uniform);
+			// Skip uniforms which are already in the program
+			if ( ! uniform.isChanged() ) continue;
+
+			this.getInfo().getRender().uniforms++;
 			
-			WebGLRenderingContext gl = getGL();
+			WebGLContext gl = getGL();
 
 			if(type == TYPE.I) // single integer
 			{
@@ -1698,7 +2391,7 @@ public class WebGLRenderer implements HasEventBus
 			}
 			else if(type == TYPE.V2) // single Vector2
 			{ 
-				gl.uniform2f( location, ((Vector2)value).getX(), ((Vector2)value).getX() );
+				gl.uniform2f( location, ((Vector2)value).getX(), ((Vector2)value).getY() );
 			}
 			else if(type == TYPE.V3) // single Vector3
 			{ 
@@ -1723,7 +2416,7 @@ public class WebGLRenderer implements HasEventBus
 			else if(type == TYPE.V2V) // List of Vector2
 			{ 
 				List<Vector2> listVector2f = (List<Vector2>) value;
-				if ( uniform.getCacheArray() == null )
+				if ( uniform.getCacheArray() == null || uniform.getCacheArray().getLength() != 2 * listVector2f.size() )
 					uniform.setCacheArray( Float32Array.create( 2 * listVector2f.size() ) );
 
 				for ( int i = 0, il = listVector2f.size(); i < il; i ++ ) 
@@ -1739,7 +2432,7 @@ public class WebGLRenderer implements HasEventBus
 			else if(type == TYPE.V3V) // List of Vector3
 			{
 				List<Vector3> listVector3f = (List<Vector3>) value;
-				if ( uniform.getCacheArray() == null )
+				if ( uniform.getCacheArray() == null || uniform.getCacheArray().getLength() != 3 * listVector3f.size() )
 					uniform.setCacheArray( Float32Array.create( 3 * listVector3f.size() ) );
 
 				for ( int i = 0, il = listVector3f.size(); i < il; i ++ ) 
@@ -1756,7 +2449,7 @@ public class WebGLRenderer implements HasEventBus
 			else if(type == TYPE.V4V) // List of Vector4
 			{
 				List<Vector4> listVector4f = (List<Vector4>) value;
-				if ( uniform.getCacheArray() == null)
+				if ( uniform.getCacheArray() == null || uniform.getCacheArray().getLength() != 4 * listVector4f.size() )
 					uniform.setCacheArray( Float32Array.create( 4 * listVector4f.size() ) );
 
 
@@ -1784,7 +2477,7 @@ public class WebGLRenderer implements HasEventBus
 			else if(type == TYPE.M4V) // List of Matrix4
 			{
 				List<Matrix4> listMatrix4f = (List<Matrix4>) value;
-				if ( uniform.getCacheArray() == null )
+				if ( uniform.getCacheArray() == null || uniform.getCacheArray().getLength() != 16 * listMatrix4f.size() )
 					uniform.setCacheArray( Float32Array.create( 16 * listMatrix4f.size() ) );
 
 				for ( int i = 0, il = listMatrix4f.size(); i < il; i ++ )
@@ -1848,12 +2541,24 @@ public class WebGLRenderer implements HasEventBus
 		return textureUnit;
 	}
 
+	/*
+	 * The model view matrix is recomputed only if the world matrix of the 
+	 * object or of the camera was changed. The normal matrix is computed 
+	 * later, in loadUniformsMatrices(), and only for shaders which use it.
+	 */
 	private void setupMatrices ( Object3D object, Camera camera ) 
 	{
+		if ( object._modelViewCamera == camera 
+				&& object._modelViewWorldVersion == object.getMatrixWorldVersion()
+				&& object._modelViewCameraVersion == camera.getMatrixWorldVersion() )
+			return;
+
 		object._modelViewMatrix.multiply( camera.getMatrixWorldInverse(), object.getMatrixWorld());
 
-		object._normalMatrix.getInverse(object._modelViewMatrix );
-		object._normalMatrix.transpose();
+		object._modelViewCamera = camera;
+		object._modelViewWorldVersion = object.getMatrixWorldVersion();
+		object._modelViewCameraVersion = camera.getMatrixWorldVersion();
+		object._isNormalMatrixNeedsUpdate = true;
 	}
 	
 	private void setMaterialFaces( Material material )
@@ -1861,14 +2566,14 @@ public class WebGLRenderer implements HasEventBus
 		if ( this.cache_oldMaterialSided == null || this.cache_oldMaterialSided != material.getSides() ) 
 		{
 			if(material.getSides() == Material.SIDE.DOUBLE)
-				getGL().disable( EnableCap.CULL_FACE );
+				getGLState().disable( EnableCap.CULL_FACE );
 			else
-				getGL().enable( EnableCap.CULL_FACE );
+				getGLState().enable( EnableCap.CULL_FACE );
 
 			if ( material.getSides() == Material.SIDE.BACK ) 
-				getGL().frontFace( FrontFaceDirection.CW );
+				getGLState().frontFace( FrontFaceDirection.CW );
 			else
-				getGL().frontFace( FrontFaceDirection.CCW );
+				getGLState().frontFace( FrontFaceDirection.CCW );
 
 			this.cache_oldMaterialSided = material.getSides();
 		}
@@ -1879,9 +2584,9 @@ public class WebGLRenderer implements HasEventBus
 		if ( this.cache_oldDepthTest == null || this.cache_oldDepthTest != depthTest ) 
 		{
 			if ( depthTest )
-				getGL().enable( EnableCap.DEPTH_TEST );
+				getGLState().enable( EnableCap.DEPTH_TEST );
 			else 
-				getGL().disable( EnableCap.DEPTH_TEST );
+				getGLState().disable( EnableCap.DEPTH_TEST );
 
 			this.cache_oldDepthTest = depthTest;
 		}
@@ -1891,7 +2596,7 @@ public class WebGLRenderer implements HasEventBus
 	{
 		if ( this.cache_oldDepthWrite == null || this.cache_oldDepthWrite != depthWrite ) 
 		{
-			getGL().depthMask( depthWrite );
+			getGLState().depthMask( depthWrite );
 			cache_oldDepthWrite = depthWrite;
 		}
 	}
@@ -1901,9 +2606,9 @@ public class WebGLRenderer implements HasEventBus
 		if ( this.cache_oldPolygonOffset == null || this.cache_oldPolygonOffset != polygonoffset ) 
 		{
 			if ( polygonoffset )
-				getGL().enable( EnableCap.POLYGON_OFFSET_FILL );
+				getGLState().enable( EnableCap.POLYGON_OFFSET_FILL );
 			else
-				getGL().disable( EnableCap.POLYGON_OFFSET_FILL );
+				getGLState().disable( EnableCap.POLYGON_OFFSET_FILL );
 
 			this.cache_oldPolygonOffset = polygonoffset;
 		}
@@ -1913,7 +2618,7 @@ public class WebGLRenderer implements HasEventBus
 				cache_oldPolygonOffsetFactor != factor || 
 				cache_oldPolygonOffsetUnits != units ) 
 		) {
-			getGL().polygonOffset( factor, units );
+			getGLState().polygonOffset( factor, units );
 
 			this.cache_oldPolygonOffsetFactor = factor;
 			this.cache_oldPolygonOffsetUnits = units;
@@ -1926,42 +2631,42 @@ public class WebGLRenderer implements HasEventBus
 		{
 			if( blending == Material.BLENDING.NO) 
 			{
-				getGL().disable( EnableCap.BLEND );
+				getGLState().disable( EnableCap.BLEND );
 				
 			} 
 			else if( blending == Material.BLENDING.ADDITIVE) 
 			{
-				getGL().enable( EnableCap.BLEND );
-				getGL().blendEquation( BlendEquationMode.FUNC_ADD );
-				getGL().blendFunc( BlendingFactorSrc.SRC_ALPHA, BlendingFactorDest.ONE );
+				getGLState().enable( EnableCap.BLEND );
+				getGLState().blendEquation( BlendEquationMode.FUNC_ADD );
+				getGLState().blendFunc( BlendingFactorSrc.SRC_ALPHA, BlendingFactorDest.ONE );
 				
 			// TODO: Find blendFuncSeparate() combination
 			} 
 			else if( blending == Material.BLENDING.SUBTRACTIVE) 
 			{
-				getGL().enable( EnableCap.BLEND );
-				getGL().blendEquation( BlendEquationMode.FUNC_ADD );
-				getGL().blendFunc( BlendingFactorSrc.ZERO, BlendingFactorDest.ONE_MINUS_SRC_COLOR );
+				getGLState().enable( EnableCap.BLEND );
+				getGLState().blendEquation( BlendEquationMode.FUNC_ADD );
+				getGLState().blendFunc( BlendingFactorSrc.ZERO, BlendingFactorDest.ONE_MINUS_SRC_COLOR );
 
 			// TODO: Find blendFuncSeparate() combination
 			} 
 			else if( blending == Material.BLENDING.MULTIPLY) 
 			{
-				getGL().enable( EnableCap.BLEND );
-				getGL().blendEquation( BlendEquationMode.FUNC_ADD );
-				getGL().blendFunc( BlendingFactorSrc.ZERO, BlendingFactorDest.SRC_COLOR );
+				getGLState().enable( EnableCap.BLEND );
+				getGLState().blendEquation( BlendEquationMode.FUNC_ADD );
+				getGLState().blendFunc( BlendingFactorSrc.ZERO, BlendingFactorDest.SRC_COLOR );
 
 			} 
 			else if( blending == Material.BLENDING.CUSTOM) 
 			{
-				getGL().enable( EnableCap.BLEND );
+				getGLState().enable( EnableCap.BLEND );
 
 			} 
 			else 
 			{
-				getGL().enable( EnableCap.BLEND );
-				getGL().blendEquationSeparate( BlendEquationMode.FUNC_ADD, BlendEquationMode.FUNC_ADD );
-				getGL().blendFuncSeparate( BlendingFactorSrc.SRC_ALPHA, 
+				getGLState().enable( EnableCap.BLEND );
+				getGLState().blendEquationSeparate( BlendEquationMode.FUNC_ADD, BlendEquationMode.FUNC_ADD );
+				getGLState().blendFuncSeparate( BlendingFactorSrc.SRC_ALPHA, 
 						BlendingFactorDest.ONE_MINUS_SRC_ALPHA, 
 						BlendingFactorSrc.ONE, 
 						BlendingFactorDest.ONE_MINUS_SRC_ALPHA );
@@ -1983,13 +2688,13 @@ public class WebGLRenderer implements HasEventBus
 		{
 			if ( blendEquation != this.cache_oldBlendEquation ) 
 			{
-				getGL().blendEquation( blendEquation );
+				getGLState().blendEquation( blendEquation );
 				this.cache_oldBlendEquation = blendEquation;
 			}
 
 			if ( blendSrc != cache_oldBlendSrc || blendDst != cache_oldBlendDst ) 
 			{
-				getGL().blendFunc( blendSrc, blendDst);
+				getGLState().blendFunc( blendSrc, blendDst);
 
 				this.cache_oldBlendSrc = blendSrc;
 				this.cache_oldBlendDst = blendDst;
@@ -2001,8 +2706,8 @@ public class WebGLRenderer implements HasEventBus
 	
 	private void setCubeTextureDynamic(RenderTargetCubeTexture texture, int slot) 
 	{
-		getGL().activeTexture( TextureUnit.TEXTURE0, slot );
-		getGL().bindTexture( TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
+		getGLState().activeTexture( TextureUnit.TEXTURE0, slot );
+		getGLState().bindTexture( TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
 	}
 
 	public void setTexture( Texture texture, int slot ) 
@@ -2016,8 +2721,8 @@ public class WebGLRenderer implements HasEventBus
 				this.getInfo().getMemory().textures ++;
 			}
 			
-			getGL().activeTexture( TextureUnit.TEXTURE0, slot );
-			getGL().bindTexture( TextureTarget.TEXTURE_2D, texture.getWebGlTexture() );
+			getGLState().activeTexture( TextureUnit.TEXTURE0, slot );
+			getGLState().bindTexture( TextureTarget.TEXTURE_2D, texture.getWebGlTexture() );
 
 			getGL().pixelStorei( PixelStoreParameter.UNPACK_FLIP_Y_WEBGL, texture.isFlipY() ? 1 : 0 );
 			getGL().pixelStorei( PixelStoreParameter.UNPACK_PREMULTIPLY_ALPHA_WEBGL, texture.isPremultiplyAlpha() ? 1 : 0 );
@@ -2062,8 +2767,8 @@ public class WebGLRenderer implements HasEventBus
 		// Needed to check webgl texture in case deferred loading
 		else if(texture.getWebGlTexture() != null)
 		{
-			getGL().activeTexture( TextureUnit.TEXTURE0, slot );
-			getGL().bindTexture( TextureTarget.TEXTURE_2D, texture.getWebGlTexture() );
+			getGLState().activeTexture( TextureUnit.TEXTURE0, slot );
+			getGLState().bindTexture( TextureTarget.TEXTURE_2D, texture.getWebGlTexture() );
 		}
 	}
 	
@@ -2128,8 +2833,8 @@ public class WebGLRenderer implements HasEventBus
 				this.getInfo().getMemory().textures += 6;
 			}
 
-			getGL().activeTexture( TextureUnit.TEXTURE0, slot );
-			getGL().bindTexture( TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
+			getGLState().activeTexture( TextureUnit.TEXTURE0, slot );
+			getGLState().bindTexture( TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
 			getGL().pixelStorei( PixelStoreParameter.UNPACK_FLIP_Y_WEBGL, texture.isFlipY() ? 1 : 0 );
 
 			List<Element> cubeImage = new ArrayList<Element>();
@@ -2170,8 +2875,8 @@ public class WebGLRenderer implements HasEventBus
 		} 
 		else 
 		{
-			getGL().activeTexture( TextureUnit.TEXTURE0, slot );
-			getGL().bindTexture( TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
+			getGLState().activeTexture( TextureUnit.TEXTURE0, slot );
+			getGLState().bindTexture( TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
 		}
 
 	}
@@ -2188,7 +2893,11 @@ public class WebGLRenderer implements HasEventBus
 		
 		if(renderTarget != null) 
 		{
-			renderTarget.setRenderTarget(getGL());
+			if ( renderTarget.getWebGlTexture() == null )
+			{
+				renderTarget.setRenderTarget(getGL());
+				this.glState.resetTextures();
+			}
 		    framebuffer = renderTarget.getWebGLFramebuffer();
 
 			this._currentWidth = renderTarget.getWidth();
@@ -2204,7 +2913,7 @@ public class WebGLRenderer implements HasEventBus
 		if ( framebuffer != this.cache_currentFramebuffer ) 
 		{
 			getGL().bindFramebuffer( framebuffer );
-			getGL().viewport( 0, 0, this._currentWidth, this._currentHeight );
+			getGLState().viewport( 0, 0, this._currentWidth, this._currentHeight );
 
 			this.cache_currentFramebuffer = framebuffer;
 		}
@@ -2323,8 +3032,23 @@ public class WebGLRenderer implements HasEventBus
 		return cache_vector3;
 	}
 	
-	@Deprecated
-	public Map<String, Shader> getCache_programs() {
+	/**
+	 * Releases the program used by the material. The program will be 
+	 * deleted when it is not used by any material and it was evicted 
+	 * from the programs cache.
+	 * 
+	 * @param shader the material's shader 
+	 */
+	public void releaseProgram( Shader shader ) 
+	{
+		this.cache_programs.release(getGL(), shader);
+		this.getInfo().getMemory().programs = cache_programs.size();
+	}
+
+	/**
+	 * Gets the cache of the compiled shader programs.
+	 */
+	public ProgramCache getProgramCache() {
 		return this.cache_programs;
 	}
 }
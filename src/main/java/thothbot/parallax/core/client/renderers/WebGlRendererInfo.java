@@ -18,6 +18,7 @@
 
 package thothbot.parallax.core.client.renderers;
 
+import thothbot.parallax.core.client.AnimatedScene;
 import thothbot.parallax.core.client.debugger.Debugger;
 
 import com.google.gwt.core.client.Duration;
@@ -25,22 +26,98 @@ import com.google.gwt.core.client.Duration;
 /**
  * Th class with a series of statistical information about the graphics board memory and 
  * the rendering process. Used id {@link Debugger}.
+ * <p>
+ * The values of the last frames are kept in the rolling windows, 
+ * see {@link #getWindow(STAT)}.
  *  
  * @author thothbot
  *
  */
 public class WebGlRendererInfo
 {
+	/**
+	 * The per-frame values which are collected in the rolling windows.
+	 */
+	public static enum STAT 
+	{
+		CALLS("Draw calls"),
+		VERTICES("Vertices"),
+		FACES("Faces"),
+		POINTS("Points"),
+		PROGRAM_SWITCHES("Program switches"),
+		MATERIAL_SWITCHES("Material switches"),
+		TEXTURE_BINDS("Texture binds"),
+		UNIFORMS("Uniform uploads"),
+		UPLOADED_BYTES("Uploaded bytes"),
+		OBJECTS_DRAWN("Drawn objects"),
+		OBJECTS_CULLED("Culled objects"),
+		GL_CALLS("GL calls"),
+		GL_CALLS_FILTERED("Filtered GL calls"),
+		TIME_UPDATE("Update ms"),
+		TIME_UPLOAD("Upload ms"),
+		TIME_CULLING("Culling ms"),
+		TIME_SORT("Sort ms"),
+		TIME_DRAW("Draw ms"),
+		TIME_PLUGINS("Plugins ms"),
+		TIME_TOTAL("Total ms"),
+		TIME_GPU("GPU ms");
+
+		private final String title;
+
+		private STAT(String title)
+		{
+			this.title = title;
+		}
+
+		public String getTitle()
+		{
+			return this.title;
+		}
+	}
 
 	/**
-	 * Information about duration for some procedures.  
+	 * Information about duration for some procedures, in milliseconds.  
 	 */
 	public class WebGLRenderTimer
 	{
 		/**
-		 * {@link WebGLRenderer#render(Scene, Camera)} duration.
+		 * The start of the frame, set by {@link AnimatedScene}.
 		 */
 		public Duration render = new Duration();
+		/**
+		 * Scene graph and cameras update.
+		 */
+		public double update = 0;
+		/**
+		 * Update of the objects buffers, which uploads the changed ones.
+		 */
+		public double upload = 0;
+		/**
+		 * Frustum culling of the objects.
+		 */
+		public double culling = 0;
+		/**
+		 * Sorting of the opaque and transparent objects.
+		 */
+		public double sort = 0;
+		/**
+		 * Submission of the draw calls for the objects.
+		 */
+		public double draw = 0;
+		/**
+		 * The pre pass and post pass plugins.
+		 */
+		public double plugins = 0;
+		/**
+		 * {@link WebGLRenderer#render(Scene, Camera)} duration.
+		 */
+		public double total = 0;
+		/**
+		 * The time spent by the graphic card, if GPU timing is enabled in 
+		 * {@link WebGLRenderer#setGPUTimingEnabled(boolean)}. The value comes 
+		 * from one of the previous frames. It is -1 if not measured.
+		 */
+		public double gpu = -1;
 	}
 
 	/**
@@ -64,6 +141,48 @@ public class WebGlRendererInfo
 		 * How many points were rendered.
 		 */
 		public int points = 0;
+		/**
+		 * How many times the current program was switched by useProgram().
+		 */
+		public int programSwitches = 0;
+		/**
+		 * How many times material uniforms were refreshed due to material change.
+		 */
+		public int materialSwitches = 0;
+		/**
+		 * How many textures were bound.
+		 */
+		public int textureBinds = 0;
+		/**
+		 * How many uniforms were uploaded, including the object matrices.
+		 */
+		public int uniforms = 0;
+		/**
+		 * How many bytes were uploaded to the buffers.
+		 */
+		public int uploadedBytes = 0;
+		/**
+		 * How many visible objects passed the frustum culling.
+		 */
+		public int objectsDrawn = 0;
+		/**
+		 * How many visible objects were rejected by the frustum culling.
+		 */
+		public int objectsCulled = 0;
+		/**
+		 * How many state calls were issued to the context by {@link GLStateCache}.
+		 */
+		public int glCalls = 0;
+		/**
+		 * How many redundant state calls were filtered by {@link GLStateCache}.
+		 */
+		public int glCallsFiltered = 0;
+		/**
+		 * How many animation frames were skipped in the render on demand 
+		 * mode of {@link AnimatedScene}, because nothing was changed. 
+		 * It is not reset between frames.
+		 */
+		public int framesSkipped = 0;
 	}
 
 	/**
@@ -85,10 +204,93 @@ public class WebGlRendererInfo
 		public int textures = 0;
 	}
 
+	/**
+	 * The values of one {@link STAT} in the last frames. 
+	 */
+	public class WebGLRenderStatWindow
+	{
+		private double[] values;
+		private int position;
+		private int count;
+
+		WebGLRenderStatWindow(int size)
+		{
+			this.values = new double[size];
+		}
+
+		void add(double value)
+		{
+			this.values[this.position] = value;
+			this.position = ( this.position + 1 ) % this.values.length;
+
+			if ( this.count < this.values.length )
+				this.count++;
+		}
+
+		/**
+		 * Gets how many frames are in the window.
+		 */
+		public int getCount()
+		{
+			return this.count;
+		}
+
+		/**
+		 * Gets the value of the frame, where 0 is the oldest frame in the window.
+		 */
+		public double get(int index)
+		{
+			int start = this.position - this.count + this.values.length;
+			return this.values[( start + index ) % this.values.length];
+		}
+
+		/**
+		 * Gets the value of the latest frame.
+		 */
+		public double getLast()
+		{
+			return this.count > 0 ? get( this.count - 1 ) : 0;
+		}
+
+		public double getAverage()
+		{
+			if ( this.count == 0 )
+				return 0;
+
+			double sum = 0;
+			for ( int i = 0; i < this.count; i++ )
+				sum += this.values[i];
+
+			return sum / this.count;
+		}
+
+		public double getMin()
+		{
+			double min = this.count > 0 ? Double.POSITIVE_INFINITY : 0;
+			for ( int i = 0; i < this.count; i++ )
+				min = Math.min( min, this.values[i] );
+
+			return min;
+		}
+
+		public double getMax()
+		{
+			double max = this.count > 0 ? Double.NEGATIVE_INFINITY : 0;
+			for ( int i = 0; i < this.count; i++ )
+				max = Math.max( max, this.values[i] );
+
+			return max;
+		}
+	}
+
+	private static final STAT[] STATS = STAT.values();
+
 	private WebGLRenderInfoRender render;
 	private WebGLRenderInfoMemory memory;
 	private WebGLRenderTimer timer;
-	
+	private WebGLRenderStatWindow[] windows;
+	private int windowSize = 60;
+
 	/**
 	 * Default constructor for {@link WebGlRendererInfo} initialization.
 	 */
@@ -97,6 +299,8 @@ public class WebGlRendererInfo
 		this.render = new WebGLRenderInfoRender();
 		this.memory = new WebGLRenderInfoMemory();
 		this.timer = new WebGLRenderTimer();
+		this.windows = new WebGLRenderStatWindow[STATS.length];
+		setWindowSize( this.windowSize );
 	}
 
 	/**
@@ -122,4 +326,101 @@ public class WebGlRendererInfo
 	{
 		return timer;
 	}
+
+	/**
+	 * Gets how many frames are kept in the rolling windows.
+	 */
+	public int getWindowSize()
+	{
+		return this.windowSize;
+	}
+
+	/**
+	 * Sets how many frames are kept in the rolling windows. 
+	 * The collected values are cleared.
+	 */
+	public void setWindowSize(int windowSize)
+	{
+		this.windowSize = windowSize;
+
+		for ( int i = 0; i < this.windows.length; i++ )
+			this.windows[i] = new WebGLRenderStatWindow( windowSize );
+	}
+
+	/**
+	 * Gets the rolling window with the values of the last frames.
+	 */
+	public WebGLRenderStatWindow getWindow(STAT stat)
+	{
+		return this.windows[stat.ordinal()];
+	}
+
+	/**
+	 * Gets the value of the current frame.
+	 */
+	public double getValue(STAT stat)
+	{
+		switch ( stat )
+		{
+		case CALLS:             return this.render.calls;
+		case VERTICES:          return this.render.vertices;
+		case FACES:             return this.render.faces;
+		case POINTS:            return this.render.points;
+		case PROGRAM_SWITCHES:  return this.render.programSwitches;
+		case MATERIAL_SWITCHES: return this.render.materialSwitches;
+		case TEXTURE_BINDS:     return this.render.textureBinds;
+		case UNIFORMS:          return this.render.uniforms;
+		case UPLOADED_BYTES:    return this.render.uploadedBytes;
+		case OBJECTS_DRAWN:     return this.render.objectsDrawn;
+		case OBJECTS_CULLED:    return this.render.objectsCulled;
+		case GL_CALLS:          return this.render.glCalls;
+		case GL_CALLS_FILTERED: return this.render.glCallsFiltered;
+		case TIME_UPDATE:       return this.timer.update;
+		case TIME_UPLOAD:       return this.timer.upload;
+		case TIME_CULLING:      return this.timer.culling;
+		case TIME_SORT:         return this.timer.sort;
+		case TIME_DRAW:         return this.timer.draw;
+		case TIME_PLUGINS:      return this.timer.plugins;
+		case TIME_TOTAL:        return this.timer.total;
+		case TIME_GPU:          return this.timer.gpu;
+		default:                return 0;
+		}
+	}
+
+	/**
+	 * Resets the per-frame values. Called by {@link WebGLRenderer} 
+	 * at the beginning of the frame.
+	 */
+	public void reset()
+	{
+		this.render.calls = 0;
+		this.render.vertices = 0;
+		this.render.faces = 0;
+		this.render.points = 0;
+		this.render.programSwitches = 0;
+		this.render.materialSwitches = 0;
+		this.render.textureBinds = 0;
+		this.render.uniforms = 0;
+		this.render.uploadedBytes = 0;
+		this.render.objectsDrawn = 0;
+		this.render.objectsCulled = 0;
+
+		this.timer.update = 0;
+		this.timer.upload = 0;
+		this.timer.culling = 0;
+		this.timer.sort = 0;
+		this.timer.draw = 0;
+		this.timer.plugins = 0;
+		this.timer.total = 0;
+	}
+
+	/**
+	 * Adds the values of the current frame to the rolling windows. Called 
+	 * by {@link WebGLRenderer} at the end of the frame.
+	 */
+	public void update()
+	{
+		for ( int i = 0; i < STATS.length; i++ )
+			this.windows[i].add( getValue( STATS[i] ) );
+	}
 }
@@ -65,7 +65,84 @@ public class ProgramParameters
 	public int maxMorphNormals;
 	
 	public boolean isSupportsVertexTextures;
+
+	public boolean instancing;
+	public boolean instancingColor;
 	
+	/**
+	 * Packs boolean flags of the parameters into one integer.
+	 */
+	public int getFlags()
+	{
+		return bit( gammaInput, 0 ) | bit( gammaOutput, 1 ) | bit( physicallyBasedShading, 2 ) 
+				| bit( useVertexTexture, 3 ) | bit( map, 4 ) | bit( envMap, 5 ) | bit( lightMap, 6 ) 
+				| bit( bumpMap, 7 ) | bit( normalMap, 8 ) | bit( specularMap, 9 ) | bit( vertexColors, 10 ) 
+				| bit( skinning, 11 ) | bit( morphTargets, 12 ) | bit( morphNormals, 13 ) | bit( perPixel, 14 ) 
+				| bit( wrapAround, 15 ) | bit( doubleSided, 16 ) | bit( flipSided, 17 ) 
+				| bit( shadowMapEnabled, 18 ) | bit( shadowMapSoft, 19 ) | bit( shadowMapDebug, 20 ) 
+				| bit( shadowMapCascade, 21 ) | bit( sizeAttenuation, 22 ) | bit( useFog, 23 ) 
+				| bit( useFog2, 24 ) | bit( metal, 25 ) | bit( isSupportsVertexTextures, 26 ) 
+				| bit( instancing, 27 ) | bit( instancingColor, 28 );
+	}
+
+	private static int bit(boolean value, int index)
+	{
+		return value ? 1 << index : 0;
+	}
+
+	/**
+	 * Compares the parameters which are not packed by {@link #getFlags()}.
+	 */
+	public boolean equalsValues(ProgramParameters o)
+	{
+		return maxDirLights == o.maxDirLights 
+				&& maxPointLights == o.maxPointLights 
+				&& maxSpotLights == o.maxSpotLights 
+				&& maxHemiLights == o.maxHemiLights
+				&& maxShadows == o.maxShadows 
+				&& maxBones == o.maxBones 
+				&& boneTextureWidth == o.boneTextureWidth 
+				&& boneTextureHeight == o.boneTextureHeight
+				&& maxMorphTargets == o.maxMorphTargets 
+				&& maxMorphNormals == o.maxMorphNormals
+				&& alphaTest == o.alphaTest;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if ( this == obj )
+			return true;
+
+		if ( !(obj instanceof ProgramParameters) )
+			return false;
+
+		ProgramParameters o = (ProgramParameters) obj;
+
+		return getFlags() == o.getFlags() && equalsValues(o);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return hashCode(getFlags());
+	}
+
+	/**
+	 * Gets the hash code for the already packed flags, see {@link #getFlags()}.
+	 */
+	public int hashCode(int flags)
+	{
+		int hash = flags;
+		hash = hash * 31 + ( maxDirLights | maxPointLights << 8 | maxSpotLights << 16 | maxHemiLights << 24 );
+		hash = hash * 31 + ( maxShadows | maxBones << 8 );
+		hash = hash * 31 + ( boneTextureWidth | boneTextureHeight << 16 );
+		hash = hash * 31 + ( maxMorphTargets | maxMorphNormals << 8 );
+		hash = hash * 31 + (int)( alphaTest * 1000 );
+
+		return hash;
+	}
+
 	public String toString() 
 	{
 		String retval = "";
@@ -75,7 +152,8 @@ public class ProgramParameters
 				+ map + ", " + envMap + ", " + lightMap + ", " + bumpMap + ", " + normalMap + ", " + specularMap + ", " + vertexColors + ", " + skinning + ", " + morphTargets + "-4-"
 				+ morphNormals + ", " + perPixel + ", " + wrapAround + ", " + doubleSided + ", " + flipSided + "-5-"
 				+ shadowMapEnabled + ", " + shadowMapSoft + ", " + shadowMapDebug  + ", " + shadowMapCascade + ", " + sizeAttenuation + "-6-"
-				+ alphaTest + ", " + useFog + ", " + useFog2 + ", " + metal + ", " + maxMorphTargets + ", " + maxMorphNormals + ", " + isSupportsVertexTextures;
+				+ alphaTest + ", " + useFog + ", " + useFog2 + ", " + metal + ", " + maxMorphTargets + ", " + maxMorphNormals + ", " + isSupportsVertexTextures + "-7-"
+				+ instancing + ", " + instancingColor;
 		return retval;
 	}
 }
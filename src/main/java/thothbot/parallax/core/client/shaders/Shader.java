@@ -25,9 +25,10 @@ import java.util.List;
 import java.util.Map;
 
 import thothbot.parallax.core.client.gl2.WebGLConstants;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.WebGLProgram;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
 import thothbot.parallax.core.client.gl2.WebGLShader;
+import thothbot.parallax.core.client.gl2.WebGLUniformLocation;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.enums.ProgramParameter;
 import thothbot.parallax.core.shared.Log;
@@ -80,6 +81,31 @@ public abstract class Shader
 	private String vertexShaderSource = "";
 	private String fragmentShaderSource = "";
 
+	// Built-in attributes locations, resolved once in buildProgram()
+	private int positionLocation = -1;
+	private int normalLocation = -1;
+	private int uvLocation = -1;
+	private int uv2Location = -1;
+	private int tangentLocation = -1;
+	private int colorLocation = -1;
+	private int skinIndexLocation = -1;
+	private int skinWeightLocation = -1;
+	private int[] morphTargetLocations = new int[0];
+	private int[] morphNormalLocations = new int[0];
+	private int[] instanceMatrixLocations = { -1, -1, -1, -1 };
+	private int instanceColorLocation = -1;
+
+	// Built-in uniforms locations, resolved once in buildProgram()
+	private WebGLUniformLocation viewMatrixLocation;
+	private WebGLUniformLocation modelViewMatrixLocation;
+	private WebGLUniformLocation projectionMatrixLocation;
+	private WebGLUniformLocation normalMatrixLocation;
+	private WebGLUniformLocation modelMatrixLocation;
+	private WebGLUniformLocation cameraPositionLocation;
+	private WebGLUniformLocation morphTargetInfluencesLocation;
+	private WebGLUniformLocation boneTextureLocation;
+	private WebGLUniformLocation boneGlobalMatricesLocation;
+
 	private boolean cache_areCustomAttributesDirty;
 
 	private int id;
@@ -131,12 +157,12 @@ public abstract class Shader
 	}
 	
 	// Called in renderer plugins
-	public Shader buildProgram(WebGLRenderingContext gl) 
+	public Shader buildProgram(WebGLContext gl) 
 	{
 		return buildProgram(gl, false, 0, 0);
 	}
 	
-	public Shader buildProgram(WebGLRenderingContext gl, boolean useVertexTexture, int maxMorphTargets, int maxMorphNormals) 
+	public Shader buildProgram(WebGLContext gl, boolean useVertexTexture, int maxMorphTargets, int maxMorphNormals) 
 	{
 		Log.debug("Building new program...");
 
@@ -167,7 +193,8 @@ public abstract class Shader
 
 		// cache attributes locations
 		List<String> attributesIds = new ArrayList<String>(Arrays.asList("position", "normal",
-				"uv", "uv2", "tangent", "color", "skinIndex", "skinWeight"));
+				"uv", "uv2", "tangent", "color", "skinIndex", "skinWeight",
+				"instanceMatrix0", "instanceMatrix1", "instanceMatrix2", "instanceMatrix3", "instanceColor"));
 
 		for (int i = 0; i < maxMorphTargets; i++)
 			attributesIds.add("morphTarget" + i);
@@ -183,9 +210,58 @@ public abstract class Shader
 		Map<String, Integer> attributesLocations = getAttributesLocations();
 		for (String id : attributesIds)
 			attributesLocations.put(id, gl.getAttribLocation(this.program, id));
-		
+
+		cacheBuiltinLocations(maxMorphTargets, maxMorphNormals);
+
 		return this;
 	}
+
+	/**
+	 * Copies locations of the built-in attributes and uniforms into 
+	 * plain fields, so the renderer can use them per draw call 
+	 * without map lookups and string concatenation.
+	 */
+	private void cacheBuiltinLocations(int maxMorphTargets, int maxMorphNormals)
+	{
+		Map<String, Integer> attributesLocations = getAttributesLocations();
+
+		this.positionLocation   = attributesLocations.get("position");
+		this.normalLocation     = attributesLocations.get("normal");
+		this.uvLocation         = attributesLocations.get("uv");
+		this.uv2Location        = attributesLocations.get("uv2");
+		this.tangentLocation    = attributesLocations.get("tangent");
+		this.colorLocation      = attributesLocations.get("color");
+		this.skinIndexLocation  = attributesLocations.get("skinIndex");
+		this.skinWeightLocation = attributesLocations.get("skinWeight");
+
+		for (int i = 0; i < 4; i++)
+			this.instanceMatrixLocations[i] = attributesLocations.get("instanceMatrix" + i);
+		this.instanceColorLocation = attributesLocations.get("instanceColor");
+
+		this.morphTargetLocations = new int[maxMorphTargets];
+		for (int i = 0; i < maxMorphTargets; i++)
+			this.morphTargetLocations[i] = attributesLocations.get("morphTarget" + i);
+
+		this.morphNormalLocations = new int[maxMorphNormals];
+		for (int i = 0; i < maxMorphNormals; i++)
+			this.morphNormalLocations[i] = attributesLocations.get("morphNormal" + i);
+
+		this.viewMatrixLocation            = getUniformLocation("viewMatrix");
+		this.modelViewMatrixLocation       = getUniformLocation("modelViewMatrix");
+		this.projectionMatrixLocation      = getUniformLocation("projectionMatrix");
+		this.normalMatrixLocation          = getUniformLocation("normalMatrix");
+		this.modelMatrixLocation           = getUniformLocation("modelMatrix");
+		this.cameraPositionLocation        = getUniformLocation("cameraPosition");
+		this.morphTargetInfluencesLocation = getUniformLocation("morphTargetInfluences");
+		this.boneTextureLocation           = getUniformLocation("boneTexture");
+		this.boneGlobalMatricesLocation    = getUniformLocation("boneGlobalMatrices");
+	}
+
+	private WebGLUniformLocation getUniformLocation(String id)
+	{
+		Uniform uniform = getUniforms().get(id);
+		return uniform != null ? uniform.getLocation() : null;
+	}
 	
 
 	/**
@@ -196,7 +272,7 @@ public abstract class Shader
 	 * @param vertexSource   the vertex shader source code
 	 * @param fragmentSource the fragment shader source code
 	 */
-	private void initShaderProgram(WebGLRenderingContext gl)
+	private void initShaderProgram(WebGLContext gl)
 	{
 		Log.debug("Called initProgram()");
 
@@ -239,7 +315,7 @@ public abstract class Shader
 	/**
 	 * Gets the shader.
 	 */
-	private WebGLShader getShaderProgram(WebGLRenderingContext gl, Class<?> type, String string)
+	private WebGLShader getShaderProgram(WebGLContext gl, Class<?> type, String string)
 	{
 		Log.debug("Called getShaderProgram() for type " + type.getName());
 		WebGLShader shader = null;
@@ -298,6 +374,56 @@ public abstract class Shader
 
 	// Uniforms
 	protected abstract void initUniforms();
+
+	/**
+	 * Creates a new shader, which is not built, with the same sources, 
+	 * copies of the uniforms and the same custom attributes. It is used 
+	 * when the program of the shader is shared by several materials, 
+	 * so the shader can not be rebuilt in place.
+	 */
+	public Shader copy()
+	{
+		Shader shader = new CopiedShader(getShaderClass(), getVertexSource(), getFragmentSource());
+		shader.setPrecision(this.precision);
+
+		for (String id : this.uniforms.keySet())
+			shader.addUniform(id, this.uniforms.get(id).clone());
+
+		shader.setAttributes(this.attributes);
+
+		return shader;
+	}
+
+	/**
+	 * Gets the class of the shader, which programs are built from. 
+	 * For copies it is the class of the copied shader, see {@link #copy()}.
+	 */
+	public Class<?> getShaderClass()
+	{
+		return getClass();
+	}
+
+	private static class CopiedShader extends Shader
+	{
+		private Class<?> shaderClass;
+
+		public CopiedShader(Class<?> shaderClass, String vertexShader, String fragmentShader) 
+		{
+			super(vertexShader, fragmentShader);
+			this.shaderClass = shaderClass;
+		}
+
+		@Override
+		public Class<?> getShaderClass()
+		{
+			return this.shaderClass;
+		}
+
+		@Override
+		protected void initUniforms() {
+
+		}
+	}
 	
 	/**
 	 * Gets shader's uniforms.
@@ -324,6 +450,103 @@ public abstract class Shader
 		return this.attributesLocations;
 	}
 
+	public int getPositionLocation() {
+		return this.positionLocation;
+	}
+
+	public int getNormalLocation() {
+		return this.normalLocation;
+	}
+
+	public int getUvLocation() {
+		return this.uvLocation;
+	}
+
+	public int getUv2Location() {
+		return this.uv2Location;
+	}
+
+	public int getTangentLocation() {
+		return this.tangentLocation;
+	}
+
+	public int getColorLocation() {
+		return this.colorLocation;
+	}
+
+	public int getSkinIndexLocation() {
+		return this.skinIndexLocation;
+	}
+
+	public int getSkinWeightLocation() {
+		return this.skinWeightLocation;
+	}
+
+	/**
+	 * Gets location of the "morphTarget" + index attribute, 
+	 * or -1 if the program has no such attribute.
+	 */
+	public int getMorphTargetLocation(int index) {
+		return index < this.morphTargetLocations.length ? this.morphTargetLocations[index] : -1;
+	}
+
+	/**
+	 * Gets location of the "morphNormal" + index attribute, 
+	 * or -1 if the program has no such attribute.
+	 */
+	public int getMorphNormalLocation(int index) {
+		return index < this.morphNormalLocations.length ? this.morphNormalLocations[index] : -1;
+	}
+
+	/**
+	 * Gets location of the "instanceMatrix" + column attribute (one of 
+	 * four columns of the per-instance model matrix), or -1 if the program 
+	 * is not instanced.
+	 */
+	public int getInstanceMatrixLocation(int column) {
+		return this.instanceMatrixLocations[column];
+	}
+
+	public int getInstanceColorLocation() {
+		return this.instanceColorLocation;
+	}
+
+	public WebGLUniformLocation getViewMatrixLocation() {
+		return this.viewMatrixLocation;
+	}
+
+	public WebGLUniformLocation getModelViewMatrixLocation() {
+		return this.modelViewMatrixLocation;
+	}
+
+	public WebGLUniformLocation getProjectionMatrixLocation() {
+		return this.projectionMatrixLocation;
+	}
+
+	public WebGLUniformLocation getNormalMatrixLocation() {
+		return this.normalMatrixLocation;
+	}
+
+	public WebGLUniformLocation getModelMatrixLocation() {
+		return this.modelMatrixLocation;
+	}
+
+	public WebGLUniformLocation getCameraPositionLocation() {
+		return this.cameraPositionLocation;
+	}
+
+	public WebGLUniformLocation getMorphTargetInfluencesLocation() {
+		return this.morphTargetInfluencesLocation;
+	}
+
+	public WebGLUniformLocation getBoneTextureLocation() {
+		return this.boneTextureLocation;
+	}
+
+	public WebGLUniformLocation getBoneGlobalMatricesLocation() {
+		return this.boneGlobalMatricesLocation;
+	}
+
 	public Map<String, Attribute> getAttributes() {
 		return this.attributes;
 	}
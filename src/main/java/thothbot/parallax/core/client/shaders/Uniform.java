@@ -18,8 +18,15 @@
 
 package thothbot.parallax.core.client.shaders;
 
+import java.util.List;
+
 import thothbot.parallax.core.client.gl2.WebGLUniformLocation;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
+import thothbot.parallax.core.shared.math.Color;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.math.Vector2;
+import thothbot.parallax.core.shared.math.Vector3;
+import thothbot.parallax.core.shared.math.Vector4;
 
 /**
  * Shader's uniforms.
@@ -52,6 +59,15 @@ public class Uniform
 	private Float32Array cache_array;
 	private WebGLUniformLocation location;
 
+	// Bumped every time when another value is set
+	private int version = 0;
+	// The value object can be modified in place, so its values are compared
+	private boolean isCheckedByValue = true;
+	// Version and flattened value which were uploaded to the program last time
+	private int cache_uploadedVersion = -1;
+	private double[] cache_uploadedValue;
+	private boolean cache_isChanged;
+
 	public Uniform(Uniform.TYPE type) 
 	{
 		this(type, null);
@@ -72,9 +88,58 @@ public class Uniform
 	}
 	
 	public void setValue(Object value) {
+		if( isSameValue(value) )
+			return;
+
 		this.value = value;
+		this.version++;
+	}
+
+	/*
+	 * The same object, or the equal number or boolean, which can not be 
+	 * modified in place.
+	 */
+	private boolean isSameValue(Object value)
+	{
+		if( value == this.value )
+			return true;
+
+		return ( value instanceof Number || value instanceof Boolean ) && value.equals(this.value);
+	}
+
+	/**
+	 * Gets the value version, which is increased by 
+	 * {@link #setValue(Object)} with another value and {@link #setNeedsUpdate()}.
+	 */
+	public int getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Forces the uniform to be uploaded next time the material 
+	 * is refreshed.
+	 */
+	public void setNeedsUpdate() {
+		this.version++;
 	}
 	
+	public boolean isCheckedByValue() {
+		return this.isCheckedByValue;
+	}
+
+	/**
+	 * Sets if the values of the value object are compared with the uploaded 
+	 * ones to find changes made in place, for example by 
+	 * <code>getColor().setHex()</code>. Default is true. 
+	 * Set false when such changes are always followed by {@link #setNeedsUpdate()}: 
+	 * the uniform is checked by its version only and the uploaded values are not kept.
+	 */
+	public void setCheckedByValue(boolean isCheckedByValue) {
+		this.isCheckedByValue = isCheckedByValue;
+		this.cache_uploadedVersion = -1;
+		this.cache_uploadedValue = null;
+	}
+
 	public Float32Array getCacheArray() {
 		return this.cache_array;
 	}
@@ -89,6 +154,142 @@ public class Uniform
 	
 	public void setLocation(WebGLUniformLocation location) {
 		this.location = location;
+
+		// New program - nothing was uploaded yet
+		this.cache_uploadedVersion = -1;
+		this.cache_uploadedValue = null;
+	}
+
+	/**
+	 * Checks if the value should be uploaded to the program: it was 
+	 * set or its version was bumped since the last upload, or the value 
+	 * object ({@link Vector3}, {@link Color}, {@link Matrix4}, typed array, etc.) 
+	 * was modified in place. Calling this method marks the current value 
+	 * as uploaded.
+	 * <p>
+	 * Numbers can not be modified in place, so they and the uniforms which are not 
+	 * {@link #isCheckedByValue()} are checked by the version only. 
+	 * Textures are always reported as changed, because texture units 
+	 * are assigned every time the material is refreshed.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean isChanged()
+	{
+		if( this.type == TYPE.T || this.type == TYPE.TV || this.value == null )
+			return true;
+
+		this.cache_isChanged = ( this.version != this.cache_uploadedVersion );
+		this.cache_uploadedVersion = this.version;
+
+		if( this.type == TYPE.I || this.type == TYPE.F || ! this.isCheckedByValue )
+			return this.cache_isChanged;
+
+		if(this.type == TYPE.V2)
+		{
+			ensureUploadedValue(2);
+			checkVector2(0, (Vector2) this.value);
+		}
+		else if(this.type == TYPE.V3)
+		{
+			ensureUploadedValue(3);
+			checkVector3(0, (Vector3) this.value);
+		}
+		else if(this.type == TYPE.V4)
+		{
+			ensureUploadedValue(4);
+			checkVector4(0, (Vector4) this.value);
+		}
+		else if(this.type == TYPE.C)
+		{
+			Color color = (Color) this.value;
+			ensureUploadedValue(3);
+			checkUploadedValue(0, color.getR());
+			checkUploadedValue(1, color.getG());
+			checkUploadedValue(2, color.getB());
+		}
+		else if(this.type == TYPE.FV1 || this.type == TYPE.FV)
+		{
+			Float32Array array = (Float32Array) this.value;
+			ensureUploadedValue(array.getLength());
+			checkArray(0, array);
+		}
+		else if(this.type == TYPE.V2V)
+		{
+			List<Vector2> list = (List<Vector2>) this.value;
+			ensureUploadedValue(list.size() * 2);
+			for(int i = 0, il = list.size(); i < il; i++)
+				checkVector2(i * 2, list.get(i));
+		}
+		else if(this.type == TYPE.V3V)
+		{
+			List<Vector3> list = (List<Vector3>) this.value;
+			ensureUploadedValue(list.size() * 3);
+			for(int i = 0, il = list.size(); i < il; i++)
+				checkVector3(i * 3, list.get(i));
+		}
+		else if(this.type == TYPE.V4V)
+		{
+			List<Vector4> list = (List<Vector4>) this.value;
+			ensureUploadedValue(list.size() * 4);
+			for(int i = 0, il = list.size(); i < il; i++)
+				checkVector4(i * 4, list.get(i));
+		}
+		else if(this.type == TYPE.M4)
+		{
+			ensureUploadedValue(16);
+			checkArray(0, ((Matrix4) this.value).getArray());
+		}
+		else if(this.type == TYPE.M4V)
+		{
+			List<Matrix4> list = (List<Matrix4>) this.value;
+			ensureUploadedValue(list.size() * 16);
+			for(int i = 0, il = list.size(); i < il; i++)
+				checkArray(i * 16, list.get(i).getArray());
+		}
+
+		return this.cache_isChanged;
+	}
+
+	private void ensureUploadedValue(int length)
+	{
+		if(this.cache_uploadedValue == null || this.cache_uploadedValue.length != length)
+		{
+			this.cache_uploadedValue = new double[length];
+			this.cache_isChanged = true;
+		}
+	}
+
+	private void checkUploadedValue(int index, double value)
+	{
+		if(this.cache_uploadedValue[index] != value)
+		{
+			this.cache_uploadedValue[index] = value;
+			this.cache_isChanged = true;
+		}
+	}
+
+	private void checkVector2(int offset, Vector2 vector)
+	{
+		checkUploadedValue(offset,     vector.getX());
+		checkUploadedValue(offset + 1, vector.getY());
+	}
+
+	private void checkVector3(int offset, Vector3 vector)
+	{
+		checkVector2(offset, vector);
+		checkUploadedValue(offset + 2, vector.getZ());
+	}
+
+	private void checkVector4(int offset, Vector4 vector)
+	{
+		checkVector3(offset, vector);
+		checkUploadedValue(offset + 3, vector.getW());
+	}
+
+	private void checkArray(int offset, Float32Array array)
+	{
+		for(int i = 0, il = array.getLength(); i < il; i++)
+			checkUploadedValue(offset + i, array.get(i));
 	}
 	
 	public String toString()
@@ -100,6 +301,7 @@ public class Uniform
 	{
 		Uniform result = new Uniform(this.type, this.value);
 		result.cache_array = this.cache_array;
+		result.isCheckedByValue = this.isCheckedByValue;
 
 		return result;
 	}
@@ -22,9 +22,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import thothbot.parallax.core.client.gl2.WebGLConstants;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.WebGLFramebuffer;
 import thothbot.parallax.core.client.gl2.WebGLRenderbuffer;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
 import thothbot.parallax.core.client.gl2.enums.FramebufferSlot;
 import thothbot.parallax.core.client.gl2.enums.TextureTarget;
 import thothbot.parallax.core.shared.math.Mathematics;
@@ -50,7 +50,7 @@ public class RenderTargetCubeTexture extends RenderTargetTexture
 	}
 
 	@Override
-	public void deallocate(WebGLRenderingContext gl)
+	public void deallocate(WebGLContext gl)
 	{
 		if (this.getWebGlTexture() == null)
 			return;
@@ -70,7 +70,7 @@ public class RenderTargetCubeTexture extends RenderTargetTexture
 	}
 	
 	@Override
-	public void setRenderTarget(WebGLRenderingContext gl)
+	public void setRenderTarget(WebGLContext gl)
 	{
 		if (this.webglFramebuffer != null)
 			return;
@@ -109,14 +109,14 @@ public class RenderTargetCubeTexture extends RenderTargetTexture
 		gl.bindFramebuffer(null);
 	}
 	
-	public void setupFrameBuffer(WebGLRenderingContext gl, WebGLFramebuffer framebuffer, TextureTarget textureTarget, int slot)
+	public void setupFrameBuffer(WebGLContext gl, WebGLFramebuffer framebuffer, TextureTarget textureTarget, int slot)
 	{	
 		gl.bindFramebuffer(framebuffer);
 		gl.framebufferTexture2D(FramebufferSlot.COLOR_ATTACHMENT0, textureTarget, slot, this.getWebGlTexture(), 0);
 	}
 	
 	@Override
-	public void updateRenderTargetMipmap(WebGLRenderingContext gl) 
+	public void updateRenderTargetMipmap(WebGLContext gl) 
 	{	
 		gl.bindTexture( TextureTarget.TEXTURE_CUBE_MAP, this.getWebGlTexture() );
 		gl.generateMipmap( TextureTarget.TEXTURE_CUBE_MAP );
@@ -18,9 +18,9 @@
 
 package thothbot.parallax.core.client.textures;
 
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.WebGLFramebuffer;
 import thothbot.parallax.core.client.gl2.WebGLRenderbuffer;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
 import thothbot.parallax.core.client.gl2.enums.FramebufferSlot;
 import thothbot.parallax.core.client.gl2.enums.PixelFormat;
 import thothbot.parallax.core.client.gl2.enums.PixelType;
@@ -106,7 +106,7 @@ public class RenderTargetTexture extends Texture
 		return this.webglFramebuffer;
 	}
 
-	public void deallocate(WebGLRenderingContext gl)
+	public void deallocate(WebGLContext gl)
 	{
 		if (this.getWebGlTexture() == null)
 			return;
@@ -138,7 +138,7 @@ public class RenderTargetTexture extends Texture
 		return tmp;
 	}
 	
-	public void setRenderTarget(WebGLRenderingContext gl)
+	public void setRenderTarget(WebGLContext gl)
 	{
 		if (this.webglFramebuffer != null)
 			return;
@@ -171,20 +171,20 @@ public class RenderTargetTexture extends Texture
 		gl.bindFramebuffer(null);
 	}
 
-	public void updateRenderTargetMipmap(WebGLRenderingContext gl)
+	public void updateRenderTargetMipmap(WebGLContext gl)
 	{	
 		gl.bindTexture(TextureTarget.TEXTURE_2D, this.getWebGlTexture());
 		gl.generateMipmap(TextureTarget.TEXTURE_2D);
 		gl.bindTexture(TextureTarget.TEXTURE_2D, null);
 	}
 
-	public void setupFrameBuffer(WebGLRenderingContext gl, WebGLFramebuffer framebuffer, TextureTarget textureTarget)
+	public void setupFrameBuffer(WebGLContext gl, WebGLFramebuffer framebuffer, TextureTarget textureTarget)
 	{	
 		gl.bindFramebuffer(framebuffer);
 		gl.framebufferTexture2D(FramebufferSlot.COLOR_ATTACHMENT0, textureTarget, this.getWebGlTexture(), 0);
 	}
 
-	public void setupRenderBuffer(WebGLRenderingContext gl, WebGLRenderbuffer renderbuffer)
+	public void setupRenderBuffer(WebGLContext gl, WebGLRenderbuffer renderbuffer)
 	{	
 		gl.bindRenderbuffer(renderbuffer);
 
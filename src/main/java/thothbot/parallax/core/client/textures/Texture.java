@@ -19,7 +19,7 @@
 package thothbot.parallax.core.client.textures;
 
 import thothbot.parallax.core.client.gl2.WebGLConstants;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.WebGLTexture;
 import thothbot.parallax.core.client.gl2.enums.DataType;
 import thothbot.parallax.core.client.gl2.enums.PixelFormat;
@@ -31,6 +31,7 @@ import thothbot.parallax.core.client.gl2.enums.TextureTarget;
 import thothbot.parallax.core.client.gl2.enums.TextureWrapMode;
 import thothbot.parallax.core.client.renderers.WebGLRenderer;
 import thothbot.parallax.core.shared.Log;
+import thothbot.parallax.core.shared.core.ChangeTracker;
 import thothbot.parallax.core.shared.math.Vector2;
 
 import com.google.gwt.dom.client.Element;
@@ -309,6 +310,8 @@ public class Texture
 	 */
 	public void setNeedsUpdate(Boolean needsUpdate) {
 		this.isNeedsUpdate = needsUpdate;
+		if ( Boolean.TRUE.equals(needsUpdate) )
+			ChangeTracker.markChanged();
 	}
 	
 	/**
@@ -455,12 +458,12 @@ public class Texture
 		this.webglTexture = webglTexture;
 	}
 
-	public void setTextureParameters (WebGLRenderingContext gl, TextureTarget textureType, boolean isImagePowerOfTwo )
+	public void setTextureParameters (WebGLContext gl, TextureTarget textureType, boolean isImagePowerOfTwo )
 	{
 		setTextureParameters(gl, 0, textureType, isImagePowerOfTwo);
 	}
 
-	public void setTextureParameters (WebGLRenderingContext gl, int maxAnisotropy, TextureTarget textureType, boolean isImagePowerOfTwo ) 
+	public void setTextureParameters (WebGLContext gl, int maxAnisotropy, TextureTarget textureType, boolean isImagePowerOfTwo ) 
 	{	
 		if ( isImagePowerOfTwo ) 
 		{
@@ -507,6 +510,7 @@ public class Texture
 		if ( getWebGlTexture() == null ) return;
 
 		renderer.getGL().deleteTexture( getWebGlTexture() );
+		renderer.getGLState().deleteTexture( getWebGlTexture() );
 
 		renderer.getInfo().getMemory().textures--;
 	}
@@ -204,5 +204,6 @@ public class OrthographicCamera extends Camera
 	public void updateProjectionMatrix()
 	{
 		this.projectionMatrix.makeOrthographic( getLeft(), getRight(), getTop(), getBottom(), getNear(), getFar() );
+		markChanged();
 	}
 }
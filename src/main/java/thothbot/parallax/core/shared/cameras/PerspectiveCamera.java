@@ -327,5 +327,7 @@ public class PerspectiveCamera extends Camera
 		{
 			this.projectionMatrix.makePerspective( getFieldOfView(), getAspectRation(), getNear(), getFar() );
 		}
+
+		markChanged();
 	}
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.core;
+
+/**
+ * Global counter of the changes which require a new frame to be rendered: 
+ * geometry, material and texture updates, viewport size, controls input, 
+ * and changes of the objects which are not in a scene, like detached cameras. 
+ * Changes of the scene items are counted by the version of their scene, 
+ * see {@link thothbot.parallax.core.shared.scenes.Scene#getVersion()}.
+ * <p>
+ * It is used by the render on demand mode of the {@link thothbot.parallax.core.client.AnimatedScene}, 
+ * which renders a frame only if the versions were changed since the previous one. 
+ * Transforms changed directly through the vectors, for example 
+ * <code>getPosition().setX()</code>, are found only when the matrices are updated, 
+ * by comparing the values, so they need an explicit 
+ * {@link thothbot.parallax.core.client.AnimatedScene#requestRender()}.
+ * 
+ * @author thothbot
+ *
+ */
+public final class ChangeTracker
+{
+	private static int version = 0;
+
+	private ChangeTracker() 
+	{
+	}
+
+	/**
+	 * Marks that the scenes were changed and should be rendered again.
+	 */
+	public static void markChanged()
+	{
+		version++;
+	}
+
+	/**
+	 * Gets the version which is increased by every change.
+	 */
+	public static int getVersion()
+	{
+		return version;
+	}
+}
@@ -40,7 +40,7 @@ import thothbot.parallax.core.shared.objects.Object3D;
 import thothbot.parallax.core.shared.objects.ParticleSystem;
 import thothbot.parallax.core.shared.objects.Ribbon;
 
-import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.shared.GWT;
 
 /**
  * Base class for geometries
@@ -208,6 +208,7 @@ public class Geometry extends GeometryBuffer implements Geometric
 
 	public void setMorphTargetsNeedUpdate(boolean isMorphTargetsNeedUpdate) {
 		this.isMorphTargetsNeedUpdate = isMorphTargetsNeedUpdate;
+		fireNeedsUpdate(isMorphTargetsNeedUpdate);
 	}
 
 	public void setFaceUvs(List<List<Vector2>> faceUvs) {
@@ -19,23 +19,38 @@
 package thothbot.parallax.core.shared.core;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import thothbot.parallax.core.client.gl2.WebGLBuffer;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLVertexArrayObject;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.arrays.Int16Array;
-import thothbot.parallax.core.client.gl2.arrays.Uint16Array;
+import thothbot.parallax.core.client.gl2.arrays.TypeArray;
 import thothbot.parallax.core.client.gl2.enums.BufferTarget;
 import thothbot.parallax.core.client.gl2.enums.BufferUsage;
+import thothbot.parallax.core.client.gl2.enums.DrawElementsType;
+import thothbot.parallax.core.client.renderers.WebGLRenderer;
 import thothbot.parallax.core.client.shaders.Attribute;
 import thothbot.parallax.core.shared.Log;
 import thothbot.parallax.core.shared.math.Box3;
 import thothbot.parallax.core.shared.math.Sphere;
 import thothbot.parallax.core.shared.math.Vector3;
 
+import com.google.gwt.core.shared.GWT;
+
 public class GeometryBuffer implements Geometric
 {
+	/**
+	 * Listener which is notified when any of the needs update flags 
+	 * of the geometry is raised, see {@link GeometryBuffer#addNeedsUpdateListener(NeedsUpdateListener)}.
+	 */
+	public static interface NeedsUpdateListener
+	{
+		void onNeedsUpdate(GeometryBuffer geometry);
+	}
+
 	public static class Offset 
 	{
 		public int start;
@@ -43,6 +58,82 @@ public class GeometryBuffer implements Geometric
 		public int index;	
 	}
 
+	/**
+	 * The range of the modified elements (vertices) of an attribute. 
+	 * Only this range will be refilled and sent to the graphic card.
+	 */
+	public static class DirtyRange
+	{
+		private int start;
+		private int end;
+		private boolean isFull;
+
+		public DirtyRange()
+		{
+			reset();
+		}
+
+		/**
+		 * Gets the first modified element.
+		 */
+		public int getStart() {
+			return this.start;
+		}
+
+		/**
+		 * Gets the element after the last modified one.
+		 */
+		public int getEnd() {
+			return this.end;
+		}
+
+		/**
+		 * Checks if all elements should be updated.
+		 */
+		public boolean isFull() {
+			return this.isFull;
+		}
+
+		public boolean isEmpty() {
+			return !this.isFull && this.start >= this.end;
+		}
+
+		public void setFull() 
+		{
+			this.isFull = true;
+		}
+
+		public void reset()
+		{
+			this.isFull = false;
+			this.start = Integer.MAX_VALUE;
+			this.end = 0;
+		}
+
+		/**
+		 * Extends the range by the count of elements from start.
+		 */
+		public void add(int start, int count)
+		{
+			this.start = Math.min( this.start, start );
+			this.end = Math.max( this.end, start + count );
+		}
+
+		public boolean contains(int index)
+		{
+			return this.isFull || ( index >= this.start && index < this.end );
+		}
+
+		/**
+		 * Checks if any vertex of the face is in the range.
+		 */
+		public boolean contains(Face3 face)
+		{
+			return contains( face.getA() ) || contains( face.getB() ) || contains( face.getC() )
+					|| ( face instanceof Face4 && contains( ((Face4)face).getD() ) );
+		}
+	}
+
 	public static int Counter = 0;
 	private int id = 0;
 	
@@ -67,13 +158,46 @@ public class GeometryBuffer implements Geometric
 	
 	private boolean isBuffersNeedUpdate;
 
+	private DirtyRange verticesDirtyRange = new DirtyRange();
+	private DirtyRange normalsDirtyRange = new DirtyRange();
+	private DirtyRange colorsDirtyRange = new DirtyRange();
+	private DirtyRange uvsDirtyRange = new DirtyRange();
+	private DirtyRange tangentsDirtyRange = new DirtyRange();
+
+	// Sizes of the buffers allocated in the graphic card
+	private Map<String, Integer> cache_bufferLengths;
+
+	// The order of the attributes in the interleaved buffer
+	private static final String[] INTERLEAVED_ATTRIBUTES = { 
+		"position", "normal", "color", "uv", "uv2", "tangent", "skinIndex", "skinWeight" 
+	};
+
+	private boolean isInterleaved;
+	private VertexFormat webGlVertexFormat;
+	private Float32Array webGlInterleavedArray;
+	// The latest arrays of the attributes which are packed into the interleaved one
+	private Map<String, Float32Array> cache_interleavedSources;
+	private DirtyRange interleavedDirtyRange = new DirtyRange();
+
+	// Vertex array objects with the attributes setup by the keys of 
+	// the renderer, see WebGLRenderer. There are few of them per buffer, 
+	// so they are kept in plain arrays and searched linearly
+	private int[] cache_vertexArrayKeys;
+	private WebGLVertexArrayObject[] cache_vertexArrays;
+	private int vertexArraysCount;
+	private boolean isVertexArraysNeedUpdate;
+
+	private List<NeedsUpdateListener> needsUpdateListeners;
+
 	public List<GeometryBuffer.Offset> offsets;
 	
 	private boolean isArrayInitialized;
 	
 	private Int16Array webGlIndexArray;
-	private Uint16Array webGlFaceArray;
-	private Uint16Array webGlLineArray;
+	// Uint16Array or Uint32Array, see webGlIndexType
+	private TypeArray webGlFaceArray;
+	private TypeArray webGlLineArray;
+	private DrawElementsType webGlIndexType = DrawElementsType.UNSIGNED_SHORT;
 	
 	private Float32Array webGlColorArray;
 	private Float32Array webGlVertexArray;
@@ -95,6 +219,8 @@ public class GeometryBuffer implements Geometric
 	
 	public WebGLBuffer __webglSkinIndicesBuffer;
 	public WebGLBuffer __webglSkinWeightsBuffer;
+
+	public WebGLBuffer __webglInterleavedBuffer;
 		
 	public int numMorphTargets;
 	public List<WebGLBuffer> __webglMorphTargetsBuffers;
@@ -142,6 +268,148 @@ public class GeometryBuffer implements Geometric
 		this.isDynamic = dynamic;
 	}
 	
+	public boolean isInterleaved() {
+		return this.isInterleaved;
+	}
+
+	/**
+	 * Set to true to store all standard attributes (position, normal, color, 
+	 * uvs, tangent and skinning) in one interleaved buffer, described by 
+	 * the {@link #getWebGlVertexFormat()}. Then binding of the geometry is 
+	 * one buffer bind. Should be set before the geometry is rendered first time.
+	 */
+	public void setInterleaved(boolean interleaved) {
+		this.isInterleaved = interleaved;
+	}
+
+	/**
+	 * Gets layout of the interleaved buffer or null if the attributes 
+	 * are stored in separate buffers.
+	 */
+	public VertexFormat getWebGlVertexFormat() {
+		return this.webGlVertexFormat;
+	}
+
+	/**
+	 * Gets vertex array object of the buffer, created by the renderer 
+	 * for the key.
+	 *
+	 * @return the vertex array object or null if there is no such one.
+	 */
+	public WebGLVertexArrayObject getVertexArray(int key) 
+	{
+		for ( int i = 0; i < this.vertexArraysCount; i++ )
+			if ( this.cache_vertexArrayKeys[ i ] == key )
+				return this.cache_vertexArrays[ i ];
+
+		return null;
+	}
+
+	public void addVertexArray(int key, WebGLVertexArrayObject vertexArray) 
+	{
+		if ( this.cache_vertexArrays == null )
+		{
+			this.cache_vertexArrayKeys = new int[ 4 ];
+			this.cache_vertexArrays = new WebGLVertexArrayObject[ 4 ];
+		}
+		else if ( this.vertexArraysCount == this.cache_vertexArrays.length )
+		{
+			int[] keys = new int[ this.vertexArraysCount * 2 ];
+			WebGLVertexArrayObject[] vertexArrays = new WebGLVertexArrayObject[ this.vertexArraysCount * 2 ];
+
+			for ( int i = 0; i < this.vertexArraysCount; i++ )
+			{
+				keys[ i ] = this.cache_vertexArrayKeys[ i ];
+				vertexArrays[ i ] = this.cache_vertexArrays[ i ];
+			}
+
+			this.cache_vertexArrayKeys = keys;
+			this.cache_vertexArrays = vertexArrays;
+		}
+
+		this.cache_vertexArrayKeys[ this.vertexArraysCount ] = key;
+		this.cache_vertexArrays[ this.vertexArraysCount ] = vertexArray;
+		this.vertexArraysCount++;
+	}
+
+	public int getVertexArraysCount() {
+		return this.vertexArraysCount;
+	}
+
+	public int getVertexArrayKey(int index) {
+		return this.cache_vertexArrayKeys[ index ];
+	}
+
+	public WebGLVertexArrayObject getVertexArrayAt(int index) {
+		return this.cache_vertexArrays[ index ];
+	}
+
+	/**
+	 * Removes vertex array object by its index. The last one 
+	 * takes its place.
+	 */
+	public void removeVertexArrayAt(int index) 
+	{
+		int last = --this.vertexArraysCount;
+
+		this.cache_vertexArrayKeys[ index ] = this.cache_vertexArrayKeys[ last ];
+		this.cache_vertexArrays[ index ] = this.cache_vertexArrays[ last ];
+		this.cache_vertexArrays[ last ] = null;
+	}
+
+	public void clearVertexArrays() 
+	{
+		for ( int i = 0; i < this.vertexArraysCount; i++ )
+			this.cache_vertexArrays[ i ] = null;
+
+		this.vertexArraysCount = 0;
+	}
+
+	public boolean isVertexArraysNeedUpdate() {
+		return this.isVertexArraysNeedUpdate;
+	}
+
+	/**
+	 * Set to true when the attributes layout was changed, so the vertex 
+	 * array objects should be recreated.
+	 */
+	public void setVertexArraysNeedUpdate(boolean needUpdate) {
+		this.isVertexArraysNeedUpdate = needUpdate;
+	}
+
+	/**
+	 * Adds the listener which is notified when the geometry 
+	 * should be updated in the graphic card. 
+	 */
+	public void addNeedsUpdateListener(NeedsUpdateListener listener)
+	{
+		if ( this.needsUpdateListeners == null )
+			this.needsUpdateListeners = new ArrayList<NeedsUpdateListener>();
+
+		if ( !this.needsUpdateListeners.contains(listener) )
+			this.needsUpdateListeners.add(listener);
+	}
+
+	public void removeNeedsUpdateListener(NeedsUpdateListener listener)
+	{
+		if ( this.needsUpdateListeners != null )
+			this.needsUpdateListeners.remove(listener);
+	}
+
+	protected void fireNeedsUpdate(boolean isNeedUpdate)
+	{
+		if ( !isNeedUpdate )
+			return;
+
+		ChangeTracker.markChanged();
+
+		if ( this.needsUpdateListeners == null )
+			return;
+
+		for ( int i = 0, il = this.needsUpdateListeners.size(); i < il; i++ )
+			this.needsUpdateListeners.get( i ).onNeedsUpdate(this);
+	}
+
 	/**
 	 * Gets True if geometry has tangents. {@link Geometry#computeTangents()} 
 	 */
@@ -159,6 +427,7 @@ public class GeometryBuffer implements Geometric
 
 	public void setElementsNeedUpdate(boolean isElementsNeedUpdate) {
 		this.isElementsNeedUpdate = isElementsNeedUpdate;
+		fireNeedsUpdate(isElementsNeedUpdate);
 	}
 	
 	public boolean isNormalsNeedUpdate() {
@@ -167,6 +436,21 @@ public class GeometryBuffer implements Geometric
 
 	public void setNormalsNeedUpdate(boolean isNormalsNeedUpdate) {
 		this.isNormalsNeedUpdate = isNormalsNeedUpdate;
+		setDirtyRange(this.normalsDirtyRange, isNormalsNeedUpdate);
+		fireNeedsUpdate(isNormalsNeedUpdate);
+	}
+
+	/**
+	 * Marks the count of normals from start as modified.
+	 */
+	public void setNormalsNeedUpdate(int start, int count) {
+		this.isNormalsNeedUpdate = true;
+		this.normalsDirtyRange.add(start, count);
+		fireNeedsUpdate(true);
+	}
+
+	public DirtyRange getNormalsDirtyRange() {
+		return this.normalsDirtyRange;
 	}
 	
 	public boolean isTangentsNeedUpdate() {
@@ -175,6 +459,21 @@ public class GeometryBuffer implements Geometric
 
 	public void setTangentsNeedUpdate(boolean isTangentsNeedUpdate) {
 		this.isTangentsNeedUpdate = isTangentsNeedUpdate;
+		setDirtyRange(this.tangentsDirtyRange, isTangentsNeedUpdate);
+		fireNeedsUpdate(isTangentsNeedUpdate);
+	}
+
+	/**
+	 * Marks the count of tangents from start as modified.
+	 */
+	public void setTangentsNeedUpdate(int start, int count) {
+		this.isTangentsNeedUpdate = true;
+		this.tangentsDirtyRange.add(start, count);
+		fireNeedsUpdate(true);
+	}
+
+	public DirtyRange getTangentsDirtyRange() {
+		return this.tangentsDirtyRange;
 	}
 	
 	public boolean isVerticesNeedUpdate() {
@@ -183,6 +482,22 @@ public class GeometryBuffer implements Geometric
 
 	public void setVerticesNeedUpdate(boolean isVerticesNeedUpdate) {
 		this.isVerticesNeedUpdate = isVerticesNeedUpdate;
+		setDirtyRange(this.verticesDirtyRange, isVerticesNeedUpdate);
+		fireNeedsUpdate(isVerticesNeedUpdate);
+	}
+
+	/**
+	 * Marks the count of vertices from start as modified, so only them 
+	 * will be sent to the graphic card.
+	 */
+	public void setVerticesNeedUpdate(int start, int count) {
+		this.isVerticesNeedUpdate = true;
+		this.verticesDirtyRange.add(start, count);
+		fireNeedsUpdate(true);
+	}
+
+	public DirtyRange getVerticesDirtyRange() {
+		return this.verticesDirtyRange;
 	}
 	
 	public boolean isUvsNeedUpdate() {
@@ -191,6 +506,21 @@ public class GeometryBuffer implements Geometric
 
 	public void setUvsNeedUpdate(boolean isUvsNeedUpdate) {
 		this.isUvsNeedUpdate = isUvsNeedUpdate;
+		setDirtyRange(this.uvsDirtyRange, isUvsNeedUpdate);
+		fireNeedsUpdate(isUvsNeedUpdate);
+	}
+
+	/**
+	 * Marks the count of uvs from start as modified.
+	 */
+	public void setUvsNeedUpdate(int start, int count) {
+		this.isUvsNeedUpdate = true;
+		this.uvsDirtyRange.add(start, count);
+		fireNeedsUpdate(true);
+	}
+
+	public DirtyRange getUvsDirtyRange() {
+		return this.uvsDirtyRange;
 	}
 
 	public boolean isColorsNeedUpdate() {
@@ -199,6 +529,29 @@ public class GeometryBuffer implements Geometric
 
 	public void setColorsNeedUpdate(boolean isColorsNeedUpdate) {
 		this.isColorsNeedUpdate = isColorsNeedUpdate;
+		setDirtyRange(this.colorsDirtyRange, isColorsNeedUpdate);
+		fireNeedsUpdate(isColorsNeedUpdate);
+	}
+
+	/**
+	 * Marks the count of colors from start as modified.
+	 */
+	public void setColorsNeedUpdate(int start, int count) {
+		this.isColorsNeedUpdate = true;
+		this.colorsDirtyRange.add(start, count);
+		fireNeedsUpdate(true);
+	}
+
+	public DirtyRange getColorsDirtyRange() {
+		return this.colorsDirtyRange;
+	}
+
+	private void setDirtyRange(DirtyRange range, boolean isNeedUpdate)
+	{
+		if ( isNeedUpdate )
+			range.setFull();
+		else
+			range.reset();
 	}
 
 	public void setBoundingSphere(Sphere boundingSphere) 
@@ -301,25 +654,40 @@ public class GeometryBuffer implements Geometric
 		this.webGlIndexArray = a;
 	}
 	
-	public Uint16Array getWebGlFaceArray() 
+	public TypeArray getWebGlFaceArray() 
 	{
 		return webGlFaceArray;
 	}
 
-	public Uint16Array getWebGlLineArray() 
+	public TypeArray getWebGlLineArray() 
 	{
 		return webGlLineArray;
 	}
 	
-	public void setWebGlFaceArray(Uint16Array a)
+	public void setWebGlFaceArray(TypeArray a)
 	{
 		this.webGlFaceArray = a;
 	}
 	
-	public void setWebGlLineArray(Uint16Array a)
+	public void setWebGlLineArray(TypeArray a)
 	{
 		this.webGlLineArray = a;
 	}
+
+	/**
+	 * Gets type of the elements in the face and line arrays:
+	 * {@link DrawElementsType#UNSIGNED_SHORT} or {@link DrawElementsType#UNSIGNED_INT}
+	 * when the buffer has more than 65535 vertices.
+	 */
+	public DrawElementsType getWebGlIndexType()
+	{
+		return webGlIndexType;
+	}
+
+	public void setWebGlIndexType(DrawElementsType type)
+	{
+		this.webGlIndexType = type;
+	}
 	
 	protected void dispose() 
 	{
@@ -337,6 +705,9 @@ public class GeometryBuffer implements Geometric
 		setWebGlTangentArray( null );
 		setWebGlUvArray( null );
 		setWebGlUv2Array( null );		
+
+		this.webGlInterleavedArray = null;
+		this.cache_interleavedSources = null;
 	}
 	
 	@Override
@@ -705,7 +1076,7 @@ public class GeometryBuffer implements Geometric
 		tangents.set( v * 4 + 3, w);
 	}
 	
-	public void setDirectBuffers ( WebGLRenderingContext gl, BufferUsage hint, boolean dispose ) 
+	public void setDirectBuffers ( WebGLRenderer renderer, BufferUsage hint, boolean dispose ) 
 	{
 		Int16Array index = getWebGlIndexArray();
 		Float32Array position = getWebGlVertexArray();
@@ -716,44 +1087,198 @@ public class GeometryBuffer implements Geometric
 
 		if ( isElementsNeedUpdate() && index != null ) 
 		{
-			gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, this.__webglIndexBuffer );
-			gl.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, index, hint );
+			renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, this.__webglIndexBuffer );
+			renderer.getGLState().bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, index, hint );
 		}
 
 		if ( isVerticesNeedUpdate() && position != null ) 
+			setBufferData( renderer, "position", this.__webglVertexBuffer, position, this.verticesDirtyRange, 3, hint );
+
+		if ( isNormalsNeedUpdate() && normal != null ) 
+			setBufferData( renderer, "normal", this.__webglNormalBuffer, normal, this.normalsDirtyRange, 3, hint );
+
+		if ( isUvsNeedUpdate() && uv != null ) 
+			setBufferData( renderer, "uv", this.__webglUVBuffer, uv, this.uvsDirtyRange, 2, hint );
+
+		if ( isColorsNeedUpdate() && color != null ) 
+			setBufferData( renderer, "color", this.__webglColorBuffer, color, this.colorsDirtyRange, 3, hint );
+
+		if ( isTangentsNeedUpdate() && tangent != null ) 
+			setBufferData( renderer, "tangent", this.__webglTangentBuffer, tangent, this.tangentsDirtyRange, 4, hint );
+
+		setInterleavedBufferData( renderer, hint );
+
+		if ( dispose ) 
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, this.__webglVertexBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, position, hint );
+			dispose();
 		}
+	}
 
-		if ( isNormalsNeedUpdate() && normal != null ) 
+	/**
+	 * Sends the dirty range of the array to the buffer.
+	 * 
+	 * @see #setBufferData(WebGLRenderer, String, WebGLBuffer, Float32Array, int, int, BufferUsage)
+	 */
+	public void setBufferData( WebGLRenderer renderer, String name, WebGLBuffer buffer, Float32Array array, 
+			DirtyRange range, int itemSize, BufferUsage hint )
+	{
+		if ( range.isFull() || range.isEmpty() )
+			setBufferData( renderer, name, buffer, array, 0, array.getLength(), hint );
+		else
+			setBufferData( renderer, name, buffer, array, 
+					range.getStart() * itemSize, Math.min( range.getEnd() * itemSize, array.getLength() ), hint );
+	}
+
+	/**
+	 * Sends the part of the array from start to end (exclusive) to the buffer. 
+	 * The buffer is reallocated by bufferData only if it is new or the array
+	 * has grown, otherwise the data is replaced by bufferSubData.
+	 * 
+	 * @param name the name of the buffer, used to remember its allocated size.
+	 */
+	public void setBufferData( WebGLRenderer renderer, String name, WebGLBuffer buffer, Float32Array array, 
+			int start, int end, BufferUsage hint )
+	{
+		if ( this.isInterleaved && VertexFormat.getDefaultItemSize( name ) > 0 )
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, this.__webglNormalBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, normal, hint );
+			setInterleavedSource( name, array, start, end );
+			return;
 		}
 
-		if ( isUvsNeedUpdate() && uv != null ) 
+
+		if ( this.cache_bufferLengths == null )
+			this.cache_bufferLengths = GWT.isScript() ? 
+					new FastMap<Integer>() : new HashMap<String, Integer>();
+
+		renderer.getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, buffer );
+
+		Integer length = this.cache_bufferLengths.get( name );
+
+		if ( length == null || length < array.getLength() )
+		{
+			renderer.getGLState().bufferData( BufferTarget.ARRAY_BUFFER, array, hint );
+			this.cache_bufferLengths.put( name, array.getLength() );
+		}
+		else if ( start == 0 && end >= array.getLength() )
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, this.__webglUVBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, uv, hint );
+			renderer.getGLState().bufferSubData( BufferTarget.ARRAY_BUFFER, 0, array );
 		}
+		else if ( start < end )
+		{
+			// 4 bytes per Float32
+			renderer.getGLState().bufferSubData( BufferTarget.ARRAY_BUFFER, start * 4, array.subarray( start, end ) );
+		}
+	}
 
-		if ( isColorsNeedUpdate() && color != null ) 
+	/**
+	 * Forgets the sizes of the buffers allocated in the graphic card and 
+	 * the layout of the interleaved buffer. Should be called when the 
+	 * buffers are deleted, so the new buffers are allocated by bufferData 
+	 * and the interleaved one is packed again.
+	 */
+	public void resetBufferData()
+	{
+		this.cache_bufferLengths = null;
+
+		this.__webglInterleavedBuffer = null;
+		this.webGlVertexFormat = null;
+		this.webGlInterleavedArray = null;
+		this.cache_interleavedSources = null;
+		this.interleavedDirtyRange.setFull();
+	}
+
+	/*
+	 * Remembers the array of the interleaved attribute and the range of 
+	 * its modified vertices. The array will be packed into the interleaved
+	 * buffer by setInterleavedBufferData().
+	 */
+	private void setInterleavedSource( String name, Float32Array array, int start, int end )
+	{
+		if ( this.cache_interleavedSources == null )
+			this.cache_interleavedSources = GWT.isScript() ? 
+					new FastMap<Float32Array>() : new HashMap<String, Float32Array>();
+
+		int itemSize = VertexFormat.getDefaultItemSize( name );
+		Float32Array previous = this.cache_interleavedSources.put( name, array );
+
+		if ( previous == null || previous.getLength() != array.getLength() 
+				|| this.webGlVertexFormat == null || ! this.webGlVertexFormat.contains( name ) )
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, this.__webglColorBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, color, hint );
+			this.interleavedDirtyRange.setFull();
 		}
+		else if ( start < end )
+		{
+			int first = start / itemSize;
+			this.interleavedDirtyRange.add( first, ( end + itemSize - 1 ) / itemSize - first );
+		}
+	}
 
-		if ( isTangentsNeedUpdate() && tangent != null ) 
+	/**
+	 * Packs the attributes, which were sent by setBufferData() since the last
+	 * call, into the interleaved buffer and sends the modified vertices 
+	 * to the graphic card. Does nothing if the buffer is not interleaved.
+	 */
+	public void setInterleavedBufferData( WebGLRenderer renderer, BufferUsage hint )
+	{
+		if ( ! this.isInterleaved || this.cache_interleavedSources == null || this.interleavedDirtyRange.isEmpty() )
+			return;
+
+		Float32Array position = this.cache_interleavedSources.get( "position" );
+		if ( position == null )
+			return;
+
+		int vertexCount = position.getLength() / 3;
+
+		if ( this.interleavedDirtyRange.isFull() || this.webGlVertexFormat == null )
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, this.__webglTangentBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, tangent, hint );
+			VertexFormat format = new VertexFormat();
+
+			for ( String name : INTERLEAVED_ATTRIBUTES )
+				if ( this.cache_interleavedSources.containsKey( name ) )
+					format.add( name, VertexFormat.getDefaultItemSize( name ) );
+
+			this.webGlVertexFormat = format;
+			this.interleavedDirtyRange.setFull();
+			this.isVertexArraysNeedUpdate = true;
 		}
 
-		if ( dispose ) 
+		VertexFormat format = this.webGlVertexFormat;
+		int stride = format.getStride();
+
+		if ( this.webGlInterleavedArray == null || this.webGlInterleavedArray.getLength() != vertexCount * stride )
 		{
-			dispose();
+			this.webGlInterleavedArray = Float32Array.create( vertexCount * stride );
+			this.interleavedDirtyRange.setFull();
 		}
-	}
 
+		int start = this.interleavedDirtyRange.isFull() ? 0 : this.interleavedDirtyRange.getStart();
+		int end = this.interleavedDirtyRange.isFull() ? vertexCount : Math.min( this.interleavedDirtyRange.getEnd(), vertexCount );
+
+		Float32Array interleaved = this.webGlInterleavedArray;
+
+		for ( VertexFormat.Element element : format.getElements() )
+		{
+			Float32Array source = this.cache_interleavedSources.get( element.getName() );
+			int itemSize = element.getItemSize();
+			int sourceEnd = Math.min( end, source.getLength() / itemSize );
+
+			for ( int v = start; v < sourceEnd; v++ )
+			{
+				int offset = v * stride + element.getOffset();
+
+				for ( int k = 0; k < itemSize; k++ )
+					interleaved.set( offset + k, source.get( v * itemSize + k ) );
+			}
+		}
+
+		if ( this.__webglInterleavedBuffer == null )
+		{
+			this.__webglInterleavedBuffer = renderer.getGL().createBuffer();
+			this.isVertexArraysNeedUpdate = true;
+		}
+
+		setBufferData( renderer, "interleaved", this.__webglInterleavedBuffer, interleaved, start * stride, end * stride, hint );
+
+		this.interleavedDirtyRange.reset();
+	}
 }
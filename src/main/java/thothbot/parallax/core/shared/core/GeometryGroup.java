@@ -32,6 +32,23 @@ public class GeometryGroup extends GeometryBuffer
 
 	public int vertices;
 
+	// Geometry vertex of each shared vertex in the buffers
+	public int[] __webglVertexIndices;
+
+	// Shared vertices of each geometry vertex, chained from 
+	// __webglFirstVertex[v] by __webglNextVertex, -1 ends the chain
+	public int[] __webglFirstVertex;
+	public int[] __webglNextVertex;
+
+	// Shared vertex of each face corner, the corners of face f start 
+	// from f * 3 for faces3 and after all faces3 by 4 for faces4
+	public int[] __webglCornerVertices;
+
+	// Faces of each geometry vertex, numbered by faces3 then faces4: 
+	// the faces of vertex v are from __webglVertexFaceOffsets[v] to [v + 1]
+	public int[] __webglVertexFaceOffsets;
+	public int[] __webglVertexFaces;
+
 	public List<Float32Array> __morphTargetsArrays;
 	public List<Float32Array> __morphNormalsArrays;
 
@@ -41,11 +41,17 @@ public class Gyroscope extends Object3D
 		this.scaleObject = new Vector3();
 	}
 
+	@Override
+	public boolean hasCustomMatrixWorldUpdate()
+	{
+		return true;
+	}
+
 	@Override
 	public void updateMatrixWorld( boolean force ) 
 	{
 		if(this.matrixAutoUpdate)
-			this.updateMatrix();
+			this.updateMatrixIfChanged();
 
 		// update matrixWorld
 
@@ -66,6 +72,7 @@ public class Gyroscope extends Object3D
 			}
 
 			this.matrixWorldNeedsUpdate = false;
+			increaseMatrixWorldVersion();
 
 			force = true;
 		}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes layout of the interleaved vertex buffer: the attributes
+ * of one vertex are stored one after another, so each attribute 
+ * has its own offset inside the vertex and all of them share 
+ * the same stride.
+ * <pre>
+ * {@code
+ * VertexFormat format = new VertexFormat();
+ * format.add( "position", 3 );
+ * format.add( "normal", 3 );
+ * format.add( "uv", 2 );
+ * 
+ * format.getStride(); // 8 floats
+ * format.getOffset( "normal" ); // 3 floats
+ * }
+ * </pre>
+ * 
+ * @author thothbot
+ *
+ */
+public class VertexFormat
+{
+	/**
+	 * The attribute of the vertex.
+	 */
+	public static class Element
+	{
+		private String name;
+		private int itemSize;
+		private int offset;
+
+		public Element(String name, int itemSize, int offset)
+		{
+			this.name = name;
+			this.itemSize = itemSize;
+			this.offset = offset;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Gets the number of floats in the attribute.
+		 */
+		public int getItemSize() {
+			return this.itemSize;
+		}
+
+		/**
+		 * Gets the offset of the attribute inside the vertex, in floats.
+		 */
+		public int getOffset() {
+			return this.offset;
+		}
+	}
+
+	private List<Element> elements;
+	private int stride;
+
+	public VertexFormat()
+	{
+		this.elements = new ArrayList<Element>();
+		this.stride = 0;
+	}
+
+	/**
+	 * Adds the attribute after the already added ones.
+	 * 
+	 * @param name     the attribute name: position, normal, color, uv, uv2,
+	 *                 tangent, skinIndex or skinWeight.
+	 * @param itemSize the number of floats in the attribute.
+	 */
+	public VertexFormat add(String name, int itemSize)
+	{
+		this.elements.add( new Element( name, itemSize, this.stride ) );
+		this.stride += itemSize;
+		return this;
+	}
+
+	public List<Element> getElements()
+	{
+		return this.elements;
+	}
+
+	/**
+	 * Gets the attribute by its name or null if there is no such 
+	 * attribute in the format.
+	 */
+	public Element getElement(String name)
+	{
+		for ( int i = 0, il = this.elements.size(); i < il; i++ )
+			if ( this.elements.get( i ).name.equals( name ) )
+				return this.elements.get( i );
+
+		return null;
+	}
+
+	public boolean contains(String name)
+	{
+		return getElement( name ) != null;
+	}
+
+	/**
+	 * Gets the offset of the attribute inside the vertex, in floats.
+	 */
+	public int getOffset(String name)
+	{
+		return getElement( name ).offset;
+	}
+
+	/**
+	 * Gets the size of the whole vertex, in floats.
+	 */
+	public int getStride()
+	{
+		return this.stride;
+	}
+
+	/**
+	 * Gets the number of floats in the standard attribute or 0 if the 
+	 * attribute can not be interleaved.
+	 */
+	public static int getDefaultItemSize(String name)
+	{
+		if ( name.equals( "position" ) || name.equals( "normal" ) || name.equals( "color" ) )
+			return 3;
+
+		else if ( name.equals( "uv" ) || name.equals( "uv2" ) )
+			return 2;
+
+		else if ( name.equals( "tangent" ) || name.equals( "skinIndex" ) || name.equals( "skinWeight" ) )
+			return 4;
+
+		return 0;
+	}
+}
@@ -52,8 +52,8 @@ public class DirectionalLight extends ShadowLight
 		@Override
 		public void reset() 
 		{
-			this.colors    = (Float32Array) Float32Array.createArray();
-			this.positions = (Float32Array) Float32Array.createArray();
+			this.colors    = Float32Array.createArray();
+			this.positions = Float32Array.createArray();
 			
 		}
 
@@ -54,7 +54,7 @@ public class LineDashedMaterial extends Material implements
 	}
 
 	@Override
-	protected Shader getAssociatedShader() 
+	public Shader getAssociatedShader() 
 	{
 		return new DashedShader();
 	}
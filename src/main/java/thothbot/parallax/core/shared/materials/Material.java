@@ -22,8 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import thothbot.parallax.core.client.gl2.WebGLProgram;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.enums.BlendEquationMode;
 import thothbot.parallax.core.client.gl2.enums.BlendingFactorDest;
 import thothbot.parallax.core.client.gl2.enums.BlendingFactorSrc;
@@ -37,6 +36,7 @@ import thothbot.parallax.core.client.textures.RenderTargetCubeTexture;
 import thothbot.parallax.core.client.textures.Texture;
 import thothbot.parallax.core.shared.Log;
 import thothbot.parallax.core.shared.cameras.Camera;
+import thothbot.parallax.core.shared.core.ChangeTracker;
 import thothbot.parallax.core.shared.core.GeometryGroup;
 import thothbot.parallax.core.shared.math.Color;
 import thothbot.parallax.core.shared.math.Vector4;
@@ -52,6 +52,15 @@ public abstract class Material
 {
 	private static int MaterialCount;
 
+	/**
+	 * Listener which is notified when the material needs to be updated, 
+	 * see {@link Material#addNeedsUpdateListener(NeedsUpdateListener)}.
+	 */
+	public static interface NeedsUpdateListener
+	{
+		void onNeedsUpdate(Material material);
+	}
+
 	/**
 	 * Material sides
 	 */
@@ -115,6 +124,8 @@ public abstract class Material
 
 		USE_SIZEATTENUATION,
 
+		USE_INSTANCING, USE_INSTANCING_COLOR,
+
 		ALPHATEST,
 
 		USE_FOG, FOG_EXP2, METAL;
@@ -167,6 +178,8 @@ public abstract class Material
 	
 	// Store shader associated to the material
 	private Shader shader;
+
+	private List<NeedsUpdateListener> needsUpdateListeners;
 	
 	public Material()
 	{
@@ -193,7 +206,7 @@ public abstract class Material
 	}
 	
 	// Must be overwriten
-	protected abstract Shader getAssociatedShader();
+	public abstract Shader getAssociatedShader();
 
 	/**
 	 * Gets unique number of this material instance.
@@ -253,6 +266,35 @@ public abstract class Material
 	 */
 	public void setNeedsUpdate(boolean visible) {
 		this.isNeedsUpdate = visible;
+		if ( !visible )
+			return;
+
+		ChangeTracker.markChanged();
+
+		if ( this.needsUpdateListeners == null )
+			return;
+
+		for ( int i = 0, il = this.needsUpdateListeners.size(); i < il; i++ )
+			this.needsUpdateListeners.get( i ).onNeedsUpdate(this);
+	}
+
+	/**
+	 * Adds the listener which is notified when the material is set 
+	 * to be updated, for example after its custom attributes are changed.
+	 */
+	public void addNeedsUpdateListener(NeedsUpdateListener listener)
+	{
+		if ( this.needsUpdateListeners == null )
+			this.needsUpdateListeners = new ArrayList<NeedsUpdateListener>();
+
+		if ( !this.needsUpdateListeners.contains(listener) )
+			this.needsUpdateListeners.add(listener);
+	}
+
+	public void removeNeedsUpdateListener(NeedsUpdateListener listener)
+	{
+		if ( this.needsUpdateListeners != null )
+			this.needsUpdateListeners.remove(listener);
 	}
 
 	/**
@@ -485,15 +527,30 @@ public abstract class Material
 		parameters.flipSided = this.getSides() == Material.SIDE.BACK;
 	}
 
-	public Shader buildShader(WebGLRenderingContext gl, ProgramParameters parameters)
+	public Shader buildShader(WebGLContext gl, ProgramParameters parameters)
+	{
+		return buildShader(gl, getAssociatedShader(), parameters);
+	}
+
+	/**
+	 * Builds program of the given shader, using the prefixes defined by 
+	 * the parameters, and sets it as the material's shader. 
+	 * The shader keeps its sources without the prefixes, so it 
+	 * can be built again.
+	 */
+	public Shader buildShader(WebGLContext gl, Shader shader, ProgramParameters parameters)
 	{
-		Shader shader = getShader();
+		String vertexSource = shader.getVertexSource();
+		String fragmentSource = shader.getFragmentSource();
 
-		shader.setVertexSource(getPrefixVertex(parameters) + "\n" + shader.getVertexSource());
-		shader.setFragmentSource(getPrefixFragment(parameters) + "\n" + shader.getFragmentSource());
+		shader.setVertexSource(getPrefixVertex(parameters) + "\n" + vertexSource);
+		shader.setFragmentSource(getPrefixFragment(parameters) + "\n" + fragmentSource);
 
 		this.shader = shader.buildProgram(gl, parameters.useVertexTexture, parameters.maxMorphTargets, parameters.maxMorphNormals);
 
+		shader.setVertexSource(vertexSource);
+		shader.setFragmentSource(fragmentSource);
+
 		return this.shader;
 	}
 
@@ -581,6 +638,11 @@ public abstract class Material
 		if (parameters.shadowMapCascade)
 			options.add(SHADER_DEFINE.SHADOWMAP_CASCADE.getValue());
 
+		if (parameters.instancing)
+			options.add(SHADER_DEFINE.USE_INSTANCING.getValue());
+		if (parameters.instancingColor)
+			options.add(SHADER_DEFINE.USE_INSTANCING_COLOR.getValue());
+
 		if (parameters.sizeAttenuation)
 		{
 			Log.error("Fix uniform in Particle material: size");
@@ -836,19 +898,11 @@ public abstract class Material
 	
 	public void deallocate( WebGLRenderer renderer ) 
 	{
-		WebGLProgram program = getShader().getProgram();
-		if ( program == null ) return;
+		if ( this.shader == null || this.shader.getProgram() == null ) return;
 
-		for ( String key: renderer.getCache_programs().keySet()) 
-		{
-			Shader shader = renderer.getCache_programs().get(key);
-			
-			if ( shader == getShader() ) 
-			{
-				renderer.getInfo().getMemory().programs --;
-				renderer.getCache_programs().remove(key);
-				break;
-			}
-		}
+		renderer.releaseProgram( this.shader );
+
+		// The program could be deleted, so shader will be rebuilt if needed
+		this.shader = null;
 	}
 }
@@ -102,6 +102,19 @@ public class Matrix4
 	}
 	
 
+	/**
+	 * This constructor will create four-dimensional matrix which uses the 
+	 * given array of 16 elements, for example a view into a larger array 
+	 * created by {@link Float32Array#subarray(int, int)}. The values 
+	 * of the array are not changed.
+	 * 
+	 * @param elements the array in the column-major order, see {@link #getArray()}
+	 */
+	public Matrix4(Float32Array elements) 
+	{
+		this.elements = elements;
+	}
+
 	/**
 	 * get the current Matrix which is represented 
 	 * by Array[16] which the following indexes:
@@ -119,6 +132,18 @@ public class Matrix4
 	{
 		return elements;
 	}
+
+	/**
+	 * Makes the matrix use the given array of 16 elements, see 
+	 * {@link #Matrix4(Float32Array)}. The values of the array are not changed.
+	 * 
+	 * @param elements the array in the column-major order
+	 */
+	public Matrix4 setArray(Float32Array elements) 
+	{
+		this.elements = elements;
+		return this;
+	}
 	
 	/**
 	 * Setting input values n11-n44 to the current matrix.
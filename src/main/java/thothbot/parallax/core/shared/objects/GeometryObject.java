@@ -19,24 +19,38 @@
 package thothbot.parallax.core.shared.objects;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.renderers.WebGLRenderer;
 import thothbot.parallax.core.client.shaders.Attribute;
 import thothbot.parallax.core.shared.core.Geometry;
 import thothbot.parallax.core.shared.core.GeometryBuffer;
 import thothbot.parallax.core.shared.materials.Material;
+import thothbot.parallax.core.shared.materials.MeshFaceMaterial;
 
 public abstract class GeometryObject extends Object3D implements DimensionalObject
 {
+	/**
+	 * Listener which is notified when the geometry or the material of 
+	 * the object is replaced, see {@link GeometryObject#addChangeListener(ChangeListener)}.
+	 */
+	public static interface ChangeListener
+	{
+		void onGeometryChanged(GeometryObject object);
+
+		void onMaterialChanged(GeometryObject object);
+	}
+
 	protected Geometry geometry;
 	protected GeometryBuffer geometryBuffer;
 	protected Material material;
 	protected Material customDepthMaterial;
+
+	private List<ChangeListener> changeListeners;
 	
-	private double cache_oldLineWidth = -1;
 
 	public GeometryBuffer getGeometryBuffer()
 	{
@@ -50,7 +64,12 @@ public abstract class GeometryObject extends Object3D implements DimensionalObje
 
 	public void setGeometry(Geometry geometry)
 	{
+		boolean isChanged = ( this.geometry != geometry );
 		this.geometry = geometry;
+
+		if ( isChanged && this.changeListeners != null )
+			for ( int i = 0, il = this.changeListeners.size(); i < il; i++ )
+				this.changeListeners.get( i ).onGeometryChanged(this);
 	}
 
 	public Material getMaterial()
@@ -60,7 +79,31 @@ public abstract class GeometryObject extends Object3D implements DimensionalObje
 
 	public void setMaterial(Material material)
 	{
+		boolean isChanged = ( this.material != material );
 		this.material = material;
+
+		if ( isChanged && this.changeListeners != null )
+			for ( int i = 0, il = this.changeListeners.size(); i < il; i++ )
+				this.changeListeners.get( i ).onMaterialChanged(this);
+	}
+
+	/**
+	 * Adds the listener which is notified when the geometry or 
+	 * the material is replaced.
+	 */
+	public void addChangeListener(ChangeListener listener)
+	{
+		if ( this.changeListeners == null )
+			this.changeListeners = new ArrayList<ChangeListener>();
+
+		if ( !this.changeListeners.contains(listener) )
+			this.changeListeners.add(listener);
+	}
+
+	public void removeChangeListener(ChangeListener listener)
+	{
+		if ( this.changeListeners != null )
+			this.changeListeners.remove(listener);
 	}
 	
 	public Material getCustomDepthMaterial() {
@@ -74,6 +117,43 @@ public abstract class GeometryObject extends Object3D implements DimensionalObje
 	public abstract void initBuffer(WebGLRenderer renderer);
 
 	public abstract void setBuffer(WebGLRenderer renderer);
+
+	/**
+	 * Checks if the buffers of the object can become outdated without raising 
+	 * any needs update flag of the geometry, for example when custom attributes 
+	 * are changed. {@link #setBuffer(WebGLRenderer)} of such objects is called 
+	 * every frame, other objects are updated only when their geometry is changed.
+	 * <p>
+	 * The check is repeated when the material is replaced or set to be updated, 
+	 * so custom attributes added later should be followed by 
+	 * {@link Material#setNeedsUpdate(boolean)}.
+	 */
+	public boolean isBuffersUpdateWatched()
+	{
+		if ( this.material instanceof MeshFaceMaterial )
+		{
+			List<Material> materials = this.geometry.getMaterials();
+			if ( materials == null )
+				return false;
+
+			for ( int i = 0, il = materials.size(); i < il; i++ )
+				if ( hasCustomAttributes( materials.get( i ) ) )
+					return true;
+
+			return false;
+		}
+
+		return hasCustomAttributes( this.material );
+	}
+
+	private boolean hasCustomAttributes(Material material)
+	{
+		if ( material == null )
+			return false;
+
+		Map<String, Attribute> attributes = material.getShader().getAttributes();
+		return attributes != null && !attributes.isEmpty();
+	}
 	
 	public abstract void renderBuffer(WebGLRenderer renderer, GeometryBuffer geometryBuffer, boolean updateBuffers);
 	
@@ -104,19 +184,21 @@ public abstract class GeometryObject extends Object3D implements DimensionalObje
 		renderer.getGL().deleteBuffer( geometry.__webglVertexBuffer );
 		renderer.getGL().deleteBuffer( geometry.__webglColorBuffer );
 
+		if ( geometry.__webglInterleavedBuffer != null )
+			renderer.getGL().deleteBuffer( geometry.__webglInterleavedBuffer );
+
+		renderer.deleteVertexArrays( geometry );
+		geometry.resetBufferData();
+
 		renderer.getInfo().getMemory().geometries --;
 	}
 
-	protected void setLineWidth (WebGLRenderingContext gl, double width ) 
+	protected void setLineWidth (WebGLRenderer renderer, double width ) 
 	{
-		if ( width != this.cache_oldLineWidth ) 
-		{
-			gl.lineWidth( width );
-			this.cache_oldLineWidth = width;
-		}
+		renderer.getGLState().lineWidth( width );
 	}
 		
-	protected void initCustomAttributes (WebGLRenderingContext gl, Geometry geometry ) 
+	protected void initCustomAttributes (WebGLContext gl, Geometry geometry ) 
 	{		
 		int nvertices = geometry.getVertices().size();
 		Material material = this.getMaterial();
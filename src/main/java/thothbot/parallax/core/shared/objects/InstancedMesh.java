@@ -0,0 +1,269 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.objects;
+
+import thothbot.parallax.core.client.gl2.WebGLBuffer;
+import thothbot.parallax.core.client.gl2.arrays.Float32Array;
+import thothbot.parallax.core.client.gl2.enums.BeginMode;
+import thothbot.parallax.core.client.gl2.enums.DrawElementsType;
+import thothbot.parallax.core.client.gl2.extension.ANGLEInstancedArrays;
+import thothbot.parallax.core.client.renderers.WebGLRenderer;
+import thothbot.parallax.core.shared.core.Geometry;
+import thothbot.parallax.core.shared.materials.Material;
+import thothbot.parallax.core.shared.math.Color;
+import thothbot.parallax.core.shared.math.Matrix4;
+
+/**
+ * Mesh which draws many copies (instances) of the same geometry. 
+ * Each instance has own model matrix, relative to the mesh, and 
+ * optional color.
+ * <p>
+ * If ANGLE_instanced_arrays extension is supported, all instances are 
+ * drawn by one draw call, with per-instance matrices and colors passed as 
+ * vertex attributes. Otherwise instances are drawn one by one, but the 
+ * program, material and geometry buffers are still set only once. 
+ * The fallback is kept simple on purpose: batching instances by uniform 
+ * arrays would need another program variant and the geometry replicated 
+ * with instance ids, for the rare contexts without the extension.
+ * <p>
+ * Instanced program derives normals matrix from the model-view matrix 
+ * of instance, so instances should be scaled uniformly.
+ * <p>
+ * The material should not be shared with regular meshes, because 
+ * instanced program is different. The mesh is not frustum culled as a whole.
+ * 
+ * @author thothbot
+ *
+ */
+public class InstancedMesh extends Mesh
+{
+	private int count;
+
+	// Per-instance model matrices, relative to the mesh
+	private Float32Array instanceMatrices;
+	// Per-instance colors, null if not used
+	private Float32Array instanceColors;
+
+	private boolean isInstancesNeedUpdate = true;
+	private boolean isColorsNeedUpdate = true;
+	private Float32Array cache_matrixWorld;
+
+	// Per-instance world matrices
+	public Float32Array __webglInstanceMatrixArray;
+	public WebGLBuffer __webglInstanceMatrixBuffer;
+	public WebGLBuffer __webglInstanceColorBuffer;
+
+	public InstancedMesh(Geometry geometry, Material material, int count) 
+	{
+		super(geometry, material);
+
+		this.count = count;
+		this.instanceMatrices = Float32Array.create( count * 16 );
+		this.__webglInstanceMatrixArray = Float32Array.create( count * 16 );
+		this.cache_matrixWorld = Float32Array.create( 16 );
+
+		Matrix4 identity = new Matrix4();
+		for ( int i = 0; i < count; i++ )
+			setMatrixAt( i, identity );
+
+		setFrustumCulled( false );
+	}
+
+	/**
+	 * Gets number of instances.
+	 */
+	public int getCount() 
+	{
+		return this.count;
+	}
+
+	/**
+	 * Sets model matrix of the instance, relative to the mesh.
+	 */
+	public void setMatrixAt( int index, Matrix4 matrix )
+	{
+		Float32Array m = matrix.getArray();
+		int offset = index * 16;
+
+		for ( int i = 0; i < 16; i++ )
+			this.instanceMatrices.set( offset + i, m.get( i ) );
+
+		this.isInstancesNeedUpdate = true;
+	}
+
+	/**
+	 * Copies model matrix of the instance to the target matrix.
+	 */
+	public Matrix4 getMatrixAt( int index, Matrix4 target )
+	{
+		Float32Array m = target.getArray();
+		int offset = index * 16;
+
+		for ( int i = 0; i < 16; i++ )
+			m.set( i, this.instanceMatrices.get( offset + i ) );
+
+		return target;
+	}
+
+	/**
+	 * Sets color of the instance. The first call enables instance colors 
+	 * (all other instances are white) and rebuilds the material.
+	 */
+	public void setColorAt( int index, Color color )
+	{
+		if ( this.instanceColors == null )
+		{
+			this.instanceColors = Float32Array.create( this.count * 3 );
+			for ( int i = 0; i < this.count * 3; i++ )
+				this.instanceColors.set( i, 1.0 );
+
+			getMaterial().setNeedsUpdate( true );
+		}
+
+		this.instanceColors.set( index * 3,     color.getR() );
+		this.instanceColors.set( index * 3 + 1, color.getG() );
+		this.instanceColors.set( index * 3 + 2, color.getB() );
+
+		this.isColorsNeedUpdate = true;
+	}
+
+	public boolean isInstanceColors()
+	{
+		return this.instanceColors != null;
+	}
+
+	public Float32Array getInstanceColors()
+	{
+		return this.instanceColors;
+	}
+
+	public boolean isColorsNeedUpdate()
+	{
+		return this.isColorsNeedUpdate;
+	}
+
+	public void setColorsNeedUpdate( boolean isColorsNeedUpdate )
+	{
+		this.isColorsNeedUpdate = isColorsNeedUpdate;
+	}
+
+	/**
+	 * Updates per-instance world matrices {@link #__webglInstanceMatrixArray}, 
+	 * if instances or the mesh world matrix were changed.
+	 * 
+	 * @return true if world matrices were changed
+	 */
+	public boolean updateInstanceMatrices()
+	{
+		Float32Array w = getMatrixWorld().getArray();
+
+		boolean isChanged = this.isInstancesNeedUpdate;
+		for ( int i = 0; i < 16; i++ )
+		{
+			if ( this.cache_matrixWorld.get( i ) != w.get( i ) )
+			{
+				this.cache_matrixWorld.set( i, w.get( i ) );
+				isChanged = true;
+			}
+		}
+
+		if ( ! isChanged )
+			return false;
+
+		Float32Array local = this.instanceMatrices;
+		Float32Array world = this.__webglInstanceMatrixArray;
+
+		double w11 = w.get( 0 ), w12 = w.get( 4 ), w13 = w.get( 8 ),  w14 = w.get( 12 );
+		double w21 = w.get( 1 ), w22 = w.get( 5 ), w23 = w.get( 9 ),  w24 = w.get( 13 );
+		double w31 = w.get( 2 ), w32 = w.get( 6 ), w33 = w.get( 10 ), w34 = w.get( 14 );
+		double w41 = w.get( 3 ), w42 = w.get( 7 ), w43 = w.get( 11 ), w44 = w.get( 15 );
+
+		for ( int i = 0, offset = 0; i < this.count; i++, offset += 16 )
+		{
+			// Column by column: world * local
+			for ( int c = 0; c < 16; c += 4 )
+			{
+				double l1 = local.get( offset + c );
+				double l2 = local.get( offset + c + 1 );
+				double l3 = local.get( offset + c + 2 );
+				double l4 = local.get( offset + c + 3 );
+
+				world.set( offset + c,     w11 * l1 + w12 * l2 + w13 * l3 + w14 * l4 );
+				world.set( offset + c + 1, w21 * l1 + w22 * l2 + w23 * l3 + w24 * l4 );
+				world.set( offset + c + 2, w31 * l1 + w32 * l2 + w33 * l3 + w34 * l4 );
+				world.set( offset + c + 3, w41 * l1 + w42 * l2 + w43 * l3 + w44 * l4 );
+			}
+		}
+
+		this.isInstancesNeedUpdate = false;
+
+		return true;
+	}
+
+	/**
+	 * Copies world matrix of the instance to the target matrix. 
+	 * Valid after {@link #updateInstanceMatrices()}.
+	 */
+	public Matrix4 getMatrixWorldAt( int index, Matrix4 target )
+	{
+		Float32Array m = target.getArray();
+		int offset = index * 16;
+
+		for ( int i = 0; i < 16; i++ )
+			m.set( i, this.__webglInstanceMatrixArray.get( offset + i ) );
+
+		return target;
+	}
+
+	@Override
+	protected void drawElements( WebGLRenderer renderer, BeginMode mode, int count, DrawElementsType type, int offset )
+	{
+		ANGLEInstancedArrays extension = renderer.getInstancedArraysExtension();
+
+		if ( extension == null )
+		{
+			super.drawElements( renderer, mode, count, type, offset );
+			return;
+		}
+
+		extension.drawElementsInstancedANGLE( mode.getValue(), count, type.getValue(), offset, this.count );
+
+		// The base class counts only one instance
+		renderer.getInfo().getRender().vertices += count * ( this.count - 1 );
+		if ( mode == BeginMode.TRIANGLES )
+			renderer.getInfo().getRender().faces += count / 3 * ( this.count - 1 );
+	}
+
+	@Override
+	public void deleteBuffers( WebGLRenderer renderer ) 
+	{
+		super.deleteBuffers( renderer );
+
+		if ( this.__webglInstanceMatrixBuffer != null )
+			renderer.getGL().deleteBuffer( this.__webglInstanceMatrixBuffer );
+
+		if ( this.__webglInstanceColorBuffer != null )
+			renderer.getGL().deleteBuffer( this.__webglInstanceColorBuffer );
+
+		this.__webglInstanceMatrixBuffer = null;
+		this.__webglInstanceColorBuffer = null;
+		this.isInstancesNeedUpdate = true;
+		this.isColorsNeedUpdate = true;
+	}
+}
@@ -20,7 +20,7 @@ package thothbot.parallax.core.shared.objects;
 
 import java.util.List;
 
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.enums.BeginMode;
 import thothbot.parallax.core.client.gl2.enums.BufferTarget;
@@ -106,14 +106,14 @@ public class Line extends GeometryObject
 	@Override
 	public void renderBuffer(WebGLRenderer renderer, GeometryBuffer geometryBuffer, boolean updateBuffers)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 		
 		BeginMode primitives = ( this.getType() == Line.TYPE.STRIPS) 
 				? BeginMode.LINE_STRIP 
 				: BeginMode.LINES;
 
-		setLineWidth( gl, ((LineBasicMaterial)material).getLinewidth() );
+		setLineWidth( renderer, ((LineBasicMaterial)material).getLinewidth() );
 
 		gl.drawArrays( primitives, 0, geometryBuffer.__webglLineCount );
 
@@ -137,7 +137,7 @@ public class Line extends GeometryObject
 	
 	private void createBuffers ( WebGLRenderer renderer, Geometry geometry ) 
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 		
 		geometry.__webglVertexBuffer = gl.createBuffer();
@@ -146,7 +146,7 @@ public class Line extends GeometryObject
 		info.getMemory().geometries ++;
 	}
 
-	private void initBuffers (WebGLRenderingContext gl, Geometry geometry) 
+	private void initBuffers (WebGLContext gl, Geometry geometry) 
 	{
 		int nvertices = geometry.getVertices().size();
 
@@ -161,7 +161,7 @@ public class Line extends GeometryObject
 	@Override
 	public void setBuffer(WebGLRenderer renderer)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 
 		this.material = Material.getBufferMaterial( this, null );
 
@@ -170,7 +170,7 @@ public class Line extends GeometryObject
 				|| this.geometry.isColorsNeedUpdate() 
 				|| areCustomAttributesDirty 
 		) {
-			this.setBuffers( gl, BufferUsage.DYNAMIC_DRAW );
+			this.setBuffers( renderer, BufferUsage.DYNAMIC_DRAW );
 
 			this.material.getShader().clearCustomAttributes();
 		}
@@ -180,7 +180,7 @@ public class Line extends GeometryObject
 	}
 
 	// setLineBuffers
-	public void setBuffers(WebGLRenderingContext gl, BufferUsage hint)
+	public void setBuffers(WebGLRenderer renderer, BufferUsage hint)
 	{		
 		List<Vector3> vertices = geometry.getVertices();
 		List<Color> colors = geometry.getColors();
@@ -201,8 +201,8 @@ public class Line extends GeometryObject
 				geometry.getWebGlVertexArray().set(offset + 2, vertex.getZ());
 			}
 
-			gl.bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglVertexBuffer);
-			gl.bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlVertexArray(), hint);
+			renderer.getGLState().bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglVertexBuffer);
+			renderer.getGLState().bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlVertexArray(), hint);
 		}
 
 		if (dirtyColors) 
@@ -217,8 +217,8 @@ public class Line extends GeometryObject
 				geometry.getWebGlColorArray().set(offset + 2, color.getB());
 			}
 
-			gl.bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglColorBuffer);
-			gl.bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlColorArray(), hint);
+			renderer.getGLState().bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglColorBuffer);
+			renderer.getGLState().bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlColorArray(), hint);
 		}
 
 		if (customAttributes != null) 
@@ -301,8 +301,8 @@ public class Line extends GeometryObject
 						}
 					}
 
-					gl.bindBuffer(BufferTarget.ARRAY_BUFFER, customAttribute.buffer);
-					gl.bufferData(BufferTarget.ARRAY_BUFFER, customAttribute.array, hint);
+					renderer.getGLState().bindBuffer(BufferTarget.ARRAY_BUFFER, customAttribute.buffer);
+					renderer.getGLState().bufferData(BufferTarget.ARRAY_BUFFER, customAttribute.array, hint);
 				}
 			}
 		}
@@ -19,14 +19,17 @@
 package thothbot.parallax.core.shared.objects;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import thothbot.parallax.core.client.gl2.WebGLBuffer;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
+import thothbot.parallax.core.client.gl2.arrays.TypeArray;
 import thothbot.parallax.core.client.gl2.arrays.Uint16Array;
+import thothbot.parallax.core.client.gl2.arrays.Uint32Array;
 import thothbot.parallax.core.client.gl2.enums.BeginMode;
 import thothbot.parallax.core.client.gl2.enums.BufferTarget;
 import thothbot.parallax.core.client.gl2.enums.BufferUsage;
@@ -49,8 +52,9 @@ import thothbot.parallax.core.shared.math.Color;
 import thothbot.parallax.core.shared.math.Vector2;
 import thothbot.parallax.core.shared.math.Vector3;
 import thothbot.parallax.core.shared.math.Vector4;
+import thothbot.parallax.core.shared.trace.Trace;
 
-import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.shared.GWT;
 
 /**
  * Base class for Mesh objects.
@@ -60,6 +64,9 @@ import com.google.gwt.core.client.GWT;
  */
 public class Mesh extends GeometryObject
 {
+	// More contiguous spans of dirty shared vertices are sent as the whole buffer
+	private static final int MAX_DIRTY_SPANS = 16;
+
 	private Boolean overdraw;
 	private Integer morphTargetBase = null;
 	private List<Double> morphTargetInfluences;
@@ -161,18 +168,18 @@ public class Mesh extends GeometryObject
 	@Override
 	public void renderBuffer(WebGLRenderer renderer, GeometryBuffer geometryBuffer, boolean updateBuffers)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 
 		// wireframe
 		if ( getMaterial() instanceof HasWireframe && ((HasWireframe)getMaterial()).isWireframe() ) 
 		{
-			setLineWidth( gl, ((HasWireframe)getMaterial()).getWireframeLineWidth() );
+			setLineWidth( renderer, ((HasWireframe)getMaterial()).getWireframeLineWidth() );
 
 			if ( updateBuffers ) 
-				gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryBuffer.__webglLineBuffer );
+				renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryBuffer.__webglLineBuffer );
 			
-			gl.drawElements( BeginMode.LINES, geometryBuffer.__webglLineCount, DrawElementsType.UNSIGNED_SHORT, 0 );
+			drawElements( renderer, BeginMode.LINES, geometryBuffer.__webglLineCount, geometryBuffer.getWebGlIndexType(), 0 );
 
 			// triangles
 
@@ -180,9 +187,9 @@ public class Mesh extends GeometryObject
 		else 
 		{
 			if ( updateBuffers ) 
-				gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryBuffer.__webglFaceBuffer );
+				renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryBuffer.__webglFaceBuffer );
 			
-			gl.drawElements( BeginMode.TRIANGLES, geometryBuffer.__webglFaceCount, DrawElementsType.UNSIGNED_SHORT, 0 );
+			drawElements( renderer, BeginMode.TRIANGLES, geometryBuffer.__webglFaceCount, geometryBuffer.getWebGlIndexType(), 0 );
 		}
 		
 		info.getRender().calls ++;
@@ -190,6 +197,16 @@ public class Mesh extends GeometryObject
 		info.getRender().faces += geometryBuffer.__webglFaceCount / 3;
 	}
 
+	/**
+	 * Issues the draw call for the currently bound element buffer. 
+	 * Can be overridden to draw the buffer differently, for example 
+	 * several instances at once.
+	 */
+	protected void drawElements( WebGLRenderer renderer, BeginMode mode, int count, DrawElementsType type, int offset )
+	{
+		renderer.getGL().drawElements( mode, count, type, offset );
+	}
+
 	/*
 	 * Returns geometry quantities
 	 */
@@ -208,7 +225,7 @@ public class Mesh extends GeometryObject
 		{
 			Log.debug("addObject() geometry.geometryGroups is null: " + ( geometry.getGeometryGroups() == null ));
 			if ( geometry.getGeometryGroups() == null )
-				sortFacesByMaterial( this.getGeometry() );
+				sortFacesByMaterial( this.getGeometry(), renderer.getMaxIndexedVertices() );
 
 			// create separate VBOs per geometry chunk
 			for ( GeometryGroup geometryGroup : geometry.getGeometryGroups() ) 
@@ -234,7 +251,7 @@ public class Mesh extends GeometryObject
 	}
 
 	// initMeshBuffers
-	private void initBuffers(WebGLRenderingContext gl, GeometryGroup geometryGroup)
+	private void initBuffers(WebGLContext gl, GeometryGroup geometryGroup)
 	{
 		Geometry geometry = this.geometry;
 
@@ -277,8 +294,20 @@ public class Mesh extends GeometryObject
 			geometryGroup.setWebGlSkinWeightArray ( Float32Array.create(nvertices * 4) );
 		}
 
-		geometryGroup.setWebGlFaceArray( Uint16Array.create(ntris * 3) );
-		geometryGroup.setWebGlLineArray( Uint16Array.create(nlines * 2) );
+		// Groups larger than 65535 vertices are made only when
+		// 32-bit indices are supported, see sortFacesByMaterial()
+		if (nvertices > 65535)
+		{
+			geometryGroup.setWebGlIndexType( DrawElementsType.UNSIGNED_INT );
+			geometryGroup.setWebGlFaceArray( Uint32Array.create(ntris * 3) );
+			geometryGroup.setWebGlLineArray( Uint32Array.create(nlines * 2) );
+		}
+		else
+		{
+			geometryGroup.setWebGlIndexType( DrawElementsType.UNSIGNED_SHORT );
+			geometryGroup.setWebGlFaceArray( Uint16Array.create(ntris * 3) );
+			geometryGroup.setWebGlLineArray( Uint16Array.create(nlines * 2) );
+		}
 
 		if (geometryGroup.numMorphTargets > 0) 
 		{
@@ -352,7 +381,7 @@ public class Mesh extends GeometryObject
 	// createMeshBuffers
 	private void createBuffers(WebGLRenderer renderer, GeometryBuffer geometryGroup)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		
 		geometryGroup.__webglVertexBuffer = gl.createBuffer();
 		geometryGroup.__webglNormalBuffer = gl.createBuffer();
@@ -388,7 +417,7 @@ public class Mesh extends GeometryObject
 	@Override
 	public void setBuffer(WebGLRenderer renderer) 
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 
 		if ( geometryBuffer != null ) 
 		{
@@ -396,7 +425,7 @@ public class Mesh extends GeometryObject
 				geometryBuffer.isUvsNeedUpdate() || geometryBuffer.isNormalsNeedUpdate() ||
 				geometryBuffer.isColorsNeedUpdate() || geometryBuffer.isTangentsNeedUpdate() ) 
 			{
-				((GeometryBuffer)geometryBuffer).setDirectBuffers( renderer.getGL(), BufferUsage.DYNAMIC_DRAW, !geometryBuffer.isDynamic() );
+				((GeometryBuffer)geometryBuffer).setDirectBuffers( renderer, BufferUsage.DYNAMIC_DRAW, !geometryBuffer.isDynamic() );
 			}
 
 			geometryBuffer.setVerticesNeedUpdate(false);
@@ -425,7 +454,7 @@ public class Mesh extends GeometryObject
 						|| geometry.isTangentsNeedUpdate()      
 						|| areCustomAttributesDirty
 				) {
-					setBuffers( gl, geometryGroup, BufferUsage.DYNAMIC_DRAW, material);
+					setBuffers( renderer, geometryGroup, BufferUsage.DYNAMIC_DRAW, material);
 					material.getShader().clearCustomAttributes();
 				}
 			}
@@ -441,12 +470,19 @@ public class Mesh extends GeometryObject
 	}
 
 	// setMeshBuffers
-	private void setBuffers(WebGLRenderingContext gl, GeometryGroup geometryGroup, BufferUsage hint, Material material)
+	private void setBuffers(WebGLRenderer renderer, GeometryGroup geometryGroup, BufferUsage hint, Material material)
 	{
-		Log.debug("Called Mesh.setBuffers() - material=" + material.getId() + ", " + material.getClass().getName());
+		Trace.count("Mesh.setBuffers");
 
 		if ( ! geometryGroup.isArrayInitialized() )
 			 return;
+
+		// Morph targets and custom attributes are defined per face corner
+		if ( geometryGroup.numMorphTargets == 0 && geometryGroup.__webglCustomAttributesList == null )
+		{
+			setIndexedBuffers( renderer, geometryGroup, hint, material );
+			return;
+		}
 				
 		 Material.SHADING normalType = material.bufferGuessNormalType();
 		 Material.COLORS vertexColorType = material.bufferGuessVertexColorType();
@@ -470,61 +506,49 @@ public class Mesh extends GeometryObject
 		 if ( getGeometry().isVerticesNeedUpdate() ) 
 		 {
 			 Float32Array vertexArray = geometryGroup.getWebGlVertexArray();
-			 int offset = 0;
-			 
-			 for ( int f = 0, fl = chunk_faces3.size(); f < fl; f ++ ) 
-			 {
-				 Face3 face = obj_faces.get( chunk_faces3.get( f ) );
-				 
-				 Vector3 v1 = getGeometry().getVertices().get( face.getA() );
-				 Vector3 v2 = getGeometry().getVertices().get( face.getB() );
-				 Vector3 v3 = getGeometry().getVertices().get( face.getC() );
-
-				 vertexArray.set(offset,  v1.getX());
-				 vertexArray.set(offset + 1, v1.getY());
-				 vertexArray.set(offset + 2, v1.getZ());
+			 GeometryBuffer.DirtyRange range = getGeometry().getVerticesDirtyRange();
+			 int fl3 = chunk_faces3.size();
+			 int dirtyStart = Integer.MAX_VALUE;
+			 int dirtyEnd = 0;
 
-				 vertexArray.set(offset + 3, v2.getX());
-				 vertexArray.set(offset + 4, v2.getY());
-				 vertexArray.set(offset + 5, v2.getZ());
-
-				 vertexArray.set(offset + 6, v3.getX());
-				 vertexArray.set(offset + 7, v3.getY());
-				 vertexArray.set(offset + 8, v3.getZ());
+			 if ( range.isFull() )
+			 {
+				 for ( int f = 0, fl = fl3 + chunk_faces4.size(); f < fl; f ++ ) 
+				 {
+					 int fi = ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 );
+					 setFaceVertices( vertexArray, obj_faces.get( fi ), getFaceVerticesOffset( f, fl3 ) );
+				 }
 
-				 offset += 9;
+				 dirtyStart = 0;
+				 dirtyEnd = vertexArray.getLength();
 			 }
-			 
-			 for ( int f = 0, fl = chunk_faces4.size(); f < fl; f ++ ) 
+			 else
 			 {
-				 Face4 face = (Face4) obj_faces.get( chunk_faces4.get( f ));
+				 // Only the faces of the modified vertices are written
+				 if ( geometryGroup.__webglVertexFaces == null || getGeometry().isElementsNeedUpdate() )
+					 setVertexFaces( geometryGroup );
 
-				 Vector3 v1 = getGeometry().getVertices().get( face.getA() );
-				 Vector3 v2 = getGeometry().getVertices().get( face.getB() );
-				 Vector3 v3 = getGeometry().getVertices().get( face.getC() );
-				 Vector3 v4 = getGeometry().getVertices().get( face.getD() );
+				 int[] vertexFaceOffsets = geometryGroup.__webglVertexFaceOffsets;
+				 int[] vertexFaces = geometryGroup.__webglVertexFaces;
 
-				 vertexArray.set(offset, v1.getX());
-				 vertexArray.set(offset + 1, v1.getY());
-				 vertexArray.set(offset + 2, v1.getZ());
-
-				 vertexArray.set(offset + 3, v2.getX());
-				 vertexArray.set(offset + 4, v2.getY());
-				 vertexArray.set(offset + 5, v2.getZ());
-
-				 vertexArray.set(offset + 6, v3.getX());
-				 vertexArray.set(offset + 7, v3.getY());
-				 vertexArray.set(offset + 8, v3.getZ());
+				 for ( int v = range.getStart(), vl = Math.min( range.getEnd(), vertexFaceOffsets.length - 1 ); v < vl; v ++ ) 
+				 {
+					 for ( int i = vertexFaceOffsets[ v ], il = vertexFaceOffsets[ v + 1 ]; i < il; i ++ )
+					 {
+						 int f = vertexFaces[ i ];
+						 int fi = ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 );
+						 Face3 face = obj_faces.get( fi );
+						 int offset = getFaceVerticesOffset( f, fl3 );
 
-				 vertexArray.set(offset + 9, v4.getX());
-				 vertexArray.set(offset + 10, v4.getY());
-				 vertexArray.set(offset + 11, v4.getZ());
+						 setFaceVertices( vertexArray, face, offset );
 
-				 offset += 12;
+						 dirtyStart = Math.min( dirtyStart, offset );
+						 dirtyEnd = Math.max( dirtyEnd, offset + ( ( face instanceof Face4 ) ? 12 : 9 ) );
+					 }
+				 }
 			 }
 
-			 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglVertexBuffer);
-			 gl.bufferData( BufferTarget.ARRAY_BUFFER, vertexArray, hint );
+			 geometryGroup.setBufferData( renderer, "position", geometryGroup.__webglVertexBuffer, vertexArray, dirtyStart, dirtyEnd, hint );
 		 }
 		 
 		 if ( getGeometry().isMorphTargetsNeedUpdate() ) 
@@ -682,13 +706,13 @@ public class Mesh extends GeometryObject
 
 				 }
 
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglMorphTargetsBuffers.get( vk ) );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, geometryGroup.__morphTargetsArrays.get( vk ), hint );
+				 geometryGroup.setBufferData( renderer, "morphTarget" + vk, geometryGroup.__webglMorphTargetsBuffers.get( vk ), 
+						 geometryGroup.__morphTargetsArrays.get( vk ), 0, geometryGroup.__morphTargetsArrays.get( vk ).getLength(), hint );
 
 				 if ( material instanceof HasSkinning && ((HasSkinning)material).isMorphNormals() ) 
 				 {
-					 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglMorphNormalsBuffers.get( vk ) );
-					 gl.bufferData( BufferTarget.ARRAY_BUFFER, geometryGroup.__morphNormalsArrays.get( vk ), hint );
+					 geometryGroup.setBufferData( renderer, "morphNormal" + vk, geometryGroup.__webglMorphNormalsBuffers.get( vk ), 
+							 geometryGroup.__morphNormalsArrays.get( vk ), 0, geometryGroup.__morphNormalsArrays.get( vk ).getLength(), hint );
 				 }
 			 }
 		 }
@@ -815,11 +839,9 @@ public class Mesh extends GeometryObject
 
 			 if ( offset_skin > 0 ) 
 			 {
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglSkinIndicesBuffer );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, skinIndexArray, hint );
+				 geometryGroup.setBufferData( renderer, "skinIndex", geometryGroup.__webglSkinIndicesBuffer, skinIndexArray, 0, skinIndexArray.getLength(), hint );
 
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglSkinWeightsBuffer );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, skinWeightArray, hint );
+				 geometryGroup.setBufferData( renderer, "skinWeight", geometryGroup.__webglSkinWeightsBuffer, skinWeightArray, 0, skinWeightArray.getLength(), hint );
 			 }
 		 }
 
@@ -827,12 +849,24 @@ public class Mesh extends GeometryObject
 		 {
 			 Float32Array colorArray = geometryGroup.getWebGlColorArray();
 			 int offset_color = 0;
+			 GeometryBuffer.DirtyRange range = getGeometry().getColorsDirtyRange();
+			 int dirtyStart = Integer.MAX_VALUE;
+			 int dirtyEnd = 0;
 			 
 			 for ( int f = 0, fl = chunk_faces3.size(); f < fl; f ++ ) 
 			 {
 
 				 Face3 face = obj_faces.get(chunk_faces3.get(f));
 
+				 if ( !range.contains( face ) ) 
+				 {
+					 offset_color += 9;
+					 continue;
+				 }
+
+				 dirtyStart = Math.min( dirtyStart, offset_color );
+				 dirtyEnd = offset_color + 9;
+
 				 List<Color> vertexColors = face.getVertexColors();
 				 Color faceColor = face.getColor();
 				 Color c1, c2, c3;
@@ -870,6 +904,15 @@ public class Mesh extends GeometryObject
 
 				 Face4 face = (Face4) obj_faces.get(chunk_faces4.get(f));
 
+				 if ( !range.contains( face ) ) 
+				 {
+					 offset_color += 12;
+					 continue;
+				 }
+
+				 dirtyStart = Math.min( dirtyStart, offset_color );
+				 dirtyEnd = offset_color + 12;
+
 				 List<Color> vertexColors = face.getVertexColors();
 				 Color faceColor = face.getColor();
 				 Color c1, c2, c3, c4;
@@ -911,8 +954,7 @@ public class Mesh extends GeometryObject
 
 			 if ( offset_color > 0 ) 
 			 {
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglColorBuffer );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, colorArray, hint );
+				 geometryGroup.setBufferData( renderer, "color", geometryGroup.__webglColorBuffer, colorArray, dirtyStart, dirtyEnd, hint );
 			 }
 		 }
 
@@ -986,20 +1028,31 @@ public class Mesh extends GeometryObject
 
 			 }
 
-			 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglTangentBuffer );
-			 gl.bufferData( BufferTarget.ARRAY_BUFFER, tangentArray, hint );
+			 geometryGroup.setBufferData( renderer, "tangent", geometryGroup.__webglTangentBuffer, tangentArray, 0, tangentArray.getLength(), hint );
 
 		 }
 
 		 if ( getGeometry().isNormalsNeedUpdate() && (normalType != null )) 
 		 {
 			 int offset_normal = 0;
+			 GeometryBuffer.DirtyRange range = getGeometry().getNormalsDirtyRange();
+			 int dirtyStart = Integer.MAX_VALUE;
+			 int dirtyEnd = 0;
 			 
 			 for ( int f = 0, fl = chunk_faces3.size(); f < fl; f ++ ) 
 			 {
 
 				 Face3 face = obj_faces.get(chunk_faces3.get(f));
 
+				 if ( !range.contains( face ) ) 
+				 {
+					 offset_normal += 9;
+					 continue;
+				 }
+
+				 dirtyStart = Math.min( dirtyStart, offset_normal );
+				 dirtyEnd = offset_normal + 9;
+
 				 List<Vector3> vertexNormals = face.getVertexNormals();
 				 Vector3 faceNormal = face.getNormal();
 
@@ -1038,6 +1091,15 @@ public class Mesh extends GeometryObject
 
 				 Face4 face = (Face4) obj_faces.get(chunk_faces4.get(f));
 
+				 if ( !range.contains( face ) ) 
+				 {
+					 offset_normal += 12;
+					 continue;
+				 }
+
+				 dirtyStart = Math.min( dirtyStart, offset_normal );
+				 dirtyEnd = offset_normal + 12;
+
 				 List<Vector3> vertexNormals = face.getVertexNormals();
 				 Vector3 faceNormal = face.getNormal();
 
@@ -1071,8 +1133,7 @@ public class Mesh extends GeometryObject
 				 }
 			 }
 
-			 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglNormalBuffer);
-			 gl.bufferData( BufferTarget.ARRAY_BUFFER, geometryGroup.getWebGlNormalArray(), hint );
+			 geometryGroup.setBufferData( renderer, "normal", geometryGroup.__webglNormalBuffer, geometryGroup.getWebGlNormalArray(), dirtyStart, dirtyEnd, hint );
 
 		 }
 
@@ -1123,8 +1184,7 @@ public class Mesh extends GeometryObject
 
 			 if ( offset_uv > 0 ) 
 			 {
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglUVBuffer );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, uvArray, hint );
+				 geometryGroup.setBufferData( renderer, "uv", geometryGroup.__webglUVBuffer, uvArray, 0, uvArray.getLength(), hint );
 			 }
 		 }
 
@@ -1173,8 +1233,7 @@ public class Mesh extends GeometryObject
 
 			 if ( offset_uv2 > 0 ) 
 			 {
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometryGroup.__webglUV2Buffer );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, uv2Array, hint );
+				 geometryGroup.setBufferData( renderer, "uv2", geometryGroup.__webglUV2Buffer, uv2Array, 0, uv2Array.getLength(), hint );
 			 }
 		 }
 
@@ -1183,23 +1242,26 @@ public class Mesh extends GeometryObject
 			 int offset_line = 0;
 			 int offset_face = 0;
 			 int vertexIndex = 0;
+
+			 TypeArray faceArray = geometryGroup.getWebGlFaceArray();
+			 TypeArray lineArray = geometryGroup.getWebGlLineArray();
 			 
 			 for ( int f = 0, fl = chunk_faces3.size(); f < fl; f ++ ) 
 			 {
-				 geometryGroup.getWebGlFaceArray().set(offset_face, vertexIndex);
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 1, vertexIndex + 1);
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 2, vertexIndex + 2);
+				 faceArray.setElement(offset_face, vertexIndex);
+				 faceArray.setElement(offset_face + 1, vertexIndex + 1);
+				 faceArray.setElement(offset_face + 2, vertexIndex + 2);
 
 				 offset_face += 3;
 
-				 geometryGroup.getWebGlLineArray().set(offset_line, vertexIndex);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 1, vertexIndex + 1);
+				 lineArray.setElement(offset_line, vertexIndex);
+				 lineArray.setElement(offset_line + 1, vertexIndex + 1);
 
-				 geometryGroup.getWebGlLineArray().set(offset_line + 2, vertexIndex);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 3, vertexIndex + 2);
+				 lineArray.setElement(offset_line + 2, vertexIndex);
+				 lineArray.setElement(offset_line + 3, vertexIndex + 2);
 
-				 geometryGroup.getWebGlLineArray().set(offset_line + 4, vertexIndex + 1);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 5, vertexIndex + 2);
+				 lineArray.setElement(offset_line + 4, vertexIndex + 1);
+				 lineArray.setElement(offset_line + 5, vertexIndex + 2);
 
 				 offset_line += 6;
 
@@ -1208,27 +1270,27 @@ public class Mesh extends GeometryObject
 
 			 for ( int f = 0, fl = chunk_faces4.size(); f < fl; f ++ ) 
 			 {
-				 geometryGroup.getWebGlFaceArray().set(offset_face, vertexIndex);
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 1, vertexIndex + 1);
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 2, vertexIndex + 3);
+				 faceArray.setElement(offset_face, vertexIndex);
+				 faceArray.setElement(offset_face + 1, vertexIndex + 1);
+				 faceArray.setElement(offset_face + 2, vertexIndex + 3);
 
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 3, vertexIndex + 1);
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 4, vertexIndex + 2);
-				 geometryGroup.getWebGlFaceArray().set(offset_face + 5, vertexIndex + 3);
+				 faceArray.setElement(offset_face + 3, vertexIndex + 1);
+				 faceArray.setElement(offset_face + 4, vertexIndex + 2);
+				 faceArray.setElement(offset_face + 5, vertexIndex + 3);
 
 				 offset_face += 6;
 
-				 geometryGroup.getWebGlLineArray().set(offset_line, vertexIndex);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 1, vertexIndex + 1);
+				 lineArray.setElement(offset_line, vertexIndex);
+				 lineArray.setElement(offset_line + 1, vertexIndex + 1);
 
-				 geometryGroup.getWebGlLineArray().set(offset_line + 2, vertexIndex);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 3, vertexIndex + 3);
+				 lineArray.setElement(offset_line + 2, vertexIndex);
+				 lineArray.setElement(offset_line + 3, vertexIndex + 3);
 
-				 geometryGroup.getWebGlLineArray().set(offset_line + 4, vertexIndex + 1);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 5, vertexIndex + 2);
+				 lineArray.setElement(offset_line + 4, vertexIndex + 1);
+				 lineArray.setElement(offset_line + 5, vertexIndex + 2);
 
-				 geometryGroup.getWebGlLineArray().set(offset_line + 6, vertexIndex + 2);
-				 geometryGroup.getWebGlLineArray().set(offset_line + 7, vertexIndex + 3);
+				 lineArray.setElement(offset_line + 6, vertexIndex + 2);
+				 lineArray.setElement(offset_line + 7, vertexIndex + 3);
 
 				 offset_line += 8;
 
@@ -1236,11 +1298,11 @@ public class Mesh extends GeometryObject
 
 			 }
 			 
-			 gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglFaceBuffer );
-			 gl.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.getWebGlFaceArray(), hint );
+			 renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglFaceBuffer );
+			 renderer.getGLState().bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, faceArray, hint );
 
-			 gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglLineBuffer );
-			 gl.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.getWebGlLineArray(), hint );
+			 renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglLineBuffer );
+			 renderer.getGLState().bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, lineArray, hint );
 
 		 }
 
@@ -1908,15 +1970,736 @@ public class Mesh extends GeometryObject
 					 }
 				 }
 
-				 gl.bindBuffer( BufferTarget.ARRAY_BUFFER, customAttribute.buffer );
-				 gl.bufferData( BufferTarget.ARRAY_BUFFER, customAttribute.array, hint );
+				 renderer.getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, customAttribute.buffer );
+				 renderer.getGLState().bufferData( BufferTarget.ARRAY_BUFFER, customAttribute.array, hint );
 			 }
 		 }
 
+		 geometryGroup.setInterleavedBufferData( renderer, hint );
+
 		 if ( !geometry.isDynamic() ) 
 			 geometryGroup.dispose();
 	}
 	
+	/*
+	 * Gets the offset of the face positions in the vertex array of the 
+	 * geometry group. Faces are numbered by faces3 then faces4.
+	 */
+	private static int getFaceVerticesOffset( int f, int fl3 )
+	{
+		return ( f < fl3 ) ? f * 9 : fl3 * 9 + ( f - fl3 ) * 12;
+	}
+
+	private void setFaceVertices( Float32Array vertexArray, Face3 face, int offset )
+	{
+		List<Vector3> vertices = getGeometry().getVertices();
+		int n = ( face instanceof Face4 ) ? 4 : 3;
+
+		for ( int i = 0; i < n; i ++ )
+		{
+			int vi = ( i == 0 ) ? face.getA() : ( i == 1 ) ? face.getB() : ( i == 2 ) ? face.getC() : ((Face4)face).getD();
+			Vector3 vertex = vertices.get( vi );
+
+			vertexArray.set( offset + i * 3, vertex.getX() );
+			vertexArray.set( offset + i * 3 + 1, vertex.getY() );
+			vertexArray.set( offset + i * 3 + 2, vertex.getZ() );
+		}
+	}
+
+	/*
+	 * Builds the index of the faces of the geometry group by geometry vertex, 
+	 * so the faces of the modified vertices are found without the walk 
+	 * over all faces.
+	 */
+	private void setVertexFaces( GeometryGroup geometryGroup )
+	{
+		List<Integer> chunk_faces3 = geometryGroup.faces3;
+		List<Integer> chunk_faces4 = geometryGroup.faces4;
+		List<Face3> obj_faces = getGeometry().getFaces();
+		int fl3 = chunk_faces3.size();
+		int fl = fl3 + chunk_faces4.size();
+
+		int[] offsets = new int[ getGeometry().getVertices().size() + 1 ];
+
+		for ( int f = 0; f < fl; f ++ ) 
+		{
+			Face3 face = obj_faces.get( ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 ) );
+			offsets[ face.getA() + 1 ] ++;
+			offsets[ face.getB() + 1 ] ++;
+			offsets[ face.getC() + 1 ] ++;
+			if ( face instanceof Face4 )
+				offsets[ ((Face4)face).getD() + 1 ] ++;
+		}
+
+		for ( int v = 1; v < offsets.length; v ++ )
+			offsets[ v ] += offsets[ v - 1 ];
+
+		int[] faces = new int[ offsets[ offsets.length - 1 ] ];
+		int[] next = new int[ offsets.length - 1 ];
+		System.arraycopy( offsets, 0, next, 0, next.length );
+
+		for ( int f = 0; f < fl; f ++ ) 
+		{
+			Face3 face = obj_faces.get( ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 ) );
+			faces[ next[ face.getA() ] ++ ] = f;
+			faces[ next[ face.getB() ] ++ ] = f;
+			faces[ next[ face.getC() ] ++ ] = f;
+			if ( face instanceof Face4 )
+				faces[ next[ ((Face4)face).getD() ] ++ ] = f;
+		}
+
+		geometryGroup.__webglVertexFaceOffsets = offsets;
+		geometryGroup.__webglVertexFaces = faces;
+	}
+
+	/*
+	 * Builds buffers of the geometry group with shared vertices: face 
+	 * corners which have the same vertex, normal, color, uvs and tangent 
+	 * are written only once and referenced by the element arrays. 
+	 * Flat shaded or face colored corners differ, so they are split 
+	 * automatically. 
+	 * When the faces are not changed, the shared vertices are kept and 
+	 * just their positions and attributes are updated, unless the changed 
+	 * attributes split the shared vertices.
+	 */
+	private void setIndexedBuffers(WebGLRenderer renderer, GeometryGroup geometryGroup, BufferUsage hint, Material material)
+	{
+		if ( geometryGroup.__webglVertexIndices != null 
+				&& ! getGeometry().isElementsNeedUpdate() ) 
+		{
+			boolean isAttributesNeedUpdate = getGeometry().isNormalsNeedUpdate() 
+					|| getGeometry().isColorsNeedUpdate() 
+					|| getGeometry().isUvsNeedUpdate() 
+					|| getGeometry().isTangentsNeedUpdate();
+
+			if ( ! isAttributesNeedUpdate || updateIndexedAttributes( renderer, geometryGroup, hint, material ) )
+			{
+				if ( getGeometry().isVerticesNeedUpdate() ) 
+					updateIndexedVertices( renderer, geometryGroup, hint );
+
+				if ( getGeometry().isVerticesNeedUpdate() || isAttributesNeedUpdate )
+					geometryGroup.setInterleavedBufferData( renderer, hint );
+
+				if ( ! geometry.isDynamic() ) 
+					geometryGroup.dispose();
+
+				return;
+			}
+		}
+
+		Material.SHADING normalType = material.bufferGuessNormalType();
+		Material.COLORS vertexColorType = material.bufferGuessVertexColorType();
+		boolean uvType = material.bufferGuessUVType();
+
+		boolean needsSmoothNormals = ( normalType == Material.SHADING.SMOOTH );
+
+		List<Integer> chunk_faces3 = geometryGroup.faces3;
+		List<Integer> chunk_faces4 = geometryGroup.faces4;
+		List<Face3> obj_faces = getGeometry().getFaces();
+
+		List<List<Vector2>> obj_uvs = (uvType && getGeometry().getFaceVertexUvs().size() > 0) 
+				? getGeometry().getFaceVertexUvs().get(0) : null;
+
+		List<List<Vector2>> obj_uvs2 = (uvType && getGeometry().getFaceVertexUvs().size() > 1) 
+				? getGeometry().getFaceVertexUvs().get(1) : null;
+
+		Float32Array vertexArray = geometryGroup.getWebGlVertexArray();
+		Float32Array normalArray = ( normalType != null ) ? geometryGroup.getWebGlNormalArray() : null;
+		Float32Array colorArray = ( vertexColorType != null ) ? geometryGroup.getWebGlColorArray() : null;
+		Float32Array tangentArray = geometry.hasTangents() ? geometryGroup.getWebGlTangentArray() : null;
+		Float32Array uvArray = ( obj_uvs != null && obj_uvs.size() > 0 ) ? geometryGroup.getWebGlUvArray() : null;
+		Float32Array uv2Array = ( obj_uvs2 != null && obj_uvs2.size() > 0 ) ? geometryGroup.getWebGlUv2Array() : null;
+		Float32Array skinIndexArray = geometryGroup.getWebGlSkinIndexArray();
+		Float32Array skinWeightArray = geometryGroup.getWebGlSkinWeightArray();
+
+		TypeArray faceArray = geometryGroup.getWebGlFaceArray();
+		TypeArray lineArray = geometryGroup.getWebGlLineArray();
+
+		// Shared vertices are chained by the geometry vertex: the corner is 
+		// compared only with the shared vertices made from the same vertex
+		int[] firstVertex = new int[ getGeometry().getVertices().size() ];
+		Arrays.fill( firstVertex, -1 );
+		int[] nextVertex = new int[ geometryGroup.vertices ];
+
+		Vector3[] normals = ( normalArray != null ) ? new Vector3[ geometryGroup.vertices ] : null;
+		Color[] colors = ( colorArray != null ) ? new Color[ geometryGroup.vertices ] : null;
+		Vector2[] uvs = ( uvArray != null ) ? new Vector2[ geometryGroup.vertices ] : null;
+		Vector2[] uvs2 = ( uv2Array != null ) ? new Vector2[ geometryGroup.vertices ] : null;
+		Vector4[] tangents = ( tangentArray != null ) ? new Vector4[ geometryGroup.vertices ] : null;
+
+		int[] vertexIndices = new int[ geometryGroup.vertices ];
+		int[] cornerVertices = new int[ geometryGroup.vertices ];
+		int[] corners = new int[4];
+		int vertexCount = 0;
+		int offset_face = 0;
+		int offset_line = 0;
+
+		for ( int f = 0, fl3 = chunk_faces3.size(), fl = fl3 + chunk_faces4.size(); f < fl; f ++ ) 
+		{
+			int fi = ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 );
+			Face3 face = obj_faces.get( fi );
+			int n = ( f < fl3 ) ? 3 : 4;
+
+			List<Vector3> vertexNormals = face.getVertexNormals();
+			List<Color> vertexColors = face.getVertexColors();
+			List<Vector2> uv = ( uvArray != null ) ? obj_uvs.get( fi ) : null;
+			List<Vector2> uv2 = ( uv2Array != null ) ? obj_uvs2.get( fi ) : null;
+
+			for ( int i = 0; i < n; i ++ ) 
+			{
+				int vi = ( i == 0 ) ? face.getA() : ( i == 1 ) ? face.getB() : ( i == 2 ) ? face.getC() : ((Face4)face).getD();
+
+				Vector3 normal = null;
+				if ( normalArray != null )
+					normal = ( vertexNormals.size() == n && needsSmoothNormals ) ? vertexNormals.get( i ) : face.getNormal();
+
+				Color color = null;
+				if ( colorArray != null )
+					color = ( vertexColors.size() == n && vertexColorType == Material.COLORS.VERTEX ) ? vertexColors.get( i ) : face.getColor();
+
+				Vector2 uvi = ( uv != null ) ? uv.get( i ) : null;
+				Vector2 uv2i = ( uv2 != null ) ? uv2.get( i ) : null;
+				Vector4 tangent = ( tangentArray != null ) ? face.getVertexTangents().get( i ) : null;
+
+				// Skin data belongs to the vertex, so the vertex index is enough for it
+				int index = firstVertex[ vi ];
+				while ( index >= 0 
+						&& ! ( ( normals == null || isEqual( normal, normals[ index ] ) )
+						&& ( colors == null || isEqual( color, colors[ index ] ) )
+						&& ( uvs == null || isEqual( uvi, uvs[ index ] ) )
+						&& ( uvs2 == null || isEqual( uv2i, uvs2[ index ] ) )
+						&& ( tangents == null || isEqual( tangent, tangents[ index ] ) ) ) )
+					index = nextVertex[ index ];
+
+				if ( index < 0 ) 
+				{
+					index = vertexCount ++;
+					nextVertex[ index ] = firstVertex[ vi ];
+					firstVertex[ vi ] = index;
+					vertexIndices[ index ] = vi;
+
+					if ( normals != null ) normals[ index ] = normal;
+					if ( colors != null ) colors[ index ] = color;
+					if ( uvs != null ) uvs[ index ] = uvi;
+					if ( uvs2 != null ) uvs2[ index ] = uv2i;
+					if ( tangents != null ) tangents[ index ] = tangent;
+
+					Vector3 vertex = getGeometry().getVertices().get( vi );
+					vertexArray.set( index * 3, vertex.getX() );
+					vertexArray.set( index * 3 + 1, vertex.getY() );
+					vertexArray.set( index * 3 + 2, vertex.getZ() );
+
+					if ( normal != null ) 
+					{
+						normalArray.set( index * 3, normal.getX() );
+						normalArray.set( index * 3 + 1, normal.getY() );
+						normalArray.set( index * 3 + 2, normal.getZ() );
+					}
+
+					if ( color != null ) 
+					{
+						colorArray.set( index * 3, color.getR() );
+						colorArray.set( index * 3 + 1, color.getG() );
+						colorArray.set( index * 3 + 2, color.getB() );
+					}
+
+					if ( uvArray != null && uvi != null ) 
+					{
+						uvArray.set( index * 2, uvi.getX() );
+						uvArray.set( index * 2 + 1, uvi.getY() );
+					}
+
+					if ( uv2Array != null && uv2i != null ) 
+					{
+						uv2Array.set( index * 2, uv2i.getX() );
+						uv2Array.set( index * 2 + 1, uv2i.getY() );
+					}
+
+					if ( tangent != null ) 
+					{
+						tangentArray.set( index * 4, tangent.getX() );
+						tangentArray.set( index * 4 + 1, tangent.getY() );
+						tangentArray.set( index * 4 + 2, tangent.getZ() );
+						tangentArray.set( index * 4 + 3, tangent.getW() );
+					}
+
+					if ( skinIndexArray != null ) 
+					{
+						Vector4 sw = getGeometry().getSkinWeights().get( vi );
+						skinWeightArray.set( index * 4, sw.getX() );
+						skinWeightArray.set( index * 4 + 1, sw.getY() );
+						skinWeightArray.set( index * 4 + 2, sw.getZ() );
+						skinWeightArray.set( index * 4 + 3, sw.getW() );
+
+						Vector4 si = getGeometry().getSkinIndices().get( vi );
+						skinIndexArray.set( index * 4, si.getX() );
+						skinIndexArray.set( index * 4 + 1, si.getY() );
+						skinIndexArray.set( index * 4 + 2, si.getZ() );
+						skinIndexArray.set( index * 4 + 3, si.getW() );
+					}
+				}
+
+				corners[ i ] = index;
+				cornerVertices[ getFaceCornersOffset( f, fl3 ) + i ] = index;
+			}
+
+			if ( n == 3 ) 
+			{
+				faceArray.setElement( offset_face, corners[0] );
+				faceArray.setElement( offset_face + 1, corners[1] );
+				faceArray.setElement( offset_face + 2, corners[2] );
+
+				offset_face += 3;
+
+				lineArray.setElement( offset_line, corners[0] );
+				lineArray.setElement( offset_line + 1, corners[1] );
+
+				lineArray.setElement( offset_line + 2, corners[0] );
+				lineArray.setElement( offset_line + 3, corners[2] );
+
+				lineArray.setElement( offset_line + 4, corners[1] );
+				lineArray.setElement( offset_line + 5, corners[2] );
+
+				offset_line += 6;
+			}
+			else 
+			{
+				faceArray.setElement( offset_face, corners[0] );
+				faceArray.setElement( offset_face + 1, corners[1] );
+				faceArray.setElement( offset_face + 2, corners[3] );
+
+				faceArray.setElement( offset_face + 3, corners[1] );
+				faceArray.setElement( offset_face + 4, corners[2] );
+				faceArray.setElement( offset_face + 5, corners[3] );
+
+				offset_face += 6;
+
+				lineArray.setElement( offset_line, corners[0] );
+				lineArray.setElement( offset_line + 1, corners[1] );
+
+				lineArray.setElement( offset_line + 2, corners[0] );
+				lineArray.setElement( offset_line + 3, corners[3] );
+
+				lineArray.setElement( offset_line + 4, corners[1] );
+				lineArray.setElement( offset_line + 5, corners[2] );
+
+				lineArray.setElement( offset_line + 6, corners[2] );
+				lineArray.setElement( offset_line + 7, corners[3] );
+
+				offset_line += 8;
+			}
+		}
+
+		Trace.count("Mesh.setIndexedBuffers.vertices", geometryGroup.vertices);
+		Trace.count("Mesh.setIndexedBuffers.uniqueVertices", vertexCount);
+
+		geometryGroup.__webglVertexCount = vertexCount;
+		geometryGroup.__webglVertexIndices = vertexIndices;
+		geometryGroup.__webglFirstVertex = firstVertex;
+		geometryGroup.__webglNextVertex = nextVertex;
+		geometryGroup.__webglCornerVertices = cornerVertices;
+
+		// The faces of the vertices are indexed again on the next update
+		geometryGroup.__webglVertexFaceOffsets = null;
+		geometryGroup.__webglVertexFaces = null;
+
+		// Only the used part of the arrays is sent to the graphic card
+		setIndexedBufferData( renderer, geometryGroup, "position", geometryGroup.__webglVertexBuffer, vertexArray, vertexCount * 3, hint );
+
+		if ( normalArray != null )
+			setIndexedBufferData( renderer, geometryGroup, "normal", geometryGroup.__webglNormalBuffer, normalArray, vertexCount * 3, hint );
+
+		if ( colorArray != null )
+			setIndexedBufferData( renderer, geometryGroup, "color", geometryGroup.__webglColorBuffer, colorArray, vertexCount * 3, hint );
+
+		if ( uvArray != null )
+			setIndexedBufferData( renderer, geometryGroup, "uv", geometryGroup.__webglUVBuffer, uvArray, vertexCount * 2, hint );
+
+		if ( uv2Array != null )
+			setIndexedBufferData( renderer, geometryGroup, "uv2", geometryGroup.__webglUV2Buffer, uv2Array, vertexCount * 2, hint );
+
+		if ( tangentArray != null )
+			setIndexedBufferData( renderer, geometryGroup, "tangent", geometryGroup.__webglTangentBuffer, tangentArray, vertexCount * 4, hint );
+
+		if ( skinIndexArray != null ) 
+		{
+			setIndexedBufferData( renderer, geometryGroup, "skinIndex", geometryGroup.__webglSkinIndicesBuffer, skinIndexArray, vertexCount * 4, hint );
+			setIndexedBufferData( renderer, geometryGroup, "skinWeight", geometryGroup.__webglSkinWeightsBuffer, skinWeightArray, vertexCount * 4, hint );
+		}
+
+		renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglFaceBuffer );
+		renderer.getGLState().bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, faceArray, hint );
+
+		renderer.getGLState().bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglLineBuffer );
+		renderer.getGLState().bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, lineArray, hint );
+
+		geometryGroup.setInterleavedBufferData( renderer, hint );
+
+		if ( ! geometry.isDynamic() ) 
+			geometryGroup.dispose();
+	}
+
+	/*
+	 * Updates the positions of the shared vertices made from the dirty 
+	 * geometry vertices only. They are found by the chains built with the 
+	 * shared vertices, and sent by the contiguous spans of the buffer. 
+	 * Too many dirty vertices or spans are sent as the whole buffer.
+	 */
+	private void updateIndexedVertices(WebGLRenderer renderer, GeometryGroup geometryGroup, BufferUsage hint)
+	{
+		Float32Array vertexArray = geometryGroup.getWebGlVertexArray();
+		int vertexCount = geometryGroup.__webglVertexCount;
+		List<Vector3> vertices = getGeometry().getVertices();
+		GeometryBuffer.DirtyRange range = getGeometry().getVerticesDirtyRange();
+
+		if ( range.isFull() || range.isEmpty() )
+		{
+			int[] vertexIndices = geometryGroup.__webglVertexIndices;
+			for ( int i = 0; i < vertexCount; i ++ ) 
+				setIndexedVertex( vertexArray, i, vertices.get( vertexIndices[ i ] ) );
+
+			setIndexedBufferData( renderer, geometryGroup, "position", geometryGroup.__webglVertexBuffer, vertexArray, vertexCount * 3, hint );
+			return;
+		}
+
+		int[] firstVertex = geometryGroup.__webglFirstVertex;
+		int[] nextVertex = geometryGroup.__webglNextVertex;
+		int start = range.getStart();
+		int end = Math.min( range.getEnd(), firstVertex.length );
+
+		int count = 0;
+		for ( int vi = start; vi < end; vi ++ )
+			for ( int index = firstVertex[ vi ]; index >= 0; index = nextVertex[ index ] )
+				count ++;
+
+		int[] dirty = new int[ count ];
+		count = 0;
+		for ( int vi = start; vi < end; vi ++ )
+		{
+			Vector3 vertex = vertices.get( vi );
+			for ( int index = firstVertex[ vi ]; index >= 0; index = nextVertex[ index ] )
+			{
+				setIndexedVertex( vertexArray, index, vertex );
+				dirty[ count ++ ] = index;
+			}
+		}
+
+		Trace.count("Mesh.updateIndexedVertices.dirty", count);
+
+		if ( count == 0 )
+			return;
+
+		Arrays.sort( dirty );
+
+		setIndexedBufferSpans( renderer, geometryGroup, "position", geometryGroup.__webglVertexBuffer, vertexArray, 3, dirty, count, hint );
+	}
+
+	/*
+	 * Updates the normals, colors, uvs and tangents of the shared vertices 
+	 * made from the faces of the dirty geometry vertices, and sends them 
+	 * by the contiguous spans of the buffers, like the positions. 
+	 * All corners of a shared vertex should still have the same values, 
+	 * otherwise it should be split, for example by the flat shading 
+	 * or face colors, so false is returned and the buffers are built again.
+	 */
+	private boolean updateIndexedAttributes(WebGLRenderer renderer, GeometryGroup geometryGroup, BufferUsage hint, Material material)
+	{
+		Material.SHADING normalType = material.bufferGuessNormalType();
+		Material.COLORS vertexColorType = material.bufferGuessVertexColorType();
+		boolean uvType = material.bufferGuessUVType();
+
+		boolean needsSmoothNormals = ( normalType == Material.SHADING.SMOOTH );
+
+		List<Integer> chunk_faces3 = geometryGroup.faces3;
+		List<Integer> chunk_faces4 = geometryGroup.faces4;
+		List<Face3> obj_faces = getGeometry().getFaces();
+		int fl3 = chunk_faces3.size();
+
+		List<List<Vector2>> obj_uvs = (uvType && getGeometry().getFaceVertexUvs().size() > 0) 
+				? getGeometry().getFaceVertexUvs().get(0) : null;
+
+		List<List<Vector2>> obj_uvs2 = (uvType && getGeometry().getFaceVertexUvs().size() > 1) 
+				? getGeometry().getFaceVertexUvs().get(1) : null;
+
+		boolean isUvsNeedUpdate = getGeometry().isUvsNeedUpdate();
+
+		Float32Array normalArray = ( getGeometry().isNormalsNeedUpdate() && normalType != null ) ? geometryGroup.getWebGlNormalArray() : null;
+		Float32Array colorArray = ( getGeometry().isColorsNeedUpdate() && vertexColorType != null ) ? geometryGroup.getWebGlColorArray() : null;
+		Float32Array tangentArray = ( getGeometry().isTangentsNeedUpdate() && geometry.hasTangents() ) ? geometryGroup.getWebGlTangentArray() : null;
+		Float32Array uvArray = ( isUvsNeedUpdate && obj_uvs != null && obj_uvs.size() > 0 ) ? geometryGroup.getWebGlUvArray() : null;
+		Float32Array uv2Array = ( isUvsNeedUpdate && obj_uvs2 != null && obj_uvs2.size() > 0 ) ? geometryGroup.getWebGlUv2Array() : null;
+
+		if ( normalArray == null && colorArray == null && tangentArray == null && uvArray == null && uv2Array == null )
+			return true;
+
+		if ( geometryGroup.__webglVertexFaces == null )
+			setVertexFaces( geometryGroup );
+
+		int[] vertexFaceOffsets = geometryGroup.__webglVertexFaceOffsets;
+		int[] vertexFaces = geometryGroup.__webglVertexFaces;
+		int[] cornerVertices = geometryGroup.__webglCornerVertices;
+		int vertexCount = geometryGroup.__webglVertexCount;
+
+		// Corners of the faces with the dirty vertices are rewritten, so all 
+		// vertices of these faces have the dirty corners
+		boolean[] isDirtyVertex = new boolean[ vertexFaceOffsets.length - 1 ];
+		setDirtyVertices( geometryGroup, getGeometry().getNormalsDirtyRange(), isDirtyVertex );
+		setDirtyVertices( geometryGroup, getGeometry().getColorsDirtyRange(), isDirtyVertex );
+		setDirtyVertices( geometryGroup, getGeometry().getUvsDirtyRange(), isDirtyVertex );
+		setDirtyVertices( geometryGroup, getGeometry().getTangentsDirtyRange(), isDirtyVertex );
+
+		Vector3[] normals = ( normalArray != null ) ? new Vector3[ vertexCount ] : null;
+		Color[] colors = ( colorArray != null ) ? new Color[ vertexCount ] : null;
+		Vector2[] uvs = ( uvArray != null ) ? new Vector2[ vertexCount ] : null;
+		Vector2[] uvs2 = ( uv2Array != null ) ? new Vector2[ vertexCount ] : null;
+		Vector4[] tangents = ( tangentArray != null ) ? new Vector4[ vertexCount ] : null;
+
+		boolean[] isDirtyIndex = new boolean[ vertexCount ];
+		int[] dirty = new int[ vertexCount ];
+		int count = 0;
+
+		// All corners of the shared vertex have the same geometry vertex, 
+		// so they are found by the faces of this vertex
+		for ( int vi = 0; vi < isDirtyVertex.length; vi ++ )
+		{
+			if ( ! isDirtyVertex[ vi ] )
+				continue;
+
+			for ( int k = vertexFaceOffsets[ vi ], kl = vertexFaceOffsets[ vi + 1 ]; k < kl; k ++ )
+			{
+				int f = vertexFaces[ k ];
+				int fi = ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 );
+				Face3 face = obj_faces.get( fi );
+				int n = ( f < fl3 ) ? 3 : 4;
+
+				List<Vector3> vertexNormals = face.getVertexNormals();
+				List<Color> vertexColors = face.getVertexColors();
+				List<Vector2> uv = ( uvArray != null ) ? obj_uvs.get( fi ) : null;
+				List<Vector2> uv2 = ( uv2Array != null ) ? obj_uvs2.get( fi ) : null;
+
+				for ( int i = 0; i < n; i ++ )
+				{
+					int v = ( i == 0 ) ? face.getA() : ( i == 1 ) ? face.getB() : ( i == 2 ) ? face.getC() : ((Face4)face).getD();
+					if ( v != vi )
+						continue;
+
+					Vector3 normal = null;
+					if ( normalArray != null )
+						normal = ( vertexNormals.size() == n && needsSmoothNormals ) ? vertexNormals.get( i ) : face.getNormal();
+
+					Color color = null;
+					if ( colorArray != null )
+						color = ( vertexColors.size() == n && vertexColorType == Material.COLORS.VERTEX ) ? vertexColors.get( i ) : face.getColor();
+
+					Vector2 uvi = ( uv != null ) ? uv.get( i ) : null;
+					Vector2 uv2i = ( uv2 != null ) ? uv2.get( i ) : null;
+					Vector4 tangent = ( tangentArray != null ) ? face.getVertexTangents().get( i ) : null;
+
+					int index = cornerVertices[ getFaceCornersOffset( f, fl3 ) + i ];
+
+					if ( isDirtyIndex[ index ] )
+					{
+						if ( ( normals == null || isEqual( normal, normals[ index ] ) )
+								&& ( colors == null || isEqual( color, colors[ index ] ) )
+								&& ( uvs == null || isEqual( uvi, uvs[ index ] ) )
+								&& ( uvs2 == null || isEqual( uv2i, uvs2[ index ] ) )
+								&& ( tangents == null || isEqual( tangent, tangents[ index ] ) ) )
+							continue;
+
+						Trace.count("Mesh.updateIndexedAttributes.split", 1);
+						return false;
+					}
+
+					isDirtyIndex[ index ] = true;
+					dirty[ count ++ ] = index;
+
+					if ( normals != null ) normals[ index ] = normal;
+					if ( colors != null ) colors[ index ] = color;
+					if ( uvs != null ) uvs[ index ] = uvi;
+					if ( uvs2 != null ) uvs2[ index ] = uv2i;
+					if ( tangents != null ) tangents[ index ] = tangent;
+
+					if ( normal != null ) 
+						setIndexedVertex( normalArray, index, normal );
+
+					if ( color != null ) 
+					{
+						colorArray.set( index * 3, color.getR() );
+						colorArray.set( index * 3 + 1, color.getG() );
+						colorArray.set( index * 3 + 2, color.getB() );
+					}
+
+					if ( uvi != null ) 
+					{
+						uvArray.set( index * 2, uvi.getX() );
+						uvArray.set( index * 2 + 1, uvi.getY() );
+					}
+
+					if ( uv2i != null ) 
+					{
+						uv2Array.set( index * 2, uv2i.getX() );
+						uv2Array.set( index * 2 + 1, uv2i.getY() );
+					}
+
+					if ( tangent != null ) 
+					{
+						tangentArray.set( index * 4, tangent.getX() );
+						tangentArray.set( index * 4 + 1, tangent.getY() );
+						tangentArray.set( index * 4 + 2, tangent.getZ() );
+						tangentArray.set( index * 4 + 3, tangent.getW() );
+					}
+				}
+			}
+		}
+
+		Trace.count("Mesh.updateIndexedAttributes.dirty", count);
+
+		if ( count == 0 )
+			return true;
+
+		Arrays.sort( dirty, 0, count );
+
+		if ( normalArray != null )
+			setIndexedBufferSpans( renderer, geometryGroup, "normal", geometryGroup.__webglNormalBuffer, normalArray, 3, dirty, count, hint );
+
+		if ( colorArray != null )
+			setIndexedBufferSpans( renderer, geometryGroup, "color", geometryGroup.__webglColorBuffer, colorArray, 3, dirty, count, hint );
+
+		if ( uvArray != null )
+			setIndexedBufferSpans( renderer, geometryGroup, "uv", geometryGroup.__webglUVBuffer, uvArray, 2, dirty, count, hint );
+
+		if ( uv2Array != null )
+			setIndexedBufferSpans( renderer, geometryGroup, "uv2", geometryGroup.__webglUV2Buffer, uv2Array, 2, dirty, count, hint );
+
+		if ( tangentArray != null )
+			setIndexedBufferSpans( renderer, geometryGroup, "tangent", geometryGroup.__webglTangentBuffer, tangentArray, 4, dirty, count, hint );
+
+		return true;
+	}
+
+	/*
+	 * Marks all vertices of the faces which have a vertex in the range.
+	 */
+	private void setDirtyVertices(GeometryGroup geometryGroup, GeometryBuffer.DirtyRange range, boolean[] isDirtyVertex)
+	{
+		if ( range.isFull() )
+		{
+			Arrays.fill( isDirtyVertex, true );
+			return;
+		}
+
+		List<Integer> chunk_faces3 = geometryGroup.faces3;
+		List<Integer> chunk_faces4 = geometryGroup.faces4;
+		List<Face3> obj_faces = getGeometry().getFaces();
+		int[] vertexFaceOffsets = geometryGroup.__webglVertexFaceOffsets;
+		int[] vertexFaces = geometryGroup.__webglVertexFaces;
+		int fl3 = chunk_faces3.size();
+
+		for ( int v = range.getStart(), vl = Math.min( range.getEnd(), isDirtyVertex.length ); v < vl; v ++ ) 
+		{
+			for ( int i = vertexFaceOffsets[ v ], il = vertexFaceOffsets[ v + 1 ]; i < il; i ++ )
+			{
+				int f = vertexFaces[ i ];
+				Face3 face = obj_faces.get( ( f < fl3 ) ? chunk_faces3.get( f ) : chunk_faces4.get( f - fl3 ) );
+
+				isDirtyVertex[ face.getA() ] = true;
+				isDirtyVertex[ face.getB() ] = true;
+				isDirtyVertex[ face.getC() ] = true;
+				if ( face instanceof Face4 )
+					isDirtyVertex[ ((Face4)face).getD() ] = true;
+			}
+		}
+	}
+
+	/*
+	 * Gets the offset of the face corners in the corners of the geometry 
+	 * group, see GeometryGroup.__webglCornerVertices.
+	 */
+	private static int getFaceCornersOffset( int f, int fl3 )
+	{
+		return ( f < fl3 ) ? f * 3 : fl3 * 3 + ( f - fl3 ) * 4;
+	}
+
+	private static void setIndexedVertex(Float32Array vertexArray, int index, Vector3 vertex)
+	{
+		vertexArray.set( index * 3, vertex.getX() );
+		vertexArray.set( index * 3 + 1, vertex.getY() );
+		vertexArray.set( index * 3 + 2, vertex.getZ() );
+	}
+
+	/*
+	 * Sends the dirty shared vertices, sorted, by the contiguous spans 
+	 * of the buffer. Too many dirty vertices or spans are sent as the 
+	 * whole buffer.
+	 */
+	private void setIndexedBufferSpans(WebGLRenderer renderer, GeometryGroup geometryGroup, String name, 
+			WebGLBuffer buffer, Float32Array array, int itemSize, int[] dirty, int count, BufferUsage hint)
+	{
+		int vertexCount = geometryGroup.__webglVertexCount;
+
+		int spans = 1;
+		for ( int i = 1; i < count; i ++ )
+			if ( dirty[ i ] != dirty[ i - 1 ] + 1 )
+				spans ++;
+
+		if ( count * 2 > vertexCount || spans > MAX_DIRTY_SPANS )
+		{
+			setIndexedBufferData( renderer, geometryGroup, name, buffer, array, vertexCount * itemSize, hint );
+			return;
+		}
+
+		int spanStart = dirty[ 0 ];
+		for ( int i = 1; i <= count; i ++ )
+		{
+			if ( i < count && dirty[ i ] == dirty[ i - 1 ] + 1 )
+				continue;
+
+			setIndexedBufferData( renderer, geometryGroup, name, buffer, array, vertexCount * itemSize, 
+					spanStart * itemSize, ( dirty[ i - 1 ] + 1 ) * itemSize, hint );
+
+			if ( i < count )
+				spanStart = dirty[ i ];
+		}
+	}
+
+	private void setIndexedBufferData(WebGLRenderer renderer, GeometryGroup geometryGroup, String name, 
+			WebGLBuffer buffer, Float32Array array, int length, BufferUsage hint)
+	{
+		setIndexedBufferData( renderer, geometryGroup, name, buffer, array, length, 0, length, hint );
+	}
+
+	/*
+	 * Sends the shared vertices from start to end (exclusive) only, 
+	 * the buffer is allocated for the used part of the array.
+	 */
+	private void setIndexedBufferData(WebGLRenderer renderer, GeometryGroup geometryGroup, String name, 
+			WebGLBuffer buffer, Float32Array array, int length, int start, int end, BufferUsage hint)
+	{
+		Float32Array data = array.subarray( 0, length );
+		geometryGroup.setBufferData( renderer, name, buffer, data, start, end, hint );
+	}
+
+	private static boolean isEqual(Vector2 a, Vector2 b)
+	{
+		return a == b || ( a != null && b != null && a.equals( b ) );
+	}
+
+	private static boolean isEqual(Vector3 a, Vector3 b)
+	{
+		return a == b || ( a != null && b != null && a.equals( b ) );
+	}
+
+	private static boolean isEqual(Vector4 a, Vector4 b)
+	{
+		return a == b || ( a != null && b != null && a.equals( b ) );
+	}
+
+	private static boolean isEqual(Color a, Color b)
+	{
+		return a == b || ( a != null && b != null 
+				&& a.getR() == b.getR() && a.getG() == b.getG() && a.getB() == b.getB() );
+	}
+
 	@Override
 	public void deleteBuffers(WebGLRenderer renderer) 
 	{
@@ -1932,6 +2715,12 @@ public class Mesh extends GeometryObject
 			renderer.getGL().deleteBuffer( geometryGroup.__webglSkinIndicesBuffer );
 			renderer.getGL().deleteBuffer( geometryGroup.__webglSkinWeightsBuffer );
 
+			if ( geometryGroup.__webglInterleavedBuffer != null )
+				renderer.getGL().deleteBuffer( geometryGroup.__webglInterleavedBuffer );
+
+			renderer.deleteVertexArrays( geometryGroup );
+			geometryGroup.resetBufferData();
+
 			renderer.getGL().deleteBuffer( geometryGroup.__webglFaceBuffer );
 			renderer.getGL().deleteBuffer( geometryGroup.__webglLineBuffer );
 
@@ -1964,7 +2753,12 @@ public class Mesh extends GeometryObject
 		}
 	}
 
-	private void sortFacesByMaterial ( Geometry geometry ) 
+	/*
+	 * Splits faces of the geometry into groups by material. A group is 
+	 * split into chunks only when it has more vertices than can be 
+	 * addressed by the element indices.
+	 */
+	private void sortFacesByMaterial ( Geometry geometry, int maxVertices ) 
 	{
 		Log.debug("Called sortFacesByMaterial() for geometry: " + geometry.getClass().getName());
 
@@ -1996,7 +2790,7 @@ public class Mesh extends GeometryObject
 
 			int vertices = face.getClass() == Face3.class ? 3 : 4;
 
-			if ( geometry.getGeometryGroupsCache().get(groupHash).vertices + vertices > 65535 ) 
+			if ( geometry.getGeometryGroupsCache().get(groupHash).vertices + vertices > maxVertices ) 
 			{
 				hash_map.put(materialHash, hash_map.get(materialHash) + 1);
 				groupHash = materialHash + '_' + hash_map.get( materialHash );
@@ -2018,6 +2812,8 @@ public class Mesh extends GeometryObject
 
 		for ( GeometryGroup g : geometry.getGeometryGroupsCache().values() ) 
 		{
+			// Morph targets are bound together with the separate position buffer
+			g.setInterleaved( geometry.isInterleaved() && g.numMorphTargets == 0 );
 			geometry.getGeometryGroups().add( g );
 		}
 	}
@@ -25,12 +25,14 @@ import java.util.List;
 import thothbot.parallax.core.client.gl2.WebGLBuffer;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.shared.Log;
+import thothbot.parallax.core.shared.core.ChangeTracker;
 import thothbot.parallax.core.shared.core.Euler;
 import thothbot.parallax.core.shared.math.Matrix3;
 import thothbot.parallax.core.shared.math.Matrix4;
 import thothbot.parallax.core.shared.math.Quaternion;
 import thothbot.parallax.core.shared.math.Vector3;
 import thothbot.parallax.core.shared.scenes.Scene;
+import thothbot.parallax.core.shared.scenes.TransformStore;
 
 /**
  * Implementation of DimensionalObject
@@ -92,6 +94,18 @@ public class Object3D implements DimensionalObject
 	protected boolean isReceiveShadow = false;
 	
 	protected boolean isFrustumCulled = true;
+
+	// The local transform which the matrix was composed from: position, 
+	// scale and rotation or quaternion. See isLocalTransformChanged().
+	private double[] cache_localTransform;
+	private boolean cache_useQuaternion;
+	private Euler cache_eulerOrder;
+
+	// Increased every time the world matrix is recomputed
+	private int matrixWorldVersion = 0;
+
+	// The scene which the object is in, set by the Scene
+	private Scene cache_scene;
 	
 	public boolean hasPos;
 	public boolean hasNormal;
@@ -108,6 +122,12 @@ public class Object3D implements DimensionalObject
 	public Object _normalMatrixArray;
 	public Matrix3 _normalMatrix;
 	public Matrix4 _modelViewMatrix;
+	// The camera and the versions of the world matrices the _modelViewMatrix 
+	// was computed from. Null camera means that it should be recomputed.
+	public Object3D _modelViewCamera;
+	public int _modelViewWorldVersion;
+	public int _modelViewCameraVersion;
+	public boolean _isNormalMatrixNeedsUpdate = true;
 	public int count;
 	
 	public Object3D() 
@@ -157,6 +177,22 @@ public class Object3D implements DimensionalObject
 		this.parent = parent;
 	}
 
+	/**
+	 * Gets the {@link Scene} which the object was added to, 
+	 * or null if the object is not in a scene.
+	 */
+	public Scene getScene() {
+		return this.cache_scene;
+	}
+
+	/**
+	 * Sets the scene of the object, called by the {@link Scene} 
+	 * when the object is added to it or removed from it.
+	 */
+	public void setScene(Scene scene) {
+		this.cache_scene = scene;
+	}
+
 	@Override
 	public List<DimensionalObject> getChildren() {
 		return this.children;
@@ -175,6 +211,7 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setPosition(Vector3 position) {
 		this.position = position;
+		markChanged();
 	}
 
 	@Override
@@ -185,6 +222,7 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setRotation(Vector3 rotation) {
 		this.rotation = rotation;
+		markChanged();
 	}
 
 	@Override
@@ -256,6 +294,7 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setScale(Vector3 scale) {
 		this.scale = scale;
+		markChanged();
 	}
 
 	@Override
@@ -276,6 +315,8 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setMatrix(Matrix4 matrix) {
 		this.matrix = matrix;
+		this.cache_localTransform = null;
+		markChanged();
 	};
 
 	@Override
@@ -286,6 +327,24 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setMatrixWorld(Matrix4 matrixWorld) {
 		this.matrixWorld = matrixWorld;
+		this.matrixWorldVersion++;
+	}
+
+	/**
+	 * Gets the version of the world matrix, which is increased every time 
+	 * the world matrix is recomputed. Values derived from the world matrix, 
+	 * like the model view matrix, are cached by it.
+	 */
+	public int getMatrixWorldVersion() {
+		return this.matrixWorldVersion;
+	}
+
+	/**
+	 * Increases the version of the world matrix. Should be called after 
+	 * the world matrix was changed outside of {@link #updateMatrixWorld(boolean)}.
+	 */
+	public void increaseMatrixWorldVersion() {
+		this.matrixWorldVersion++;
 	}
 
 	@Override
@@ -306,6 +365,8 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setMatrixWorldNeedsUpdate(boolean needsUpdate) {
 		this.matrixWorldNeedsUpdate = needsUpdate;
+		if ( needsUpdate )
+			markChanged();
 	}
 
 	@Override
@@ -326,6 +387,7 @@ public class Object3D implements DimensionalObject
 	@Override
 	public void setQuaternion(Quaternion quaternion) {
 		this.quaternion = quaternion;
+		markChanged();
 	}
 
 	@Override
@@ -365,6 +427,9 @@ public class Object3D implements DimensionalObject
 
 	@Override
 	public void setVisible(boolean visible)	{
+		if ( this.visible != visible )
+			markChanged();
+
 		this.visible = visible;
 	}
 	
@@ -382,6 +447,8 @@ public class Object3D implements DimensionalObject
 		this.matrix.rotateAxis(axis);
 		axis.multiply(distance);
 		this.position.add(axis);
+
+		markChanged();
 	}
 	
 	@Override
@@ -422,6 +489,9 @@ public class Object3D implements DimensionalObject
 	{
 		// TODO: Add hierarchy support.
 		this.matrix.lookAt(vector, this.position, this.up);
+		this.cache_localTransform = null;
+
+		markChanged();
 
 		if ( this.rotationAutoUpdate ) {
 
@@ -452,6 +522,12 @@ public class Object3D implements DimensionalObject
 			child.setParent(this);
 			this.children.add(child);
 
+			// The local transform may stay the same, but the world matrix 
+			// depends on the new parent
+			child.setMatrixWorldNeedsUpdate(true);
+
+			markChanged();
+
 			// add to scene
 
 			DimensionalObject scene = this;
@@ -473,6 +549,10 @@ public class Object3D implements DimensionalObject
 		{
 			child.setParent(null);
 			this.children.remove(index);
+
+			child.setMatrixWorldNeedsUpdate(true);
+
+			markChanged();
 			
 			// remove from scene
 			DimensionalObject scene = this;
@@ -523,10 +603,106 @@ public class Object3D implements DimensionalObject
 		this.matrixWorldNeedsUpdate = true;
 	}
 	
+	/**
+	 * Checks if the position, rotation (or quaternion) or scale were changed 
+	 * since the matrix was composed in {@link #updateMatrixWorld(boolean)}.
+	 * The values are compared, so direct changes of the vectors are 
+	 * detected as well.
+	 */
+	protected boolean isLocalTransformChanged()
+	{
+		double[] t = this.cache_localTransform;
+
+		if ( t == null 
+				|| this.cache_useQuaternion != this.useQuaternion 
+				|| this.cache_eulerOrder != this.eulerOrder )
+			return true;
+
+		if ( t[0] != this.position.getX() || t[1] != this.position.getY() || t[2] != this.position.getZ()
+				|| t[3] != this.scale.getX() || t[4] != this.scale.getY() || t[5] != this.scale.getZ() )
+			return true;
+
+		if ( this.useQuaternion )
+			return t[6] != this.quaternion.getX() || t[7] != this.quaternion.getY() 
+				|| t[8] != this.quaternion.getZ() || t[9] != this.quaternion.getW();
+
+		return t[6] != this.rotation.getX() || t[7] != this.rotation.getY() || t[8] != this.rotation.getZ();
+	}
+
+	/**
+	 * Updates the matrix only if the local transform was changed, 
+	 * see {@link #isLocalTransformChanged()}.
+	 */
+	public void updateMatrixIfChanged()
+	{
+		if ( !isLocalTransformChanged() )
+			return;
+
+		this.updateMatrix();
+		storeLocalTransform();
+
+		// The vectors could be changed directly
+		markChanged();
+	}
+
+	/**
+	 * Marks that the object was changed and should be rendered again. 
+	 * The version of its {@link Scene} is increased, or the version of 
+	 * {@link ChangeTracker} if the object is not in a scene.
+	 */
+	protected void markChanged()
+	{
+		Scene scene = ( this instanceof Scene ) ? (Scene)this : this.cache_scene;
+
+		if ( scene != null )
+			scene.increaseVersion();
+		else
+			ChangeTracker.markChanged();
+	}
+
+	private void storeLocalTransform()
+	{
+		if ( this.cache_localTransform == null )
+			this.cache_localTransform = new double[10];
+
+		double[] t = this.cache_localTransform;
+
+		t[0] = this.position.getX(); t[1] = this.position.getY(); t[2] = this.position.getZ();
+		t[3] = this.scale.getX();    t[4] = this.scale.getY();    t[5] = this.scale.getZ();
+
+		if ( this.useQuaternion )
+		{
+			t[6] = this.quaternion.getX(); t[7] = this.quaternion.getY(); 
+			t[8] = this.quaternion.getZ(); t[9] = this.quaternion.getW();
+		}
+		else
+		{
+			t[6] = this.rotation.getX(); t[7] = this.rotation.getY(); t[8] = this.rotation.getZ();
+		}
+
+		this.cache_useQuaternion = this.useQuaternion;
+		this.cache_eulerOrder = this.eulerOrder;
+	}
+
+	/**
+	 * Checks if the object updates world matrices of its subtree in its own 
+	 * {@link #updateMatrixWorld(boolean)}, which should be called by 
+	 * {@link TransformStore} instead of the linear update.
+	 */
+	public boolean hasCustomMatrixWorldUpdate()
+	{
+		return false;
+	}
+
+	/**
+	 * Updates the matrix if the local transform was changed, and the world 
+	 * matrix if the matrix or the world matrix of the parent were changed. 
+	 * Unchanged branches of the tree are not recomposed.
+	 */
 	public void updateMatrixWorld(boolean force)
 	{
 		if ( this.matrixAutoUpdate ) 
-			this.updateMatrix();
+			this.updateMatrixIfChanged();
 
 		if ( this.matrixWorldNeedsUpdate || force ) 
 		{
@@ -540,6 +716,7 @@ public class Object3D implements DimensionalObject
 			}
 
 			this.matrixWorldNeedsUpdate = false;
+			this.matrixWorldVersion++;
 
 			force = true;
 		}
@@ -605,6 +782,8 @@ public class Object3D implements DimensionalObject
 	{
 		this.matrix.multiply(matrix, this.matrix);
 
+		markChanged();
+
 		this.scale.getScaleFromMatrix(this.matrix);
 		
 		Matrix4 mat = new Matrix4().extractRotation( this.matrix );
@@ -24,7 +24,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.enums.BeginMode;
 import thothbot.parallax.core.client.gl2.enums.BufferTarget;
@@ -100,7 +100,7 @@ public class ParticleSystem extends GeometryObject
 	
 	public void renderBuffer(WebGLRenderer renderer, GeometryBuffer geometryBuffer, boolean updateBuffers)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 		
 		gl.drawArrays( BeginMode.POINTS, 0, geometryBuffer.__webglParticleCount );
@@ -129,7 +129,7 @@ public class ParticleSystem extends GeometryObject
 	
 	private void createBuffers (  WebGLRenderer renderer, GeometryBuffer geometry ) 
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 		
 		geometry.__webglVertexBuffer = gl.createBuffer();
@@ -138,7 +138,7 @@ public class ParticleSystem extends GeometryObject
 		info.getMemory().geometries ++;
 	}
 	
-	private void initBuffers ( WebGLRenderingContext gl, Geometry geometry ) 
+	private void initBuffers ( WebGLContext gl, Geometry geometry ) 
 	{
 		int nvertices = geometry.getVertices().size();
 
@@ -162,7 +162,7 @@ public class ParticleSystem extends GeometryObject
 			if(this.geometryBuffer.isVerticesNeedUpdate() 
 					|| this.geometryBuffer.isColorsNeedUpdate() )
 			{
-				((GeometryBuffer)geometryBuffer).setDirectBuffers( renderer.getGL(), BufferUsage.DYNAMIC_DRAW, !geometryBuffer.isDynamic() );
+				((GeometryBuffer)geometryBuffer).setDirectBuffers( renderer, BufferUsage.DYNAMIC_DRAW, !geometryBuffer.isDynamic() );
 			}
 
 			this.getGeometryBuffer().setVerticesNeedUpdate(false);
@@ -184,10 +184,16 @@ public class ParticleSystem extends GeometryObject
 		}
 	}
 
+	@Override
+	public boolean isBuffersUpdateWatched()
+	{
+		// Particles are sorted by the depth every frame
+		return this.sortParticles || super.isBuffersUpdateWatched();
+	}
+
 	// setParticleBuffers
 	public void setBuffers (WebGLRenderer renderer, BufferUsage hint) 
 	{
-		WebGLRenderingContext gl = renderer.getGL();
 		List<Vector3> vertices = geometry.getVertices();
 
 		List<Color> colors = geometry.getColors();
@@ -446,14 +452,14 @@ public class ParticleSystem extends GeometryObject
 
 		if ( dirtyVertices || this.sortParticles ) 
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometry.__webglVertexBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, geometry.getWebGlVertexArray(), hint );
+			renderer.getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometry.__webglVertexBuffer );
+			renderer.getGLState().bufferData( BufferTarget.ARRAY_BUFFER, geometry.getWebGlVertexArray(), hint );
 		}
 
 		if ( dirtyColors || this.sortParticles ) 
 		{
-			gl.bindBuffer( BufferTarget.ARRAY_BUFFER, geometry.__webglColorBuffer );
-			gl.bufferData( BufferTarget.ARRAY_BUFFER, geometry.getWebGlColorArray(), hint );
+			renderer.getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, geometry.__webglColorBuffer );
+			renderer.getGLState().bufferData( BufferTarget.ARRAY_BUFFER, geometry.getWebGlColorArray(), hint );
 		}
 
 		if ( customAttributes != null ) 
@@ -464,8 +470,8 @@ public class ParticleSystem extends GeometryObject
 
 				if ( customAttribute.needsUpdate || this.sortParticles ) 
 				{
-					gl.bindBuffer( BufferTarget.ARRAY_BUFFER, customAttribute.buffer );
-					gl.bufferData( BufferTarget.ARRAY_BUFFER, customAttribute.array, hint );
+					renderer.getGLState().bindBuffer( BufferTarget.ARRAY_BUFFER, customAttribute.buffer );
+					renderer.getGLState().bufferData( BufferTarget.ARRAY_BUFFER, customAttribute.array, hint );
 				}
 			}
 		}
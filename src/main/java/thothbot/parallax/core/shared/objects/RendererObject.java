@@ -18,6 +18,11 @@
 
 package thothbot.parallax.core.shared.objects;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import thothbot.parallax.core.client.shaders.Shader;
 import thothbot.parallax.core.shared.core.GeometryBuffer;
 import thothbot.parallax.core.shared.core.GeometryGroup;
 import thothbot.parallax.core.shared.materials.Material;
@@ -34,6 +39,44 @@ public class RendererObject implements Comparable<RendererObject>
 	// render depth
 	public double z;
 
+	// opaque pass state sort key
+	public int programId;
+	public int materialId;
+	public int bufferId;
+
+	// The render in which the object was put to the opaque and transparent lists
+	public int opaqueStamp;
+	public int transparentStamp;
+
+	// The material of the last unroll
+	private Material cache_material;
+	private boolean cache_isTransparent;
+
+	/**
+	 * Sorts opaque objects by GPU state: program first, then material, 
+	 * then geometry buffer and finally front-to-back by depth. This keeps 
+	 * objects sharing a program and material together so 
+	 * {@link thothbot.parallax.core.client.renderers.WebGLRenderer} does 
+	 * not need to switch programs and re-upload uniforms between them.
+	 */
+	public static final Comparator<RendererObject> STATE_ORDER = new Comparator<RendererObject>() {
+
+		@Override
+		public int compare(RendererObject a, RendererObject b) 
+		{
+			if ( a.programId != b.programId )
+				return a.programId < b.programId ? -1 : 1;
+
+			if ( a.materialId != b.materialId )
+				return a.materialId < b.materialId ? -1 : 1;
+
+			if ( a.bufferId != b.bufferId )
+				return a.bufferId < b.bufferId ? -1 : 1;
+
+			return (a.z == b.z) ? 0 : (a.z < b.z) ? -1 : 1;
+		}
+	};
+
 	public RendererObject(GeometryBuffer buffer, GeometryObject object, Material opaque, Material transparent) 
 	{
 		this.buffer = buffer;
@@ -42,53 +85,136 @@ public class RendererObject implements Comparable<RendererObject>
 		this.transparent = transparent;
 	}
 	
+	/**
+	 * Resolves the opaque or the transparent material of the buffer. 
+	 * The result is cached until the resolved material, for example a material 
+	 * of the {@link MeshFaceMaterial} geometry, or its transparency is changed.
+	 */
 	public void unrollBufferMaterial() 
 	{
-		Material meshMaterial = object.getMaterial();
+		Material material = object.getMaterial();
 
-		if ( meshMaterial instanceof MeshFaceMaterial ) 
+		if ( material instanceof MeshFaceMaterial ) 
 		{
 			int materialIndex = ((GeometryGroup)buffer).materialIndex;
 
-			if ( materialIndex >= 0 ) 
-			{
-				Material material = object.getGeometry().getMaterials().get( materialIndex );
+			material = ( materialIndex >= 0 ) ? object.getGeometry().getMaterials().get( materialIndex ) : null;
+		}
 
-				if ( material.isTransparent() ) 
-				{
-					transparent = material;
-					opaque = null;
-					
-				} 
-				else 
-				{
-					opaque = material;
-					transparent = null;
-				}
-			}
+		if ( material == this.cache_material && material != null 
+				&& material.isTransparent() == this.cache_isTransparent )
+			return;
+
+		this.cache_material = material;
+
+		if ( material == null )
+			return;
+
+		this.cache_isTransparent = material.isTransparent();
+
+		if ( material.isTransparent() ) 
+		{
+			transparent = material;
+			opaque = null;
 		} 
 		else 
 		{
+			opaque = material;
+			transparent = null;
+		}
+	}
+	
+	/**
+	 * Updates state sort key from the opaque material. Should be called 
+	 * after {@link #unrollBufferMaterial()}.
+	 */
+	public void updateSortKey()
+	{
+		this.bufferId = buffer.getId();
 
-			Material material = meshMaterial;
+		if ( opaque != null )
+		{
+			Shader shader = opaque.getShader();
+			this.programId = shader != null ? shader.getId() : -1;
+			this.materialId = opaque.getId();
+		}
+		else
+		{
+			this.programId = -1;
+			this.materialId = -1;
+		}
+	}
+
+	/**
+	 * Removes objects which were not put to the render list in the render 
+	 * with the given stamp. The rest keep their order, so the list stays 
+	 * sorted as in the previous render.
+	 */
+	public static void retain(List<RendererObject> list, int stamp, boolean isTransparent)
+	{
+		int size = 0;
+
+		for ( int i = 0, il = list.size(); i < il; i++ )
+		{
+			RendererObject object = list.get( i );
+
+			if ( ( isTransparent ? object.transparentStamp : object.opaqueStamp ) == stamp )
+				list.set( size++, object );
+		}
+
+		for ( int i = list.size() - 1; i >= size; i-- )
+			list.remove( i );
+	}
 
-			if ( material != null) 
+	/**
+	 * Sorts the render list in place. The list keeps the previous render's 
+	 * order, see {@link #retain(List, int, boolean)}, and it changes a little 
+	 * from frame to frame, so the insertion sort is almost linear and does 
+	 * not allocate. If the list is far from sorted, for example on the first 
+	 * frame, it falls back to {@link Collections#sort(List, Comparator)}.
+	 */
+	public static void sort(List<RendererObject> list, Comparator<RendererObject> comparator)
+	{
+		int maxShifts = list.size() * 8;
+		int shifts = 0;
+
+		for ( int i = 1, il = list.size(); i < il; i++ )
+		{
+			RendererObject object = list.get( i );
+			int j = i - 1;
+
+			while ( j >= 0 && comparator.compare( list.get( j ), object ) > 0 )
 			{
-				if ( material.isTransparent() ) 
-				{
-					transparent = material;
-					opaque = null;
+				list.set( j + 1, list.get( j ) );
+				j--;
 
-				} 
-				else 
+				if ( ++shifts > maxShifts )
 				{
-					opaque = material;
-					transparent = null;
+					list.set( j + 1, object );
+					Collections.sort( list, comparator );
+					return;
 				}
 			}
+
+			list.set( j + 1, object );
 		}
 	}
-	
+
+	/**
+	 * The natural back-to-front order as a comparator, for {@link #sort(List, Comparator)}.
+	 */
+	public static final Comparator<RendererObject> DEPTH_ORDER = new Comparator<RendererObject>() {
+
+		@Override
+		public int compare(RendererObject a, RendererObject b) 
+		{
+			return a.compareTo( b );
+		}
+	};
+
+	/**
+	 * Back-to-front depth order, used for transparent objects.
+	 */
 	@Override
 	public int compareTo(RendererObject o)
 	{
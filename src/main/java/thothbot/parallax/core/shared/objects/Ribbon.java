@@ -21,7 +21,7 @@ package thothbot.parallax.core.shared.objects;
 import java.util.List;
 
 import thothbot.parallax.core.client.gl2.WebGLConstants;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.enums.BeginMode;
 import thothbot.parallax.core.client.gl2.enums.BufferTarget;
@@ -55,7 +55,7 @@ public class Ribbon extends GeometryObject
 	@Override
 	public void renderBuffer(WebGLRenderer renderer, GeometryBuffer geometryBuffer, boolean updateBuffers)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 		
 		gl.drawArrays( BeginMode.TRIANGLE_STRIP, 0, geometryBuffer.__webglVertexCount );
@@ -79,7 +79,7 @@ public class Ribbon extends GeometryObject
 	
 	private void createBuffers(WebGLRenderer renderer, Geometry geometry)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
+		WebGLContext gl = renderer.getGL();
 		WebGlRendererInfo info = renderer.getInfo();
 		
 		geometry.__webglVertexBuffer =  gl.createBuffer();
@@ -88,7 +88,7 @@ public class Ribbon extends GeometryObject
 		info.getMemory().geometries ++;
 	}
 	
-	private void initBuffers(WebGLRenderingContext gl, Geometry geometry)
+	private void initBuffers(WebGLContext gl, Geometry geometry)
 	{
 		int nvertices = geometry.getVertices().size();
 
@@ -101,8 +101,6 @@ public class Ribbon extends GeometryObject
 	// setRibbonBuffers
 	public void setBuffers(WebGLRenderer renderer, Geometry geometry, BufferUsage hint)
 	{
-		WebGLRenderingContext gl = renderer.getGL();
-		
 		List<Vector3> vertices = geometry.getVertices();
 		List<Color> colors = geometry.getColors();
 
@@ -122,8 +120,8 @@ public class Ribbon extends GeometryObject
 				geometry.getWebGlVertexArray().set(offset + 2, vertex.getZ());
 			}
 
-			gl.bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglVertexBuffer);
-			gl.bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlVertexArray(), hint);
+			renderer.getGLState().bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglVertexBuffer);
+			renderer.getGLState().bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlVertexArray(), hint);
 		}
 
 		if (dirtyColors) 
@@ -141,8 +139,8 @@ public class Ribbon extends GeometryObject
 
 			}
 
-			gl.bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglColorBuffer);
-			gl.bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlColorArray(), hint);
+			renderer.getGLState().bindBuffer(BufferTarget.ARRAY_BUFFER, geometry.__webglColorBuffer);
+			renderer.getGLState().bufferData(BufferTarget.ARRAY_BUFFER, geometry.getWebGlColorArray(), hint);
 		}
 	}
 }
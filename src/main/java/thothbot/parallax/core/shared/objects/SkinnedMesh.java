@@ -53,7 +53,7 @@ public class SkinnedMesh extends Mesh
 		this.identityMatrix = new Matrix4();
 
 		this.bones = new ArrayList<Bone>();
-		this.boneMatrices = (Float32Array) Float32Array.createArray();
+		this.boneMatrices = Float32Array.createArray();
 
 		// TODO: FIX
 //		if ( this.geometry.bones != null ) {
@@ -123,6 +123,12 @@ public class SkinnedMesh extends Mesh
 		updateMatrixWorld( true );
 	}
 
+	@Override
+	public boolean hasCustomMatrixWorldUpdate()
+	{
+		return true;
+	}
+
 	public void updateMatrixWorld( boolean force ) 
 	{
 		if(this.matrixAutoUpdate)
@@ -138,6 +144,7 @@ public class SkinnedMesh extends Mesh
 				this.matrixWorld.copy( this.matrix );
 
 			this.matrixWorldNeedsUpdate = false;
+			increaseMatrixWorldVersion();
 
 			force = true;
 		}
@@ -19,16 +19,20 @@
 package thothbot.parallax.core.shared.scenes;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import thothbot.parallax.core.client.renderers.WebGLRenderer;
-import thothbot.parallax.core.shared.Log;
 import thothbot.parallax.core.shared.cameras.Camera;
 import thothbot.parallax.core.shared.core.Geometry;
 import thothbot.parallax.core.shared.core.GeometryBuffer;
 import thothbot.parallax.core.shared.core.GeometryGroup;
 import thothbot.parallax.core.shared.lights.Light;
 import thothbot.parallax.core.shared.materials.Material;
+import thothbot.parallax.core.shared.materials.MeshFaceMaterial;
 import thothbot.parallax.core.shared.objects.Bone;
 import thothbot.parallax.core.shared.objects.DimensionalObject;
 import thothbot.parallax.core.shared.objects.GeometryObject;
@@ -38,6 +42,7 @@ import thothbot.parallax.core.shared.objects.Object3D;
 import thothbot.parallax.core.shared.objects.ParticleSystem;
 import thothbot.parallax.core.shared.objects.RendererObject;
 import thothbot.parallax.core.shared.objects.Ribbon;
+import thothbot.parallax.core.shared.trace.Trace;
 
 /**
  * 3D Scene. The basic class for rendering.
@@ -71,6 +76,33 @@ public final class Scene extends Object3D
 
 	public List<RendererObject> __webglObjects;	
 
+	// Positions in the lists above, so the items are found and 
+	// removed in constant time. Removal moves the last item into 
+	// the freed position.
+	private Map<DimensionalObject, Integer> cache_objectIndices;
+	private Map<Light, Integer> cache_lightIndices;
+	private Map<RendererObject, Integer> cache_webglObjectIndices;
+	private Map<GeometryObject, List<RendererObject>> cache_webglObjectsByObject;
+
+	// Objects which buffers should be updated in the next frame. They are 
+	// queued by their geometries, when a needs update flag is raised.
+	private List<GeometryObject> objectsToUpdate;
+	private Set<GeometryObject> cache_objectsToUpdate;
+	// Objects which buffers are checked every frame, see GeometryObject.isBuffersUpdateWatched()
+	private List<GeometryObject> objectsWatched;
+	private Map<GeometryObject, Integer> cache_objectsWatchedIndices;
+	private Map<GeometryBuffer, List<GeometryObject>> cache_objectsByGeometry;
+	private Map<GeometryBuffer, Map<GeometryObject, Integer>> cache_objectIndicesByGeometry;
+	private Map<GeometryObject, GeometryBuffer> cache_geometryByObject;
+	private GeometryBuffer.NeedsUpdateListener needsUpdateListener;
+	// Objects are queued by their materials too, as custom attributes 
+	// can make the object watched
+	private Map<Material, List<GeometryObject>> cache_objectsByMaterial;
+	private Map<Material, Map<GeometryObject, Integer>> cache_objectIndicesByMaterial;
+	private Map<GeometryObject, List<Material>> cache_materialsByObject;
+	private Material.NeedsUpdateListener materialNeedsUpdateListener;
+	private GeometryObject.ChangeListener objectChangeListener;
+
 	public Material overrideMaterial;
 
 	/**
@@ -82,6 +114,11 @@ public final class Scene extends Object3D
 	 * Here is stored fogAbstract
 	 */
 	private FogAbstract fogAbstract;
+
+	private TransformStore transformStore;
+
+	// Increased by every change of the scene items
+	private int version;
 	
 	/**
 	 * This default constructor will create new Scene instance.
@@ -96,10 +133,84 @@ public final class Scene extends Object3D
 		this.objectsRemoved = new ArrayList<DimensionalObject>();
 		
 		this.__webglObjects = new ArrayList<RendererObject>();
+
+		this.cache_objectIndices = new HashMap<DimensionalObject, Integer>();
+		this.cache_lightIndices = new HashMap<Light, Integer>();
+		this.cache_webglObjectIndices = new HashMap<RendererObject, Integer>();
+		this.cache_webglObjectsByObject = new HashMap<GeometryObject, List<RendererObject>>();
+
+		this.objectsToUpdate = new ArrayList<GeometryObject>();
+		this.cache_objectsToUpdate = new HashSet<GeometryObject>();
+		this.objectsWatched = new ArrayList<GeometryObject>();
+		this.cache_objectsWatchedIndices = new HashMap<GeometryObject, Integer>();
+		this.cache_objectsByGeometry = new HashMap<GeometryBuffer, List<GeometryObject>>();
+		this.cache_objectIndicesByGeometry = new HashMap<GeometryBuffer, Map<GeometryObject, Integer>>();
+		this.cache_geometryByObject = new HashMap<GeometryObject, GeometryBuffer>();
+		this.cache_objectsByMaterial = new HashMap<Material, List<GeometryObject>>();
+		this.cache_objectIndicesByMaterial = new HashMap<Material, Map<GeometryObject, Integer>>();
+		this.cache_materialsByObject = new HashMap<GeometryObject, List<Material>>();
+
+		this.needsUpdateListener = new GeometryBuffer.NeedsUpdateListener() {
+
+			@Override
+			public void onNeedsUpdate(GeometryBuffer geometry) 
+			{
+				List<GeometryObject> objects = cache_objectsByGeometry.get( geometry );
+				if ( objects == null )
+					return;
+
+				for ( int i = 0, il = objects.size(); i < il; i++ )
+					queueUpdate( objects.get( i ) );
+			}
+		};
+
+		this.materialNeedsUpdateListener = new Material.NeedsUpdateListener() {
+
+			@Override
+			public void onNeedsUpdate(Material material) 
+			{
+				List<GeometryObject> objects = cache_objectsByMaterial.get( material );
+				if ( objects == null )
+					return;
+
+				for ( int i = 0, il = objects.size(); i < il; i++ )
+					queueUpdate( objects.get( i ) );
+			}
+		};
+
+		this.objectChangeListener = new GeometryObject.ChangeListener() {
+
+			@Override
+			public void onGeometryChanged(GeometryObject object) 
+			{
+				if ( ! object.isWebglActive )
+					return;
+
+				// Buffers of the new geometry are created as for the new object
+				removeObject( object );
+				object.isWebglInit = false;
+				objectsAdded.add( object );
+			}
+
+			@Override
+			public void onMaterialChanged(GeometryObject object) 
+			{
+				if ( cache_materialsByObject.containsKey( object ) )
+				{
+					unwatchMaterials( object );
+					watchMaterials( object );
+				}
+
+				queueUpdate( object );
+			}
+		};
 	}
 
 	/**
-	 * Get DimensionalObject associated with the Scene.
+	 * Get DimensionalObject associated with the Scene. The list should not 
+	 * be modified directly, use {@link #addSceneItem(DimensionalObject)} and
+	 * {@link #removeSceneItem(DimensionalObject)}. The order of objects 
+	 * changes when an object is removed.
 	 * 
 	 * @return the list of DimensionalObject
 	 */
@@ -148,6 +259,57 @@ public final class Scene extends Object3D
 		return this.objectsRemoved;
 	}
 	
+	/**
+	 * Gets the version which is increased by every change of the scene 
+	 * items: transforms, visibility and the tree itself. Changes of the 
+	 * shared resources, like materials and textures, and of the objects 
+	 * outside of scenes are counted by {@link thothbot.parallax.core.shared.core.ChangeTracker}.
+	 */
+	public int getVersion()
+	{
+		return this.version;
+	}
+
+	public void increaseVersion()
+	{
+		this.version++;
+	}
+
+	/**
+	 * Gets the {@link TransformStore} of the scene, or null if it is not enabled.
+	 */
+	public TransformStore getTransformStore()
+	{
+		return this.transformStore;
+	}
+
+	/**
+	 * Enables keeping matrices of all objects of the scene in the 
+	 * {@link TransformStore}, which updates world matrices in one linear pass. 
+	 * It is useful for large scene graphs. Default is false.
+	 */
+	public void enableTransformStore(boolean enabled)
+	{
+		if ( enabled && this.transformStore == null )
+		{
+			this.transformStore = new TransformStore(this);
+		}
+		else if ( !enabled && this.transformStore != null )
+		{
+			this.transformStore.dispose();
+			this.transformStore = null;
+		}
+	}
+
+	@Override
+	public void updateMatrixWorld(boolean force)
+	{
+		if ( this.transformStore != null )
+			this.transformStore.update(force);
+		else
+			super.updateMatrixWorld(force);
+	}
+
 	/**
 	 * Set the fogAbstract to the Scene.
 	 * 
@@ -165,18 +327,31 @@ public final class Scene extends Object3D
 	 */
 	public <E extends DimensionalObject> void addSceneItem(E child)
 	{
+		if ( this.transformStore != null )
+			this.transformStore.setOrderNeedsUpdate();
+
+		if (child instanceof Object3D)
+			((Object3D)child).setScene(this);
+
 		if (child instanceof Light)
 		{
 			Light light = (Light)child;
-			if (this.lights.indexOf(light) == -1)
+			if (!this.cache_lightIndices.containsKey(light))
+			{
+				this.cache_lightIndices.put(light, this.lights.size());
 				this.lights.add(light);
+			}
 		}
 		else if (!(child instanceof Camera || child instanceof Bone)) 
 		{
-			if (this.objects.indexOf(child) == -1) 
+			if (!this.cache_objectIndices.containsKey(child)) 
 			{
+				this.cache_objectIndices.put(child, this.objects.size());
 				this.objects.add(child);
 				this.objectsAdded.add(child);
+
+				if (child instanceof GeometryObject)
+					((GeometryObject)child).addChangeListener(this.objectChangeListener);
 			}
 		}
 
@@ -191,17 +366,27 @@ public final class Scene extends Object3D
 	 */
 	public <E extends DimensionalObject> void removeSceneItem(E child)
 	{
+		if ( this.transformStore != null )
+			this.transformStore.setOrderNeedsUpdate();
+
+		if (child instanceof Object3D && ((Object3D)child).getScene() == this)
+			((Object3D)child).setScene(null);
+
 		if (child instanceof Light)
 		{
 			Light light = (Light)child;
-			if (this.lights.indexOf(light) != -1)
-				this.lights.remove(light);
+			if (this.cache_lightIndices.containsKey(light))
+				swapRemove(this.lights, this.cache_lightIndices, light);
 		}
 		else if (!(child instanceof Camera || child instanceof Bone))
 		{
-			if (this.objects.indexOf(child) != -1){
-				this.objects.remove(child);
+			if (this.cache_objectIndices.containsKey(child))
+			{
+				swapRemove(this.objects, this.cache_objectIndices, child);
 				this.objectsRemoved.add(child);
+
+				if (child instanceof GeometryObject)
+					((GeometryObject)child).removeChangeListener(this.objectChangeListener);
 			}
 		}
 		
@@ -210,34 +395,100 @@ public final class Scene extends Object3D
 	}
 	
 	/**
-	 * Refresh Scene's objects
+	 * Refresh Scene's objects. Buffers are updated only for the objects 
+	 * which geometries were changed since the previous call, and for 
+	 * the objects which should be checked every frame, see 
+	 * {@link GeometryObject#isBuffersUpdateWatched()}.
 	 * 
 	 * @param renderer the renderer instance
 	 */
 	public void initWebGLObjects(WebGLRenderer renderer) 
 	{
-		Log.debug("initWebGLObjects() objectsAdded=" + getObjectsAdded().size() 
-				+ ", objectsRemoved=" + getObjectsRemoved().size() 
-				+ ", update=" + this.__webglObjects.size());
+		Trace.begin("Scene.initWebGLObjects");
+		Trace.count("Scene.objectsAdded", getObjectsAdded().size());
+		Trace.count("Scene.objectsRemoved", getObjectsRemoved().size());
+		Trace.count("Scene.objectsWatched", this.objectsWatched.size());
 		
-		while ( getObjectsAdded().size() > 0 ) 
+		for ( int i = 0; i < getObjectsAdded().size(); i++ ) 
 		{
 			// object.createBuffer()->initBuffer(), + __webglObject
-			addObject( renderer, (Object3D) getObjectsAdded().get( 0 ) );
-			getObjectsAdded().remove(0);
+			addObject( renderer, (Object3D) getObjectsAdded().get( i ) );
 		}
+		getObjectsAdded().clear();
 
-		while ( getObjectsRemoved().size() > 0 ) 
+		for ( int i = 0; i < getObjectsRemoved().size(); i++ ) 
 		{
-			removeObject( (Object3D) getObjectsRemoved().get( 0 ) );
-			getObjectsRemoved().remove(0);
+			removeObject( (Object3D) getObjectsRemoved().get( i ) );
+		}
+		getObjectsRemoved().clear();
+
+		for ( int i = 0, il = this.objectsWatched.size(); i < il; i++ )
+		{
+			queueUpdate( this.objectsWatched.get( i ) );
 		}
 
 		// update must be called after objects adding / removal
-		for(RendererObject object: this.__webglObjects)
+		for ( int i = 0; i < this.objectsToUpdate.size(); i++ )
+		{
+			GeometryObject object = this.objectsToUpdate.get( i );
+
+			// The object could be removed after it was queued
+			if ( ! object.isWebglActive )
+				continue;
+
+			object.setBuffer(renderer);
+
+			boolean isWatched = this.cache_objectsWatchedIndices.containsKey( object );
+			if ( object.isBuffersUpdateWatched() != isWatched )
+			{
+				if ( isWatched )
+					swapRemove( this.objectsWatched, this.cache_objectsWatchedIndices, object );
+				else
+				{
+					this.cache_objectsWatchedIndices.put( object, this.objectsWatched.size() );
+					this.objectsWatched.add( object );
+				}
+			}
+		}
+
+		Trace.count("Scene.objectsUpdated", this.objectsToUpdate.size());
+
+		this.objectsToUpdate.clear();
+		this.cache_objectsToUpdate.clear();
+
+		Trace.end("Scene.initWebGLObjects");
+	}
+
+	private void queueUpdate(GeometryObject object)
+	{
+		if ( this.cache_objectsToUpdate.add( object ) )
+			this.objectsToUpdate.add( object );
+	}
+
+	/*
+	 * The geometry which flags are checked in GeometryObject.setBuffer()
+	 */
+	private static GeometryBuffer getUpdatedGeometry(GeometryObject object)
+	{
+		return object.getGeometryBuffer() != null ? object.getGeometryBuffer() : object.getGeometry();
+	}
+
+	/*
+	 * Removes the item by moving the last item of the list into its place.
+	 */
+	private static <T> void swapRemove(List<T> list, Map<T, Integer> indices, T item)
+	{
+		int index = indices.remove(item);
+		int last = list.size() - 1;
+
+		if ( index != last )
 		{
-			object.object.setBuffer(renderer);
-		}			
+			T lastItem = list.get( last );
+			list.set( index, lastItem );
+			indices.put( lastItem, index );
+		}
+
+		list.remove( last );
 	}
 	
 	/**
@@ -245,13 +496,10 @@ public final class Scene extends Object3D
 	 */
 	private void addObject ( WebGLRenderer renderer, Object3D object )
 	{
-		Log.debug("addObject() object=" + object.getClass().getName());
-
 		if ( object instanceof GeometryObject && ! object.isWebglInit ) 
 		{
 			object.isWebglInit = true;
 
-			Log.debug("addObject() initBuffer()");
 			((GeometryObject)object).initBuffer(renderer);
 		}
 
@@ -259,7 +507,6 @@ public final class Scene extends Object3D
 		{
 			object.isWebglActive = true;
 
-			Log.debug("addObject() addObjectAddBuffer()");
 			addObjectAddBuffer( object );
 		}
 	}
@@ -271,9 +518,15 @@ public final class Scene extends Object3D
 	{
 		if ( object instanceof GeometryObject) 
 		{
-			for ( int o = this.__webglObjects.size() - 1; o >= 0; o -- )
-				if ( this.__webglObjects.get( o ).object == object )
-					this.__webglObjects.remove(o);
+			List<RendererObject> webglObjects = this.cache_webglObjectsByObject.remove( object );
+
+			if ( webglObjects != null )
+			{
+				for ( int o = 0, ol = webglObjects.size(); o < ol; o ++ )
+					swapRemove( this.__webglObjects, this.cache_webglObjectIndices, webglObjects.get( o ) );
+
+				unwatchGeometry( (GeometryObject) object );
+			}
 		}
 
 		object.isWebglActive = false;
@@ -323,6 +576,128 @@ public final class Scene extends Object3D
 	
 	private void addBuffer (GeometryBuffer buffer, GeometryObject object ) 
 	{
-		this.__webglObjects.add(new RendererObject(buffer, object, null, null));
+		RendererObject webglObject = new RendererObject(buffer, object, null, null);
+
+		List<RendererObject> webglObjects = this.cache_webglObjectsByObject.get( object );
+		if ( webglObjects == null )
+		{
+			webglObjects = new ArrayList<RendererObject>();
+			this.cache_webglObjectsByObject.put( object, webglObjects );
+		}
+		webglObjects.add( webglObject );
+
+		this.cache_webglObjectIndices.put( webglObject, this.__webglObjects.size() );
+		this.__webglObjects.add( webglObject );
+
+		if ( webglObjects.size() == 1 )
+			watchGeometry( object );
+	}
+
+	private void watchGeometry(GeometryObject object)
+	{
+		GeometryBuffer geometry = getUpdatedGeometry( object );
+		if ( geometry == null )
+			return;
+
+		List<GeometryObject> objects = this.cache_objectsByGeometry.get( geometry );
+		Map<GeometryObject, Integer> indices = this.cache_objectIndicesByGeometry.get( geometry );
+		if ( objects == null )
+		{
+			objects = new ArrayList<GeometryObject>();
+			indices = new HashMap<GeometryObject, Integer>();
+			this.cache_objectsByGeometry.put( geometry, objects );
+			this.cache_objectIndicesByGeometry.put( geometry, indices );
+			geometry.addNeedsUpdateListener( this.needsUpdateListener );
+		}
+		indices.put( object, objects.size() );
+		objects.add( object );
+		this.cache_geometryByObject.put( object, geometry );
+
+		watchMaterials( object );
+
+		// New objects are updated in the same frame
+		queueUpdate( object );
+	}
+
+	private void unwatchGeometry(GeometryObject object)
+	{
+		if ( this.cache_objectsWatchedIndices.containsKey( object ) )
+			swapRemove( this.objectsWatched, this.cache_objectsWatchedIndices, object );
+
+		unwatchMaterials( object );
+
+		// The geometry could be replaced since it was watched
+		GeometryBuffer geometry = this.cache_geometryByObject.remove( object );
+		List<GeometryObject> objects = this.cache_objectsByGeometry.get( geometry );
+		Map<GeometryObject, Integer> indices = this.cache_objectIndicesByGeometry.get( geometry );
+		if ( objects == null || ! indices.containsKey( object ) )
+			return;
+
+		swapRemove( objects, indices, object );
+		if ( objects.isEmpty() )
+		{
+			this.cache_objectsByGeometry.remove( geometry );
+			this.cache_objectIndicesByGeometry.remove( geometry );
+			geometry.removeNeedsUpdateListener( this.needsUpdateListener );
+		}
+	}
+
+	private void watchMaterials(GeometryObject object)
+	{
+		List<Material> materials = new ArrayList<Material>();
+		if ( object.getMaterial() != null )
+			materials.add( object.getMaterial() );
+
+		if ( object.getMaterial() instanceof MeshFaceMaterial 
+				&& object.getGeometry() != null && object.getGeometry().getMaterials() != null )
+			materials.addAll( object.getGeometry().getMaterials() );
+
+		for ( int i = 0, il = materials.size(); i < il; i++ )
+		{
+			Material material = materials.get( i );
+			List<GeometryObject> objects = this.cache_objectsByMaterial.get( material );
+			Map<GeometryObject, Integer> indices = this.cache_objectIndicesByMaterial.get( material );
+			if ( objects == null )
+			{
+				objects = new ArrayList<GeometryObject>();
+				indices = new HashMap<GeometryObject, Integer>();
+				this.cache_objectsByMaterial.put( material, objects );
+				this.cache_objectIndicesByMaterial.put( material, indices );
+				material.addNeedsUpdateListener( this.materialNeedsUpdateListener );
+			}
+
+			// The same material can be used by several faces
+			if ( indices.containsKey( object ) )
+				continue;
+
+			indices.put( object, objects.size() );
+			objects.add( object );
+		}
+
+		this.cache_materialsByObject.put( object, materials );
+	}
+
+	private void unwatchMaterials(GeometryObject object)
+	{
+		List<Material> materials = this.cache_materialsByObject.remove( object );
+		if ( materials == null )
+			return;
+
+		for ( int i = 0, il = materials.size(); i < il; i++ )
+		{
+			Material material = materials.get( i );
+			List<GeometryObject> objects = this.cache_objectsByMaterial.get( material );
+			Map<GeometryObject, Integer> indices = this.cache_objectIndicesByMaterial.get( material );
+			if ( objects == null || ! indices.containsKey( object ) )
+				continue;
+
+			swapRemove( objects, indices, object );
+			if ( objects.isEmpty() )
+			{
+				this.cache_objectsByMaterial.remove( material );
+				this.cache_objectIndicesByMaterial.remove( material );
+				material.removeNeedsUpdateListener( this.materialNeedsUpdateListener );
+			}
+		}
 	}
 }
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.scenes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import thothbot.parallax.core.client.gl2.arrays.Float32Array;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.objects.DimensionalObject;
+import thothbot.parallax.core.shared.objects.Object3D;
+
+/**
+ * Keeps the local and world matrices of all objects of a tree in two 
+ * contiguous arrays. Each object has its own slot in the arrays, and the 
+ * slots are visited in the depth-first order, so each parent comes before 
+ * its children and the world matrices are updated in one linear pass 
+ * instead of the recursive {@link Object3D#updateMatrixWorld(boolean)}.
+ * <p>
+ * {@link Object3D#getMatrix()} and {@link Object3D#getMatrixWorld()} of the 
+ * stored objects use views into the arrays, the matrix instances of the 
+ * objects are kept. New objects are appended to the arrays, which grow 
+ * in chunks, and the slot of a removed object is taken by the last one. 
+ * Objects removed from the tree get their own arrays back. A matrix set 
+ * by {@link Object3D#setMatrix(Matrix4)} is moved into the slot of 
+ * the object on the next update.
+ * <p>
+ * Used by {@link Scene#enableTransformStore(boolean)}.
+ * 
+ * @author thothbot
+ *
+ */
+public class TransformStore
+{
+	private static final int CHUNK_SIZE = 64;
+
+	private Object3D root;
+
+	private Float32Array localMatrices;
+	private Float32Array worldMatrices;
+	private int capacity;
+
+	// Objects by slot, and views into the arrays by slot
+	private int count;
+	private Object3D[] objects;
+	private Matrix4[] matrices;
+	private Matrix4[] matricesWorld;
+	private Float32Array[] localViews;
+	private Float32Array[] worldViews;
+	private Map<Object3D, Integer> slots;
+
+	// Slots in the depth-first order
+	private int[] order;
+	// Position in the order by slot
+	private int[] positions;
+	// Order position of the parent, -1 for the root
+	private int[] parents;
+	// Order position after the last object of the subtree
+	private int[] subtreeEnds;
+	// World matrix was updated in the current pass, by order position
+	private boolean[] updated;
+	// The slot was reached in the last rebuild, by slot
+	private int[] visited;
+	private int visitStamp;
+
+	private int[] cache_stack;
+
+	private boolean isOrderNeedsUpdate = true;
+
+	public TransformStore(Object3D root)
+	{
+		this.root = root;
+		this.slots = new HashMap<Object3D, Integer>();
+	}
+
+	/**
+	 * Gets the root of the stored tree.
+	 */
+	public Object3D getRoot() 
+	{
+		return this.root;
+	}
+
+	/**
+	 * Gets how many objects are stored.
+	 */
+	public int size()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Gets how many objects can be stored before the arrays grow.
+	 */
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * Marks that the tree was changed, so the order should be rebuilt 
+	 * before the next update.
+	 */
+	public void setOrderNeedsUpdate()
+	{
+		this.isOrderNeedsUpdate = true;
+	}
+
+	/**
+	 * Updates the local matrices which transforms were changed and 
+	 * the world matrices of the changed branches.
+	 * 
+	 * @param force update all world matrices
+	 */
+	public void update(boolean force)
+	{
+		if ( this.isOrderNeedsUpdate )
+			rebuild();
+
+		for ( int i = 0, il = this.count; i < il; i++ )
+		{
+			int slot = this.order[ i ];
+			Object3D object = this.objects[ slot ];
+			int parent = this.parents[ i ];
+			boolean isParentUpdated = parent >= 0 && this.updated[ parent ];
+
+			if ( object.getMatrix() != this.matrices[ slot ] || object.getMatrixWorld() != this.matricesWorld[ slot ] )
+				attachMatrices( slot );
+
+			if ( object.hasCustomMatrixWorldUpdate() )
+			{
+				object.updateMatrixWorld( force || isParentUpdated );
+
+				// The whole subtree is updated by the object
+				int end = this.subtreeEnds[ i ];
+				for ( int j = i; j < end; j++ )
+					this.updated[ j ] = true;
+
+				i = end - 1;
+				continue;
+			}
+
+			if ( object.isMatrixAutoUpdate() )
+				object.updateMatrixIfChanged();
+
+			boolean isUpdated = force || isParentUpdated || object.isMatrixWorldNeedsUpdate();
+
+			if ( isUpdated )
+			{
+				if ( parent < 0 )
+					object.getMatrixWorld().copy( object.getMatrix() );
+				else
+					object.getMatrixWorld().multiply( this.objects[ this.order[ parent ] ].getMatrixWorld(), object.getMatrix() );
+
+				object.setMatrixWorldNeedsUpdate( false );
+				object.increaseMatrixWorldVersion();
+			}
+
+			this.updated[ i ] = isUpdated;
+		}
+	}
+
+	/**
+	 * Gives all stored objects their own matrices back.
+	 */
+	public void dispose()
+	{
+		for ( int i = 0; i < this.count; i++ )
+			detach( i );
+
+		this.count = 0;
+		this.capacity = 0;
+		this.slots.clear();
+		this.localMatrices = null;
+		this.worldMatrices = null;
+		this.isOrderNeedsUpdate = true;
+	}
+
+	private void rebuild()
+	{
+		this.visitStamp++;
+
+		int size = collect( this.root, 0 );
+
+		// Slots of the removed objects are taken by the last ones
+		for ( int slot = this.count - 1; slot >= 0; slot-- )
+		{
+			if ( this.visited[ slot ] == this.visitStamp )
+				continue;
+
+			detach( slot );
+			this.slots.remove( this.objects[ slot ] );
+
+			int last = this.count - 1;
+			if ( slot != last )
+				move( last, slot );
+
+			this.objects[ last ] = null;
+			this.matrices[ last ] = null;
+			this.matricesWorld[ last ] = null;
+			this.count--;
+		}
+
+		computeHierarchy( size );
+
+		this.isOrderNeedsUpdate = false;
+	}
+
+	/*
+	 * Visits the subtree in the depth-first order, new objects are appended.
+	 * Returns the position after the subtree.
+	 */
+	private int collect( Object3D object, int position )
+	{
+		visit( object, position++ );
+
+		List<DimensionalObject> children = object.getChildren();
+		for ( int i = 0, il = children.size(); i < il; i++ )
+			position = collect( (Object3D) children.get( i ), position );
+
+		return position;
+	}
+
+	private void visit( Object3D object, int position )
+	{
+		Integer slot = this.slots.get( object );
+		if ( slot == null )
+			slot = append( object );
+
+		this.order[ position ] = slot;
+		this.positions[ slot ] = position;
+		this.visited[ slot ] = this.visitStamp;
+	}
+
+	private int append( Object3D object )
+	{
+		if ( this.count == this.capacity )
+			grow();
+
+		int slot = this.count++;
+		this.objects[ slot ] = object;
+		this.slots.put( object, slot );
+		attachMatrices( slot );
+
+		return slot;
+	}
+
+	/*
+	 * Copies the values of the object matrices into the slot and makes them 
+	 * use the views of the slot.
+	 */
+	private void attachMatrices( int slot )
+	{
+		Object3D object = this.objects[ slot ];
+
+		if ( this.matrices[ slot ] != null && this.matrices[ slot ] != object.getMatrix() )
+			this.matrices[ slot ].setArray( copy( this.localViews[ slot ], Float32Array.create( 16 ) ) );
+
+		if ( this.matricesWorld[ slot ] != null && this.matricesWorld[ slot ] != object.getMatrixWorld() )
+			this.matricesWorld[ slot ].setArray( copy( this.worldViews[ slot ], Float32Array.create( 16 ) ) );
+
+		this.matrices[ slot ] = object.getMatrix();
+		this.matricesWorld[ slot ] = object.getMatrixWorld();
+
+		this.matrices[ slot ].setArray( copy( this.matrices[ slot ].getArray(), this.localViews[ slot ] ) );
+		this.matricesWorld[ slot ].setArray( copy( this.matricesWorld[ slot ].getArray(), this.worldViews[ slot ] ) );
+	}
+
+	/*
+	 * Moves the object from one slot to another, the order is kept.
+	 */
+	private void move( int from, int to )
+	{
+		Object3D object = this.objects[ from ];
+
+		this.objects[ to ] = object;
+		this.matrices[ to ] = this.matrices[ from ].setArray( copy( this.localViews[ from ], this.localViews[ to ] ) );
+		this.matricesWorld[ to ] = this.matricesWorld[ from ].setArray( copy( this.worldViews[ from ], this.worldViews[ to ] ) );
+
+		this.slots.put( object, to );
+
+		int position = this.positions[ from ];
+		this.order[ position ] = to;
+		this.positions[ to ] = position;
+		this.visited[ to ] = this.visited[ from ];
+	}
+
+	/*
+	 * Gives the matrices of the slot their own arrays.
+	 */
+	private void detach( int slot )
+	{
+		this.matrices[ slot ].setArray( copy( this.localViews[ slot ], Float32Array.create( 16 ) ) );
+		this.matricesWorld[ slot ].setArray( copy( this.worldViews[ slot ], Float32Array.create( 16 ) ) );
+	}
+
+	private void grow()
+	{
+		int capacity = this.capacity + Math.max( CHUNK_SIZE, this.capacity / 2 / CHUNK_SIZE * CHUNK_SIZE );
+
+		Float32Array localMatrices = Float32Array.create( capacity * 16 );
+		Float32Array worldMatrices = Float32Array.create( capacity * 16 );
+		Float32Array[] localViews = new Float32Array[ capacity ];
+		Float32Array[] worldViews = new Float32Array[ capacity ];
+
+		for ( int i = 0; i < capacity; i++ )
+		{
+			localViews[ i ] = localMatrices.subarray( i * 16, i * 16 + 16 );
+			worldViews[ i ] = worldMatrices.subarray( i * 16, i * 16 + 16 );
+		}
+
+		// The matrices are moved into the new arrays
+		for ( int i = 0; i < this.count; i++ )
+		{
+			this.matrices[ i ].setArray( copy( this.localViews[ i ], localViews[ i ] ) );
+			this.matricesWorld[ i ].setArray( copy( this.worldViews[ i ], worldViews[ i ] ) );
+		}
+
+		this.localMatrices = localMatrices;
+		this.worldMatrices = worldMatrices;
+		this.localViews = localViews;
+		this.worldViews = worldViews;
+
+		this.objects = grow( this.objects, new Object3D[ capacity ] );
+		this.matrices = grow( this.matrices, new Matrix4[ capacity ] );
+		this.matricesWorld = grow( this.matricesWorld, new Matrix4[ capacity ] );
+
+		this.order = grow( this.order, capacity );
+		this.positions = grow( this.positions, capacity );
+		this.visited = grow( this.visited, capacity );
+		this.parents = new int[ capacity ];
+		this.subtreeEnds = new int[ capacity ];
+		this.updated = new boolean[ capacity ];
+		this.cache_stack = new int[ capacity ];
+
+		this.capacity = capacity;
+	}
+
+	private <T> T[] grow( T[] array, T[] target )
+	{
+		if ( array != null )
+			System.arraycopy( array, 0, target, 0, this.count );
+
+		return target;
+	}
+
+	private int[] grow( int[] array, int capacity )
+	{
+		int[] target = new int[ capacity ];
+		if ( array != null )
+			System.arraycopy( array, 0, target, 0, this.count );
+
+		return target;
+	}
+
+	private static Float32Array copy( Float32Array source, Float32Array target )
+	{
+		for ( int i = 0; i < 16; i++ )
+			target.set( i, source.get( i ) );
+
+		return target;
+	}
+
+	private void computeHierarchy( int size )
+	{
+		// Depth-first order: the subtree of an object ends where 
+		// the first object which is not its descendant is.
+		int[] stack = this.cache_stack;
+		int top = -1;
+
+		for ( int i = 0; i < size; i++ )
+		{
+			DimensionalObject parent = this.objects[ this.order[ i ] ].getParent();
+
+			while ( top >= 0 && this.objects[ this.order[ stack[ top ] ] ] != parent )
+				this.subtreeEnds[ stack[ top-- ] ] = i;
+
+			this.parents[ i ] = top >= 0 ? stack[ top ] : -1;
+			stack[ ++top ] = i;
+		}
+
+		while ( top >= 0 )
+			this.subtreeEnds[ stack[ top-- ] ] = size;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.trace;
+
+import com.google.gwt.core.shared.GWT;
+
+/**
+ * Tracing hooks for the hot paths: spans, which are opened by 
+ * {@link #begin(String)} and closed by {@link #end(String)}, and counters.
+ * The events are forwarded to the {@link TraceHandler}.
+ * <p>
+ * Tracing is disabled by default, and the calls cost nothing: the empty
+ * implementation is inlined and removed by GWT compiler. Names should be 
+ * constant strings, and any value which is expensive to compute should be 
+ * guarded by {@link #isEnabled()}. To enable tracing, set the property 
+ * in GWT configuration file:
+ * 
+ * <pre>{@code
+ * <set-property name="parallax.trace" value="enabled"/>
+ * }</pre>
+ * 
+ * @author thothbot
+ *
+ */
+public final class Trace
+{
+	private static final TraceImpl impl = GWT.isClient() 
+			? (TraceImpl) GWT.create(TraceImpl.class) : new TraceImpl();
+
+	private Trace() 
+	{
+	}
+
+	/**
+	 * Checks whether tracing is compiled in.
+	 */
+	public static boolean isEnabled()
+	{
+		return impl.isEnabled();
+	}
+
+	/**
+	 * Sets the handler which receives the tracing events. 
+	 * Does nothing if tracing is disabled.
+	 */
+	public static void setHandler(TraceHandler handler)
+	{
+		impl.setHandler(handler);
+	}
+
+	public static TraceHandler getHandler()
+	{
+		return impl.getHandler();
+	}
+
+	/**
+	 * Opens the span. Spans can be nested.
+	 */
+	public static void begin(String span)
+	{
+		impl.begin(span);
+	}
+
+	/**
+	 * Closes the span opened by {@link #begin(String)}.
+	 */
+	public static void end(String span)
+	{
+		impl.end(span);
+	}
+
+	/**
+	 * Increases the counter by one.
+	 */
+	public static void count(String counter)
+	{
+		impl.count(counter, 1);
+	}
+
+	/**
+	 * Increases the counter by the value.
+	 */
+	public static void count(String counter, int value)
+	{
+		impl.count(counter, value);
+	}
+}
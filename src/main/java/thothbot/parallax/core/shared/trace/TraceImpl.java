@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.trace;
+
+/**
+ * The disabled implementation of {@link Trace}, used by default.
+ * 
+ * @author thothbot
+ *
+ */
+public class TraceImpl
+{
+	public boolean isEnabled()
+	{
+		return false;
+	}
+
+	public void setHandler(TraceHandler handler)
+	{
+	}
+
+	public TraceHandler getHandler()
+	{
+		return null;
+	}
+
+	public void begin(String span)
+	{
+	}
+
+	public void end(String span)
+	{
+	}
+
+	public void count(String counter, int value)
+	{
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.trace;
+
+/**
+ * The enabled implementation of {@link Trace}, used when 
+ * <code>parallax.trace</code> property is <code>enabled</code>. 
+ * The events are recorded by {@link TraceRecorder} until 
+ * another handler is set.
+ * 
+ * @author thothbot
+ *
+ */
+public class TraceImplEnabled extends TraceImpl
+{
+	private TraceHandler handler = new TraceRecorder();
+
+	@Override
+	public boolean isEnabled()
+	{
+		return true;
+	}
+
+	@Override
+	public void setHandler(TraceHandler handler)
+	{
+		this.handler = handler;
+	}
+
+	@Override
+	public TraceHandler getHandler()
+	{
+		return this.handler;
+	}
+
+	@Override
+	public void begin(String span)
+	{
+		if ( this.handler != null )
+			this.handler.onBegin(span);
+	}
+
+	@Override
+	public void end(String span)
+	{
+		if ( this.handler != null )
+			this.handler.onEnd(span);
+	}
+
+	@Override
+	public void count(String counter, int value)
+	{
+		if ( this.handler != null )
+			this.handler.onCount(counter, value);
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.trace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import thothbot.parallax.core.shared.core.FastMap;
+
+import com.google.gwt.core.shared.GWT;
+
+/**
+ * The {@link TraceHandler} which sums up the spans duration and 
+ * the counters, until {@link #reset()} is called.
+ * 
+ * <pre>
+ * {@code
+ * TraceRecorder recorder = (TraceRecorder) Trace.getHandler();
+ * Log.info(recorder.toString());
+ * recorder.reset();
+ * }
+ * </pre>
+ * 
+ * @author thothbot
+ *
+ */
+public class TraceRecorder implements TraceHandler
+{
+	private static class Span
+	{
+		int calls;
+		double time;
+		double maxTime;
+	}
+
+	private Map<String, Span> spans;
+	private Map<String, Integer> counters;
+
+	// Opened spans
+	private List<String> openNames;
+	private List<Double> openTimes;
+
+	public TraceRecorder()
+	{
+		this.spans = GWT.isScript() ? 
+				new FastMap<Span>() : new HashMap<String, Span>();
+		this.counters = GWT.isScript() ? 
+				new FastMap<Integer>() : new HashMap<String, Integer>();
+
+		this.openNames = new ArrayList<String>();
+		this.openTimes = new ArrayList<Double>();
+	}
+
+	@Override
+	public void onBegin(String span)
+	{
+		this.openNames.add(span);
+		this.openTimes.add(getTime());
+	}
+
+	@Override
+	public void onEnd(String span)
+	{
+		int last = this.openNames.lastIndexOf(span);
+		if ( last < 0 )
+			return;
+
+		double time = getTime() - this.openTimes.get(last);
+
+		// Spans which were not closed are dropped
+		for ( int i = this.openNames.size() - 1; i >= last; i-- )
+		{
+			this.openNames.remove(i);
+			this.openTimes.remove(i);
+		}
+
+		Span stats = this.spans.get(span);
+		if ( stats == null )
+		{
+			stats = new Span();
+			this.spans.put(span, stats);
+		}
+
+		stats.calls++;
+		stats.time += time;
+		stats.maxTime = Math.max(stats.maxTime, time);
+	}
+
+	@Override
+	public void onCount(String counter, int value)
+	{
+		Integer count = this.counters.get(counter);
+		this.counters.put(counter, count != null ? count + value : value);
+	}
+
+	/**
+	 * Gets how many times the span was closed.
+	 */
+	public int getCalls(String span)
+	{
+		Span stats = this.spans.get(span);
+		return stats != null ? stats.calls : 0;
+	}
+
+	/**
+	 * Gets the total duration of the span in milliseconds.
+	 */
+	public double getTime(String span)
+	{
+		Span stats = this.spans.get(span);
+		return stats != null ? stats.time : 0;
+	}
+
+	/**
+	 * Gets the longest duration of the span in milliseconds.
+	 */
+	public double getMaxTime(String span)
+	{
+		Span stats = this.spans.get(span);
+		return stats != null ? stats.maxTime : 0;
+	}
+
+	public int getCounter(String counter)
+	{
+		Integer count = this.counters.get(counter);
+		return count != null ? count : 0;
+	}
+
+	public void reset()
+	{
+		this.spans.clear();
+		this.counters.clear();
+		this.openNames.clear();
+		this.openTimes.clear();
+	}
+
+	/**
+	 * Gets the current time in milliseconds. Can be overridden 
+	 * to use a more precise timer.
+	 */
+	protected double getTime()
+	{
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder();
+
+		for ( Map.Entry<String, Span> entry : this.spans.entrySet() )
+		{
+			Span stats = entry.getValue();
+			result.append(entry.getKey()).append(": calls=").append(stats.calls)
+				.append(", time=").append(stats.time)
+				.append(", max=").append(stats.maxTime).append("\n");
+		}
+
+		for ( Map.Entry<String, Integer> entry : this.counters.entrySet() )
+			result.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+
+		return result.toString();
+	}
+}
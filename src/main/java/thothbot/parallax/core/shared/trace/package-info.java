@@ -0,0 +1,6 @@
+/**
+ * Contains tracing hooks for profiling of the rendering hot paths. 
+ * The hooks are compiled away unless <code>parallax.trace</code> 
+ * deferred binding property is <code>enabled</code>.
+ */
+package thothbot.parallax.core.shared.trace;
@@ -74,6 +74,23 @@ public class GeometryUtils
 		GeometryUtils.merge(geometry1, geometry2, null, null);
 	}
 
+	/**
+	 * Merge two geometric object: first and second into the first geometry object.
+	 * The vertices of the second geometry are transformed by the matrix,
+	 * for example by the world matrix of the object which uses it.
+	 *
+	 * @param geometry1 the first geometry object
+	 * @param geometry2 the second geometry object
+	 * @param matrix    the transformation of the second geometry
+	 */
+	public static void merge( Geometry geometry1, Geometry geometry2, Matrix4 matrix )
+	{
+		Matrix4 matrixRotation = new Matrix4();
+		matrixRotation.extractRotation( matrix );
+
+		GeometryUtils.merge(geometry1, geometry2, matrix, matrixRotation);
+	}
+
 	/**
 	 * Merge two geometric object: first and second into the first geometry object.
 	 * 
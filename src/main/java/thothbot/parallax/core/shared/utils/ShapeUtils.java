@@ -24,7 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.shared.GWT;
 
 import thothbot.parallax.core.shared.Log;
 import thothbot.parallax.core.shared.core.FastMap;
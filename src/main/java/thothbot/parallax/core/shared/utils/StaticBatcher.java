@@ -0,0 +1,427 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import thothbot.parallax.core.shared.Log;
+import thothbot.parallax.core.shared.core.Face3;
+import thothbot.parallax.core.shared.core.Face4;
+import thothbot.parallax.core.shared.core.Geometry;
+import thothbot.parallax.core.shared.core.Raycaster;
+import thothbot.parallax.core.shared.materials.Material;
+import thothbot.parallax.core.shared.materials.MeshFaceMaterial;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.math.Vector2;
+import thothbot.parallax.core.shared.math.Vector3;
+import thothbot.parallax.core.shared.objects.DimensionalObject;
+import thothbot.parallax.core.shared.objects.Mesh;
+
+/**
+ * Static batching: merges non-moving {@link Mesh} objects which share
+ * the same material into a few batch meshes, so they can be rendered
+ * by a few draw calls instead of one draw call per object.
+ * <p>
+ * The world matrices of the source objects are baked into the merged
+ * geometries, so the source objects must not be moved after batching.
+ * Every batch is limited by {@link #getMaxVertices()} vertices, which
+ * is the limit of the Uint16 index buffer by default.
+ * <p>
+ * Each batch keeps the range of faces and vertices of every source
+ * object, which can be used to find the source object of a picked face
+ * or to hide and show single source objects.
+ * 
+ * <pre>
+ * {@code
+ * StaticBatcher batcher = new StaticBatcher();
+ * batcher.batch( scene );
+ * ...
+ * Mesh source = batcher.getSource( intersect );
+ * batcher.setVisible( source, false );
+ * }
+ * </pre>
+ * 
+ * @author thothbot
+ *
+ */
+public class StaticBatcher
+{
+	/**
+	 * The maximum amount of vertices which can be indexed by Uint16 index buffer.
+	 */
+	public static final int MAX_VERTICES = 65535;
+
+	/**
+	 * The faces and vertices of the source object in the batch geometry.
+	 */
+	public static class Range
+	{
+		private Mesh source;
+		private Matrix4 matrix;
+		private int faceOffset;
+		private int faceCount;
+		private int vertexOffset;
+		private int vertexCount;
+		private boolean isVisible = true;
+
+		public Range(Mesh source, Matrix4 matrix, int faceOffset, int faceCount, int vertexOffset, int vertexCount)
+		{
+			this.source = source;
+			this.matrix = matrix;
+			this.faceOffset = faceOffset;
+			this.faceCount = faceCount;
+			this.vertexOffset = vertexOffset;
+			this.vertexCount = vertexCount;
+		}
+
+		/**
+		 * Gets the source object of the range.
+		 */
+		public Mesh getSource() {
+			return this.source;
+		}
+
+		/**
+		 * Gets the matrix which was baked into the vertices of the range.
+		 */
+		public Matrix4 getMatrix() {
+			return this.matrix;
+		}
+
+		public int getFaceOffset() {
+			return this.faceOffset;
+		}
+
+		public int getFaceCount() {
+			return this.faceCount;
+		}
+
+		public int getVertexOffset() {
+			return this.vertexOffset;
+		}
+
+		public int getVertexCount() {
+			return this.vertexCount;
+		}
+
+		public boolean isVisible() {
+			return this.isVisible;
+		}
+	}
+
+	/**
+	 * The batch mesh and the ranges of its source objects.
+	 */
+	public static class Batch
+	{
+		private Mesh mesh;
+		private Material material;
+		private Geometry geometry;
+		private List<Range> ranges;
+
+		// Amount of the vertices sent to the graphic card
+		private int bufferVertices;
+
+		public Batch(Material material)
+		{
+			this.material = material;
+			this.geometry = new Geometry();
+			this.ranges = new ArrayList<Range>();
+		}
+
+		public Mesh getMesh() {
+			return this.mesh;
+		}
+
+		public Material getMaterial() {
+			return this.material;
+		}
+
+		public Geometry getGeometry() {
+			return this.geometry;
+		}
+
+		public List<Range> getRanges() {
+			return this.ranges;
+		}
+
+		/**
+		 * Gets the range which contains the face of the batch geometry.
+		 * 
+		 * @param faceIndex the index of the face in the batch geometry.
+		 * 
+		 * @return the range or null if there is no such face.
+		 */
+		public Range getRange(int faceIndex)
+		{
+			int low = 0;
+			int high = this.ranges.size() - 1;
+
+			while ( low <= high ) 
+			{
+				int middle = (low + high) >>> 1;
+				Range range = this.ranges.get( middle );
+
+				if ( faceIndex < range.faceOffset )
+					high = middle - 1;
+
+				else if ( faceIndex >= range.faceOffset + range.faceCount )
+					low = middle + 1;
+
+				else
+					return range;
+			}
+
+			return null;
+		}
+
+		private void add(Mesh source, Matrix4 matrix, int vertices)
+		{
+			int faceOffset = this.geometry.getFaces().size();
+			int vertexOffset = this.geometry.getVertices().size();
+
+			GeometryUtils.merge( this.geometry, source.getGeometry(), matrix );
+
+			// Faces and uvs must stay in sync, even if the source geometry has no uvs
+			List<Face3> faces = this.geometry.getFaces();
+			List<List<Vector2>> uvs = this.geometry.getFaceVertexUvs().get( 0 );
+			for ( int i = uvs.size(), il = faces.size(); i < il; i++ )
+			{
+				int corners = ( faces.get( i ) instanceof Face4 ) ? 4 : 3;
+
+				List<Vector2> faceUvs = new ArrayList<Vector2>( corners );
+				for ( int j = 0; j < corners; j++ )
+					faceUvs.add( new Vector2() );
+
+				uvs.add( faceUvs );
+			}
+
+			this.ranges.add( new Range( source, matrix, 
+					faceOffset, this.geometry.getFaces().size() - faceOffset, 
+					vertexOffset, this.geometry.getVertices().size() - vertexOffset ) );
+
+			this.bufferVertices += vertices;
+		}
+
+		private void setVisible(Range range, boolean isVisible)
+		{
+			if ( range.isVisible == isVisible )
+				return;
+
+			List<Vector3> vertices = this.geometry.getVertices();
+			List<Vector3> sourceVertices = range.source.getGeometry().getVertices();
+
+			for ( int i = 0; i < range.vertexCount; i++ ) 
+			{
+				Vector3 vertex = vertices.get( range.vertexOffset + i );
+
+				// Hidden faces are collapsed into the degenerate ones
+				if ( isVisible )
+					range.matrix.multiplyVector3( vertex.copy( sourceVertices.get( i ) ) );
+				else
+					vertex.set( 0, 0, 0 );
+			}
+
+			range.isVisible = isVisible;
+			this.geometry.setVerticesNeedUpdate( range.vertexOffset, range.vertexCount );
+		}
+	}
+
+	private int maxVertices = MAX_VERTICES;
+	private List<Batch> batches;
+	private Map<Mesh, Batch> sourceBatches;
+	private Map<Mesh, Range> sourceRanges;
+	private Map<Mesh, Batch> meshBatches;
+
+	public StaticBatcher()
+	{
+		this.batches = new ArrayList<Batch>();
+		this.sourceBatches = new HashMap<Mesh, Batch>();
+		this.sourceRanges = new HashMap<Mesh, Range>();
+		this.meshBatches = new HashMap<Mesh, Batch>();
+	}
+
+	/**
+	 * Gets the maximum amount of vertices in one batch.
+	 */
+	public int getMaxVertices() {
+		return this.maxVertices;
+	}
+
+	/**
+	 * Sets the maximum amount of vertices in one batch. The default
+	 * value is {@link #MAX_VERTICES}. When 32-bit indices are supported
+	 * it can be raised up to {@link thothbot.parallax.core.client.renderers.WebGLRenderer#getMaxIndexedVertices()}.
+	 */
+	public void setMaxVertices(int maxVertices) {
+		this.maxVertices = maxVertices;
+	}
+
+	/**
+	 * Gets all batches created by the batcher.
+	 */
+	public List<Batch> getBatches() {
+		return this.batches;
+	}
+
+	/**
+	 * Merges all static {@link Mesh} objects in the subtree of the root object
+	 * into batch meshes. The source objects are removed from their parents and 
+	 * the batch meshes are added to the root object.
+	 * <p>
+	 * Only visible plain {@link Mesh} objects without children and morph targets
+	 * and with a single material are batched, other objects are left as is.
+	 * Hidden objects are not merged, so they do not take vertices of the batch.
+	 * 
+	 * @param root the root object of the subtree, for example the Scene.
+	 * 
+	 * @return the list of the new batches.
+	 */
+	public List<Batch> batch(DimensionalObject root)
+	{
+		root.updateMatrixWorld( true );
+
+		Matrix4 matrixRootInverse = new Matrix4().getInverse( root.getMatrixWorld() );
+
+		Map<Material, Batch> openBatches = new LinkedHashMap<Material, Batch>();
+		List<Batch> retval = new ArrayList<Batch>();
+
+		for ( DimensionalObject object : root.getDescendants() ) 
+		{
+			if ( !isBatchable( object ) )
+				continue;
+
+			Mesh source = (Mesh) object;
+			Material material = source.getMaterial();
+			int vertices = getBufferVertices( source.getGeometry() );
+
+			Batch batch = openBatches.get( material );
+			if ( batch == null || batch.bufferVertices + vertices > this.maxVertices ) 
+			{
+				batch = new Batch( material );
+				openBatches.put( material, batch );
+				retval.add( batch );
+			}
+
+			// The batch mesh is added to the root, so vertices are baked in the root space
+			Matrix4 matrix = new Matrix4().multiply( matrixRootInverse, source.getMatrixWorld() );
+			batch.add( source, matrix, vertices );
+
+			this.sourceBatches.put( source, batch );
+			this.sourceRanges.put( source, batch.ranges.get( batch.ranges.size() - 1 ) );
+		}
+
+		for ( Batch batch : retval ) 
+		{
+			for ( Range range : batch.ranges )
+				range.source.getParent().remove( range.source );
+
+			batch.geometry.computeBoundingSphere();
+			batch.mesh = new Mesh( batch.geometry, batch.material );
+			root.add( batch.mesh );
+
+			this.meshBatches.put( batch.mesh, batch );
+		}
+
+		this.batches.addAll( retval );
+
+		Log.info("StaticBatcher: " + this.sourceBatches.size() + " objects merged into " + this.batches.size() + " batches");
+
+		return retval;
+	}
+
+	/**
+	 * Gets the batch which contains the source object.
+	 * 
+	 * @return the batch or null if the object was not batched.
+	 */
+	public Batch getBatch(Mesh source)
+	{
+		return this.sourceBatches.get( source );
+	}
+
+	/**
+	 * Gets the source object of the face picked by {@link Raycaster}.
+	 * 
+	 * @return the source object or null if the intersected object is not a batch.
+	 */
+	public Mesh getSource(Raycaster.Intersect intersect)
+	{
+		Batch batch = this.meshBatches.get( intersect.object );
+
+		if ( batch == null )
+			return null;
+
+		Range range = batch.getRange( intersect.faceIndex );
+
+		return range != null ? range.source : null;
+	}
+
+	/**
+	 * Checks if the batched source object is visible.
+	 */
+	public boolean isVisible(Mesh source)
+	{
+		Range range = this.sourceRanges.get( source );
+		return range != null && range.isVisible;
+	}
+
+	/**
+	 * Hides or shows the batched source object. The faces of the hidden 
+	 * objects are collapsed in the batch geometry.
+	 */
+	public void setVisible(Mesh source, boolean isVisible)
+	{
+		Batch batch = this.sourceBatches.get( source );
+
+		if ( batch != null )
+			batch.setVisible( this.sourceRanges.get( source ), isVisible );
+	}
+
+	private boolean isBatchable(DimensionalObject object)
+	{
+		if ( object.getClass() != Mesh.class || !object.getChildren().isEmpty() )
+			return false;
+
+		Mesh mesh = (Mesh) object;
+
+		return mesh.isVisible()
+				&& mesh.getGeometry() != null 
+				&& mesh.getGeometry().getMorphTargets().isEmpty()
+				&& mesh.getMaterial() != null
+				&& !(mesh.getMaterial() instanceof MeshFaceMaterial);
+	}
+
+	/*
+	 * Faces are not indexed in the buffers, so every face has its own vertices.
+	 */
+	private int getBufferVertices(Geometry geometry)
+	{
+		int vertices = 0;
+
+		for ( Face3 face : geometry.getFaces() )
+			vertices += ( face instanceof Face4 ) ? 4 : 3;
+
+		return vertices;
+	}
+}
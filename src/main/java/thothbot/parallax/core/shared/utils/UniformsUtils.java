@@ -21,7 +21,7 @@ package thothbot.parallax.core.shared.utils;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.shared.GWT;
 
 import thothbot.parallax.core.client.shaders.Uniform;
 import thothbot.parallax.core.shared.core.FastMap;
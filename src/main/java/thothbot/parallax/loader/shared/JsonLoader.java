@@ -70,10 +70,29 @@ import com.google.web.bindery.autobean.shared.AutoBeanCodex;
 public class JsonLoader extends Loader 
 {
 
+	private JsoObjectFactory factory;
+
 	private JsoObject object;
 	private Geometry geometry;
 	
 	private List<Material> materials;
+
+	public JsonLoader()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates the loader which decodes models by the given factory.
+	 * It is used outside of the browser, where the factory can be created 
+	 * by AutoBeanFactorySource instead of GWT.create().
+	 * 
+	 * @param factory the {@link JsoObjectFactory} or null to use the default one
+	 */
+	public JsonLoader(JsoObjectFactory factory)
+	{
+		this.factory = factory;
+	}
 	
 	@Override
 	public void parse(String string) 
@@ -121,7 +140,8 @@ public class JsonLoader extends Loader
 	
 	private boolean isThisJsonStringValid(String iJSonString) 
 	{ 
-		JsoObjectFactory factory = GWT.create(JsoObjectFactory.class);
+		if(this.factory == null)
+			this.factory = GWT.create(JsoObjectFactory.class);
 
 		try 
 		{
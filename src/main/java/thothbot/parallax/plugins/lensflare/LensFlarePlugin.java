@@ -25,7 +25,7 @@ import java.util.Map;
 
 import thothbot.parallax.core.client.gl2.WebGLBuffer;
 import thothbot.parallax.core.client.gl2.WebGLConstants;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.WebGLTexture;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.arrays.Uint16Array;
@@ -40,6 +40,7 @@ import thothbot.parallax.core.client.gl2.enums.PixelType;
 import thothbot.parallax.core.client.gl2.enums.TextureParameterName;
 import thothbot.parallax.core.client.gl2.enums.TextureTarget;
 import thothbot.parallax.core.client.gl2.enums.TextureUnit;
+import thothbot.parallax.core.client.renderers.GLStateCache;
 import thothbot.parallax.core.client.renderers.Plugin;
 import thothbot.parallax.core.client.renderers.WebGLRenderer;
 import thothbot.parallax.core.client.shaders.Attribute;
@@ -83,7 +84,8 @@ public final class LensFlarePlugin extends Plugin
 		
 		this.lensFlare = new LensFlareGeometry();
 		
-		WebGLRenderingContext gl = getRenderer().getGL();
+		WebGLContext gl = getRenderer().getGL();
+		GLStateCache glState = getRenderer().getGLState();
 
 		lensFlare.vertices = Float32Array.create( 8 + 8 );
 		lensFlare.faces = Uint16Array.create( 6 );
@@ -110,25 +112,25 @@ public final class LensFlarePlugin extends Plugin
 		lensFlare.vertexBuffer     = gl.createBuffer();
 		lensFlare.elementBuffer    = gl.createBuffer();
 
-		gl.bindBuffer( BufferTarget.ARRAY_BUFFER, lensFlare.vertexBuffer );
-		gl.bufferData( BufferTarget.ARRAY_BUFFER, lensFlare.vertices, BufferUsage.STATIC_DRAW );
+		glState.bindBuffer( BufferTarget.ARRAY_BUFFER, lensFlare.vertexBuffer );
+		glState.bufferData( BufferTarget.ARRAY_BUFFER, lensFlare.vertices, BufferUsage.STATIC_DRAW );
 
-		gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, lensFlare.elementBuffer );
-		gl.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, lensFlare.faces, BufferUsage.STATIC_DRAW );
+		glState.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, lensFlare.elementBuffer );
+		glState.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, lensFlare.faces, BufferUsage.STATIC_DRAW );
 
 		// textures
 
 		lensFlare.tempTexture      = gl.createTexture();
 		lensFlare.occlusionTexture = gl.createTexture();
 
-		gl.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.tempTexture );
+		glState.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.tempTexture );
 		gl.texImage2D( TextureTarget.TEXTURE_2D, 0, 16, 16, 0, PixelFormat.RGB, PixelType.UNSIGNED_BYTE, null );
 		gl.texParameteri( TextureTarget.TEXTURE_2D, TextureParameterName.TEXTURE_WRAP_S, WebGLConstants.CLAMP_TO_EDGE );
 		gl.texParameteri( TextureTarget.TEXTURE_2D, TextureParameterName.TEXTURE_WRAP_T, WebGLConstants.CLAMP_TO_EDGE );
 		gl.texParameteri( TextureTarget.TEXTURE_2D, TextureParameterName.TEXTURE_MAG_FILTER, WebGLConstants.NEAREST );
 		gl.texParameteri( TextureTarget.TEXTURE_2D, TextureParameterName.TEXTURE_MIN_FILTER, WebGLConstants.NEAREST );
 
-		gl.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.occlusionTexture );
+		glState.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.occlusionTexture );
 		gl.texImage2D( TextureTarget.TEXTURE_2D, 0, 16, 16, 0, PixelFormat.RGBA, PixelType.UNSIGNED_BYTE, null );
 		gl.texParameteri( TextureTarget.TEXTURE_2D, TextureParameterName.TEXTURE_WRAP_S, WebGLConstants.CLAMP_TO_EDGE );
 		gl.texParameteri( TextureTarget.TEXTURE_2D, TextureParameterName.TEXTURE_WRAP_T, WebGLConstants.CLAMP_TO_EDGE );
@@ -186,7 +188,8 @@ public final class LensFlarePlugin extends Plugin
 
 		if ( nFlares == 0 ) return;
 
-		WebGLRenderingContext gl = getRenderer().getGL();
+		WebGLContext gl = getRenderer().getGL();
+		GLStateCache glState = getRenderer().getGLState();
 
 		Vector3 tempPosition = new Vector3();
 
@@ -205,12 +208,12 @@ public final class LensFlarePlugin extends Plugin
 
 		// set _lensFlare program and reset blending
 
-		gl.useProgram( lensFlare.shader.getProgram() );
+		glState.useProgram( lensFlare.shader.getProgram() );
 
 		if ( ! lensFlare.attributesEnabled ) 
 		{
-			gl.enableVertexAttribArray( attributesLocation.get("position") );
-			gl.enableVertexAttribArray( attributesLocation.get("uv") );
+			glState.enableVertexAttribArray( attributesLocation.get("position") );
+			glState.enableVertexAttribArray( attributesLocation.get("uv") );
 
 			lensFlare.attributesEnabled = true;
 		}
@@ -221,14 +224,14 @@ public final class LensFlarePlugin extends Plugin
 		gl.uniform1i( uniforms.get("occlusionMap").getLocation(), 0 );
 		gl.uniform1i( uniforms.get("map").getLocation(), 1 );
 
-		gl.bindBuffer( BufferTarget.ARRAY_BUFFER, lensFlare.vertexBuffer );
-		gl.vertexAttribPointer( attributesLocation.get("position"), 2, DataType.FLOAT, false, 2 * 8, 0 );
-		gl.vertexAttribPointer( attributesLocation.get("uv"), 2, DataType.FLOAT, false, 2 * 8, 8 );
+		glState.bindBuffer( BufferTarget.ARRAY_BUFFER, lensFlare.vertexBuffer );
+		glState.vertexAttribPointer( attributesLocation.get("position"), 2, DataType.FLOAT, false, 2 * 8, 0 );
+		glState.vertexAttribPointer( attributesLocation.get("uv"), 2, DataType.FLOAT, false, 2 * 8, 8 );
 
-		gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, lensFlare.elementBuffer );
+		glState.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, lensFlare.elementBuffer );
 
-		gl.disable( EnableCap.CULL_FACE );
-		gl.depthMask( false );
+		glState.disable( EnableCap.CULL_FACE );
+		glState.depthMask( false );
 
 		for ( int i = 0; i < nFlares; i ++ ) 
 		{
@@ -265,8 +268,8 @@ public final class LensFlarePlugin extends Plugin
 
 				// save current RGB to temp texture
 
-				gl.activeTexture( TextureUnit.TEXTURE1 );
-				gl.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.tempTexture );
+				glState.activeTexture( TextureUnit.TEXTURE1 );
+				glState.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.tempTexture );
 				gl.copyTexImage2D( TextureTarget.TEXTURE_2D, 0, PixelFormat.RGB, (int)screenPositionPixels.getX() - 8, (int)screenPositionPixels.getY() - 8, 16, 16, 0 );
 
 				// render pink quad
@@ -275,24 +278,24 @@ public final class LensFlarePlugin extends Plugin
 				gl.uniform2f( uniforms.get("scale").getLocation(), scale.getX(), scale.getY() );
 				gl.uniform3f( uniforms.get("screenPosition").getLocation(), screenPosition.getX(), screenPosition.getY(), screenPosition.getZ() );
 
-				gl.disable( EnableCap.BLEND );
-				gl.enable( EnableCap.DEPTH_TEST );
+				glState.disable( EnableCap.BLEND );
+				glState.enable( EnableCap.DEPTH_TEST );
 
 				gl.drawElements( BeginMode.TRIANGLES, 6, DrawElementsType.UNSIGNED_SHORT, 0 );
 
 				// copy result to occlusionMap
 
-				gl.activeTexture( TextureUnit.TEXTURE0 );
-				gl.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.occlusionTexture );
+				glState.activeTexture( TextureUnit.TEXTURE0 );
+				glState.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.occlusionTexture );
 				gl.copyTexImage2D( TextureTarget.TEXTURE_2D, 0, PixelFormat.RGBA, (int)screenPositionPixels.getX() - 8, (int)screenPositionPixels.getY() - 8, 16, 16, 0 );
 
 				// restore graphics
 
 				gl.uniform1i( uniforms.get("renderType").getLocation(), 1 );
-				gl.disable( EnableCap.DEPTH_TEST );
+				glState.disable( EnableCap.DEPTH_TEST );
 
-				gl.activeTexture( TextureUnit.TEXTURE1 );
-				gl.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.tempTexture );
+				glState.activeTexture( TextureUnit.TEXTURE1 );
+				glState.bindTexture( TextureTarget.TEXTURE_2D, lensFlare.tempTexture );
 				gl.drawElements( BeginMode.TRIANGLES, 6, DrawElementsType.UNSIGNED_SHORT, 0 );
 
 				// update object positions
@@ -304,7 +307,7 @@ public final class LensFlarePlugin extends Plugin
 				// render flares
 
 				gl.uniform1i( uniforms.get("renderType").getLocation(), 2 );
-				gl.enable( EnableCap.BLEND );
+				glState.enable( EnableCap.BLEND );
 
 				for ( int j = 0, jl = flare.getLensFlares().size(); j < jl; j ++ ) 
 				{
@@ -340,8 +343,8 @@ public final class LensFlarePlugin extends Plugin
 
 		// restore gl
 
-		gl.enable( EnableCap.CULL_FACE );
-		gl.enable( EnableCap.DEPTH_TEST );
-		gl.depthMask( true );
+		glState.enable( EnableCap.CULL_FACE );
+		glState.enable( EnableCap.DEPTH_TEST );
+		glState.depthMask( true );
 	}
 }
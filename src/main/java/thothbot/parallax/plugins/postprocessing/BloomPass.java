@@ -91,7 +91,7 @@ public class BloomPass extends Pass
 	public void render(Postprocessing postprocessing, double delta, boolean maskActive)
 	{
 		if ( maskActive ) 
-			postprocessing.getRenderer().getGL().disable( EnableCap.STENCIL_TEST );
+			postprocessing.getRenderer().getGLState().disable( EnableCap.STENCIL_TEST );
 
 		// Render quad with blured scene into texture (convolution pass 1)
 		postprocessing.getQuad().setMaterial(this.materialConvolution);
@@ -116,7 +116,7 @@ public class BloomPass extends Pass
 		this.materialScreen.getShader().getUniforms().get("tDiffuse").setValue( this.renderTargetY );
 
 		if ( maskActive ) 
-			postprocessing.getRenderer().getGL().enable( EnableCap.STENCIL_TEST );
+			postprocessing.getRenderer().getGLState().enable( EnableCap.STENCIL_TEST );
 
 		postprocessing.getRenderer().render( 
 				postprocessing.getScene(), postprocessing.getCamera(), postprocessing.getReadBuffer(), this.clear );
@@ -31,6 +31,6 @@ public class ClearMaskPass extends Pass
 	@Override
 	public void render(Postprocessing postprocessing, double delta, boolean maskActive ) 
 	{
-		postprocessing.getRenderer().getGL().disable( EnableCap.STENCIL_TEST );
+		postprocessing.getRenderer().getGLState().disable( EnableCap.STENCIL_TEST );
 	}
 }
\ No newline at end of file
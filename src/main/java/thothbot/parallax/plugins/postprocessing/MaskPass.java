@@ -47,8 +47,8 @@ public class MaskPass extends Pass
 	public void render (Postprocessing ecffectComposer, double delta, boolean maskActive) 
 	{
 		// don't update color or depth
-		ecffectComposer.getRenderer().getGL().colorMask( false, false, false, false );
-		ecffectComposer.getRenderer().getGL().depthMask( false );
+		ecffectComposer.getRenderer().getGLState().colorMask( false, false, false, false );
+		ecffectComposer.getRenderer().getGLState().depthMask( false );
 
 		// set up stencil
 
@@ -65,9 +65,9 @@ public class MaskPass extends Pass
 			clearValue = 0;
 		}
 
-		ecffectComposer.getRenderer().getGL().enable( EnableCap.STENCIL_TEST );
-		ecffectComposer.getRenderer().getGL().stencilOp( StencilOp.REPLACE, StencilOp.REPLACE, StencilOp.REPLACE );
-		ecffectComposer.getRenderer().getGL().stencilFunc( StencilFunction.ALWAYS, writeValue, 0xffffffff );
+		ecffectComposer.getRenderer().getGLState().enable( EnableCap.STENCIL_TEST );
+		ecffectComposer.getRenderer().getGLState().stencilOp( StencilOp.REPLACE, StencilOp.REPLACE, StencilOp.REPLACE );
+		ecffectComposer.getRenderer().getGLState().stencilFunc( StencilFunction.ALWAYS, writeValue, 0xffffffff );
 		ecffectComposer.getRenderer().getGL().clearStencil( clearValue );
 
 		// draw into the stencil buffer
@@ -75,12 +75,12 @@ public class MaskPass extends Pass
 		ecffectComposer.getRenderer().render( this.scene, this.camera, ecffectComposer.getWriteBuffer(), this.clear );
 
 		// re-enable update of color and depth
-		ecffectComposer.getRenderer().getGL().colorMask( true, true, true, true );
-		ecffectComposer.getRenderer().getGL().depthMask( true );
+		ecffectComposer.getRenderer().getGLState().colorMask( true, true, true, true );
+		ecffectComposer.getRenderer().getGLState().depthMask( true );
 
 		// only render where stencil is set to 1
-		ecffectComposer.getRenderer().getGL().stencilFunc( StencilFunction.EQUAL, 1, 0xffffffff );  // draw if == 1
-		ecffectComposer.getRenderer().getGL().stencilOp( StencilOp.KEEP, StencilOp.KEEP, StencilOp.KEEP );
+		ecffectComposer.getRenderer().getGLState().stencilFunc( StencilFunction.EQUAL, 1, 0xffffffff );  // draw if == 1
+		ecffectComposer.getRenderer().getGLState().stencilOp( StencilOp.KEEP, StencilOp.KEEP, StencilOp.KEEP );
 	}
 	
 	@Override
@@ -78,6 +78,8 @@ public class Sprite extends Object3D implements Comparable<Sprite>
 	private double opacity = 1.0;
 	
 	private double rotationFactor;
+	// rotationFactor which the matrix was composed with
+	private double cache_rotationFactor;
 	
 	private double z;
 	
@@ -225,11 +227,19 @@ public class Sprite extends Object3D implements Comparable<Sprite>
 		this.z = z;
 	}
 
+	@Override
+	protected boolean isLocalTransformChanged()
+	{
+		return this.rotationFactor != this.cache_rotationFactor || super.isLocalTransformChanged();
+	}
+
 	/*
 	 * Custom update matrix
 	 */
 	public void updateMatrix() 
 	{
+		this.cache_rotationFactor = this.rotationFactor;
+
 		this.matrix.setPosition( this.position );
 
 		this.rotation3d.set( 0, 0, this.rotationFactor );
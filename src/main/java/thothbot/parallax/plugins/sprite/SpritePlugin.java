@@ -24,7 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import thothbot.parallax.core.client.gl2.WebGLBuffer;
-import thothbot.parallax.core.client.gl2.WebGLRenderingContext;
+import thothbot.parallax.core.client.gl2.WebGLContext;
 import thothbot.parallax.core.client.gl2.arrays.Float32Array;
 import thothbot.parallax.core.client.gl2.arrays.Uint16Array;
 import thothbot.parallax.core.client.gl2.enums.BeginMode;
@@ -34,6 +34,7 @@ import thothbot.parallax.core.client.gl2.enums.DataType;
 import thothbot.parallax.core.client.gl2.enums.DrawElementsType;
 import thothbot.parallax.core.client.gl2.enums.EnableCap;
 import thothbot.parallax.core.client.gl2.enums.TextureUnit;
+import thothbot.parallax.core.client.renderers.GLStateCache;
 import thothbot.parallax.core.client.renderers.Plugin;
 import thothbot.parallax.core.client.renderers.WebGLRenderer;
 import thothbot.parallax.core.client.shaders.Uniform;
@@ -65,7 +66,8 @@ public final class SpritePlugin extends Plugin
 		
 		this.sprite = new SpriteGeometry();
 		
-		WebGLRenderingContext gl = getRenderer().getGL();
+		WebGLContext gl = getRenderer().getGL();
+		GLStateCache glState = getRenderer().getGLState();
 		
 		sprite.vertices = Float32Array.create( 8 + 8 );
 		sprite.faces = Uint16Array.create( 6 );
@@ -92,11 +94,11 @@ public final class SpritePlugin extends Plugin
 		sprite.vertexBuffer  = gl.createBuffer();
 		sprite.elementBuffer = gl.createBuffer();
 
-		gl.bindBuffer( BufferTarget.ARRAY_BUFFER, sprite.vertexBuffer );
-		gl.bufferData( BufferTarget.ARRAY_BUFFER, sprite.vertices, BufferUsage.STATIC_DRAW );
+		glState.bindBuffer( BufferTarget.ARRAY_BUFFER, sprite.vertexBuffer );
+		glState.bufferData( BufferTarget.ARRAY_BUFFER, sprite.vertices, BufferUsage.STATIC_DRAW );
 
-		gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, sprite.elementBuffer );
-		gl.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, sprite.faces, BufferUsage.STATIC_DRAW );
+		glState.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, sprite.elementBuffer );
+		glState.bufferData( BufferTarget.ELEMENT_ARRAY_BUFFER, sprite.faces, BufferUsage.STATIC_DRAW );
 
 		sprite.shader = new SpriteShader();
 		sprite.shader.buildProgram(gl);
@@ -126,7 +128,8 @@ public final class SpritePlugin extends Plugin
 
 		if ( nSprites == 0 ) return;
 
-		WebGLRenderingContext gl = getRenderer().getGL();
+		WebGLContext gl = getRenderer().getGL();
+		GLStateCache glState = getRenderer().getGLState();
 
 		Map<String, Uniform> uniforms = this.sprite.shader.getUniforms();
 		Map<String, Integer> attributesLocations = this.sprite.shader.getAttributesLocations();
@@ -140,29 +143,29 @@ public final class SpritePlugin extends Plugin
 
 		// setup gl
 
-		gl.useProgram( this.sprite.shader.getProgram() );
+		glState.useProgram( this.sprite.shader.getProgram() );
 
 		if ( ! sprite.attributesEnabled ) 
 		{
-			gl.enableVertexAttribArray( attributesLocations.get("position") );
-			gl.enableVertexAttribArray( attributesLocations.get("uv") );
+			glState.enableVertexAttribArray( attributesLocations.get("position") );
+			glState.enableVertexAttribArray( attributesLocations.get("uv") );
 
 			sprite.attributesEnabled = true;
 		}
 
-		gl.disable( EnableCap.CULL_FACE );
-		gl.enable( EnableCap.BLEND );
-		gl.depthMask( true );
+		glState.disable( EnableCap.CULL_FACE );
+		glState.enable( EnableCap.BLEND );
+		glState.depthMask( true );
 
-		gl.bindBuffer( BufferTarget.ARRAY_BUFFER, sprite.vertexBuffer );
-		gl.vertexAttribPointer( attributesLocations.get("position"), 2, DataType.FLOAT, false, 2 * 8, 0 );
-		gl.vertexAttribPointer( attributesLocations.get("uv"), 2, DataType.FLOAT, false, 2 * 8, 8 );
+		glState.bindBuffer( BufferTarget.ARRAY_BUFFER, sprite.vertexBuffer );
+		glState.vertexAttribPointer( attributesLocations.get("position"), 2, DataType.FLOAT, false, 2 * 8, 0 );
+		glState.vertexAttribPointer( attributesLocations.get("uv"), 2, DataType.FLOAT, false, 2 * 8, 8 );
 
-		gl.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, sprite.elementBuffer );
+		glState.bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, sprite.elementBuffer );
 
 		gl.uniformMatrix4fv( uniforms.get("projectionMatrix").getLocation(), false, camera._projectionMatrixArray );
 
-		gl.activeTexture( TextureUnit.TEXTURE0 );
+		glState.activeTexture( TextureUnit.TEXTURE0 );
 		gl.uniform1i( uniforms.get("map").getLocation(), 0 );
 
 		// update positions and sort
@@ -235,12 +238,12 @@ public final class SpritePlugin extends Plugin
 
 				if ( sprite.isMergeWith3D() && !mergeWith3D ) 
 				{
-					gl.enable( EnableCap.DEPTH_TEST );
+					glState.enable( EnableCap.DEPTH_TEST );
 					mergeWith3D = true;
 				} 
 				else if ( ! sprite.isMergeWith3D() && mergeWith3D ) 
 				{
-					gl.disable( EnableCap.DEPTH_TEST );
+					glState.disable( EnableCap.DEPTH_TEST );
 					mergeWith3D = false;
 				}
 
@@ -254,8 +257,8 @@ public final class SpritePlugin extends Plugin
 
 		// restore gl
 
-		gl.enable( EnableCap.CULL_FACE );
-		gl.enable( EnableCap.DEPTH_TEST );
-		gl.depthMask( true );
+		glState.enable( EnableCap.CULL_FACE );
+		glState.enable( EnableCap.DEPTH_TEST );
+		glState.depthMask( true );
 	}
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2;
+
+import thothbot.parallax.core.client.gl2.arrays.TypedArraysEmulation;
+import thothbot.parallax.core.client.gl2.enums.BufferTarget;
+import thothbot.parallax.core.client.gl2.enums.BufferUsage;
+import thothbot.parallax.core.client.gl2.enums.EnableCap;
+import thothbot.parallax.core.client.gl2.enums.TextureTarget;
+import thothbot.parallax.core.client.gl2.enums.TextureUnit;
+import thothbot.parallax.core.client.renderers.WebGLRenderer;
+import thothbot.parallax.core.client.shaders.Shader;
+import thothbot.parallax.core.shared.cameras.PerspectiveCamera;
+import thothbot.parallax.core.shared.core.Face3;
+import thothbot.parallax.core.shared.core.Face4;
+import thothbot.parallax.core.shared.geometries.PlaneGeometry;
+import thothbot.parallax.core.shared.materials.Material;
+import thothbot.parallax.core.shared.materials.MeshBasicMaterial;
+import thothbot.parallax.core.shared.materials.MeshNormalMaterial;
+import thothbot.parallax.core.shared.materials.ShaderMaterial;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.objects.InstancedMesh;
+import thothbot.parallax.core.shared.objects.Mesh;
+import thothbot.parallax.core.shared.scenes.Scene;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class RecordingWebGLContextTest extends GWTTestCase
+{
+	@Override
+	public String getModuleName() {
+		return "thothbot.parallax.core.Core";
+	}
+
+	@Override
+	protected void gwtSetUp() throws Exception
+	{
+		TypedArraysEmulation.install();
+	}
+
+	public void testBindings()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+
+		WebGLBuffer buffer = gl.createBuffer();
+		gl.bindBuffer(BufferTarget.ARRAY_BUFFER, buffer);
+		gl.bindBuffer(BufferTarget.ARRAY_BUFFER, buffer);
+		assertEquals(buffer, gl.getBoundBuffer(BufferTarget.ARRAY_BUFFER));
+		assertNull(gl.getBoundBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER));
+
+		WebGLTexture texture = gl.createTexture();
+		gl.activeTexture(TextureUnit.TEXTURE0, 2);
+		gl.bindTexture(TextureTarget.TEXTURE_2D, texture);
+		assertEquals(texture, gl.getBoundTexture(2));
+		assertNull(gl.getBoundTexture(0));
+
+		gl.enable(EnableCap.DEPTH_TEST);
+		gl.enable(EnableCap.DEPTH_TEST);
+		assertTrue(gl.isEnabled(EnableCap.DEPTH_TEST));
+		gl.disable(EnableCap.DEPTH_TEST);
+		assertFalse(gl.isEnabled(EnableCap.DEPTH_TEST));
+
+		assertEquals(7, gl.getStateChanges());
+		assertEquals(2, gl.getRedundantStateChanges());
+		assertEquals(2, gl.getCalls("bindBuffer"));
+		assertEquals(9, gl.getCalls());
+	}
+
+	public void testUploads()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+
+		gl.bufferData(BufferTarget.ARRAY_BUFFER, 64, BufferUsage.STATIC_DRAW);
+		gl.bufferData(BufferTarget.ELEMENT_ARRAY_BUFFER, 16, BufferUsage.DYNAMIC_DRAW);
+		assertEquals(64 + 16, gl.getUploadedBytes());
+
+		gl.reset();
+		assertEquals(0, gl.getUploadedBytes());
+		assertEquals(0, gl.getCalls());
+	}
+
+	public void testRenderer()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		// Two meshes share the material and the program
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		for ( int i = 0; i < 2; i++ )
+		{
+			Mesh mesh = new Mesh(new PlaneGeometry(10, 10), material);
+			mesh.getPosition().setX(i * 20 - 10);
+			scene.add(mesh);
+		}
+
+		scene.add(new Mesh(new PlaneGeometry(10, 10), new MeshNormalMaterial()));
+
+		renderer.render(scene, camera);
+
+		assertEquals(3, gl.getDrawCalls());
+		assertEquals(3, renderer.getInfo().getRender().calls);
+		assertEquals(2, gl.getProgramCount());
+		assertTrue(gl.getUploadedBytes() > 0);
+
+		// The second frame only draws: the buffers are not uploaded again and
+		// the program is switched once between the materials
+		gl.reset();
+		renderer.render(scene, camera);
+
+		assertEquals(3, gl.getDrawCalls());
+		assertEquals(0, gl.getUploadedBytes());
+		assertEquals(2, gl.getCalls("useProgram"));
+		assertTrue(gl.getRedundantStateChanges() < gl.getStateChanges());
+	}
+
+	public void testUniformUploads()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		scene.add(new Mesh(new PlaneGeometry(10, 10), material));
+
+		renderer.render(scene, camera);
+
+		// The same values are set again, but they are already in the program
+		gl.reset();
+		renderer.render(scene, camera);
+
+		assertEquals(0, gl.getUniformUploads("opacity"));
+		assertEquals(0, gl.getUniformUploads("diffuse"));
+
+		// The color is modified in place, the opacity is set
+		gl.reset();
+		material.getColor().setHex(0xff0000);
+		material.setOpacity(0.5);
+		renderer.render(scene, camera);
+
+		assertEquals(1, gl.getUniformUploads("opacity"));
+		assertEquals(1, gl.getUniformUploads("diffuse"));
+	}
+
+	public void testSharedProgramRebuild()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		// Same sources and parameters: the second material uses the program of the first one
+		String vertexShader = "void main() { gl_Position = vec4( position, 1.0 ); }";
+		String fragmentShader = "void main() { gl_FragColor = vec4( 1.0 ); }";
+		ShaderMaterial material1 = new ShaderMaterial(vertexShader, fragmentShader);
+		ShaderMaterial material2 = new ShaderMaterial(vertexShader, fragmentShader);
+		scene.add(new Mesh(new PlaneGeometry(10, 10), material1));
+		scene.add(new Mesh(new PlaneGeometry(10, 10), material2));
+
+		renderer.render(scene, camera);
+
+		Shader shared = material1.getShader();
+		WebGLProgram program = shared.getProgram();
+		assertSame(shared, material2.getShader());
+		assertEquals(1, gl.getProgramCount());
+
+		// The first material gets a new program, the second one keeps the old one
+		material1.setSide(Material.SIDE.DOUBLE);
+		material1.setNeedsUpdate(true);
+		renderer.render(scene, camera);
+
+		assertNotSame(shared, material1.getShader());
+		assertNotSame(program, material1.getShader().getProgram());
+		assertSame(shared, material2.getShader());
+		assertSame(program, material2.getShader().getProgram());
+		assertEquals(2, gl.getProgramCount());
+		assertEquals(0, gl.getCalls("deleteProgram"));
+
+		// The copy is keyed by the class of the material's shader: both 
+		// programs are found in the cache when the parameters change back and forth
+		Shader copy = material1.getShader();
+		gl.reset();
+
+		material1.setSide(Material.SIDE.FRONT);
+		material1.setNeedsUpdate(true);
+		renderer.render(scene, camera);
+		assertSame(shared, material1.getShader());
+
+		material1.setSide(Material.SIDE.DOUBLE);
+		material1.setNeedsUpdate(true);
+		renderer.render(scene, camera);
+		assertSame(copy, material1.getShader());
+
+		assertEquals(0, gl.getCalls("createProgram"));
+		assertEquals(2, gl.getProgramCount());
+	}
+
+	public void testVerticesDirtyRange()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		// 3x3 vertices, shared by the faces
+		PlaneGeometry geometry = new PlaneGeometry(10, 10, 2, 2);
+		scene.add(new Mesh(geometry, new MeshBasicMaterial()));
+
+		renderer.render(scene, camera);
+
+		gl.reset();
+		geometry.getVertices().get(4).setZ(1);
+		geometry.setVerticesNeedUpdate(4, 1);
+		renderer.render(scene, camera);
+
+		// Only the position of the changed vertex: 3 floats
+		assertEquals(3 * 4, gl.getUploadedBytes());
+		assertEquals(1, gl.getCalls("bufferSubData"));
+	}
+
+	public void testVerticesDirtySpans()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		// 11x11 vertices, shared by the faces
+		PlaneGeometry geometry = new PlaneGeometry(10, 10, 10, 10);
+		scene.add(new Mesh(geometry, new MeshBasicMaterial()));
+
+		renderer.render(scene, camera);
+
+		// The end of the first row and the start of the second one are 
+		// far from each other in the shared vertices
+		gl.reset();
+		geometry.getVertices().get(10).setZ(1);
+		geometry.getVertices().get(11).setZ(1);
+		geometry.setVerticesNeedUpdate(10, 2);
+		renderer.render(scene, camera);
+
+		// Two spans of one vertex each
+		assertEquals(2 * 3 * 4, gl.getUploadedBytes());
+		assertEquals(2, gl.getCalls("bufferSubData"));
+	}
+
+	public void testNormalsDirtySpans()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		PlaneGeometry geometry = new PlaneGeometry(10, 10, 10, 10);
+		scene.add(new Mesh(geometry, new MeshBasicMaterial()));
+
+		renderer.render(scene, camera);
+
+		// All corners of the moved vertices get the same new normal
+		gl.reset();
+		geometry.getVertices().get(10).setZ(1);
+		geometry.getVertices().get(11).setZ(1);
+		for ( Face3 face : geometry.getFaces() )
+		{
+			Face4 face4 = (Face4)face;
+			int[] corners = { face4.getA(), face4.getB(), face4.getC(), face4.getD() };
+			for ( int i = 0; i < 4; i++ )
+				if ( corners[ i ] == 10 || corners[ i ] == 11 )
+					face.getVertexNormals().get(i).set(0, 0.6, 0.8);
+		}
+		geometry.setVerticesNeedUpdate(10, 2);
+		geometry.setNormalsNeedUpdate(10, 2);
+		renderer.render(scene, camera);
+
+		// The faces of the moved vertices have 10 vertices, 
+		// their normals are sent by spans like the positions
+		assertEquals(0, gl.getCalls("bufferData"));
+		assertTrue(gl.getCalls("bufferSubData") > 2);
+		assertEquals(2 * 3 * 4 + 10 * 3 * 4, gl.getUploadedBytes());
+
+		// A corner which differs from the other corners of its vertex 
+		// splits the shared vertex, so the buffers are built again
+		gl.reset();
+		Face4 face = (Face4)geometry.getFaces().get(11);
+		face.getVertexNormals().get(0).set(1, 0, 0);
+		geometry.setNormalsNeedUpdate(face.getA(), 1);
+		renderer.render(scene, camera);
+
+		assertTrue(gl.getCalls("bufferData") > 0);
+	}
+
+	public void testInstancedRenderer()
+	{
+		RecordingWebGLContext gl = new RecordingWebGLContext();
+		gl.setInstancedArrays(true);
+		WebGLRenderer renderer = new WebGLRenderer(gl, 64, 64);
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera(45, 1, 1, 1000);
+		camera.getPosition().setZ(100);
+		scene.add(camera);
+
+		InstancedMesh mesh = new InstancedMesh(new PlaneGeometry(10, 10), new MeshBasicMaterial(), 3);
+		Matrix4 matrix = new Matrix4();
+		for ( int i = 0; i < 3; i++ )
+			mesh.setMatrixAt(i, matrix.makeTranslation(i * 20 - 20, 0, 0));
+		scene.add(mesh);
+
+		renderer.render(scene, camera);
+
+		assertEquals(1, gl.getDrawCalls());
+		assertEquals(1, gl.getCalls("drawElementsInstancedANGLE"));
+		// Instanced program composes the model-view matrix from the view matrix
+		assertEquals(1, gl.getUniformUploads("viewMatrix"));
+
+		// The instances attributes are reset for the next draws
+		Shader shader = mesh.getMaterial().getShader();
+		for ( int c = 0; c < 4; c++ )
+			assertFalse(gl.isVertexAttribArrayEnabled(shader.getInstanceMatrixLocation(c)));
+		assertEquals(8, gl.getCalls("vertexAttribDivisorANGLE"));
+	}
+}
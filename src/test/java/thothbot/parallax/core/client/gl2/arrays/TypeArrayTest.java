@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2.arrays;
+
+import junit.framework.TestCase;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.math.Vector3;
+
+/**
+ * Plain JUnit tests of the JVM typed arrays, they do not need the browser.
+ */
+public class TypeArrayTest extends TestCase
+{
+	public void testFloat32Array()
+	{
+		Float32Array a = Float32Array.create(1, 2.5, 3);
+		assertEquals( 3, a.getLength() );
+		assertEquals( 12, a.getByteLength() );
+		assertEquals( 2.5, a.get(1) );
+
+		a.set(0, 0.1);
+		assertEquals( (double)0.1f, a.get(0) );
+
+		Float32Array b = Float32Array.create(a);
+		b.set(2, 10);
+		assertEquals( 3.0, a.get(2) );
+		assertEquals( 10.0, b.get(2) );
+	}
+
+	public void testSubarray()
+	{
+		Float32Array a = Float32Array.create(0, 1, 2, 3, 4, 5);
+
+		Float32Array view = a.subarray(2, 4);
+		assertEquals( 2, view.getLength() );
+		assertEquals( 8, view.getByteOffset() );
+		assertSame( a.getBuffer(), view.getBuffer() );
+
+		view.set(0, 20);
+		assertEquals( 20.0, a.get(2) );
+
+		Float32Array copy = a.slice(-2);
+		assertEquals( 2, copy.getLength() );
+		assertEquals( 4.0, copy.get(0) );
+
+		copy.set(0, 40);
+		assertEquals( 4.0, a.get(4) );
+
+		assertEquals( 0, a.subarray(4, 2).getLength() );
+	}
+
+	public void testSharedBuffer()
+	{
+		ArrayBuffer buffer = ArrayBuffer.create(8);
+		Uint16Array shorts = Uint16Array.create(buffer);
+		Uint8Array bytes = Uint8Array.create(buffer, 2, 2);
+
+		assertEquals( 4, shorts.getLength() );
+
+		shorts.set(1, 0xFFFF);
+		assertEquals( 0xFFFF, shorts.get(1) );
+		assertEquals( 0xFF, bytes.get(0) );
+		assertEquals( 0xFF, bytes.get(1) );
+
+		shorts.setElement(2, 70000);
+		assertEquals( 70000 & 0xFFFF, shorts.get(2) );
+
+		// Unsigned values above 2^31 are converted as in the browser
+		Uint32Array ints = Uint32Array.create(buffer);
+		ints.set(0, 0xFFFFFFFF);
+		assertEquals( 4294967295.0, Float64Array.create(ints).get(0) );
+
+		try
+		{
+			Uint16Array.create(buffer, 1);
+			fail();
+		}
+		catch(IndexOutOfBoundsException e)
+		{
+		}
+	}
+
+	public void testCreateArray()
+	{
+		Float32Array a = Float32Array.createArray();
+		assertEquals( 0, a.getLength() );
+
+		a.set(0, 1);
+		a.set(4, 5);
+		assertEquals( 5, a.getLength() );
+		assertEquals( 1.0, a.get(0) );
+		assertEquals( 0.0, a.get(3) );
+		assertEquals( 5.0, a.get(4) );
+
+		try
+		{
+			Float32Array.create(2).set(2, 1);
+			fail();
+		}
+		catch(IndexOutOfBoundsException e)
+		{
+		}
+	}
+
+	public void testMatrix4()
+	{
+		Matrix4 m = new Matrix4().makeTranslation(1, 2, 3);
+		Vector3 v = m.multiplyVector3(new Vector3(1, 1, 1));
+
+		assertEquals( 2.0, v.getX() );
+		assertEquals( 3.0, v.getY() );
+		assertEquals( 4.0, v.getZ() );
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.gl2.arrays;
+
+/**
+ * Minimal emulation of the typed arrays for the browsers, which do not 
+ * support them, like the HtmlUnit used by the GWT tests.
+ * <p>
+ * The arrays are the plain JavaScript arrays: values are not converted to 
+ * the element type and the views created on the same {@link ArrayBuffer} 
+ * or by subarray() do not share their contents. This is enough for the 
+ * tests, which do not depend on the binary layout of the data.
+ * 
+ * @author thothbot
+ *
+ */
+public class TypedArraysEmulation
+{
+	/**
+	 * Installs the emulation, if the browser has no native typed arrays.
+	 */
+	public static native void install() /*-{
+		if ( $wnd.Float32Array )
+			return;
+
+		$wnd.ArrayBuffer = function( length ) {
+			this.byteLength = length;
+		};
+
+		var define = function( name, bytes ) {
+
+			var TypedArray = function( source, byteOffset, length ) {
+
+				var array = [];
+				var buffer = null;
+
+				if ( typeof source == "number" ) 
+				{
+					length = source;
+				}
+				else if ( source instanceof $wnd.ArrayBuffer ) 
+				{
+					buffer = source;
+					byteOffset = byteOffset || 0;
+					if ( length === undefined )
+						length = ( buffer.byteLength - byteOffset ) / bytes;
+				}
+				else 
+				{
+					for ( var i = 0; i < source.length; i++ )
+						array.push( source[ i ] );
+
+					length = source.length;
+				}
+
+				for ( var i = array.length; i < length; i++ )
+					array.push( 0 );
+
+				array.BYTES_PER_ELEMENT = bytes;
+				array.byteOffset = byteOffset || 0;
+				array.byteLength = length * bytes;
+				array.buffer = buffer || new $wnd.ArrayBuffer( array.byteLength );
+
+				array.set = function( values, offset ) {
+					offset = offset || 0;
+					for ( var i = 0; i < values.length; i++ )
+						this[ offset + i ] = values[ i ];
+				};
+
+				array.subarray = function( begin, end ) {
+					if ( end === undefined )
+						end = this.length;
+
+					return new TypedArray( this.slice( begin, end ) );
+				};
+
+				return array;
+			};
+
+			TypedArray.BYTES_PER_ELEMENT = bytes;
+			$wnd[ name ] = TypedArray;
+		};
+
+		define( "Int8Array",    1 );
+		define( "Uint8Array",   1 );
+		define( "Int16Array",   2 );
+		define( "Uint16Array",  2 );
+		define( "Int32Array",   4 );
+		define( "Uint32Array",  4 );
+		define( "Float32Array", 4 );
+		define( "Float64Array", 8 );
+	}-*/;
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.client.renderers;
+
+import thothbot.parallax.core.client.renderers.WebGlRendererInfo.STAT;
+import thothbot.parallax.core.client.renderers.WebGlRendererInfo.WebGLRenderStatWindow;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class WebGlRendererInfoTest extends GWTTestCase
+{
+	@Override
+	public String getModuleName() {
+		return "thothbot.parallax.core.Core";
+	}
+
+	public void testWindow()
+	{
+		WebGlRendererInfo info = new WebGlRendererInfo();
+		info.setWindowSize(3);
+
+		for ( int i = 1; i <= 4; i++ )
+		{
+			info.reset();
+			info.getRender().calls = i;
+			info.getTimer().draw = i * 0.5;
+			info.update();
+		}
+
+		WebGLRenderStatWindow calls = info.getWindow(STAT.CALLS);
+		assertEquals(3, calls.getCount());
+		assertEquals(2.0, calls.get(0));
+		assertEquals(4.0, calls.getLast());
+		assertEquals(2.0, calls.getMin());
+		assertEquals(4.0, calls.getMax());
+		assertEquals(3.0, calls.getAverage());
+
+		assertEquals(2.0, info.getWindow(STAT.TIME_DRAW).getLast());
+	}
+
+	public void testReset()
+	{
+		WebGlRendererInfo info = new WebGlRendererInfo();
+		info.getRender().objectsCulled = 5;
+		info.getRender().framesSkipped = 2;
+		info.getTimer().gpu = 1.5;
+
+		info.reset();
+
+		assertEquals(0.0, info.getValue(STAT.OBJECTS_CULLED));
+		assertEquals(2, info.getRender().framesSkipped);
+		// GPU time comes from previous frames
+		assertEquals(1.5, info.getValue(STAT.TIME_GPU));
+		assertEquals(0, info.getWindow(STAT.CALLS).getCount());
+	}
+}
@@ -21,6 +21,8 @@ package thothbot.parallax.core.shared.math;
 import java.util.Arrays;
 import java.util.List;
 
+import thothbot.parallax.core.client.gl2.arrays.Float32Array;
+
 import com.google.gwt.junit.client.GWTTestCase;
 
 public class Matrix4Test extends GWTTestCase 
@@ -81,6 +83,21 @@ public class Matrix4Test extends GWTTestCase
 		assertEquals( 15.0, b.getArray().get(15) );		
 	}
 
+	public void testArrayView()
+	{
+		Float32Array array = Float32Array.create(32);
+		Matrix4 a = new Matrix4( array.subarray(16, 32) );
+		a.set( 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 );
+
+		assertEquals( 0.0, array.get(0) );
+		assertEquals( 0.0, array.get(16) );
+		assertEquals( 4.0, array.get(17) );
+		assertEquals( 15.0, array.get(31) );
+
+		Matrix4 b = new Matrix4().copy( a );
+		assertTrue( matrixEquals4( a, b ));
+	}
+
 	public void testIdentity()
 	{
 		Matrix4 b = new Matrix4( 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 );
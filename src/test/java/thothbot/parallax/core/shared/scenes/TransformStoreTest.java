@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ *
+ * This file is part of Parallax project.
+ *
+ * Parallax is free software: you can redistribute it and/or modify it
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ *
+ * Parallax is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution
+ * 3.0 Unported License. for more details.
+ *
+ * You should have received a copy of the the Creative Commons Attribution
+ * 3.0 Unported License along with Parallax.
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.scenes;
+
+import junit.framework.TestCase;
+import thothbot.parallax.core.shared.math.Matrix4;
+import thothbot.parallax.core.shared.objects.Object3D;
+
+/**
+ * Plain JUnit tests of the transform store, they use the JVM typed arrays.
+ */
+public class TransformStoreTest extends TestCase
+{
+	public void testAdd()
+	{
+		Object3D root = new Object3D();
+		Object3D a = new Object3D();
+		Object3D b = new Object3D();
+		a.getPosition().setX(1);
+		b.getPosition().setY(2);
+		root.add(a);
+		a.add(b);
+
+		Matrix4 matrix = b.getMatrix();
+		TransformStore store = new TransformStore(root);
+		store.update(false);
+
+		assertEquals( 3, store.size() );
+		assertSame( matrix, b.getMatrix() );
+		assertSame( root.getMatrix().getArray().getBuffer(), b.getMatrix().getArray().getBuffer() );
+		assertEquals( 1.0, b.getMatrixWorld().getArray().get(12) );
+		assertEquals( 2.0, b.getMatrixWorld().getArray().get(13) );
+
+		// New object is appended
+		Object3D c = new Object3D();
+		c.getPosition().setZ(3);
+		b.add(c);
+		store.setOrderNeedsUpdate();
+		store.update(false);
+
+		assertEquals( 4, store.size() );
+		assertEquals( 1.0, c.getMatrixWorld().getArray().get(12) );
+		assertEquals( 3.0, c.getMatrixWorld().getArray().get(14) );
+	}
+
+	public void testRemove()
+	{
+		Object3D root = new Object3D();
+		Object3D a = new Object3D();
+		Object3D b = new Object3D();
+		Object3D c = new Object3D();
+		root.add(a);
+		root.add(b);
+		root.add(c);
+		b.getPosition().setX(2);
+
+		TransformStore store = new TransformStore(root);
+		store.update(false);
+
+		root.remove(b);
+		store.setOrderNeedsUpdate();
+		store.update(false);
+
+		assertEquals( 3, store.size() );
+		// The removed object has its own matrices with the same values
+		assertNotSame( root.getMatrix().getArray().getBuffer(), b.getMatrix().getArray().getBuffer() );
+		assertEquals( 2.0, b.getMatrixWorld().getArray().get(12) );
+
+		// The last object took the freed slot
+		c.getPosition().setX(5);
+		store.update(false);
+		assertEquals( 5.0, c.getMatrixWorld().getArray().get(12) );
+		assertSame( root.getMatrix().getArray().getBuffer(), c.getMatrix().getArray().getBuffer() );
+	}
+
+	public void testRebuild()
+	{
+		Object3D root = new Object3D();
+		Object3D first = new Object3D();
+		root.add(first);
+
+		TransformStore store = new TransformStore(root);
+		store.update(false);
+		int capacity = store.getCapacity();
+		Matrix4 matrix = first.getMatrix();
+
+		for ( int i = 0; i < 100; i++ )
+		{
+			Object3D object = new Object3D();
+			object.getPosition().setX(i);
+			root.add(object);
+		}
+
+		root.getPosition().setY(1);
+		store.setOrderNeedsUpdate();
+		store.update(false);
+
+		assertEquals( 102, store.size() );
+		assertTrue( store.getCapacity() > capacity );
+		assertSame( matrix, first.getMatrix() );
+		assertSame( root.getMatrix().getArray().getBuffer(), first.getMatrix().getArray().getBuffer() );
+
+		for ( int i = 0; i < 100; i++ )
+		{
+			Matrix4 matrixWorld = ((Object3D)root.getChildren().get( i + 1 )).getMatrixWorld();
+			assertEquals( (double)i, matrixWorld.getArray().get(12) );
+			assertEquals( 1.0, matrixWorld.getArray().get(13) );
+		}
+	}
+
+	public void testSetMatrix()
+	{
+		Object3D root = new Object3D();
+		Object3D a = new Object3D();
+		Object3D b = new Object3D();
+		root.add(a);
+		root.add(b);
+
+		TransformStore store = new TransformStore(root);
+		store.update(false);
+
+		// Not composed again while the transform of b is not changed
+		b.getMatrix().getArray().set(14, 7);
+
+		a.setMatrixAutoUpdate(false);
+		a.setMatrix(new Matrix4().makeTranslation(4, 0, 0));
+		a.setMatrixWorldNeedsUpdate(true);
+		store.update(false);
+
+		assertEquals( 4.0, a.getMatrixWorld().getArray().get(12) );
+		assertSame( root.getMatrix().getArray().getBuffer(), a.getMatrix().getArray().getBuffer() );
+		assertEquals( 7.0, b.getMatrix().getArray().get(14) );
+
+		store.dispose();
+		assertEquals( 0, store.size() );
+		assertNotSame( root.getMatrix().getArray().getBuffer(), a.getMatrix().getArray().getBuffer() );
+		assertEquals( 4.0, a.getMatrix().getArray().get(12) );
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.trace;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class TraceRecorderTest extends GWTTestCase
+{
+	@Override
+	public String getModuleName() {
+		return "thothbot.parallax.core.Core";
+	}
+
+	public void testDisabled()
+	{
+		assertFalse(Trace.isEnabled());
+		assertNull(Trace.getHandler());
+
+		Trace.setHandler(new TraceRecorder());
+		assertNull(Trace.getHandler());
+	}
+
+	public void testSpans()
+	{
+		TraceRecorder recorder = new TraceRecorder();
+
+		recorder.onBegin("render");
+		recorder.onBegin("objects");
+		recorder.onEnd("objects");
+		recorder.onBegin("objects");
+		recorder.onEnd("objects");
+		recorder.onEnd("render");
+
+		assertEquals(1, recorder.getCalls("render"));
+		assertEquals(2, recorder.getCalls("objects"));
+		assertTrue(recorder.getTime("render") >= recorder.getMaxTime("objects"));
+
+		// not opened
+		recorder.onEnd("plugins");
+		assertEquals(0, recorder.getCalls("plugins"));
+	}
+
+	public void testCounters()
+	{
+		TraceRecorder recorder = new TraceRecorder();
+
+		recorder.onCount("buffers", 1);
+		recorder.onCount("buffers", 3);
+		assertEquals(4, recorder.getCounter("buffers"));
+		assertEquals(0, recorder.getCounter("textures"));
+
+		recorder.reset();
+		assertEquals(0, recorder.getCounter("buffers"));
+	}
+}
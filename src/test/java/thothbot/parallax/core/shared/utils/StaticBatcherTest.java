@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package thothbot.parallax.core.shared.utils;
+
+import java.util.List;
+
+import thothbot.parallax.core.client.gl2.arrays.TypedArraysEmulation;
+import thothbot.parallax.core.shared.core.Face3;
+import thothbot.parallax.core.shared.core.Face4;
+import thothbot.parallax.core.shared.core.Geometry;
+import thothbot.parallax.core.shared.geometries.PlaneGeometry;
+import thothbot.parallax.core.shared.materials.MeshBasicMaterial;
+import thothbot.parallax.core.shared.math.Vector2;
+import thothbot.parallax.core.shared.math.Vector3;
+import thothbot.parallax.core.shared.objects.Mesh;
+import thothbot.parallax.core.shared.objects.Object3D;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class StaticBatcherTest extends GWTTestCase
+{
+	@Override
+	public String getModuleName() {
+		return "thothbot.parallax.core.Core";
+	}
+
+	@Override
+	protected void gwtSetUp() throws Exception
+	{
+		TypedArraysEmulation.install();
+	}
+
+	public void testTexturedMeshes()
+	{
+		MeshBasicMaterial material = new MeshBasicMaterial();
+
+		Object3D root = new Object3D();
+
+		Mesh mesh1 = new Mesh(new PlaneGeometry(10, 10, 2, 2), material);
+		root.add(mesh1);
+
+		Mesh mesh2 = new Mesh(new PlaneGeometry(10, 10, 3, 1), material);
+		mesh2.getPosition().setX(20);
+		root.add(mesh2);
+
+		// Hidden meshes are not merged
+		Mesh hidden = new Mesh(new PlaneGeometry(10, 10), material);
+		hidden.setVisible(false);
+		root.add(hidden);
+
+		List<StaticBatcher.Batch> batches = new StaticBatcher().batch(root);
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).getRanges().size());
+		assertSame(root, hidden.getParent());
+
+		Geometry geometry = batches.get(0).getGeometry();
+		assertEquals(7, geometry.getFaces().size());
+		assertEquals(geometry.getFaces().size(), geometry.getFaceVertexUvs().get(0).size());
+
+		// The uvs of the faces are not replaced by the padding
+		for ( int i = 0; i < geometry.getFaces().size(); i++ )
+			assertNotNull(geometry.getFaceVertexUvs().get(0).get(i));
+	}
+
+	public void testMeshesWithoutUvs()
+	{
+		MeshBasicMaterial material = new MeshBasicMaterial();
+
+		Object3D root = new Object3D();
+
+		Geometry plain = new Geometry();
+		plain.getVertices().add(new Vector3(0, 0, 0));
+		plain.getVertices().add(new Vector3(1, 0, 0));
+		plain.getVertices().add(new Vector3(1, 1, 0));
+		plain.getVertices().add(new Vector3(0, 1, 0));
+		plain.getFaces().add(new Face3(0, 1, 2));
+		plain.getFaces().add(new Face4(0, 1, 2, 3));
+		root.add(new Mesh(plain, material));
+
+		PlaneGeometry textured = new PlaneGeometry(10, 10, 1, 1);
+		root.add(new Mesh(textured, material));
+
+		List<StaticBatcher.Batch> batches = new StaticBatcher().batch(root);
+		assertEquals(1, batches.size());
+
+		Geometry geometry = batches.get(0).getGeometry();
+		List<List<Vector2>> uvs = geometry.getFaceVertexUvs().get(0);
+		assertEquals(3, geometry.getFaces().size());
+		assertEquals(geometry.getFaces().size(), uvs.size());
+
+		// The faces without uvs are padded with zero uvs for each corner
+		assertEquals(3, uvs.get(0).size());
+		assertEquals(4, uvs.get(1).size());
+		assertEquals(0.0, uvs.get(1).get(3).getX());
+		assertEquals(0.0, uvs.get(1).get(3).getY());
+
+		// The uvs of the textured source keep their position
+		List<Vector2> sourceUvs = textured.getFaceVertexUvs().get(0).get(0);
+		for ( int i = 0; i < sourceUvs.size(); i++ )
+		{
+			assertEquals(sourceUvs.get(i).getX(), uvs.get(2).get(i).getX());
+			assertEquals(sourceUvs.get(i).getY(), uvs.get(2).get(i).getY());
+		}
+
+		geometry.computeTangents();
+	}
+}